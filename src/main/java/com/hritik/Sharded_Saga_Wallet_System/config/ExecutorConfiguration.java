@@ -0,0 +1,112 @@
+package com.hritik.Sharded_Saga_Wallet_System.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfiguration {
+
+    /**
+     * Pool used to run sagas off the request thread (batch transfers, streaming ingestion).
+     * Its size is the upper bound on sagas executing concurrently on this node.
+     */
+    @Bean(name = "sagaExecutor")
+    public ThreadPoolTaskExecutor sagaExecutor(
+            @Value("${wallet.saga.executor.pool-size:16}") int poolSize,
+            @Value("${wallet.saga.executor.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("saga-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool for the per-shard credit fan-out inside a payout saga. Kept separate from the
+     * saga executor so a saga never waits on work queued behind other sagas.
+     */
+    @Bean(name = "payoutCreditExecutor")
+    public ThreadPoolTaskExecutor payoutCreditExecutor(
+            @Value("${wallet.payout.executor.pool-size:8}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("payout-credit-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool for background maintenance work (backfills, reconciliation) so it never competes
+     * with sagas for threads.
+     */
+    @Bean(name = "maintenanceExecutor")
+    public ThreadPoolTaskExecutor maintenanceExecutor(
+            @Value("${wallet.maintenance.executor.pool-size:4}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("maintenance-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs admin jobs started over HTTP (backfills, reconciliation). Separate from the
+     * maintenance pool because those jobs fan their work out on it and wait for it.
+     */
+    @Bean(name = "adminJobExecutor")
+    public ThreadPoolTaskExecutor adminJobExecutor(
+            @Value("${wallet.admin-jobs.executor.pool-size:2}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("admin-job-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool for cross-shard reads fanned out by the scatter-gather executor. The queue is bounded
+     * so a burst of searches is rejected instead of piling up behind slow shards.
+     */
+    @Bean(name = "scatterGatherExecutor")
+    public ThreadPoolTaskExecutor scatterGatherExecutor(
+            @Value("${wallet.scatter-gather.executor.pool-size:8}") int poolSize,
+            @Value("${wallet.scatter-gather.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("scatter-gather-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool that delivers saga status notifications to long-poll and SSE subscribers, so a slow
+     * client never holds up the saga thread that committed the transition.
+     */
+    @Bean(name = "notificationExecutor")
+    public ThreadPoolTaskExecutor notificationExecutor(
+            @Value("${wallet.notification.executor.pool-size:4}") int poolSize,
+            @Value("${wallet.notification.executor.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("saga-notify-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,9 @@
+package com.hritik.Sharded_Saga_Wallet_System.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,20 @@
+package com.hritik.Sharded_Saga_Wallet_System.config;
+
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardSchemaMigrator;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Shard migrations must finish before Hibernate builds its metadata. Spring Boot's own
+ * Flyway support is disabled because it would migrate the ShardingSphere logical data
+ * source instead of each physical shard.
+ */
+@Configuration
+public class SchemaMigrationConfiguration {
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnShardSchemaMigrator() {
+        return new EntityManagerFactoryDependsOnPostProcessor(ShardSchemaMigrator.class);
+    }
+}
@@ -0,0 +1,200 @@
+package com.hritik.Sharded_Saga_Wallet_System.controller;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.AdminJobDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.BucketMigrationReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.CacheStatsDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ConservationReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.HotKeysDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.RateLimitMetricsDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ReconciliationReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ShardHealthDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ShardTrafficReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.monitoring.MoneyConservationMonitor;
+import com.hritik.Sharded_Saga_Wallet_System.monitoring.ShardHealthMonitor;
+import com.hritik.Sharded_Saga_Wallet_System.monitoring.ShardTrafficMonitor;
+import com.hritik.Sharded_Saga_Wallet_System.ratelimit.TransferRateLimiter;
+import com.hritik.Sharded_Saga_Wallet_System.service.AdminJobService;
+import com.hritik.Sharded_Saga_Wallet_System.service.MetadataCache;
+import com.hritik.Sharded_Saga_Wallet_System.service.ReconciliationService;
+import com.hritik.Sharded_Saga_Wallet_System.service.UserEmailIndexer;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletRollupService;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletTransactionIndexer;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.BucketLayoutRegistry;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.BucketMigrationService;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardSchemaRebuildService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/admin")
+@Slf4j
+public class AdminController {
+
+    static final String JOB_TRANSACTION_INDEX_BACKFILL = "transaction-index-backfill";
+    static final String JOB_ROLLUP_BACKFILL = "rollup-backfill";
+    static final String JOB_USER_EMAIL_INDEX_BACKFILL = "user-email-index-backfill";
+    static final String JOB_SCHEMA_REBUILD = "schema-rebuild";
+
+    private final AdminJobService adminJobService;
+    private final TransferRateLimiter transferRateLimiter;
+    private final WalletTransactionIndexer walletTransactionIndexer;
+    private final WalletRollupService walletRollupService;
+    private final UserEmailIndexer userEmailIndexer;
+    private final ReconciliationService reconciliationService;
+    private final MoneyConservationMonitor moneyConservationMonitor;
+    private final BucketMigrationService bucketMigrationService;
+    private final ShardSchemaRebuildService shardSchemaRebuildService;
+    private final ShardTrafficMonitor shardTrafficMonitor;
+    private final ShardHealthMonitor shardHealthMonitor;
+    private final MetadataCache metadataCache;
+
+    @GetMapping("/rate-limits")
+    public ResponseEntity<RateLimitMetricsDTO> getRateLimitMetrics() {
+        log.info("Fetching rate limit metrics");
+
+        return ResponseEntity.ok(transferRateLimiter.getMetrics());
+    }
+
+    @PostMapping("/transaction-index/backfill")
+    public ResponseEntity<AdminJobDTO> backfillTransactionIndex(
+            @RequestParam(defaultValue = "1000") int chunkSize) {
+        log.info("Backfilling wallet transaction index in chunks of {}", chunkSize);
+
+        if (chunkSize <= 0 || chunkSize > 10_000) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and 10000");
+        }
+
+        return ResponseEntity.accepted().body(adminJobService.start(JOB_TRANSACTION_INDEX_BACKFILL,
+                () -> walletTransactionIndexer.backfillAll(chunkSize)));
+    }
+
+    @GetMapping("/jobs/{name}")
+    public ResponseEntity<AdminJobDTO> getJob(@PathVariable String name) {
+        log.info("Fetching admin job {}", name);
+
+        AdminJobDTO job = adminJobService.get(name);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/user-email-index/backfill")
+    public ResponseEntity<AdminJobDTO> backfillUserEmailIndex(
+            @RequestParam(defaultValue = "1000") int chunkSize) {
+        log.info("Backfilling user email index in chunks of {}", chunkSize);
+
+        if (chunkSize <= 0 || chunkSize > 10_000) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and 10000");
+        }
+
+        return ResponseEntity.accepted().body(adminJobService.start(JOB_USER_EMAIL_INDEX_BACKFILL,
+                () -> userEmailIndexer.backfillAll(chunkSize)));
+    }
+
+    @PostMapping("/rollups/backfill")
+    public ResponseEntity<AdminJobDTO> backfillRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Backfilling wallet rollups from {} to {}", from, to);
+
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'from' must be on or before 'to'");
+        }
+
+        return ResponseEntity.accepted().body(adminJobService.start(JOB_ROLLUP_BACKFILL,
+                () -> walletRollupService.backfill(from, to)));
+    }
+
+    @PostMapping("/reconciliation")
+    public ResponseEntity<AdminJobDTO> runReconciliation() {
+        log.info("Running balance reconciliation");
+
+        return ResponseEntity.accepted().body(reconciliationService.startReconciliation());
+    }
+
+    @PostMapping("/reconciliation/opening-balances")
+    public ResponseEntity<AdminJobDTO> recordOpeningBalances(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime recordedSince) {
+        log.info("Recording opening balances of wallets created before {}", recordedSince);
+
+        return ResponseEntity.accepted().body(reconciliationService.startOpeningBalances(recordedSince));
+    }
+
+    @GetMapping("/reconciliation")
+    public ResponseEntity<ReconciliationReportDTO> getLastReconciliation() {
+        log.info("Fetching last reconciliation report");
+
+        ReconciliationReportDTO report = reconciliationService.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/conservation")
+    public ResponseEntity<ConservationReportDTO> checkMoneyConservation() {
+        log.info("Checking money conservation");
+
+        return ResponseEntity.ok(moneyConservationMonitor.check());
+    }
+
+    @GetMapping("/buckets")
+    public ResponseEntity<Map<String, List<Integer>>> getBucketLayout() {
+        log.info("Fetching bucket layout");
+
+        return ResponseEntity.ok(BucketLayoutRegistry.current().bucketsByDataSource());
+    }
+
+    @PostMapping("/buckets/{bucket}/migrate")
+    public ResponseEntity<BucketMigrationReportDTO> migrateBucket(@PathVariable int bucket,
+                                                                  @RequestParam String target) {
+        log.info("Migrating bucket {} to {}", bucket, target);
+
+        return ResponseEntity.ok(bucketMigrationService.migrate(bucket, target));
+    }
+
+    @PostMapping("/schema/rebuild")
+    public ResponseEntity<AdminJobDTO> rebuildSchema() {
+        log.info("Rebuilding shard schemas");
+
+        return ResponseEntity.accepted().body(adminJobService.start(JOB_SCHEMA_REBUILD,
+                shardSchemaRebuildService::rebuild));
+    }
+
+    @GetMapping("/shard-traffic")
+    public ResponseEntity<ShardTrafficReportDTO> getShardTraffic() {
+        log.info("Fetching shard traffic report");
+
+        return ResponseEntity.ok(shardTrafficMonitor.getReport());
+    }
+
+    @GetMapping("/shard-traffic/hot-keys")
+    public ResponseEntity<HotKeysDTO> getHotKeys(@RequestParam(defaultValue = "20") int limit) {
+        log.info("Fetching top {} wallets and users by write rate", limit);
+
+        return ResponseEntity.ok(shardTrafficMonitor.getHotKeys(limit));
+    }
+
+    @GetMapping("/shard-health")
+    public ResponseEntity<List<ShardHealthDTO>> getShardHealth() {
+        log.info("Fetching shard bulkhead and circuit breaker state");
+
+        return ResponseEntity.ok(shardHealthMonitor.getHealth());
+    }
+
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        log.info("Fetching metadata cache statistics");
+
+        return ResponseEntity.ok(metadataCache.getStats());
+    }
+}
@@ -2,19 +2,50 @@ package com.hritik.Sharded_Saga_Wallet_System.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hritik.Sharded_Saga_Wallet_System.dto.BatchTransferRequestDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.BatchTransferResponseDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.PayoutRequestDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.PayoutResponseDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.SagaStatusDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.TransactionPageDTO;
 import com.hritik.Sharded_Saga_Wallet_System.dto.TransferRequestDTO;
 import com.hritik.Sharded_Saga_Wallet_System.dto.TransferResponseDTO;
 import com.hritik.Sharded_Saga_Wallet_System.model.SagaInstance;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionDirection;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import com.hritik.Sharded_Saga_Wallet_System.ratelimit.TransferRateLimiter;
+import com.hritik.Sharded_Saga_Wallet_System.service.BatchTransferService;
+import com.hritik.Sharded_Saga_Wallet_System.service.PayoutSagaService;
+import com.hritik.Sharded_Saga_Wallet_System.service.TransactionExportService;
+import com.hritik.Sharded_Saga_Wallet_System.service.TransactionService;
+import com.hritik.Sharded_Saga_Wallet_System.service.TransferIngestionService;
+import com.hritik.Sharded_Saga_Wallet_System.service.TransferNettingService;
 import com.hritik.Sharded_Saga_Wallet_System.service.TransferSagaService;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaOrchestrator;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaStatusNotifier;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.security.Principal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -22,17 +53,29 @@ import java.util.Map;
 @RequestMapping("/api/v1/transactions")
 public class TransactionController {
 
+    private static final long MAX_SAGA_WAIT_MILLIS = 120_000;
     private final TransferSagaService transferSagaService;
+    private final BatchTransferService batchTransferService;
+    private final TransferIngestionService transferIngestionService;
+    private final PayoutSagaService payoutSagaService;
+    private final TransferNettingService transferNettingService;
+    private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
     private final SagaOrchestrator sagaOrchestrator;
+    private final SagaStatusNotifier sagaStatusNotifier;
+    private final TransferRateLimiter transferRateLimiter;
     private final ObjectMapper objectMapper;
 
     @PostMapping("/transfer")
     public ResponseEntity<TransferResponseDTO> createTransfer(
-            @Valid @RequestBody TransferRequestDTO request) {
+            @Valid @RequestBody TransferRequestDTO request,
+            HttpServletRequest httpRequest) {
 
         log.info("Received transfer request from wallet {} to wallet {} for amount {}",
                 request.getFromWalletId(), request.getToWalletId(), request.getAmount());
 
+        transferRateLimiter.acquire(resolveClientId(httpRequest), request.getFromWalletId());
+
         Long sagaInstanceId = transferSagaService.initiateTransfer(
                 request.getFromWalletId(),
                 request.getToWalletId(),
@@ -58,6 +101,137 @@ public class TransactionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/transfers/netted")
+    public CompletableFuture<ResponseEntity<TransferResponseDTO>> createNettedTransfer(
+            @Valid @RequestBody TransferRequestDTO request,
+            HttpServletRequest httpRequest) {
+
+        log.info("Received netted transfer request from wallet {} to wallet {} for amount {}",
+                request.getFromWalletId(), request.getToWalletId(), request.getAmount());
+
+        transferRateLimiter.acquire(resolveClientId(httpRequest), request.getFromWalletId());
+
+        return transferNettingService.submit(
+                        request.getFromWalletId(),
+                        request.getToWalletId(),
+                        request.getAmount(),
+                        request.getDescription())
+                .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<BatchTransferResponseDTO> createBatchTransfer(
+            @Valid @RequestBody BatchTransferRequestDTO request,
+            HttpServletRequest httpRequest) {
+
+        log.info("Received batch transfer request with {} transfers", request.getTransfers().size());
+
+        BatchTransferResponseDTO response = batchTransferService.executeBatch(
+                resolveClientId(httpRequest), request.getTransfers());
+
+        log.info("Batch transfer finished: {} succeeded, {} failed",
+                response.getSucceeded(), response.getFailed());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/transfers/stream",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamTransfers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("Received streaming transfer ingestion request");
+
+        String clientId = resolveClientId(request);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        transferIngestionService.ingest(clientId, request.getInputStream(), response.getOutputStream());
+    }
+
+    @PostMapping("/payouts")
+    public ResponseEntity<PayoutResponseDTO> createPayout(
+            @Valid @RequestBody PayoutRequestDTO request,
+            HttpServletRequest httpRequest) {
+
+        log.info("Received payout request from wallet {} to {} recipients",
+                request.getFromWalletId(), request.getRecipients().size());
+
+        transferRateLimiter.acquire(resolveClientId(httpRequest), request.getFromWalletId());
+
+        PayoutResponseDTO response = payoutSagaService.initiatePayout(
+                request.getFromWalletId(),
+                request.getRecipients(),
+                request.getDescription()
+        );
+
+        log.info("Payout saga {} finished with {} credited and {} failed recipients",
+                response.getSagaInstanceId(),
+                response.getCreditedTransactionIds() != null ? response.getCreditedTransactionIds().size() : 0,
+                response.getFailedTransactionIds() != null ? response.getFailedTransactionIds().size() : 0);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping("/wallet/{walletId}")
+    public ResponseEntity<TransactionPageDTO> getWalletTransactions(
+            @PathVariable Long walletId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "ALL") TransactionDirection direction) {
+        log.info("Fetching {} transactions for wallet {} (limit {})", direction, walletId, limit);
+
+        return ResponseEntity.ok(transactionService.getTransactionPage(walletId, direction, cursor, limit));
+    }
+
+    @GetMapping("/pending/stale")
+    public ResponseEntity<List<Transaction>> getStalePendingTransactions(
+            @RequestParam(defaultValue = "15") long olderThanMinutes,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.info("Fetching up to {} PENDING transactions older than {} minutes", limit, olderThanMinutes);
+
+        return ResponseEntity.ok(transactionService.getStalePendingTransactions(
+                Duration.ofMinutes(olderThanMinutes), limit));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Transaction>> searchTransactions(
+            @RequestParam TransactionStatus status,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.info("Searching up to {} {} transactions created between {} and {}", limit, status, from, to);
+
+        return ResponseEntity.ok(transactionService.getTransactionsByStatusBetween(status, from, to, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) Long walletId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "CSV") TransactionExportService.Format format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("Received transaction export request (wallet {}, from {}, to {}, format {})",
+                walletId, from, to, format);
+
+        transactionExportService.validateFilters(walletId, from, to);
+
+        String extension = format == TransactionExportService.Format.CSV ? "csv" : "ndjson";
+        String fileName = "transactions." + extension + (gzip ? ".gz" : "");
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == TransactionExportService.Format.CSV
+                        ? new MediaType("text", "csv")
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(out -> transactionExportService.export(walletId, from, to, format, gzip, out));
+    }
+
     @GetMapping("/saga/{sagaInstanceId}")
     public ResponseEntity<SagaInstance> getSagaStatus(@PathVariable Long sagaInstanceId) {
         log.info("Fetching saga instance status for id {}", sagaInstanceId);
@@ -66,6 +240,42 @@ public class TransactionController {
         return ResponseEntity.ok(saga);
     }
 
+    @GetMapping("/saga/{sagaInstanceId}/await")
+    public DeferredResult<SagaStatusDTO> awaitSagaCompletion(
+            @PathVariable Long sagaInstanceId,
+            @RequestParam(defaultValue = "30000") long timeoutMs) {
+        log.info("Awaiting terminal status of saga {} for up to {} ms", sagaInstanceId, timeoutMs);
+
+        return sagaStatusNotifier.awaitTerminalStatus(sagaInstanceId, boundedTimeout(timeoutMs),
+                () -> SagaStatusNotifier.toStatus(sagaOrchestrator.getSagaInstance(sagaInstanceId)));
+    }
+
+    @GetMapping(value = "/saga/{sagaInstanceId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSagaStatus(
+            @PathVariable Long sagaInstanceId,
+            @RequestParam(defaultValue = "60000") long timeoutMs) {
+        log.info("Opening status stream for saga {}", sagaInstanceId);
+
+        return sagaStatusNotifier.streamStatus(sagaInstanceId, boundedTimeout(timeoutMs),
+                () -> SagaStatusNotifier.toStatus(sagaOrchestrator.getSagaInstance(sagaInstanceId)));
+    }
+
+    /**
+     * Rate-limit key of the caller: the authenticated principal if the container established
+     * one, otherwise the remote address. Nothing the client sends can pick or reset its bucket.
+     */
+    private String resolveClientId(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "principal:" + principal.getName() : request.getRemoteAddr();
+    }
+
+    private long boundedTimeout(long timeoutMs) {
+        if (timeoutMs <= 0) {
+            throw new IllegalArgumentException("Timeout must be greater than zero");
+        }
+        return Math.min(timeoutMs, MAX_SAGA_WAIT_MILLIS);
+    }
+
     private Long extractTransactionIdFromSaga(SagaInstance saga) {
         try {
             if (saga.getContext() != null && !saga.getContext().isEmpty()) {
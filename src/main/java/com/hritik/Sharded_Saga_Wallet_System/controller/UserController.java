@@ -1,5 +1,6 @@
 package com.hritik.Sharded_Saga_Wallet_System.controller;
 
+import com.hritik.Sharded_Saga_Wallet_System.dto.UserPageDTO;
 import com.hritik.Sharded_Saga_Wallet_System.model.User;
 import com.hritik.Sharded_Saga_Wallet_System.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -7,7 +8,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -29,15 +29,24 @@ public class UserController {
 
     }
 
+    @GetMapping("/email")
+    public ResponseEntity<User> getUserByEmail(@RequestParam String email) {
+        User user = userService.getUserByEmail(email);
+        return ResponseEntity.ok(user);
+    }
+
     @GetMapping("/name")
-    public ResponseEntity<List<User>> getUsersByName(@RequestParam String name) {
-        List<User> users = userService.getUsersByName(name);
+    public ResponseEntity<UserPageDTO> getUsersByName(@RequestParam String name,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "50") int limit) {
+        UserPageDTO users = userService.searchUsersByName(name, cursor, limit);
         return ResponseEntity.ok(users);
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
+    public ResponseEntity<UserPageDTO> getAllUsers(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int limit) {
+        UserPageDTO users = userService.getUsersPage(cursor, limit);
         return ResponseEntity.ok(users);
     }
 }
@@ -4,15 +4,19 @@ import com.hritik.Sharded_Saga_Wallet_System.dto.CreateWalletRequestDTO;
 import com.hritik.Sharded_Saga_Wallet_System.dto.CreditWalletRequestDTO;
 import com.hritik.Sharded_Saga_Wallet_System.dto.DebitWalletRequestDTO;
 import com.hritik.Sharded_Saga_Wallet_System.dto.WalletBalanceDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.WalletStatementDTO;
 import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletRollupService;
 import com.hritik.Sharded_Saga_Wallet_System.service.WalletService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -22,6 +26,7 @@ import java.util.List;
 public class WalletController {
 
     private final WalletService walletService;
+    private final WalletRollupService walletRollupService;
 
     @PostMapping
     public ResponseEntity<Wallet> createWallet(@Valid @RequestBody CreateWalletRequestDTO request) {
@@ -56,6 +61,23 @@ public class WalletController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/statement")
+    public ResponseEntity<WalletStatementDTO> getWalletStatement(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Fetching statement for wallet {} from {} to {}", id, from, to);
+
+        return ResponseEntity.ok(walletRollupService.getStatement(id, from, to));
+    }
+
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<WalletStatementDTO> getWalletSummary(@PathVariable Long id) {
+        log.info("Fetching summary for wallet {}", id);
+
+        return ResponseEntity.ok(walletRollupService.getSummary(id));
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Wallet>> getWalletsByUserId(@PathVariable Long userId) {
         log.info("Fetching wallets for user {}", userId);
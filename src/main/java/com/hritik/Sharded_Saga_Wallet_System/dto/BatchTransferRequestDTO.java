@@ -0,0 +1,22 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransferRequestDTO {
+
+    @NotEmpty(message = "Transfers cannot be empty")
+    @Size(max = 5000, message = "A batch cannot contain more than 5000 transfers")
+    private List<@Valid TransferRequestDTO> transfers;
+}
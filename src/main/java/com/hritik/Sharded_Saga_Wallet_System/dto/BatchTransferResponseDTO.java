@@ -0,0 +1,19 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransferResponseDTO {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchTransferItemResultDTO> results;
+}
@@ -0,0 +1,27 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BucketMigrationReportDTO {
+    private int bucket;
+    private String sourceDataSource;
+    private String targetDataSource;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Map<String, Long> rowsCopied;
+    private long catchUpRows;
+    private long fencedMillis;
+    private boolean verified;
+    private long sourceRowsDeleted;
+    private String message;
+}
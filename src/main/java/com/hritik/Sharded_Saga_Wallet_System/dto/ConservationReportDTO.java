@@ -0,0 +1,26 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConservationReportDTO {
+    private LocalDateTime checkedAt;
+    private LocalDateTime trackingSince;
+    private BigDecimal drift;
+    private BigDecimal externalNet;
+    private BigDecimal inFlightAmount;
+    private int inFlightSagas;
+    private List<ShardBalanceDTO> shards;
+    private List<SagaImbalanceDTO> leakingSagas;
+    private List<SagaImbalanceDTO> staleSagas;
+}
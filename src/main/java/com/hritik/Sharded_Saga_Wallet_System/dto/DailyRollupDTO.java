@@ -0,0 +1,21 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyRollupDTO {
+    private LocalDate date;
+    private BigDecimal totalIn;
+    private BigDecimal totalOut;
+    private long creditCount;
+    private long debitCount;
+}
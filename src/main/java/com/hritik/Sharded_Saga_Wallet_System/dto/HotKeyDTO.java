@@ -0,0 +1,17 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotKeyDTO {
+    private Long id;
+    private String shard;
+    private long writes;
+    private double writesPerSecond;
+}
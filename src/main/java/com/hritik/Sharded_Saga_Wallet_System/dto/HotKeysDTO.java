@@ -0,0 +1,18 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotKeysDTO {
+    private long windowSeconds;
+    private List<HotKeyDTO> wallets;
+    private List<HotKeyDTO> users;
+}
@@ -0,0 +1,23 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OpeningBalanceReportDTO {
+    private LocalDateTime recordedSince;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long walletsChecked;
+    private long walletsInFlight;
+    private long openingBalances;
+    private BigDecimal openingBalanceTotal;
+}
@@ -0,0 +1,29 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayoutRequestDTO {
+
+    @NotNull(message = "Source wallet ID cannot be null")
+    private Long fromWalletId;
+
+    @NotEmpty(message = "Recipients cannot be empty")
+    @Size(max = 1000, message = "A payout cannot have more than 1000 recipients")
+    private List<@Valid PayoutRecipientDTO> recipients;
+
+    @Size(max = 500, message = "Description cannot exceed 500 characters")
+    private String description;
+}
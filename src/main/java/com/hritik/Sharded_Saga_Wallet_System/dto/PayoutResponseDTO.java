@@ -0,0 +1,23 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayoutResponseDTO {
+    private Long sagaInstanceId;
+    private String status;
+    private int recipients;
+    private List<Long> creditedTransactionIds;
+    private List<Long> failedTransactionIds;
+    private BigDecimal refundedAmount;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateLimitMetricsDTO {
+
+    private boolean enabled;
+    private long admitted;
+    private long rejectedByClient;
+    private long rejectedByWallet;
+    private int trackedClients;
+    private int trackedWallets;
+}
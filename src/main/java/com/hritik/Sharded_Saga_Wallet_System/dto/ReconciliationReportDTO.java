@@ -0,0 +1,23 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationReportDTO {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long walletsChecked;
+    private long walletsInFlight;
+    private long mismatchCount;
+    private List<ShardReconciliationDTO> shards;
+    private List<BalanceMismatchDTO> mismatches;
+}
@@ -0,0 +1,19 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupBackfillResponseDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private int days;
+    private long rollupRows;
+}
@@ -0,0 +1,20 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SagaImbalanceDTO {
+    private Long sagaInstanceId;
+    private BigDecimal residual;
+    private boolean finished;
+    private LocalDateTime since;
+}
@@ -0,0 +1,19 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SchemaRebuildReportDTO {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Map<String, Integer> migrationsApplied;
+}
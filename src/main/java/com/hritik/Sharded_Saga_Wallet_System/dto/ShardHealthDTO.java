@@ -0,0 +1,28 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShardHealthDTO {
+    private String shard;
+    private String state;
+    private LocalDateTime stateSince;
+    private int maxConcurrent;
+    private int inUse;
+    private int waiting;
+    private int consecutiveFailures;
+    private long failures;
+    private long slowCalls;
+    private long timesOpened;
+    private long bulkheadRejections;
+    private long breakerRejections;
+    private long priorityConnections;
+}
@@ -0,0 +1,22 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShardStatementStatsDTO {
+    private String shard;
+    private String table;
+    private String operation;
+    private long statements;
+    private long rows;
+    private long errors;
+    private long lockFailures;
+    private double avgMillis;
+    private double maxMillis;
+}
@@ -0,0 +1,23 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShardTrafficDTO {
+    private String shard;
+    private long statements;
+    private long writes;
+    private long rows;
+    private long errors;
+    private long lockFailures;
+    private double statementShare;
+    private double writeShare;
+    private Long rowLockWaits;
+    private Long rowLockTimeMillis;
+}
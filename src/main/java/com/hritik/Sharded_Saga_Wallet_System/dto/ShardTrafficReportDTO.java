@@ -0,0 +1,22 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShardTrafficReportDTO {
+    private LocalDateTime generatedAt;
+    private LocalDateTime trackingSince;
+    private List<ShardTrafficDTO> shards;
+    private List<ShardStatementStatsDTO> statements;
+    private double statementSkew;
+    private double writeSkew;
+}
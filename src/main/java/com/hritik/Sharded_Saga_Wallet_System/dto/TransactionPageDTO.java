@@ -0,0 +1,19 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionPageDTO {
+    private List<Transaction> transactions;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,21 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserPageDTO {
+    private List<User> users;
+    private String nextCursor;
+    private boolean hasMore;
+    private boolean partial;
+    private List<String> unavailableShards;
+}
@@ -0,0 +1,26 @@
+package com.hritik.Sharded_Saga_Wallet_System.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletStatementDTO {
+    private Long walletId;
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal totalIn;
+    private BigDecimal totalOut;
+    private BigDecimal net;
+    private long creditCount;
+    private long debitCount;
+    private List<DailyRollupDTO> days;
+}
@@ -0,0 +1,7 @@
+package com.hritik.Sharded_Saga_Wallet_System.exceptions;
+
+public class DuplicateEmailException extends RuntimeException {
+    public DuplicateEmailException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.hritik.Sharded_Saga_Wallet_System.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final String scope;
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String scope, String key, long retryAfterSeconds) {
+        super("Rate limit exceeded for " + scope + " " + key + ", retry after " + retryAfterSeconds + "s");
+        this.scope = scope;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,16 @@
+package com.hritik.Sharded_Saga_Wallet_System.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class ShardUnavailableException extends RuntimeException {
+
+    private final String shard;
+    private final long retryAfterSeconds;
+
+    public ShardUnavailableException(String shard, String reason, long retryAfterSeconds) {
+        super("Shard " + shard + " is unavailable: " + reason);
+        this.shard = shard;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
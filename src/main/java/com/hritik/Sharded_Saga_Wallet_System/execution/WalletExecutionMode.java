@@ -0,0 +1,8 @@
+package com.hritik.Sharded_Saga_Wallet_System.execution;
+
+public enum WalletExecutionMode {
+    /** Balance changes take a row lock with SELECT ... FOR UPDATE in the caller's transaction */
+    LOCKING,
+    /** Balance changes are queued to a single-writer mailbox per wallet and committed in micro-batches */
+    MAILBOX
+}
@@ -0,0 +1,415 @@
+package com.hritik.Sharded_Saga_Wallet_System.execution;
+
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.WalletException;
+import com.hritik.Sharded_Saga_Wallet_System.model.WalletMailboxReceipt;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletMailboxReceiptRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletOwnerResolver;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-writer execution of wallet balance changes. Every wallet id hashes to one lane,
+ * and each lane is drained by exactly one thread, so operations on a wallet are applied in
+ * submission order without row locks. Each drained batch is committed in one transaction
+ * using the conditional atomic updates.
+ * <p>
+ * Serialization is per node: the mode assumes requests for a wallet are routed to the node
+ * that owns it. Across nodes the conditional updates still keep balances correct.
+ * <p>
+ * A change requested inside a transaction commits before that transaction does. It is
+ * written together with a {@link WalletMailboxReceipt} which the caller's transaction
+ * deletes, so the receipt survives exactly when the caller did not commit. Receipts are
+ * sharded by the wallet's owner like the wallet itself, so a change and its receipt, and a
+ * revert and its claim, always commit on one shard. A rolled-back
+ * caller queues the revert right away; receipts left behind by a crash are reverted by
+ * {@link #revertAbandonedChanges()}. Reverting deletes the receipt in the same
+ * transaction, so a change is reverted at most once and never after its caller committed.
+ */
+@Component
+@Slf4j
+public class WalletMailboxExecutor {
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final WalletRepository walletRepository;
+    private final WalletOwnerResolver walletOwnerResolver;
+    private final WalletMailboxReceiptRepository receiptRepository;
+    private final TransactionTemplate batchTransaction;
+
+    @Value("${wallet.execution-mode:LOCKING}")
+    private WalletExecutionMode executionMode;
+
+    @Value("${wallet.mailbox.lanes:32}")
+    private int laneCount;
+
+    @Value("${wallet.mailbox.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${wallet.mailbox.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    // Must exceed the longest transaction that uses the mailbox
+    @Value("${wallet.mailbox.receipt-timeout-ms:300000}")
+    private long receiptTimeoutMillis;
+
+    private Lane[] lanes;
+    private volatile boolean stopped;
+
+    public WalletMailboxExecutor(WalletRepository walletRepository,
+                                 WalletOwnerResolver walletOwnerResolver,
+                                 WalletMailboxReceiptRepository receiptRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.walletRepository = walletRepository;
+        this.walletOwnerResolver = walletOwnerResolver;
+        this.receiptRepository = receiptRepository;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (laneCount <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Mailbox lanes and batch size must be greater than zero");
+        }
+
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i);
+            lanes[i].start();
+        }
+        log.info("Wallet mailbox executor started with {} lanes, batch size {}", laneCount, maxBatchSize);
+    }
+
+    /**
+     * Stops the lanes after their current batch and fails every operation still queued, so
+     * no caller waits out its timeout on a lane that is gone.
+     */
+    @PreDestroy
+    void stop() {
+        if (lanes == null) {
+            return;
+        }
+        stopped = true;
+        for (Lane lane : lanes) {
+            lane.interrupt();
+        }
+
+        int failed = 0;
+        for (Lane lane : lanes) {
+            try {
+                lane.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<Operation> pending = new ArrayList<>();
+            lane.queue.drainTo(pending);
+            for (Operation operation : pending) {
+                if (operation.state.compareAndSet(Operation.PENDING, Operation.CANCELLED)) {
+                    operation.result.completeExceptionally(new WalletException("Wallet mailbox is shutting down"));
+                    failed++;
+                }
+            }
+        }
+        if (failed > 0) {
+            log.warn("Failed {} queued mailbox operations on shutdown", failed);
+        }
+    }
+
+    public boolean isEnabled() {
+        return executionMode == WalletExecutionMode.MAILBOX;
+    }
+
+    /**
+     * Debits the wallet if it is active and holds enough balance. Inside a transaction the
+     * debit is reverted if that transaction does not commit.
+     *
+     * @return true if the debit was committed
+     */
+    public boolean debit(Long walletId, BigDecimal amount) {
+        return apply(walletId, amount.negate());
+    }
+
+    /**
+     * Credits the wallet if it is active. Inside a transaction the credit is reverted if
+     * that transaction does not commit.
+     *
+     * @return true if the credit was committed
+     */
+    public boolean credit(Long walletId, BigDecimal amount) {
+        return apply(walletId, amount);
+    }
+
+    /**
+     * Credits the wallet if it is active; the credit stands whatever happens to the
+     * caller's transaction.
+     *
+     * @return true if the credit was committed
+     */
+    public boolean creditIndependently(Long walletId, BigDecimal amount) {
+        requireEnabled();
+        return await(submit(new Operation(walletId, amount, false, null)));
+    }
+
+    private boolean apply(Long walletId, BigDecimal delta) {
+        requireEnabled();
+
+        boolean followCaller = TransactionSynchronizationManager.isActualTransactionActive();
+        Operation operation = submit(new Operation(walletId, delta, followCaller, null));
+        boolean applied = await(operation);
+
+        if (applied && followCaller) {
+            Long receiptId = operation.receiptId;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        log.warn("Caller did not commit, reverting mailbox change of {} on wallet {}", delta, walletId);
+                        revert(receiptId, walletId, delta);
+                    }
+                }
+            });
+
+            // Deleted with the caller's commit; if the sweep got here first the change is gone
+            if (receiptRepository.claim(receiptId, walletOwnerResolver.ownerOf(walletId)) != 1) {
+                throw new WalletException("Mailbox change on wallet " + walletId
+                        + " was reverted before its transaction committed");
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Reverts mailbox changes whose callers never committed and whose immediate revert did
+     * not happen, e.g. because the node stopped. Receipts younger than the receipt timeout
+     * may still belong to a running transaction and are left alone.
+     */
+    @Scheduled(fixedDelayString = "${wallet.mailbox.receipt-sweep-interval-ms:60000}")
+    public void revertAbandonedChanges() {
+        if (!isEnabled() || stopped) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(receiptTimeoutMillis));
+        List<WalletMailboxReceipt> abandoned = receiptRepository.findByCreatedAtBeforeOrderByCreatedAt(
+                cutoff, PageRequest.of(0, SWEEP_BATCH_SIZE));
+        if (abandoned.isEmpty()) {
+            return;
+        }
+
+        log.warn("Reverting {} abandoned mailbox changes", abandoned.size());
+        List<Operation> reverts = new ArrayList<>(abandoned.size());
+        for (WalletMailboxReceipt receipt : abandoned) {
+            reverts.add(submit(new Operation(receipt.getWalletId(), receipt.getDelta().negate(), false, receipt.getId())));
+        }
+        for (Operation operation : reverts) {
+            try {
+                if (!await(operation)) {
+                    log.error("Revert of mailbox receipt {} on wallet {} did not run",
+                            operation.revertedReceiptId, operation.walletId);
+                }
+            } catch (WalletException e) {
+                log.error("Failed to revert mailbox receipt {} on wallet {}",
+                        operation.revertedReceiptId, operation.walletId, e);
+            }
+        }
+    }
+
+    private void revert(Long receiptId, Long walletId, BigDecimal delta) {
+        if (stopped) {
+            log.warn("Mailbox is stopping; receipt {} on wallet {} is left to the sweep", receiptId, walletId);
+            return;
+        }
+        // Not awaited: the receipt keeps the revert recoverable if it fails
+        submit(new Operation(walletId, delta.negate(), false, receiptId)).result.whenComplete((reverted, error) -> {
+            if (error != null || !Boolean.TRUE.equals(reverted)) {
+                log.error("Failed to revert mailbox change of {} on wallet {}; receipt {} is left to the sweep",
+                        delta, walletId, receiptId, error);
+            }
+        });
+    }
+
+    private void requireEnabled() {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Wallet mailbox execution is not enabled");
+        }
+    }
+
+    private Operation submit(Operation operation) {
+        if (stopped) {
+            throw new WalletException("Wallet mailbox is shutting down");
+        }
+        lanes[Math.floorMod(Long.hashCode(operation.walletId), lanes.length)].queue.add(operation);
+        return operation;
+    }
+
+    private boolean await(Operation operation) {
+        try {
+            return operation.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (operation.state.compareAndSet(Operation.PENDING, Operation.CANCELLED)) {
+                log.error("Mailbox operation on wallet {} timed out before being applied", operation.walletId);
+                return false;
+            }
+            // Already picked up by the lane; its batch is about to finish
+            return operation.result.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (operation.state.compareAndSet(Operation.PENDING, Operation.CANCELLED)) {
+                return false;
+            }
+            return operation.result.join();
+        } catch (ExecutionException e) {
+            throw new WalletException("Mailbox operation on wallet " + operation.walletId + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Runs inside the lane's batch transaction.
+     *
+     * @return whether the change was applied; a revert whose receipt is already gone has
+     * nothing left to do and counts as applied
+     */
+    private boolean applyToDatabase(Operation operation) {
+        operation.receiptId = null;
+        Long userId = walletOwnerResolver.ownerOf(operation.walletId);
+
+        if (operation.revertedReceiptId != null) {
+            if (receiptRepository.claim(operation.revertedReceiptId, userId) == 0) {
+                return true;
+            }
+            if (update(operation, userId) != 1) {
+                // Rolls the claim back so the receipt stays for the next sweep
+                throw new WalletException("Cannot revert mailbox change on wallet " + operation.walletId);
+            }
+            return true;
+        }
+
+        if (update(operation, userId) != 1) {
+            return false;
+        }
+        if (operation.followsCaller) {
+            operation.receiptId = receiptRepository.save(WalletMailboxReceipt.builder()
+                    .userId(userId)
+                    .walletId(operation.walletId)
+                    .delta(operation.delta)
+                    .createdAt(LocalDateTime.now())
+                    .build()).getId();
+        }
+        return true;
+    }
+
+    private int update(Operation operation, Long userId) {
+        BigDecimal delta = operation.delta;
+        return delta.signum() >= 0
+                ? walletRepository.atomicCredit(operation.walletId, userId, delta)
+                : walletRepository.atomicDebit(operation.walletId, userId, delta.negate());
+    }
+
+    private static final class Operation {
+        static final int PENDING = 0;
+        static final int APPLYING = 1;
+        static final int CANCELLED = 2;
+
+        final Long walletId;
+        final BigDecimal delta;
+        final boolean followsCaller;
+        final Long revertedReceiptId;
+        final AtomicInteger state = new AtomicInteger(PENDING);
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        // Written by the lane before the result completes
+        Long receiptId;
+
+        Operation(Long walletId, BigDecimal delta, boolean followsCaller, Long revertedReceiptId) {
+            this.walletId = walletId;
+            this.delta = delta;
+            this.followsCaller = followsCaller;
+            this.revertedReceiptId = revertedReceiptId;
+        }
+    }
+
+    private final class Lane extends Thread {
+
+        final LinkedBlockingQueue<Operation> queue = new LinkedBlockingQueue<>();
+
+        Lane(int index) {
+            super("wallet-mailbox-" + index);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Operation> batch = new ArrayList<>(maxBatchSize);
+            while (!isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+                batch.removeIf(operation -> !operation.state.compareAndSet(Operation.PENDING, Operation.APPLYING));
+
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+                batch.clear();
+            }
+        }
+
+        private void commit(List<Operation> batch) {
+            try {
+                List<Boolean> outcomes = batchTransaction.execute(status -> {
+                    List<Boolean> applied = new ArrayList<>(batch.size());
+                    for (Operation operation : batch) {
+                        applied.add(applyToDatabase(operation));
+                    }
+                    return applied;
+                });
+
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(outcomes.get(i));
+                }
+            } catch (Exception e) {
+                log.warn("Mailbox batch of {} operations failed, retrying individually", batch.size(), e);
+                for (Operation operation : batch) {
+                    commitSingle(operation);
+                }
+            }
+        }
+
+        private void commitSingle(Operation operation) {
+            try {
+                Boolean applied = batchTransaction.execute(status -> applyToDatabase(operation));
+                operation.result.complete(Boolean.TRUE.equals(applied));
+            } catch (Exception e) {
+                log.error("Mailbox operation on wallet {} failed", operation.walletId, e);
+                operation.result.completeExceptionally(e);
+            }
+        }
+    }
+}
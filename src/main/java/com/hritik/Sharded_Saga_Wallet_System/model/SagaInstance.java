@@ -1,8 +1,11 @@
 package com.hritik.Sharded_Saga_Wallet_System.model;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.hritik.Sharded_Saga_Wallet_System.model.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
+
+import java.time.LocalDateTime;
 import org.apache.calcite.model.JsonType;
 
 import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
@@ -12,10 +15,10 @@ import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
 @NoArgsConstructor
 @Builder
 @AllArgsConstructor
-@Table(name = "saga_instance")
+@Table(name = "saga_instance", indexes = @Index(name = "idx_saga_instance_updated", columnList = "updated_at"))
 public class SagaInstance {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -26,9 +29,13 @@ public class SagaInstance {
     @Column(name = "context", columnDefinition = "json")
     private String context;
 
-    @Column(name = "current_step")
+    @Column(name = "current_step", length = 64)
     private String currentStep;
 
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
+
     public void markAsRunning() {
         this.status = SagaStatus.RUNNING;
     }
@@ -48,4 +55,8 @@ public class SagaInstance {
     public void markAsCompensating() {
         this.status = SagaStatus.COMPENSATING;
     }
+
+    public void markAsCompensationFailed() {
+        this.status = SagaStatus.COMPENSATION_FAILED;
+    }
 }
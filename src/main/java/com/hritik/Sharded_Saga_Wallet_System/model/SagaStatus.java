@@ -7,4 +7,15 @@ public enum SagaStatus {
     FAILED,
     COMPENSATING,
     COMPENSATED,
+    COMPENSATION_FAILED,
+    ;
+
+    /**
+     * Whether subscribers should stop waiting for further transitions. FAILED does not count:
+     * compensation always follows it, and a saga whose compensation could not finish ends in
+     * COMPENSATION_FAILED.
+     */
+    public boolean isTerminal() {
+        return this == COMPLETED || this == COMPENSATED || this == COMPENSATION_FAILED;
+    }
 }
@@ -1,43 +1,52 @@
 package com.hritik.Sharded_Saga_Wallet_System.model;
 
+import com.hritik.Sharded_Saga_Wallet_System.model.id.SnowflakeId;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "saga_step")
+@Table(name = "saga_step", indexes = {
+        @Index(name = "idx_saga_step_instance_name_status", columnList = "saga_instance_id, step_name, status"),
+        @Index(name = "idx_saga_step_updated", columnList = "updated_at")
+})
 public class SagaStep {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(name = "saga_instance_id", nullable = false)
     private Long sagaInstanceId;
 
-    @Column(name = "step_name", nullable = false)
+    @Column(name = "step_name", nullable = false, length = 64)
     private String stepName;
 
     @Column(name = "status", nullable = false)
     private StepStatus status;
 
-    @Column(name = "error_message")
+    @Column(name = "error_message", columnDefinition = "text")
     private String errorMessage;
 
     // json step data
     @Column(name = "step_data", columnDefinition = "json")
     private String stepData;
 
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
+
     public void markAsRunning() {
         this.status = StepStatus.RUNNING;
     }
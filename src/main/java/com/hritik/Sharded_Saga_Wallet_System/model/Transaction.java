@@ -1,29 +1,43 @@
 package com.hritik.Sharded_Saga_Wallet_System.model;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
+import com.hritik.Sharded_Saga_Wallet_System.model.id.SnowflakeId;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
-@Table(name = "transaction")
+@Table(name = "transaction", indexes = {
+        @Index(name = "idx_transaction_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_transaction_updated", columnList = "updated_at"),
+        @Index(name = "idx_transaction_saga_instance", columnList = "saga_instance_id")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Data
 public class Transaction {
+
+    /**
+     * Counterparty of deposits and withdrawals: money entering or leaving the system.
+     * It is not a real wallet and is never indexed or rolled up.
+     */
+    public static final Long EXTERNAL_WALLET_ID = 0L;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(name = "from_wallet_id", nullable = false)
@@ -32,7 +46,7 @@ public class Transaction {
     @Column(name = "to_wallet_id", nullable = false)
     private Long toWalletId;
 
-    @Column(name = "amount", nullable = false)
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
     private BigDecimal amount;
 
     @Enumerated(EnumType.STRING)
@@ -48,4 +62,12 @@ public class Transaction {
 
     @Column(name = "saga_instance_id")
     private Long sagaInstanceId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
 }
@@ -0,0 +1,7 @@
+package com.hritik.Sharded_Saga_Wallet_System.model;
+
+public enum TransactionDirection {
+    ALL,
+    DEBIT,
+    CREDIT
+}
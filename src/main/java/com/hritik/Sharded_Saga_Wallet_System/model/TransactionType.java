@@ -3,5 +3,8 @@ package com.hritik.Sharded_Saga_Wallet_System.model;
 public enum TransactionType {
     TRANSFER,
     DEPOSIT,
-    WITHDRAWAL
+    WITHDRAWAL,
+    PAYOUT,
+    // Balance a wallet held before deposits and withdrawals were recorded
+    OPENING_BALANCE
 }
\ No newline at end of file
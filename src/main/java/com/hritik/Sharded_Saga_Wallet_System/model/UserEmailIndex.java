@@ -0,0 +1,68 @@
+package com.hritik.Sharded_Saga_Wallet_System.model;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.id.SnowflakeId;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Email to user id, sharded by a hash of the normalized email so that every row for a given
+ * email lands on the same shard. The per-shard unique key on the email is therefore global.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_email_index",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_email_index_email", columnNames = "email"),
+        indexes = @Index(name = "idx_user_email_index_hash", columnList = "email_hash"))
+public class UserEmailIndex {
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "email_hash", nullable = false)
+    private Long emailHash;
+
+    @Column(name = "email", nullable = false, length = 320)
+    private String email;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Stable, non-negative hash of a normalized email. Non-negative so that SQL {@code MOD}
+     * agrees with the bucket the router computes.
+     */
+    public static long hash(String normalizedEmail) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalizedEmail.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong() & Long.MAX_VALUE;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
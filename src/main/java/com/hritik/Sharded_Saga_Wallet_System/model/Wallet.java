@@ -1,19 +1,24 @@
 package com.hritik.Sharded_Saga_Wallet_System.model;
 
+import com.hritik.Sharded_Saga_Wallet_System.model.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "wallet")
+@Table(name = "wallet", indexes = {
+        @Index(name = "idx_wallet_user", columnList = "user_id, is_active"),
+        @Index(name = "idx_wallet_updated", columnList = "updated_at")
+})
 public class Wallet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(name = "user_id", nullable = false, updatable = false)
@@ -22,9 +27,15 @@ public class Wallet {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive;
 
-    @Column(name = "balance", nullable = false)
+    @Column(name = "balance", nullable = false, precision = 19, scale = 2)
     private BigDecimal balance = BigDecimal.ZERO;
 
+    // Maintained by MySQL so balance updates issued as bulk or native queries move it too;
+    // bucket migrations tail changes through it
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
+
     public boolean hasSufficientBalance(BigDecimal amount) {
         return balance.compareTo(amount) >= 0;
     }
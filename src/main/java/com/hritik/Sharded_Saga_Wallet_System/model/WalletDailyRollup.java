@@ -0,0 +1,61 @@
+package com.hritik.Sharded_Saga_Wallet_System.model;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.id.SnowflakeId;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Successful money movement of one wallet on one day, sharded by wallet id.
+ * Maintained incrementally as transactions settle.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "wallet_daily_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_wallet_daily_rollup_day",
+                columnNames = {"wallet_id", "rollup_date"}),
+        indexes = {
+                @Index(name = "idx_wallet_daily_rollup_updated", columnList = "updated_at"),
+                @Index(name = "idx_wallet_daily_rollup_date", columnList = "rollup_date")
+        })
+public class WalletDailyRollup {
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(name = "total_in", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalIn;
+
+    @Column(name = "total_out", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalOut;
+
+    @Column(name = "credit_count", nullable = false)
+    private Long creditCount;
+
+    @Column(name = "debit_count", nullable = false)
+    private Long debitCount;
+
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
+}
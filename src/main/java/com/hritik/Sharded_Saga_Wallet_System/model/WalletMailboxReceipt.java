@@ -0,0 +1,46 @@
+package com.hritik.Sharded_Saga_Wallet_System.model;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.id.SnowflakeId;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A mailbox balance change that committed before the transaction that asked for it.
+ * Written together with the change and deleted by the caller's transaction, so a receipt
+ * that outlives its caller marks a change that has to be reverted. Sharded by the wallet's
+ * owner, so it lives on the wallet's shard.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "wallet_mailbox_receipt",
+        indexes = @Index(name = "idx_wallet_mailbox_receipt_created", columnList = "created_at"))
+public class WalletMailboxReceipt {
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "delta", nullable = false, precision = 19, scale = 2)
+    private BigDecimal delta;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
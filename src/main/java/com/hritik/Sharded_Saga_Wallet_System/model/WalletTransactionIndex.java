@@ -0,0 +1,64 @@
+package com.hritik.Sharded_Saga_Wallet_System.model;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.id.SnowflakeId;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row per wallet and side of a transaction, sharded by the wallet's owner so a wallet's
+ * history is read from the wallet's shard and moves with it. The transaction itself stays
+ * sharded by its id.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "wallet_transaction_index",
+        uniqueConstraints = @UniqueConstraint(name = "uk_wallet_transaction_index_entry",
+                columnNames = {"wallet_id", "transaction_id"}),
+        indexes = {
+                @Index(name = "idx_wallet_transaction_index_created",
+                        columnList = "wallet_id, created_at, transaction_id"),
+                @Index(name = "idx_wallet_transaction_index_created_at", columnList = "created_at")
+        })
+public class WalletTransactionIndex {
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "side", nullable = false)
+    private TransactionDirection side;
+
+    @Column(name = "counterparty_wallet_id", nullable = false)
+    private Long counterpartyWalletId;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.hritik.Sharded_Saga_Wallet_System.model.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns the id from {@link SnowflakeIdGenerator} before the insert, so Hibernate can batch
+ * inserts instead of running each one on its own to read back an IDENTITY value.
+ */
+@IdGeneratorType(SnowflakeIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
@@ -0,0 +1,91 @@
+package com.hritik.Sharded_Saga_Wallet_System.model.id;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 64-bit time-ordered ids: 41 bits of milliseconds since 2016-11-01, 10 bits of worker id and
+ * 12 bits of sequence. Every node needs its own worker id. The epoch and layout are those of
+ * ShardingSphere's SNOWFLAKE generator, which assigned the ids already stored, so new ids keep
+ * sorting after them.
+ * <p>
+ * Rows are bucketed by {@code id mod 1024}, i.e. by the low sequence bits, so each millisecond
+ * starts its sequence one higher than the last instead of at zero. Otherwise ids from a lightly
+ * loaded node would all land in bucket 0.
+ */
+public final class SnowflakeIdGenerator {
+
+    public static final long EPOCH_MILLIS = Instant.parse("2016-11-01T00:00:00Z").toEpochMilli();
+
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int TIMESTAMP_SHIFT = WORKER_BITS + SEQUENCE_BITS;
+    private static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long START_OFFSETS = 1024;
+    // Larger backward clock steps fail instead of stalling id generation
+    private static final long MAX_CLOCK_ROLLBACK_MS = 10;
+
+    private static final Map<Long, SnowflakeIdGenerator> GENERATORS = new ConcurrentHashMap<>();
+
+    private final long workerId;
+    private final LongSupplier clock;
+    private long lastMillis = -1;
+    private long sequenceStart;
+    private long sequence;
+
+    SnowflakeIdGenerator(long workerId, LongSupplier clock) {
+        this.workerId = workerId;
+        this.clock = clock;
+    }
+
+    /**
+     * One generator per worker id per JVM, shared by every entity so ids never collide.
+     */
+    public static SnowflakeIdGenerator forWorker(long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID);
+        }
+        return GENERATORS.computeIfAbsent(workerId, id -> new SnowflakeIdGenerator(id, System::currentTimeMillis));
+    }
+
+    public synchronized long nextId() {
+        long now = clock.getAsLong();
+        if (now < lastMillis) {
+            if (lastMillis - now > MAX_CLOCK_ROLLBACK_MS) {
+                throw new IllegalStateException("Clock moved backwards by " + (lastMillis - now) + " ms");
+            }
+            now = waitUntilAfter(lastMillis - 1);
+        }
+
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == sequenceStart) {
+                // Sequence space of this millisecond is exhausted
+                now = waitUntilAfter(lastMillis);
+                startMillisecond();
+            }
+        } else {
+            startMillisecond();
+        }
+
+        lastMillis = now;
+        return ((now - EPOCH_MILLIS) << TIMESTAMP_SHIFT) | (workerId << SEQUENCE_BITS) | sequence;
+    }
+
+    private void startMillisecond() {
+        sequenceStart = (sequenceStart + 1) % START_OFFSETS;
+        sequence = sequenceStart;
+    }
+
+    private long waitUntilAfter(long millis) {
+        long now = clock.getAsLong();
+        while (now <= millis) {
+            Thread.onSpinWait();
+            now = clock.getAsLong();
+        }
+        return now;
+    }
+}
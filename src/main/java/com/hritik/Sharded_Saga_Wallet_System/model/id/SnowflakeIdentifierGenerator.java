@@ -0,0 +1,40 @@
+package com.hritik.Sharded_Saga_Wallet_System.model.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+
+import java.lang.reflect.Member;
+
+/**
+ * Hibernate side of {@link SnowflakeId}. The worker id is read from the JPA property
+ * {@value #WORKER_ID_SETTING}, which application.properties maps from {@code wallet.ids.worker-id}.
+ * There is no default: two nodes sharing a worker id generate the same ids, so startup fails
+ * until every node is given its own.
+ */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+
+    public static final String WORKER_ID_SETTING = "wallet.ids.worker-id";
+
+    private final SnowflakeIdGenerator generator;
+
+    public SnowflakeIdentifierGenerator(SnowflakeId config, Member member, CustomIdGeneratorCreationContext context) {
+        String workerId = ConfigurationHelper.getString(WORKER_ID_SETTING,
+                context.getServiceRegistry().requireService(ConfigurationService.class).getSettings());
+        if (workerId == null || workerId.isBlank()) {
+            throw new IllegalStateException(WORKER_ID_SETTING + " is not set; give every node its own worker id");
+        }
+        try {
+            this.generator = SnowflakeIdGenerator.forWorker(Long.parseLong(workerId.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(WORKER_ID_SETTING + " must be a number, was '" + workerId + "'", e);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return generator.nextId();
+    }
+}
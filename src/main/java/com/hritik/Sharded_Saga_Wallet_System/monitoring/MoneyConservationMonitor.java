@@ -0,0 +1,308 @@
+package com.hritik.Sharded_Saga_Wallet_System.monitoring;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.ConservationReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.SagaImbalanceDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ShardBalanceDTO;
+import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.BucketLayout;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.BucketLayoutRegistry;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Continuously checks that money is neither created nor destroyed.
+ * <p>
+ * Every committed balance change is reported here as a delta: deposits and withdrawals as
+ * external money, everything else against the saga that caused it. A saga's residual is the
+ * amount it has taken out of wallets but not yet put back, i.e. money in flight. Once the saga
+ * finishes its residual must be zero, so globally
+ * {@code sum(shard net change) == external net - sum(open saga residuals)}. Any difference is
+ * drift, typically a compensation that partially failed, and is reported with the sagas
+ * responsible. Nothing is scanned: the check only folds the deltas collected since the last run.
+ * <p>
+ * Totals are kept in memory from application start and only cover changes made by this instance.
+ */
+@Component
+@Slf4j
+public class MoneyConservationMonitor {
+
+    private static final String UNKNOWN_SHARD = "unknown";
+    private static final int MAX_REPORTED_SAGAS = 100;
+
+    private final WalletRepository walletRepository;
+    private final ShardResolver shardResolver;
+    private final Duration finishGrace;
+    private final Duration staleAfter;
+    private final int walletShardCacheSize;
+
+    // Appliers hold the read lock; the check takes the write lock for a consistent snapshot
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final Map<Long, BigDecimal> pendingWalletDeltas = new ConcurrentHashMap<>();
+    private final Map<Long, SagaBalance> sagaBalances = new ConcurrentHashMap<>();
+    private final AtomicReference<BigDecimal> externalNet = new AtomicReference<>(BigDecimal.ZERO);
+
+    // Only touched by check()
+    private final Map<String, BigDecimal> shardNetChanges = new TreeMap<>();
+    private final Map<Long, String> walletShards;
+    private BucketLayout walletShardsLayout;
+
+    private final LocalDateTime trackingSince = LocalDateTime.now();
+    private volatile ConservationReportDTO lastReport;
+    private BigDecimal lastDrift = BigDecimal.ZERO;
+
+    public MoneyConservationMonitor(WalletRepository walletRepository,
+                                    ShardResolver shardResolver,
+                                    @Value("${wallet.conservation.finish-grace-ms:5000}") long finishGraceMs,
+                                    @Value("${wallet.conservation.stale-after-ms:300000}") long staleAfterMs,
+                                    @Value("${wallet.conservation.wallet-shard-cache-size:100000}") int walletShardCacheSize) {
+        this.walletRepository = walletRepository;
+        this.shardResolver = shardResolver;
+        this.finishGrace = Duration.ofMillis(finishGraceMs);
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+        this.walletShardCacheSize = walletShardCacheSize;
+        this.walletShards = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > MoneyConservationMonitor.this.walletShardCacheSize;
+            }
+        };
+    }
+
+    /**
+     * Records a balance change made by a saga step, applied once the surrounding transaction commits.
+     */
+    public void recordBalanceChange(Long walletId, BigDecimal delta, Long sagaInstanceId) {
+        afterCommit(() -> apply(walletId, delta, sagaInstanceId, false));
+    }
+
+    /**
+     * Records a balance change that has already been committed in its own transaction.
+     */
+    public void recordCommittedBalanceChange(Long walletId, BigDecimal delta, Long sagaInstanceId) {
+        apply(walletId, delta, sagaInstanceId, false);
+    }
+
+    /**
+     * Records a deposit (positive) or withdrawal (negative), applied once the surrounding transaction commits.
+     */
+    public void recordExternalBalanceChange(Long walletId, BigDecimal delta) {
+        afterCommit(() -> apply(walletId, delta, null, true));
+    }
+
+    /**
+     * Marks a saga as finished; from then on any residual it still holds counts as drift.
+     */
+    public void onSagaFinished(Long sagaInstanceId) {
+        afterCommit(() -> {
+            snapshotLock.readLock().lock();
+            try {
+                sagaBalances.computeIfPresent(sagaInstanceId, (id, balance) -> {
+                    balance.finishedAt = LocalDateTime.now();
+                    return balance.residual.signum() == 0 ? null : balance;
+                });
+            } finally {
+                snapshotLock.readLock().unlock();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.conservation.check-interval-ms:10000}")
+    public void scheduledCheck() {
+        check();
+    }
+
+    public synchronized ConservationReportDTO check() {
+        Map<Long, BigDecimal> walletDeltas = new HashMap<>();
+        List<SagaBalanceSnapshot> sagas = new ArrayList<>();
+        BigDecimal external;
+
+        snapshotLock.writeLock().lock();
+        try {
+            for (Long walletId : List.copyOf(pendingWalletDeltas.keySet())) {
+                walletDeltas.put(walletId, pendingWalletDeltas.remove(walletId));
+            }
+            sagaBalances.forEach((id, balance) -> sagas.add(balance.snapshot(id)));
+            external = externalNet.get();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+
+        return fold(walletDeltas, sagas, external);
+    }
+
+    public ConservationReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    private ConservationReportDTO fold(Map<Long, BigDecimal> walletDeltas,
+                                                    List<SagaBalanceSnapshot> sagas, BigDecimal external) {
+        resolveShards(walletDeltas.keySet());
+        walletDeltas.forEach((walletId, delta) ->
+                shardNetChanges.merge(walletShards.getOrDefault(walletId, UNKNOWN_SHARD), delta, BigDecimal::add));
+
+        LocalDateTime now = LocalDateTime.now();
+        BigDecimal inFlight = BigDecimal.ZERO;
+        int inFlightSagas = 0;
+        List<SagaImbalanceDTO> leaking = new ArrayList<>();
+        List<SagaImbalanceDTO> stale = new ArrayList<>();
+
+        for (SagaBalanceSnapshot saga : sagas) {
+            boolean settled = saga.finishedAt() != null && saga.finishedAt().plus(finishGrace).isBefore(now);
+            if (settled) {
+                leaking.add(saga.toDto(true));
+                continue;
+            }
+
+            inFlight = inFlight.add(saga.residual());
+            if (saga.residual().signum() != 0) {
+                inFlightSagas++;
+            }
+            if (saga.finishedAt() == null && saga.since().plus(staleAfter).isBefore(now)) {
+                if (saga.residual().signum() == 0) {
+                    // Never reported as finished but balanced: nothing to watch
+                    sagaBalances.computeIfPresent(saga.sagaInstanceId(),
+                            (id, balance) -> balance.residual.signum() == 0 ? null : balance);
+                } else {
+                    stale.add(saga.toDto(false));
+                }
+            }
+        }
+
+        BigDecimal shardTotal = shardNetChanges.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal drift = shardTotal.subtract(external).add(inFlight);
+
+        if (drift.signum() != 0 && drift.compareTo(lastDrift) != 0) {
+            log.error("Money conservation violated: drift of {} across shards (external net {}, in flight {}). " +
+                    "Sagas holding unreturned money: {}", drift, external, inFlight,
+                    leaking.stream().limit(MAX_REPORTED_SAGAS).map(SagaImbalanceDTO::getSagaInstanceId).toList());
+        } else if (drift.signum() == 0 && lastDrift.signum() != 0) {
+            log.info("Money conservation restored, drift is back to zero");
+        }
+        if (!stale.isEmpty()) {
+            log.warn("{} sagas have held {} in flight for more than {}", stale.size(),
+                    stale.stream().map(SagaImbalanceDTO::getResidual).reduce(BigDecimal.ZERO, BigDecimal::add), staleAfter);
+        }
+        lastDrift = drift;
+
+        ConservationReportDTO report = ConservationReportDTO.builder()
+                .checkedAt(now)
+                .trackingSince(trackingSince)
+                .drift(drift)
+                .externalNet(external)
+                .inFlightAmount(inFlight)
+                .inFlightSagas(inFlightSagas)
+                .shards(shardNetChanges.entrySet().stream()
+                        .map(entry -> ShardBalanceDTO.builder()
+                                .shard(entry.getKey())
+                                .netChange(entry.getValue())
+                                .build())
+                        .toList())
+                .leakingSagas(leaking.stream().limit(MAX_REPORTED_SAGAS).toList())
+                .staleSagas(stale.stream().limit(MAX_REPORTED_SAGAS).toList())
+                .build();
+
+        lastReport = report;
+        return report;
+    }
+
+    private void apply(Long walletId, BigDecimal delta, Long sagaInstanceId, boolean external) {
+        snapshotLock.readLock().lock();
+        try {
+            pendingWalletDeltas.merge(walletId, delta, BigDecimal::add);
+
+            if (external) {
+                externalNet.accumulateAndGet(delta, BigDecimal::add);
+            } else if (sagaInstanceId != null) {
+                sagaBalances.compute(sagaInstanceId, (id, balance) -> {
+                    SagaBalance updated = balance != null ? balance : new SagaBalance();
+                    updated.residual = updated.residual.subtract(delta);
+                    return updated.finishedAt != null && updated.residual.signum() == 0 ? null : updated;
+                });
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    private void resolveShards(Iterable<Long> walletIds) {
+        // Bucket migrations move wallets between shards
+        BucketLayout layout = BucketLayoutRegistry.current();
+        if (layout != walletShardsLayout) {
+            walletShards.clear();
+            walletShardsLayout = layout;
+        }
+
+        List<Long> unresolved = new ArrayList<>();
+        for (Long walletId : walletIds) {
+            if (!walletShards.containsKey(walletId)) {
+                unresolved.add(walletId);
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (Wallet wallet : walletRepository.findAllById(unresolved)) {
+                walletShards.put(wallet.getId(), shardResolver.shardForWallet(wallet));
+            }
+        } catch (Exception e) {
+            log.warn("Could not resolve shards of {} wallets, counting them as unknown", unresolved.size(), e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class SagaBalance {
+        final LocalDateTime since = LocalDateTime.now();
+        BigDecimal residual = BigDecimal.ZERO;
+        LocalDateTime finishedAt;
+
+        SagaBalanceSnapshot snapshot(Long sagaInstanceId) {
+            return new SagaBalanceSnapshot(sagaInstanceId, residual, since, finishedAt);
+        }
+    }
+
+    private record SagaBalanceSnapshot(Long sagaInstanceId, BigDecimal residual,
+                                       LocalDateTime since, LocalDateTime finishedAt) {
+        SagaImbalanceDTO toDto(boolean finished) {
+            return SagaImbalanceDTO.builder()
+                    .sagaInstanceId(sagaInstanceId)
+                    .residual(residual)
+                    .finished(finished)
+                    .since(since)
+                    .build();
+        }
+    }
+}
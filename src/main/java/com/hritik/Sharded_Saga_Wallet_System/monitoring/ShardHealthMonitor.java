@@ -0,0 +1,50 @@
+package com.hritik.Sharded_Saga_Wallet_System.monitoring;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.ShardHealthDTO;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardDataSourceRegistry;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Applies the bulkhead and circuit breaker settings to every shard's {@link ShardGuard} and
+ * reports their state.
+ */
+@Component
+@Slf4j
+public class ShardHealthMonitor {
+
+    public ShardHealthMonitor(@Value("${wallet.shard-guard.max-concurrent:8}") int maxConcurrent,
+                              @Value("${wallet.shard-guard.max-wait-ms:100}") long maxWaitMs,
+                              @Value("${wallet.shard-guard.failure-threshold:5}") int failureThreshold,
+                              @Value("${wallet.shard-guard.open-ms:10000}") long openMs,
+                              @Value("${wallet.shard-guard.slow-call-ms:5000}") long slowCallMs) {
+        ShardGuard.configure(new ShardGuard.Settings(maxConcurrent, maxWaitMs, failureThreshold, openMs, slowCallMs));
+        log.info("Shard guards allow {} concurrent connections per shard and open after {} consecutive failures",
+                maxConcurrent, failureThreshold);
+    }
+
+    public List<ShardHealthDTO> getHealth() {
+        return ShardDataSourceRegistry.getAll().keySet().stream()
+                .map(ShardGuard::forShard)
+                .map(guard -> ShardHealthDTO.builder()
+                        .shard(guard.getShard())
+                        .state(guard.getState().name())
+                        .stateSince(guard.getStateSince())
+                        .maxConcurrent(guard.getMaxConcurrent())
+                        .inUse(guard.getInUse())
+                        .waiting(guard.getWaiting())
+                        .consecutiveFailures(guard.getConsecutiveFailures())
+                        .failures(guard.getFailures())
+                        .slowCalls(guard.getSlowCalls())
+                        .timesOpened(guard.getTimesOpened())
+                        .bulkheadRejections(guard.getBulkheadRejections())
+                        .breakerRejections(guard.getBreakerRejections())
+                        .priorityConnections(guard.getPriorityConnections())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,192 @@
+package com.hritik.Sharded_Saga_Wallet_System.monitoring;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.HotKeyDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.HotKeysDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ShardStatementStatsDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ShardTrafficDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ShardTrafficReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardDataSourceRegistry;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardMetrics;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Reports how traffic spreads over the shards, from the counters collected on the physical
+ * connections (see {@link ShardMetrics}), and which wallets and users take the most writes.
+ * A user's write rate is the direct writes to the user row plus the writes to their wallets,
+ * since balance updates address wallets by id only.
+ * <p>
+ * Counters are kept in memory from application start and only cover this instance.
+ */
+@Component
+@Slf4j
+public class ShardTrafficMonitor {
+
+    private static final Set<String> WRITE_OPERATIONS = Set.of("INSERT", "UPDATE", "DELETE");
+    private static final String ROW_LOCK_STATUS = "SHOW GLOBAL STATUS LIKE 'Innodb_row_lock_%'";
+    // Wallets considered when ranking users, relative to the number of users requested
+    private static final int USER_CANDIDATE_FACTOR = 10;
+
+    private final WalletRepository walletRepository;
+    private final ShardResolver shardResolver;
+    private final LocalDateTime trackingSince = LocalDateTime.now();
+
+    public ShardTrafficMonitor(WalletRepository walletRepository,
+                               ShardResolver shardResolver,
+                               @Value("${wallet.traffic.hot-key-window-ms:60000}") long hotKeyWindowMs,
+                               @Value("${wallet.traffic.max-tracked-keys:10000}") int maxTrackedKeys) {
+        this.walletRepository = walletRepository;
+        this.shardResolver = shardResolver;
+        ShardMetrics.configure(hotKeyWindowMs, maxTrackedKeys);
+    }
+
+    public ShardTrafficReportDTO getReport() {
+        Map<String, ShardTrafficDTO> shards = new TreeMap<>();
+        for (String shard : ShardDataSourceRegistry.getAll().keySet()) {
+            shards.put(shard, ShardTrafficDTO.builder().shard(shard).build());
+        }
+
+        List<ShardStatementStatsDTO> statements = new ArrayList<>();
+        ShardMetrics.statementSnapshot().forEach((key, stats) -> {
+            statements.add(ShardStatementStatsDTO.builder()
+                    .shard(key.shard())
+                    .table(key.table())
+                    .operation(key.operation())
+                    .statements(stats.statements())
+                    .rows(stats.rows())
+                    .errors(stats.errors())
+                    .lockFailures(stats.lockFailures())
+                    .avgMillis(stats.statements() > 0 ? stats.totalNanos() / 1e6 / stats.statements() : 0)
+                    .maxMillis(stats.maxNanos() / 1e6)
+                    .build());
+
+            ShardTrafficDTO shard = shards.computeIfAbsent(key.shard(),
+                    name -> ShardTrafficDTO.builder().shard(name).build());
+            shard.setStatements(shard.getStatements() + stats.statements());
+            shard.setRows(shard.getRows() + stats.rows());
+            shard.setErrors(shard.getErrors() + stats.errors());
+            shard.setLockFailures(shard.getLockFailures() + stats.lockFailures());
+            if (WRITE_OPERATIONS.contains(key.operation())) {
+                shard.setWrites(shard.getWrites() + stats.statements());
+            }
+        });
+
+        long totalStatements = shards.values().stream().mapToLong(ShardTrafficDTO::getStatements).sum();
+        long totalWrites = shards.values().stream().mapToLong(ShardTrafficDTO::getWrites).sum();
+        for (ShardTrafficDTO shard : shards.values()) {
+            shard.setStatementShare(share(shard.getStatements(), totalStatements));
+            shard.setWriteShare(share(shard.getWrites(), totalWrites));
+            readRowLockStatus(shard);
+        }
+
+        return ShardTrafficReportDTO.builder()
+                .generatedAt(LocalDateTime.now())
+                .trackingSince(trackingSince)
+                .shards(new ArrayList<>(shards.values()))
+                .statements(statements)
+                .statementSkew(skew(shards.values().stream().mapToLong(ShardTrafficDTO::getStatements).toArray()))
+                .writeSkew(skew(shards.values().stream().mapToLong(ShardTrafficDTO::getWrites).toArray()))
+                .build();
+    }
+
+    /**
+     * Ranks wallets and users by writes in the last complete hot-key window.
+     */
+    public HotKeysDTO getHotKeys(int limit) {
+        if (limit <= 0 || limit > 1000) {
+            throw new IllegalArgumentException("Limit must be between 1 and 1000");
+        }
+
+        double windowSeconds = ShardMetrics.getWindowMillis() / 1000.0;
+        List<Map.Entry<Long, Long>> walletWrites =
+                ShardMetrics.topWrites(ShardMetrics.KeyKind.WALLET, limit * USER_CANDIDATE_FACTOR);
+
+        Map<Long, Long> walletUsers = new HashMap<>();
+        walletRepository.findAllById(walletWrites.stream().map(Map.Entry::getKey).toList())
+                .forEach(wallet -> walletUsers.put(wallet.getId(), wallet.getUserId()));
+
+        List<HotKeyDTO> wallets = walletWrites.stream()
+                .limit(limit)
+                .map(entry -> hotKey(entry.getKey(), walletUsers.get(entry.getKey()), entry.getValue(), windowSeconds))
+                .toList();
+
+        Map<Long, Long> userWrites = new HashMap<>();
+        ShardMetrics.topWrites(ShardMetrics.KeyKind.USER, limit * USER_CANDIDATE_FACTOR)
+                .forEach(entry -> userWrites.merge(entry.getKey(), entry.getValue(), Long::sum));
+        for (Map.Entry<Long, Long> entry : walletWrites) {
+            Long userId = walletUsers.get(entry.getKey());
+            if (userId != null) {
+                userWrites.merge(userId, entry.getValue(), Long::sum);
+            }
+        }
+
+        List<HotKeyDTO> users = userWrites.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(entry -> hotKey(entry.getKey(), entry.getKey(), entry.getValue(), windowSeconds))
+                .toList();
+
+        log.debug("Ranked {} hot wallets and {} hot users", wallets.size(), users.size());
+
+        return HotKeysDTO.builder()
+                .windowSeconds((long) windowSeconds)
+                .wallets(wallets)
+                .users(users)
+                .build();
+    }
+
+    private HotKeyDTO hotKey(Long id, Long shardKey, long writes, double windowSeconds) {
+        return HotKeyDTO.builder()
+                .id(id)
+                .shard(shardKey != null ? shardResolver.shardForKey(shardKey) : null)
+                .writes(writes)
+                .writesPerSecond(writes / windowSeconds)
+                .build();
+    }
+
+    /**
+     * Server-wide InnoDB counters; shards sharing a MySQL server report the same figures.
+     */
+    private void readRowLockStatus(ShardTrafficDTO shard) {
+        try {
+            Map<String, Long> status = new HashMap<>();
+            new JdbcTemplate(ShardDataSourceRegistry.get(shard.getShard())).query(ROW_LOCK_STATUS,
+                    resultSet -> {
+                        status.put(resultSet.getString(1), resultSet.getLong(2));
+                    });
+            shard.setRowLockWaits(status.get("Innodb_row_lock_waits"));
+            shard.setRowLockTimeMillis(status.get("Innodb_row_lock_time"));
+        } catch (Exception e) {
+            log.warn("Could not read row lock status of shard {}: {}", shard.getShard(), e.getMessage());
+        }
+    }
+
+    private static double share(long value, long total) {
+        return total > 0 ? (double) value / total : 0;
+    }
+
+    private static double skew(long[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        long total = 0;
+        long max = 0;
+        for (long value : values) {
+            total += value;
+            max = Math.max(max, value);
+        }
+        return total > 0 ? max / ((double) total / values.length) : 0;
+    }
+}
@@ -0,0 +1,63 @@
+package com.hritik.Sharded_Saga_Wallet_System.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket kept in its GCRA form: the whole state is one
+ * "theoretical arrival time" updated with CAS, so acquiring a token never blocks
+ * and never allocates.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burstCapacity, long nowNanos) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Permits per second must be greater than zero");
+        }
+        if (burstCapacity <= 0) {
+            throw new IllegalArgumentException("Burst capacity must be greater than zero");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burstCapacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return 0 if the token was granted, otherwise the nanoseconds until one becomes available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long waitNanos = next - nowNanos - burstToleranceNanos;
+
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token granted by {@link #tryAcquire(long)}, for callers that charge
+     * several buckets and must not keep a partial charge when a later one rejects.
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+
+    /**
+     * A bucket whose arrival time is in the past has refilled completely and can be
+     * dropped; a fresh bucket behaves identically.
+     */
+    public boolean isIdle(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,113 @@
+package com.hritik.Sharded_Saga_Wallet_System.ratelimit;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.RateLimitMetricsDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.RateLimitExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the transfer endpoints. Requests are charged against a
+ * bucket for the API client and a bucket for the source wallet, so one hot wallet is
+ * throttled before its callers queue up on the wallet row lock and drain the shard pools.
+ */
+@Component
+@Slf4j
+public class TransferRateLimiter {
+
+    public static final String SCOPE_CLIENT = "client";
+    public static final String SCOPE_WALLET = "wallet";
+
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final Map<Long, TokenBucket> walletBuckets = new ConcurrentHashMap<>();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedByClient = new LongAdder();
+    private final LongAdder rejectedByWallet = new LongAdder();
+
+    @Value("${wallet.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${wallet.rate-limit.client.permits-per-second:200}")
+    private double clientPermitsPerSecond;
+
+    @Value("${wallet.rate-limit.client.burst:400}")
+    private int clientBurst;
+
+    @Value("${wallet.rate-limit.wallet.permits-per-second:20}")
+    private double walletPermitsPerSecond;
+
+    @Value("${wallet.rate-limit.wallet.burst:40}")
+    private int walletBurst;
+
+    /**
+     * Charges one transfer to the client and to its source wallet. Both tokens are taken or
+     * neither is: when the wallet bucket rejects, the client token is handed back so a hot
+     * wallet does not also use up its caller's budget. Batch and streaming ingestion call
+     * this once per item.
+     */
+    public void acquire(String clientId, Long fromWalletId) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.nanoTime();
+
+        TokenBucket clientBucket = clientBuckets.computeIfAbsent(clientId,
+                id -> new TokenBucket(clientPermitsPerSecond, clientBurst, now));
+        long clientWait = clientBucket.tryAcquire(now);
+        if (clientWait > 0) {
+            rejectedByClient.increment();
+            log.warn("Rate limit exceeded for client {}", clientId);
+            throw new RateLimitExceededException(SCOPE_CLIENT, clientId, retryAfterSeconds(clientWait));
+        }
+
+        TokenBucket walletBucket = walletBuckets.computeIfAbsent(fromWalletId,
+                id -> new TokenBucket(walletPermitsPerSecond, walletBurst, now));
+        long walletWait = walletBucket.tryAcquire(now);
+        if (walletWait > 0) {
+            clientBucket.refund();
+            rejectedByWallet.increment();
+            log.warn("Rate limit exceeded for wallet {} (client {})", fromWalletId, clientId);
+            throw new RateLimitExceededException(SCOPE_WALLET, String.valueOf(fromWalletId),
+                    retryAfterSeconds(walletWait));
+        }
+
+        admitted.increment();
+    }
+
+    public RateLimitMetricsDTO getMetrics() {
+        return RateLimitMetricsDTO.builder()
+                .enabled(enabled)
+                .admitted(admitted.sum())
+                .rejectedByClient(rejectedByClient.sum())
+                .rejectedByWallet(rejectedByWallet.sum())
+                .trackedClients(clientBuckets.size())
+                .trackedWallets(walletBuckets.size())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int before = clientBuckets.size() + walletBuckets.size();
+
+        clientBuckets.values().removeIf(bucket -> bucket.isIdle(now));
+        walletBuckets.values().removeIf(bucket -> bucket.isIdle(now));
+
+        int evicted = before - clientBuckets.size() - walletBuckets.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
@@ -1,26 +1,49 @@
 package com.hritik.Sharded_Saga_Wallet_System.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 
 import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.TransactionStatus;
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    List<Transaction> findByFromWalletId(Long fromWalletId); // all the debit transactions
+    List<Transaction> findByIdGreaterThan(Long id, Pageable pageable);
 
-    List<Transaction> findByToWalletId(Long toWalletId); // all the credit transactions
+    List<Transaction> findByStatus(TransactionStatus status);
 
-    @Query("SELECT t FROM Transaction t WHERE t.fromWalletId = :walletId OR t.toWalletId = :walletId")
-    List<Transaction> findByWalletId(@Param("walletId") Long walletId); // all the transactions for a wallet
+    // Both served by idx_transaction_status_created on every shard; the LIMIT is pushed down per shard
+    List<Transaction> findByStatusAndCreatedAtBeforeOrderByCreatedAtAscIdAsc(TransactionStatus status,
+                                                                            LocalDateTime before,
+                                                                            Pageable pageable);
 
-    List<Transaction> findByStatus(TransactionStatus status);
+    List<Transaction> findByStatusAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscIdAsc(
+            TransactionStatus status, LocalDateTime from, LocalDateTime to, Pageable pageable);
 
     List<Transaction> findBySagaInstanceId(Long sagaInstanceId);
 
+    // Routed by id, so only the shards holding the given transactions are read
+    long countByIdInAndType(Collection<Long> ids, TransactionType type);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id IN :ids")
+    List<Transaction> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Only netted transfers are committed before being linked to a saga
+    @Query("SELECT t.id FROM Transaction t WHERE t.status = :status AND t.sagaInstanceId IS NULL " +
+            "AND t.createdAt < :before ORDER BY t.createdAt, t.id")
+    List<Long> findUnlinkedIds(@Param("status") TransactionStatus status,
+                               @Param("before") LocalDateTime before,
+                               Pageable pageable);
+
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.hritik.Sharded_Saga_Wallet_System.repository;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.UserEmailIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserEmailIndexRepository extends JpaRepository<UserEmailIndex, Long> {
+
+    // The hash routes the lookup to a single shard
+    Optional<UserEmailIndex> findByEmailHashAndEmail(Long emailHash, String email);
+
+    List<UserEmailIndex> findByEmailHashIn(Collection<Long> emailHashes);
+
+    // Executed immediately, so the email can be claimed again in the same transaction
+    @Modifying
+    @Query("DELETE FROM UserEmailIndex e WHERE e.emailHash = :emailHash AND e.id = :id")
+    int deleteClaim(@Param("emailHash") Long emailHash, @Param("id") Long id);
+}
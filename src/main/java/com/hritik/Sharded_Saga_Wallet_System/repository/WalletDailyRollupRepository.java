@@ -0,0 +1,42 @@
+package com.hritik.Sharded_Saga_Wallet_System.repository;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.WalletDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface WalletDailyRollupRepository extends JpaRepository<WalletDailyRollup, Long> {
+
+    List<WalletDailyRollup> findByWalletIdAndRollupDateBetweenOrderByRollupDate(Long walletId,
+                                                                               LocalDate from,
+                                                                               LocalDate to);
+
+    List<WalletDailyRollup> findByWalletId(Long walletId);
+
+    // Deltas may be negative when a settled transaction is compensated
+    @Modifying
+    @Query(value = "INSERT INTO wallet_daily_rollup " +
+            "(wallet_id, rollup_date, total_in, total_out, credit_count, debit_count) " +
+            "VALUES (:walletId, :rollupDate, :totalIn, :totalOut, :creditCount, :debitCount) " +
+            "ON DUPLICATE KEY UPDATE total_in = total_in + VALUES(total_in), " +
+            "total_out = total_out + VALUES(total_out), " +
+            "credit_count = credit_count + VALUES(credit_count), " +
+            "debit_count = debit_count + VALUES(debit_count)", nativeQuery = true)
+    int addToRollup(@Param("walletId") Long walletId,
+                    @Param("rollupDate") LocalDate rollupDate,
+                    @Param("totalIn") BigDecimal totalIn,
+                    @Param("totalOut") BigDecimal totalOut,
+                    @Param("creditCount") long creditCount,
+                    @Param("debitCount") long debitCount);
+
+    @Modifying
+    @Query("DELETE FROM WalletDailyRollup r WHERE r.rollupDate = :rollupDate")
+    int deleteByRollupDate(@Param("rollupDate") LocalDate rollupDate);
+}
@@ -0,0 +1,23 @@
+package com.hritik.Sharded_Saga_Wallet_System.repository;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.WalletMailboxReceipt;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WalletMailboxReceiptRepository extends JpaRepository<WalletMailboxReceipt, Long> {
+
+    // The wallet owner routes the delete to the receipt's shard
+    @Modifying
+    @Query("DELETE FROM WalletMailboxReceipt r WHERE r.id = :id AND r.userId = :userId")
+    int claim(@Param("id") Long id, @Param("userId") Long userId);
+
+    List<WalletMailboxReceipt> findByCreatedAtBeforeOrderByCreatedAt(LocalDateTime cutoff, Pageable pageable);
+}
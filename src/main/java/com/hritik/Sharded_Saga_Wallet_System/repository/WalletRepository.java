@@ -19,21 +19,31 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
 
     List<Wallet> findByUserId(Long userId);
 
+    // Locking reads and writes filter on user_id, the sharding key, so they are routed to the
+    // wallet's shard and wait out a bucket fence; filtering on id alone broadcasts to every shard.
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT w FROM Wallet w WHERE w.id = :id")
-    Optional<Wallet> findByIdWithLock(@Param("id") Long id);
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id AND w.userId = :userId")
+    Optional<Wallet> findByIdWithLock(@Param("id") Long id, @Param("userId") Long userId);
 
     @Modifying(clearAutomatically = true)
     @Query("UPDATE Wallet w SET w.balance = w.balance - :amount " +
-            "WHERE w.id = :walletId AND w.balance >= :amount AND w.isActive = true")
-    int atomicDebit(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+            "WHERE w.id = :walletId AND w.userId = :userId AND w.balance >= :amount AND w.isActive = true")
+    int atomicDebit(@Param("walletId") Long walletId, @Param("userId") Long userId,
+                    @Param("amount") BigDecimal amount);
 
     @Modifying(clearAutomatically = true)
     @Query("UPDATE Wallet w SET w.balance = w.balance + :amount " +
-            "WHERE w.id = :walletId AND w.isActive = true")
-    int atomicCredit(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+            "WHERE w.id = :walletId AND w.userId = :userId AND w.isActive = true")
+    int atomicCredit(@Param("walletId") Long walletId, @Param("userId") Long userId,
+                     @Param("amount") BigDecimal amount);
 
     @Modifying(clearAutomatically = true)
-    @Query("UPDATE Wallet w SET w.balance = :balance WHERE w.id = :walletId")
-    void updateBalanceByWalletId(@Param("walletId") Long walletId, @Param("balance") BigDecimal balance);
+    @Query("UPDATE Wallet w SET w.balance = :balance WHERE w.id = :walletId AND w.userId = :userId")
+    void updateBalanceByWalletId(@Param("walletId") Long walletId, @Param("userId") Long userId,
+                                 @Param("balance") BigDecimal balance);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Wallet w SET w.isActive = :active WHERE w.id = :walletId AND w.userId = :userId")
+    int updateActive(@Param("walletId") Long walletId, @Param("userId") Long userId,
+                     @Param("active") boolean active);
 }
\ No newline at end of file
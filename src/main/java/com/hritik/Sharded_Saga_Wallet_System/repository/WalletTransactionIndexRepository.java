@@ -0,0 +1,39 @@
+package com.hritik.Sharded_Saga_Wallet_System.repository;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionDirection;
+import com.hritik.Sharded_Saga_Wallet_System.model.WalletTransactionIndex;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WalletTransactionIndexRepository extends JpaRepository<WalletTransactionIndex, Long> {
+
+    // The owner routes to the wallet's shard only; side is null for both directions
+    @Query("SELECT i FROM WalletTransactionIndex i WHERE i.userId = :userId AND i.walletId = :walletId " +
+            "AND (:side IS NULL OR i.side = :side) " +
+            "AND (i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.transactionId < :transactionId)) " +
+            "ORDER BY i.createdAt DESC, i.transactionId DESC")
+    List<WalletTransactionIndex> findPage(@Param("userId") Long userId,
+                                          @Param("walletId") Long walletId,
+                                          @Param("side") TransactionDirection side,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("transactionId") Long transactionId,
+                                          Pageable pageable);
+
+    // The owner routes to the wallet's shard only
+    @Query("SELECT i.transactionId FROM WalletTransactionIndex i WHERE i.userId = :userId AND i.walletId = :walletId " +
+            "AND i.counterpartyWalletId = :counterpartyWalletId")
+    List<Long> findTransactionIdsByCounterparty(@Param("userId") Long userId,
+                                                @Param("walletId") Long walletId,
+                                                @Param("counterpartyWalletId") Long counterpartyWalletId);
+
+    @Query("SELECT i.transactionId FROM WalletTransactionIndex i WHERE i.transactionId IN :transactionIds")
+    List<Long> findIndexedTransactionIds(@Param("transactionIds") Collection<Long> transactionIds);
+}
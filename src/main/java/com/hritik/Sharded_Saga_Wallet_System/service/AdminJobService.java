@@ -0,0 +1,91 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.AdminJobDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs long admin operations (backfills, reconciliation) off the request thread. A job
+ * name runs at most once at a time, and its latest run is kept so callers can poll it.
+ * Jobs get their own executor: several of them fan out on the maintenance executor and
+ * wait for the results, which would starve that pool if the jobs ran on it too.
+ */
+@Service
+@Slf4j
+public class AdminJobService {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_SUCCEEDED = "SUCCEEDED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final ThreadPoolTaskExecutor adminJobExecutor;
+    private final Map<String, AdminJobDTO> jobs = new ConcurrentHashMap<>();
+
+    public AdminJobService(@Qualifier("adminJobExecutor") ThreadPoolTaskExecutor adminJobExecutor) {
+        this.adminJobExecutor = adminJobExecutor;
+    }
+
+    /**
+     * Starts the job unless a run with the same name is still in progress.
+     *
+     * @return the new run, or the one already in progress
+     */
+    public AdminJobDTO start(String name, Supplier<?> work) {
+        AdminJobDTO started = AdminJobDTO.builder()
+                .name(name)
+                .status(STATUS_RUNNING)
+                .startedAt(LocalDateTime.now())
+                .build();
+
+        AdminJobDTO current = jobs.compute(name, (key, previous) ->
+                previous != null && STATUS_RUNNING.equals(previous.getStatus()) ? previous : started);
+        if (current != started) {
+            log.info("Admin job {} is already running since {}", name, current.getStartedAt());
+            return current;
+        }
+
+        try {
+            adminJobExecutor.execute(() -> run(started, work));
+        } catch (TaskRejectedException e) {
+            finish(started, null, e);
+            throw e;
+        }
+        log.info("Admin job {} started", name);
+        return started;
+    }
+
+    /**
+     * @return the latest run of the job, or null if it never ran on this node
+     */
+    public AdminJobDTO get(String name) {
+        return jobs.get(name);
+    }
+
+    private void run(AdminJobDTO job, Supplier<?> work) {
+        try {
+            Object result = work.get();
+            finish(job, result, null);
+            log.info("Admin job {} finished", job.getName());
+        } catch (Exception e) {
+            log.error("Admin job {} failed", job.getName(), e);
+            finish(job, null, e);
+        }
+    }
+
+    private void finish(AdminJobDTO job, Object result, Exception error) {
+        jobs.put(job.getName(), job.toBuilder()
+                .status(error == null ? STATUS_SUCCEEDED : STATUS_FAILED)
+                .finishedAt(LocalDateTime.now())
+                .result(result)
+                .error(error != null ? error.getMessage() : null)
+                .build());
+    }
+}
@@ -0,0 +1,256 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.BatchTransferItemResultDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.BatchTransferResponseDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.TransferRequestDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.InvalidTransactionException;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.RateLimitExceededException;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionType;
+import com.hritik.Sharded_Saga_Wallet_System.ratelimit.TransferRateLimiter;
+import com.hritik.Sharded_Saga_Wallet_System.service.MetadataCache.WalletMetadata;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs many transfers in one call. Wallets are validated with a single bulk lookup,
+ * transaction and saga rows are written per chunk in one database transaction, and the
+ * sagas themselves are executed on the saga executor with bounded parallelism.
+ * Every valid item is charged to the rate limiter like a single transfer, so a batch
+ * cannot push a wallet past its per-wallet limit; items over the limit are rejected.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BatchTransferService {
+
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    private final TransferSagaService transferSagaService;
+    private final WalletService walletService;
+    private final ShardResolver shardResolver;
+    private final TransferRateLimiter transferRateLimiter;
+
+    @Qualifier("sagaExecutor")
+    private final ThreadPoolTaskExecutor sagaExecutor;
+
+    @Value("${wallet.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${wallet.batch.max-parallel-sagas:8}")
+    private int maxParallelSagas;
+
+    public BatchTransferResponseDTO executeBatch(String clientId, List<TransferRequestDTO> transfers) {
+        log.info("Executing batch of {} transfers", transfers.size());
+
+        BatchTransferItemResultDTO[] results = new BatchTransferItemResultDTO[transfers.size()];
+
+        Map<Long, WalletMetadata> wallets = loadWallets(transfers);
+        List<Integer> accepted = validate(clientId, transfers, wallets, results);
+
+        // Group by (source shard, destination shard) so sagas can be interleaved across shards
+        Map<String, Queue<Integer>> lanes = new LinkedHashMap<>();
+        for (int index : accepted) {
+            TransferRequestDTO transfer = transfers.get(index);
+            String lane = shardResolver.shardForKey(wallets.get(transfer.getFromWalletId()).userId()) + "->"
+                    + shardResolver.shardForKey(wallets.get(transfer.getToWalletId()).userId());
+            lanes.computeIfAbsent(lane, key -> new ArrayDeque<>()).add(index);
+        }
+        log.debug("Batch partitioned into {} shard lanes", lanes.size());
+
+        List<Integer> ordered = interleave(lanes);
+        Semaphore inFlight = new Semaphore(maxParallelSagas);
+        List<CompletableFuture<Void>> pending = new ArrayList<>(ordered.size());
+
+        for (int from = 0; from < ordered.size(); from += chunkSize) {
+            List<Integer> chunk = ordered.subList(from, Math.min(from + chunkSize, ordered.size()));
+            List<TransferSagaService.PreparedTransfer> prepared = prepareChunk(transfers, chunk, results);
+
+            for (int i = 0; i < prepared.size(); i++) {
+                pending.add(submit(chunk.get(i), prepared.get(i), inFlight, results));
+            }
+        }
+
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+
+        List<BatchTransferItemResultDTO> resultList = Arrays.asList(results);
+        int succeeded = (int) resultList.stream()
+                .filter(result -> STATUS_COMPLETED.equals(result.getStatus()))
+                .count();
+
+        log.info("Batch finished: {} of {} transfers completed", succeeded, transfers.size());
+
+        return BatchTransferResponseDTO.builder()
+                .total(transfers.size())
+                .succeeded(succeeded)
+                .failed(transfers.size() - succeeded)
+                .results(resultList)
+                .build();
+    }
+
+    private Map<Long, WalletMetadata> loadWallets(List<TransferRequestDTO> transfers) {
+        Set<Long> walletIds = new HashSet<>();
+        for (TransferRequestDTO transfer : transfers) {
+            if (transfer.getFromWalletId() != null) {
+                walletIds.add(transfer.getFromWalletId());
+            }
+            if (transfer.getToWalletId() != null) {
+                walletIds.add(transfer.getToWalletId());
+            }
+        }
+        return walletService.getWalletMetadata(walletIds);
+    }
+
+    private List<Integer> validate(String clientId, List<TransferRequestDTO> transfers,
+                                   Map<Long, WalletMetadata> wallets, BatchTransferItemResultDTO[] results) {
+        List<Integer> accepted = new ArrayList<>(transfers.size());
+
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequestDTO transfer = transfers.get(i);
+            try {
+                transferSagaService.validateTransferRequest(
+                        transfer.getFromWalletId(), transfer.getToWalletId(), transfer.getAmount());
+                requireActive(wallets.get(transfer.getFromWalletId()), transfer.getFromWalletId(), "Source");
+                requireActive(wallets.get(transfer.getToWalletId()), transfer.getToWalletId(), "Destination");
+                transferRateLimiter.acquire(clientId, transfer.getFromWalletId());
+                accepted.add(i);
+            } catch (InvalidTransactionException | RateLimitExceededException e) {
+                results[i] = rejected(i, e.getMessage());
+            }
+        }
+
+        log.info("{} of {} transfers passed validation", accepted.size(), transfers.size());
+        return accepted;
+    }
+
+    private void requireActive(WalletMetadata wallet, Long walletId, String role) {
+        if (wallet == null) {
+            throw new InvalidTransactionException(role + " wallet " + walletId + " not found");
+        }
+        if (!wallet.active()) {
+            throw new InvalidTransactionException(role + " wallet " + walletId + " is not active");
+        }
+    }
+
+    private List<Integer> interleave(Map<String, Queue<Integer>> lanes) {
+        List<Integer> ordered = new ArrayList<>();
+        boolean remaining = true;
+        while (remaining) {
+            remaining = false;
+            for (Queue<Integer> lane : lanes.values()) {
+                Integer index = lane.poll();
+                if (index != null) {
+                    ordered.add(index);
+                    remaining = true;
+                }
+            }
+        }
+        return ordered;
+    }
+
+    private List<TransferSagaService.PreparedTransfer> prepareChunk(List<TransferRequestDTO> transfers,
+                                                                    List<Integer> chunk,
+                                                                    BatchTransferItemResultDTO[] results) {
+        List<Transaction> transactions = chunk.stream()
+                .map(transfers::get)
+                .map(transfer -> Transaction.builder()
+                        .fromWalletId(transfer.getFromWalletId())
+                        .toWalletId(transfer.getToWalletId())
+                        .amount(transfer.getAmount())
+                        .description(transfer.getDescription())
+                        .type(TransactionType.TRANSFER)
+                        .build())
+                .toList();
+
+        try {
+            return transferSagaService.prepareTransfers(transactions);
+        } catch (Exception e) {
+            log.error("Failed to persist chunk of {} transfers", chunk.size(), e);
+            for (int index : chunk) {
+                results[index] = failed(index, null, null, "Failed to persist transfer: " + e.getMessage());
+            }
+            return List.of();
+        }
+    }
+
+    private CompletableFuture<Void> submit(int index, TransferSagaService.PreparedTransfer prepared,
+                                           Semaphore inFlight, BatchTransferItemResultDTO[] results) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            results[index] = failed(index, prepared, "Interrupted before saga execution");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture
+                .runAsync(() -> transferSagaService.executeTransferSaga(prepared.getSagaInstanceId()), sagaExecutor)
+                .handle((ignored, error) -> {
+                    inFlight.release();
+                    if (error == null) {
+                        results[index] = BatchTransferItemResultDTO.builder()
+                                .index(index)
+                                .sagaInstanceId(prepared.getSagaInstanceId())
+                                .transactionId(prepared.getTransactionId())
+                                .status(STATUS_COMPLETED)
+                                .message("Transfer completed successfully")
+                                .build();
+                    } else {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        recordFailure(prepared);
+                        results[index] = failed(index, prepared, cause.getMessage());
+                    }
+                    return null;
+                });
+    }
+
+    private void recordFailure(TransferSagaService.PreparedTransfer prepared) {
+        try {
+            transferSagaService.markTransferFailed(prepared.getSagaInstanceId(), prepared.getTransactionId());
+        } catch (Exception e) {
+            log.error("Failed to record failure of saga {}", prepared.getSagaInstanceId(), e);
+        }
+    }
+
+    private BatchTransferItemResultDTO rejected(int index, String message) {
+        return BatchTransferItemResultDTO.builder()
+                .index(index)
+                .status(STATUS_REJECTED)
+                .message(message)
+                .build();
+    }
+
+    private BatchTransferItemResultDTO failed(int index, TransferSagaService.PreparedTransfer prepared,
+                                              String message) {
+        return failed(index, prepared.getSagaInstanceId(), prepared.getTransactionId(), message);
+    }
+
+    private BatchTransferItemResultDTO failed(int index, Long sagaInstanceId, Long transactionId, String message) {
+        return BatchTransferItemResultDTO.builder()
+                .index(index)
+                .sagaInstanceId(sagaInstanceId)
+                .transactionId(transactionId)
+                .status(STATUS_FAILED)
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hritik.Sharded_Saga_Wallet_System.dto.CacheStatsDTO;
+import com.hritik.Sharded_Saga_Wallet_System.model.User;
+import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Node-local caches for data that rarely changes: users, and the owner and active flag of
+ * wallets. Balances are never cached. Entries expire after a TTL, which bounds how long a
+ * change made through another node can go unnoticed here. Users are never updated in place;
+ * wallet activation changes made through this node evict the entry right away and again
+ * after the transaction completes, so a read racing the commit cannot put the old value back.
+ */
+@Component
+@Slf4j
+public class MetadataCache {
+
+    /**
+     * The parts of a wallet that validation and routing need. {@code userId} never changes.
+     */
+    public record WalletMetadata(Long id, Long userId, boolean active) {
+
+        static WalletMetadata of(Wallet wallet) {
+            return new WalletMetadata(wallet.getId(), wallet.getUserId(), Boolean.TRUE.equals(wallet.getIsActive()));
+        }
+    }
+
+    private final Cache<Long, User> users;
+    private final Cache<Long, WalletMetadata> wallets;
+
+    public MetadataCache(@Value("${wallet.cache.users.max-size:100000}") long userMaxSize,
+                         @Value("${wallet.cache.users.ttl-ms:300000}") long userTtlMs,
+                         @Value("${wallet.cache.wallets.max-size:200000}") long walletMaxSize,
+                         @Value("${wallet.cache.wallets.ttl-ms:60000}") long walletTtlMs) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(userMaxSize)
+                .expireAfterWrite(Duration.ofMillis(userTtlMs))
+                .recordStats()
+                .build();
+        this.wallets = Caffeine.newBuilder()
+                .maximumSize(walletMaxSize)
+                .expireAfterWrite(Duration.ofMillis(walletTtlMs))
+                .recordStats()
+                .build();
+    }
+
+    public User getUser(Long userId, Function<Long, User> loader) {
+        return users.get(userId, loader);
+    }
+
+    public WalletMetadata getWallet(Long walletId, Function<Long, Wallet> loader) {
+        return wallets.get(walletId, id -> WalletMetadata.of(loader.apply(id)));
+    }
+
+    /**
+     * Missing wallets are loaded in one call; wallets the loader does not return are absent
+     * from the result.
+     */
+    public Map<Long, WalletMetadata> getWallets(Collection<Long> walletIds,
+                                                Function<Collection<Long>, List<Wallet>> loader) {
+        return wallets.getAll(walletIds, missing -> {
+            Map<Long, WalletMetadata> loaded = new HashMap<>();
+            for (Wallet wallet : loader.apply(List.copyOf(missing))) {
+                loaded.put(wallet.getId(), WalletMetadata.of(wallet));
+            }
+            return loaded;
+        });
+    }
+
+    public void evictWallet(Long walletId) {
+        evict(() -> wallets.invalidate(walletId));
+    }
+
+    public List<CacheStatsDTO> getStats() {
+        return List.of(stats("users", users), stats("wallets", wallets));
+    }
+
+    private static void evict(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static CacheStatsDTO stats(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return CacheStatsDTO.builder()
+                .name(name)
+                .size(cache.estimatedSize())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .build();
+    }
+}
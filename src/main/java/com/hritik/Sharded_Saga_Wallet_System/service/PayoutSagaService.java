@@ -0,0 +1,202 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hritik.Sharded_Saga_Wallet_System.dto.PayoutRecipientDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.PayoutResponseDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.InsufficientBalanceException;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.InvalidTransactionException;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.SagaException;
+import com.hritik.Sharded_Saga_Wallet_System.model.SagaInstance;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionType;
+import com.hritik.Sharded_Saga_Wallet_System.service.MetadataCache.WalletMetadata;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaContext;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaOrchestrator;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.steps.SagaStepFactory;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.steps.SagaStepType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One-to-many payouts: the source wallet is locked and debited once for the total,
+ * then every recipient is credited in parallel per shard.
+ * Unlike a transfer, each step commits on its own, so recipients that were credited stay
+ * credited and only the failed ones are refunded.
+ */
+@Service
+@Slf4j
+public class PayoutSagaService {
+
+    private final TransactionService transactionService;
+    private final SagaOrchestrator sagaOrchestrator;
+    private final WalletService walletService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public PayoutSagaService(TransactionService transactionService,
+                             SagaOrchestrator sagaOrchestrator,
+                             WalletService walletService,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.transactionService = transactionService;
+        this.sagaOrchestrator = sagaOrchestrator;
+        this.walletService = walletService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public PayoutResponseDTO initiatePayout(Long fromWalletId, List<PayoutRecipientDTO> recipients,
+                                            String description) {
+        log.info("Initiating payout from wallet {} to {} recipients", fromWalletId, recipients.size());
+
+        validateWallets(fromWalletId, recipients);
+
+        Long sagaInstanceId = transactionTemplate.execute(
+                status -> preparePayout(fromWalletId, recipients, description));
+        log.info("Payout saga instance {} created for wallet {}", sagaInstanceId, fromWalletId);
+
+        executePayoutSaga(sagaInstanceId);
+
+        return buildResponse(sagaOrchestrator.getSagaInstance(sagaInstanceId), recipients.size());
+    }
+
+    public void executePayoutSaga(Long sagaInstanceId) {
+        log.info("Executing payout saga {}", sagaInstanceId);
+
+        try {
+            for (SagaStepType step : SagaStepFactory.PayoutSagaSteps) {
+                log.info("Executing step {} for payout saga {}", step, sagaInstanceId);
+
+                boolean success = sagaOrchestrator.executeStep(sagaInstanceId, step.toString());
+
+                if (!success) {
+                    log.error("Step {} failed for payout saga {}, initiating rollback", step, sagaInstanceId);
+                    // Failed once, by the SagaException handler below
+                    throw new SagaException("Payout saga failed at step: " + step);
+                }
+            }
+
+            sagaOrchestrator.completeSaga(sagaInstanceId);
+            log.info("Payout saga {} completed successfully", sagaInstanceId);
+
+        } catch (InsufficientBalanceException | SagaException e) {
+            log.error("Payout saga {} failed", sagaInstanceId, e);
+            failPayout(sagaInstanceId);
+            throw e;
+
+        } catch (Exception e) {
+            log.error("Unexpected error executing payout saga {}", sagaInstanceId, e);
+            failPayout(sagaInstanceId);
+            throw new SagaException("Failed to execute payout saga: " + e.getMessage(), e);
+        }
+    }
+
+    private Long preparePayout(Long fromWalletId, List<PayoutRecipientDTO> recipients, String description) {
+        List<Transaction> transactions = transactionService.createTransactions(recipients.stream()
+                .map(recipient -> Transaction.builder()
+                        .fromWalletId(fromWalletId)
+                        .toWalletId(recipient.getToWalletId())
+                        .amount(recipient.getAmount())
+                        .description(description)
+                        .type(TransactionType.PAYOUT)
+                        .build())
+                .toList());
+
+        BigDecimal total = BigDecimal.ZERO;
+        List<Map<String, Object>> recipientContext = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            total = total.add(transaction.getAmount());
+            recipientContext.add(Map.of(
+                    "transactionId", transaction.getId(),
+                    "toWalletId", transaction.getToWalletId(),
+                    "amount", transaction.getAmount()
+            ));
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("fromWalletId", fromWalletId);
+        data.put("amount", total);
+        data.put("recipients", recipientContext);
+        data.put("description", description != null ? description : "");
+
+        Long sagaInstanceId = sagaOrchestrator.startSaga(SagaContext.builder().data(data).build());
+
+        // Managed entities: flushed as one batch of updates on commit
+        transactions.forEach(transaction -> transaction.setSagaInstanceId(sagaInstanceId));
+        return sagaInstanceId;
+    }
+
+    private void failPayout(Long sagaInstanceId) {
+        try {
+            sagaOrchestrator.failSaga(sagaInstanceId);
+            transactionService.failPendingTransactions(sagaInstanceId);
+        } catch (Exception e) {
+            log.error("Failed to properly fail payout saga {}", sagaInstanceId, e);
+        }
+    }
+
+    private void validateWallets(Long fromWalletId, List<PayoutRecipientDTO> recipients) {
+        if (fromWalletId == null) {
+            throw new InvalidTransactionException("Source wallet ID cannot be null");
+        }
+
+        Set<Long> walletIds = new HashSet<>();
+        walletIds.add(fromWalletId);
+        for (PayoutRecipientDTO recipient : recipients) {
+            if (fromWalletId.equals(recipient.getToWalletId())) {
+                throw new InvalidTransactionException(
+                        "Cannot pay out to the source wallet " + fromWalletId);
+            }
+            walletIds.add(recipient.getToWalletId());
+        }
+
+        Map<Long, WalletMetadata> wallets = walletService.getWalletMetadata(walletIds);
+        for (Long walletId : walletIds) {
+            WalletMetadata wallet = wallets.get(walletId);
+            if (wallet == null) {
+                throw new InvalidTransactionException("Wallet " + walletId + " not found");
+            }
+            if (!wallet.active()) {
+                throw new InvalidTransactionException("Wallet " + walletId + " is not active");
+            }
+        }
+    }
+
+    private PayoutResponseDTO buildResponse(SagaInstance saga, int recipientCount) {
+        Map<String, Object> context = parseContext(saga.getContext());
+        SagaContext sagaContext = SagaContext.builder().data(context).build();
+
+        return PayoutResponseDTO.builder()
+                .sagaInstanceId(saga.getId())
+                .status(saga.getStatus().name())
+                .recipients(recipientCount)
+                .creditedTransactionIds(sagaContext.getLongList("creditedTransactionIds"))
+                .failedTransactionIds(sagaContext.getLongList("failedTransactionIds"))
+                .refundedAmount(sagaContext.getBigDecimal("refundedAmount"))
+                .message("Payout processed")
+                .build();
+    }
+
+    private Map<String, Object> parseContext(String contextJson) {
+        try {
+            return objectMapper.readValue(contextJson, new TypeReference<LinkedHashMap<String, Object>>() {
+            });
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to parse payout saga context", e);
+            return new LinkedHashMap<>();
+        }
+    }
+}
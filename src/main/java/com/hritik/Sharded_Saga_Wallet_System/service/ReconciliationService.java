@@ -0,0 +1,483 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.AdminJobDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.BalanceMismatchDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.OpeningBalanceReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ReconciliationReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ShardReconciliationDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.WalletException;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionType;
+import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.model.id.SnowflakeIdGenerator;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletTransactionIndexRepository;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardDataSourceRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Verifies that every wallet balance equals the net of its SUCCESS transactions.
+ * <p>
+ * Each physical shard is scanned in parallel, reading its wallets directly in id-ordered chunks.
+ * Wallets are first compared with their daily rollups, which are cheap to read but commit on
+ * other shards than the status changes they follow and can drift after a partial commit.
+ * Wallets with PENDING transactions are in flight and skipped; every other wallet that
+ * disagrees with its rollups is re-read and compared with the net of its SUCCESS transactions,
+ * read from {@code transaction} itself, and only reported if that disagrees too. The re-read
+ * also keeps a saga settling between the two reads from being flagged. A pause after every chunk keeps the pass from competing with
+ * transfers for connections and row locks. Passes run as admin jobs, never on the scheduler
+ * or a request thread.
+ */
+@Service
+@Slf4j
+public class ReconciliationService {
+
+    public static final String JOB_RECONCILIATION = "reconciliation";
+    public static final String JOB_OPENING_BALANCES = "opening-balances";
+
+    private static final String WALLET_CHUNK =
+            "SELECT id, balance FROM wallet WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String WALLET_CHUNK_CREATED_BEFORE =
+            "SELECT id, balance FROM wallet WHERE id > ? AND id < ? ORDER BY id LIMIT ?";
+
+    private static final String WALLET_BALANCES =
+            "SELECT id, balance FROM wallet WHERE id IN (:ids)";
+
+    private static final String ROLLUP_TOTALS =
+            "SELECT wallet_id, SUM(total_in), SUM(total_out) FROM wallet_daily_rollup " +
+                    "WHERE wallet_id IN (:ids) GROUP BY wallet_id";
+
+    // Scan every shard's transactions, so only run for wallets the rollups flagged
+    private static final String LEDGER_IN =
+            "SELECT to_wallet_id, SUM(amount) FROM transaction WHERE status = 'SUCCESS' " +
+                    "AND to_wallet_id IN (:ids) GROUP BY to_wallet_id";
+
+    private static final String LEDGER_OUT =
+            "SELECT from_wallet_id, SUM(amount) FROM transaction WHERE status = 'SUCCESS' " +
+                    "AND from_wallet_id IN (:ids) GROUP BY from_wallet_id";
+
+    private static final String PENDING_WALLETS =
+            "SELECT from_wallet_id, to_wallet_id FROM transaction WHERE status = 'PENDING' " +
+                    "AND (from_wallet_id IN (:ids) OR to_wallet_id IN (:ids))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor maintenanceExecutor;
+    private final AdminJobService adminJobService;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletTransactionIndexRepository walletTransactionIndexRepository;
+    private final WalletOwnerResolver walletOwnerResolver;
+    private final WalletTransactionIndexer walletTransactionIndexer;
+    private final WalletRollupService walletRollupService;
+    private final int chunkSize;
+    private final long chunkDelayMs;
+    private final int maxReportedMismatches;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationReportDTO lastReport;
+
+    public ReconciliationService(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 @Qualifier("maintenanceExecutor") ThreadPoolTaskExecutor maintenanceExecutor,
+                                 AdminJobService adminJobService,
+                                 WalletRepository walletRepository,
+                                 TransactionRepository transactionRepository,
+                                 WalletTransactionIndexRepository walletTransactionIndexRepository,
+                                 WalletOwnerResolver walletOwnerResolver,
+                                 WalletTransactionIndexer walletTransactionIndexer,
+                                 WalletRollupService walletRollupService,
+                                 @Value("${wallet.reconciliation.chunk-size:500}") int chunkSize,
+                                 @Value("${wallet.reconciliation.chunk-delay-ms:100}") long chunkDelayMs,
+                                 @Value("${wallet.reconciliation.max-reported-mismatches:1000}") int maxReportedMismatches) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maintenanceExecutor = maintenanceExecutor;
+        this.adminJobService = adminJobService;
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.walletTransactionIndexRepository = walletTransactionIndexRepository;
+        this.walletOwnerResolver = walletOwnerResolver;
+        this.walletTransactionIndexer = walletTransactionIndexer;
+        this.walletRollupService = walletRollupService;
+        this.chunkSize = chunkSize;
+        this.chunkDelayMs = chunkDelayMs;
+        this.maxReportedMismatches = maxReportedMismatches;
+    }
+
+    @Scheduled(cron = "${wallet.reconciliation.cron:-}")
+    public void scheduledReconcile() {
+        try {
+            startReconciliation();
+        } catch (TaskRejectedException e) {
+            log.warn("Skipping scheduled reconciliation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a full pass as the {@value #JOB_RECONCILIATION} admin job.
+     *
+     * @return the new run, or the one already in progress
+     */
+    public AdminJobDTO startReconciliation() {
+        return adminJobService.start(JOB_RECONCILIATION, this::reconcile);
+    }
+
+    /**
+     * Runs one full pass over all shards. Only one pass runs at a time.
+     */
+    public ReconciliationReportDTO reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new WalletException("Reconciliation is already running");
+        }
+
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            Set<String> shards = ShardDataSourceRegistry.getAll().keySet();
+            log.info("Starting balance reconciliation over shards {}", shards);
+
+            List<CompletableFuture<ShardResult>> passes = new ArrayList<>();
+            for (String shard : shards) {
+                passes.add(CompletableFuture.supplyAsync(() -> reconcileShard(shard), maintenanceExecutor));
+            }
+
+            List<ShardReconciliationDTO> shardReports = new ArrayList<>();
+            List<BalanceMismatchDTO> mismatches = new ArrayList<>();
+            long walletsChecked = 0;
+            long walletsInFlight = 0;
+            long mismatchCount = 0;
+
+            for (CompletableFuture<ShardResult> pass : passes) {
+                ShardResult result = pass.join();
+                shardReports.add(result.report());
+                walletsChecked += result.report().getWalletsChecked();
+                walletsInFlight += result.report().getWalletsInFlight();
+                mismatchCount += result.report().getMismatches();
+                mismatches.addAll(result.mismatches());
+            }
+
+            ReconciliationReportDTO report = ReconciliationReportDTO.builder()
+                    .startedAt(startedAt)
+                    .finishedAt(LocalDateTime.now())
+                    .walletsChecked(walletsChecked)
+                    .walletsInFlight(walletsInFlight)
+                    .mismatchCount(mismatchCount)
+                    .shards(shardReports)
+                    .mismatches(mismatches.size() > maxReportedMismatches
+                            ? mismatches.subList(0, maxReportedMismatches) : mismatches)
+                    .build();
+
+            if (mismatchCount > 0) {
+                log.error("Reconciliation found {} balance mismatches across {} wallets", mismatchCount, walletsChecked);
+            } else {
+                log.info("Reconciliation finished: {} wallets checked, {} in flight, no mismatches",
+                        walletsChecked, walletsInFlight);
+            }
+
+            lastReport = report;
+            return report;
+
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public ReconciliationReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Starts {@link #recordOpeningBalances} as the {@value #JOB_OPENING_BALANCES} admin job.
+     */
+    public AdminJobDTO startOpeningBalances(LocalDateTime recordedSince) {
+        if (recordedSince == null || recordedSince.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("'recordedSince' must be a time in the past");
+        }
+        return adminJobService.start(JOB_OPENING_BALANCES, () -> recordOpeningBalances(recordedSince));
+    }
+
+    /**
+     * Deposits and withdrawals made before {@code recordedSince} moved balances without
+     * leaving a transaction, so those wallets never reconcile. This records the unexplained
+     * part of each such wallet's balance as one OPENING_BALANCE transaction.
+     * <p>
+     * Only wallets created before {@code recordedSince} are considered, so mismatches on newer
+     * wallets are still reported as errors. Each wallet is re-checked under its row lock and
+     * skipped while it has PENDING transactions; running again picks those up. A wallet gets
+     * at most one opening balance: it is found through the wallet's index entries, which live
+     * on the wallet's shard and commit with the opening balance while the wallet row is locked.
+     */
+    public OpeningBalanceReportDTO recordOpeningBalances(LocalDateTime recordedSince) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        // Wallet ids carry their creation time in the bits above worker id and sequence
+        long firstIdAfter = (recordedSince.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                - SnowflakeIdGenerator.EPOCH_MILLIS) << SnowflakeIdGenerator.TIMESTAMP_SHIFT;
+        log.info("Recording opening balances of wallets created before {}", recordedSince);
+
+        long walletsChecked = 0;
+        long walletsInFlight = 0;
+        long openingBalances = 0;
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (String shard : ShardDataSourceRegistry.getAll().keySet()) {
+            JdbcTemplate shardJdbcTemplate = new JdbcTemplate(ShardDataSourceRegistry.get(shard));
+            long afterId = 0;
+
+            while (true) {
+                Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+                shardJdbcTemplate.query(WALLET_CHUNK_CREATED_BEFORE, resultSet -> {
+                    balances.put(resultSet.getLong(1), resultSet.getBigDecimal(2));
+                }, afterId, firstIdAfter, chunkSize);
+
+                if (balances.isEmpty()) {
+                    break;
+                }
+
+                Map<Long, BigDecimal> expected = expectedBalances(balances.keySet());
+                walletsChecked += balances.size();
+
+                for (Map.Entry<Long, BigDecimal> wallet : balances.entrySet()) {
+                    if (wallet.getValue().compareTo(expected.getOrDefault(wallet.getKey(), BigDecimal.ZERO)) == 0) {
+                        continue;
+                    }
+                    BigDecimal opening = transactionTemplate.execute(status -> recordOpeningBalance(wallet.getKey()));
+                    if (opening == null) {
+                        walletsInFlight++;
+                    } else if (opening.signum() != 0) {
+                        openingBalances++;
+                        total = total.add(opening);
+                    }
+                }
+
+                afterId = balances.keySet().stream().reduce((first, second) -> second).orElseThrow();
+            }
+        }
+
+        log.info("Recorded {} opening balances totalling {} over {} wallets, {} skipped in flight",
+                openingBalances, total, walletsChecked, walletsInFlight);
+        return OpeningBalanceReportDTO.builder()
+                .recordedSince(recordedSince)
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .walletsChecked(walletsChecked)
+                .walletsInFlight(walletsInFlight)
+                .openingBalances(openingBalances)
+                .openingBalanceTotal(total)
+                .build();
+    }
+
+    /**
+     * @return the recorded opening balance, zero if none was needed, or null if the wallet
+     * is in flight
+     */
+    private BigDecimal recordOpeningBalance(Long walletId) {
+        Wallet wallet = walletRepository.findByIdWithLock(walletId, walletOwnerResolver.ownerOf(walletId)).orElse(null);
+        if (wallet == null) {
+            return BigDecimal.ZERO;
+        }
+        if (hasOpeningBalance(wallet)) {
+            return BigDecimal.ZERO;
+        }
+        if (!walletsWithPendingTransactions(List.of(walletId)).isEmpty()) {
+            return null;
+        }
+
+        BigDecimal opening = wallet.getBalance()
+                .subtract(ledgerBalances(List.of(walletId)).getOrDefault(walletId, BigDecimal.ZERO));
+        if (opening.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+
+        Transaction transaction = transactionRepository.save(Transaction.builder()
+                .fromWalletId(opening.signum() > 0 ? Transaction.EXTERNAL_WALLET_ID : walletId)
+                .toWalletId(opening.signum() > 0 ? walletId : Transaction.EXTERNAL_WALLET_ID)
+                .amount(opening.abs())
+                .status(TransactionStatus.SUCCESS)
+                .type(TransactionType.OPENING_BALANCE)
+                .description("Opening balance")
+                .build());
+        walletTransactionIndexer.index(List.of(transaction));
+        walletRollupService.onStatusChange(transaction, null);
+
+        log.info("Recorded opening balance {} for wallet {}", opening, walletId);
+        return opening;
+    }
+
+    /**
+     * Opening balances are booked against the external wallet, so only the wallet's deposits,
+     * withdrawals and opening balances are read.
+     */
+    private boolean hasOpeningBalance(Wallet wallet) {
+        List<Long> externalTransactionIds = walletTransactionIndexRepository.findTransactionIdsByCounterparty(
+                wallet.getUserId(), wallet.getId(), Transaction.EXTERNAL_WALLET_ID);
+        return !externalTransactionIds.isEmpty()
+                && transactionRepository.countByIdInAndType(externalTransactionIds, TransactionType.OPENING_BALANCE) > 0;
+    }
+
+    private ShardResult reconcileShard(String shard) {
+        JdbcTemplate shardJdbcTemplate = new JdbcTemplate(ShardDataSourceRegistry.get(shard));
+        NamedParameterJdbcTemplate namedShardJdbcTemplate = new NamedParameterJdbcTemplate(shardJdbcTemplate);
+
+        long walletsChecked = 0;
+        long walletsInFlight = 0;
+        List<BalanceMismatchDTO> mismatches = new ArrayList<>();
+        long afterId = 0;
+
+        try {
+            while (true) {
+                Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+                shardJdbcTemplate.query(WALLET_CHUNK, resultSet -> {
+                    balances.put(resultSet.getLong(1), resultSet.getBigDecimal(2));
+                }, afterId, chunkSize);
+
+                if (balances.isEmpty()) {
+                    break;
+                }
+
+                Map<Long, BigDecimal> expected = expectedBalances(balances.keySet());
+                Set<Long> inFlight = walletsWithPendingTransactions(balances.keySet());
+                walletsChecked += balances.size();
+                walletsInFlight += inFlight.size();
+
+                List<Long> suspects = new ArrayList<>();
+                balances.forEach((walletId, balance) -> {
+                    if (!inFlight.contains(walletId)
+                            && balance.compareTo(expected.getOrDefault(walletId, BigDecimal.ZERO)) != 0) {
+                        suspects.add(walletId);
+                    }
+                });
+
+                if (!suspects.isEmpty()) {
+                    mismatches.addAll(recheck(shard, namedShardJdbcTemplate, suspects));
+                }
+
+                afterId = balances.keySet().stream().reduce((first, second) -> second).orElseThrow();
+                Thread.sleep(chunkDelayMs);
+            }
+
+            log.info("Reconciled shard {}: {} wallets, {} in flight, {} mismatches",
+                    shard, walletsChecked, walletsInFlight, mismatches.size());
+            return new ShardResult(shardReport(shard, walletsChecked, walletsInFlight, mismatches, null), mismatches);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ShardResult(shardReport(shard, walletsChecked, walletsInFlight, mismatches,
+                    "Interrupted after wallet " + afterId), mismatches);
+        } catch (Exception e) {
+            log.error("Reconciliation of shard {} failed after wallet {}", shard, afterId, e);
+            return new ShardResult(shardReport(shard, walletsChecked, walletsInFlight, mismatches,
+                    e.getMessage()), mismatches);
+        }
+    }
+
+    private List<BalanceMismatchDTO> recheck(String shard, NamedParameterJdbcTemplate shardJdbcTemplate,
+                                             List<Long> walletIds) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        shardJdbcTemplate.query(WALLET_BALANCES, Map.of("ids", walletIds), resultSet -> {
+            balances.put(resultSet.getLong(1), resultSet.getBigDecimal(2));
+        });
+        Map<Long, BigDecimal> expected = ledgerBalances(walletIds);
+        Set<Long> inFlight = walletsWithPendingTransactions(walletIds);
+
+        List<BalanceMismatchDTO> mismatches = new ArrayList<>();
+        for (Long walletId : walletIds) {
+            BigDecimal balance = balances.get(walletId);
+            BigDecimal expectedBalance = expected.getOrDefault(walletId, BigDecimal.ZERO);
+            if (balance == null || inFlight.contains(walletId) || balance.compareTo(expectedBalance) == 0) {
+                continue;
+            }
+
+            log.warn("Balance mismatch on wallet {} (shard {}): balance {}, expected {}",
+                    walletId, shard, balance, expectedBalance);
+            mismatches.add(BalanceMismatchDTO.builder()
+                    .shard(shard)
+                    .walletId(walletId)
+                    .balance(balance)
+                    .expectedBalance(expectedBalance)
+                    .difference(balance.subtract(expectedBalance))
+                    .build());
+        }
+        return mismatches;
+    }
+
+    private Map<Long, BigDecimal> expectedBalances(Collection<Long> walletIds) {
+        Map<Long, BigDecimal> expected = new HashMap<>();
+        jdbcTemplate.query(ROLLUP_TOTALS, Map.of("ids", walletIds), resultSet -> {
+            expected.put(resultSet.getLong(1), resultSet.getBigDecimal(2).subtract(resultSet.getBigDecimal(3)));
+        });
+        return expected;
+    }
+
+    /**
+     * Net of each wallet's SUCCESS transactions, the ground truth the rollups summarize.
+     */
+    private Map<Long, BigDecimal> ledgerBalances(Collection<Long> walletIds) {
+        Map<Long, BigDecimal> ledger = new HashMap<>();
+        jdbcTemplate.query(LEDGER_IN, Map.of("ids", walletIds), resultSet -> {
+            ledger.merge(resultSet.getLong(1), resultSet.getBigDecimal(2), BigDecimal::add);
+        });
+        jdbcTemplate.query(LEDGER_OUT, Map.of("ids", walletIds), resultSet -> {
+            ledger.merge(resultSet.getLong(1), resultSet.getBigDecimal(2).negate(), BigDecimal::add);
+        });
+        return ledger;
+    }
+
+    private Set<Long> walletsWithPendingTransactions(Collection<Long> walletIds) {
+        Set<Long> candidates = new HashSet<>(walletIds);
+        Set<Long> inFlight = new HashSet<>();
+        jdbcTemplate.query(PENDING_WALLETS, Map.of("ids", walletIds), resultSet -> {
+            long fromWalletId = resultSet.getLong(1);
+            long toWalletId = resultSet.getLong(2);
+            if (candidates.contains(fromWalletId)) {
+                inFlight.add(fromWalletId);
+            }
+            if (candidates.contains(toWalletId)) {
+                inFlight.add(toWalletId);
+            }
+        });
+        return inFlight.isEmpty() ? Collections.emptySet() : inFlight;
+    }
+
+    private static ShardReconciliationDTO shardReport(String shard, long walletsChecked, long walletsInFlight,
+                                                      List<BalanceMismatchDTO> mismatches, String error) {
+        return ShardReconciliationDTO.builder()
+                .shard(shard)
+                .walletsChecked(walletsChecked)
+                .walletsInFlight(walletsInFlight)
+                .mismatches(mismatches.size())
+                .error(error)
+                .build();
+    }
+
+    private record ShardResult(ShardReconciliationDTO report, List<BalanceMismatchDTO> mismatches) {
+    }
+}
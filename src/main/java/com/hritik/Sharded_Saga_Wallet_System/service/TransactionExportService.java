@@ -0,0 +1,264 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams transactions straight from JDBC to the response. Each shard is read through a
+ * forward-only cursor with a bounded fetch size and ShardingSphere merges the ordered shard
+ * streams, so memory stays constant no matter how many rows are exported. Nothing passes
+ * through the persistence context.
+ * <p>
+ * A wallet's export walks its wallet_transaction_index entries on the owner's shard in chunks
+ * and hydrates each chunk by id, instead of filtering the transaction table on every shard.
+ * It is as complete as the index, which the transaction-index-backfill job repairs.
+ */
+@Service
+@Slf4j
+public class TransactionExportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final String CSV_HEADER =
+            "id,from_wallet_id,to_wallet_id,amount,status,transaction_type,description,saga_instance_id,created_at";
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, from_wallet_id, to_wallet_id, amount, status, transaction_type, description, " +
+                    "saga_instance_id, created_at FROM transaction";
+
+    private static final String WALLET_INDEX_CHUNK =
+            "SELECT transaction_id, created_at FROM wallet_transaction_index WHERE user_id = ? AND wallet_id = ?";
+
+    private final JdbcTemplate exportJdbcTemplate;
+    private final WalletService walletService;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public TransactionExportService(DataSource dataSource, WalletService walletService, ObjectMapper objectMapper,
+                                    @Value("${wallet.export.fetch-size:1000}") int fetchSize) {
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(fetchSize);
+        this.walletService = walletService;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes every transaction matching the filters, ordered by (created_at, id).
+     * At least a wallet or a complete date range must be given.
+     *
+     * @return the number of rows written
+     */
+    public long export(Long walletId, LocalDateTime from, LocalDateTime to, Format format,
+                       boolean gzip, OutputStream out) throws IOException {
+        validateFilters(walletId, from, to);
+
+        log.info("Exporting transactions as {} (wallet {}, from {}, to {}, gzip {})", format, walletId, from, to, gzip);
+
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, 8192) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                gzipStream != null ? gzipStream : out, StandardCharsets.UTF_8), 8192);
+        JsonGenerator generator = format == Format.NDJSON ? objectMapper.getFactory().createGenerator(writer) : null;
+
+        long[] rows = {0};
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        RowCallbackHandler writeRow = resultSet -> {
+            try {
+                if (format == Format.CSV) {
+                    writeCsvRow(resultSet, writer);
+                } else {
+                    writeJsonRow(resultSet, generator);
+                }
+                rows[0]++;
+            } catch (IOException e) {
+                // Client went away: abort the query so the shard cursors are released
+                throw new UncheckedIOException(e);
+            }
+        };
+
+        try {
+            if (walletId != null) {
+                exportWallet(walletId, from, to, writeRow);
+            } else {
+                exportJdbcTemplate.query(SELECT_COLUMNS + " WHERE created_at >= ? AND created_at < ? ORDER BY created_at, id",
+                        writeRow, Timestamp.valueOf(from), Timestamp.valueOf(to));
+            }
+        } catch (UncheckedIOException e) {
+            log.warn("Transaction export aborted after {} rows: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+
+        log.info("Exported {} transactions", rows[0]);
+        return rows[0];
+    }
+
+    /**
+     * Checked before the response is committed, so bad filters and unknown wallets still get a
+     * regular error response.
+     */
+    public void validateFilters(Long walletId, LocalDateTime from, LocalDateTime to) {
+        if (walletId == null && (from == null || to == null)) {
+            throw new IllegalArgumentException("Export requires a wallet ID or both 'from' and 'to' dates");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (walletId != null) {
+            walletService.getWalletMetadata(walletId);
+        }
+    }
+
+    /**
+     * Reads the wallet's index entries a chunk at a time in (created_at, transaction_id) order
+     * and writes the transactions of each chunk before reading the next, so memory stays
+     * bounded by the chunk size.
+     */
+    private void exportWallet(Long walletId, LocalDateTime from, LocalDateTime to, RowCallbackHandler writeRow) {
+        Long userId = walletService.getWalletMetadata(walletId).userId();
+
+        StringBuilder chunkSql = new StringBuilder(WALLET_INDEX_CHUNK);
+        List<Object> filterArgs = new ArrayList<>(List.of(userId, walletId));
+        if (from != null) {
+            chunkSql.append(" AND created_at >= ?");
+            filterArgs.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            chunkSql.append(" AND created_at < ?");
+            filterArgs.add(Timestamp.valueOf(to));
+        }
+        String firstChunk = chunkSql + " ORDER BY created_at, transaction_id LIMIT ?";
+        String nextChunk = chunkSql + " AND (created_at > ? OR (created_at = ? AND transaction_id > ?))" +
+                " ORDER BY created_at, transaction_id LIMIT ?";
+
+        Timestamp lastCreatedAt = null;
+        long lastTransactionId = 0;
+        while (true) {
+            List<Object> args = new ArrayList<>(filterArgs);
+            if (lastCreatedAt != null) {
+                args.add(lastCreatedAt);
+                args.add(lastCreatedAt);
+                args.add(lastTransactionId);
+            }
+            args.add(fetchSize);
+
+            List<Long> transactionIds = new ArrayList<>(fetchSize);
+            Timestamp[] chunkEnd = new Timestamp[1];
+            exportJdbcTemplate.query(lastCreatedAt == null ? firstChunk : nextChunk, resultSet -> {
+                transactionIds.add(resultSet.getLong("transaction_id"));
+                chunkEnd[0] = resultSet.getTimestamp("created_at");
+            }, args.toArray());
+
+            if (transactionIds.isEmpty()) {
+                return;
+            }
+
+            // By primary key: each id is routed straight to its shard
+            String placeholders = String.join(", ", Collections.nCopies(transactionIds.size(), "?"));
+            exportJdbcTemplate.query(SELECT_COLUMNS + " WHERE id IN (" + placeholders + ") ORDER BY created_at, id",
+                    writeRow, transactionIds.toArray());
+
+            if (transactionIds.size() < fetchSize) {
+                return;
+            }
+            lastCreatedAt = chunkEnd[0];
+            lastTransactionId = transactionIds.get(transactionIds.size() - 1);
+        }
+    }
+
+    private static void writeCsvRow(ResultSet resultSet, Writer writer) throws SQLException, IOException {
+        writer.write(String.valueOf(resultSet.getLong("id")));
+        writer.write(',');
+        writer.write(String.valueOf(resultSet.getLong("from_wallet_id")));
+        writer.write(',');
+        writer.write(String.valueOf(resultSet.getLong("to_wallet_id")));
+        writer.write(',');
+        writer.write(resultSet.getBigDecimal("amount").toPlainString());
+        writer.write(',');
+        writer.write(resultSet.getString("status"));
+        writer.write(',');
+        writer.write(resultSet.getString("transaction_type"));
+        writer.write(',');
+        writer.write(escapeCsv(resultSet.getString("description")));
+        writer.write(',');
+        long sagaInstanceId = resultSet.getLong("saga_instance_id");
+        if (!resultSet.wasNull()) {
+            writer.write(String.valueOf(sagaInstanceId));
+        }
+        writer.write(',');
+        writer.write(formatTimestamp(resultSet.getTimestamp("created_at")));
+        writer.write('\n');
+    }
+
+    private static void writeJsonRow(ResultSet resultSet, JsonGenerator generator) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", resultSet.getLong("id"));
+        generator.writeNumberField("fromWalletId", resultSet.getLong("from_wallet_id"));
+        generator.writeNumberField("toWalletId", resultSet.getLong("to_wallet_id"));
+        BigDecimal amount = resultSet.getBigDecimal("amount");
+        generator.writeNumberField("amount", amount);
+        generator.writeStringField("status", resultSet.getString("status"));
+        generator.writeStringField("type", resultSet.getString("transaction_type"));
+        generator.writeStringField("description", resultSet.getString("description"));
+        long sagaInstanceId = resultSet.getLong("saga_instance_id");
+        if (resultSet.wasNull()) {
+            generator.writeNullField("sagaInstanceId");
+        } else {
+            generator.writeNumberField("sagaInstanceId", sagaInstanceId);
+        }
+        generator.writeStringField("createdAt", formatTimestamp(resultSet.getTimestamp("created_at")));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static String formatTimestamp(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : "";
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
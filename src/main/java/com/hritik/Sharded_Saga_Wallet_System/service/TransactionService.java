@@ -1,27 +1,52 @@
 package com.hritik.Sharded_Saga_Wallet_System.service;
 
 
+import com.hritik.Sharded_Saga_Wallet_System.dto.TransactionPageDTO;
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.ResourceNotFoundException;
 import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionDirection;
 import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
 import com.hritik.Sharded_Saga_Wallet_System.model.TransactionType;
+import com.hritik.Sharded_Saga_Wallet_System.model.WalletTransactionIndex;
 import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletTransactionIndexRepository;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardGuard;
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.InvalidTransactionException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TransactionService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_SWEEP_LIMIT = 1000;
+
+    // Cursor used for the first page: sorts after every real (created_at, id)
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final TransactionRepository transactionRepository;
+    private final WalletTransactionIndexRepository walletTransactionIndexRepository;
+    private final WalletTransactionIndexer walletTransactionIndexer;
+    private final WalletRollupService walletRollupService;
     private final WalletService walletService;
 
     @Transactional
@@ -34,8 +59,8 @@ public class TransactionService {
 
         try {
             // Verify both wallets exist
-            walletService.getWalletById(fromWalletId);
-            walletService.getWalletById(toWalletId);
+            walletService.getWalletMetadata(fromWalletId);
+            walletService.getWalletMetadata(toWalletId);
 
             Transaction transaction = Transaction.builder()
                     .fromWalletId(fromWalletId)
@@ -47,6 +72,7 @@ public class TransactionService {
                     .build();
 
             Transaction savedTransaction = transactionRepository.save(transaction);
+            walletTransactionIndexer.index(List.of(savedTransaction));
             log.info("Transaction created successfully with id {}", savedTransaction.getId());
             return savedTransaction;
 
@@ -56,6 +82,38 @@ public class TransactionService {
         }
     }
 
+    /**
+     * Persists a batch of pre-validated transfers in the caller's transaction.
+     * Wallet existence is expected to have been checked in bulk by the caller.
+     */
+    @Transactional
+    public List<Transaction> createTransactions(List<Transaction> transactions) {
+        log.info("Creating {} transactions in bulk", transactions.size());
+
+        for (Transaction transaction : transactions) {
+            validateTransactionRequest(transaction.getFromWalletId(), transaction.getToWalletId(),
+                    transaction.getAmount());
+            if (transaction.getDescription() == null) {
+                transaction.setDescription("");
+            }
+            transaction.setStatus(TransactionStatus.PENDING);
+            if (transaction.getType() == null) {
+                transaction.setType(TransactionType.TRANSFER);
+            }
+        }
+
+        try {
+            List<Transaction> savedTransactions = transactionRepository.saveAll(transactions);
+            walletTransactionIndexer.index(savedTransactions);
+            log.info("{} transactions created successfully", savedTransactions.size());
+            return savedTransactions;
+
+        } catch (DataAccessException e) {
+            log.error("Database error while creating transactions in bulk", e);
+            throw new InvalidTransactionException("Failed to create transactions due to database error");
+        }
+    }
+
     @Transactional(readOnly = true)
     public Transaction getTransactionById(Long id) {
         log.debug("Fetching transaction with id {}", id);
@@ -68,37 +126,100 @@ public class TransactionService {
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
     }
 
+    /**
+     * Returns one page of a wallet's transactions, newest first, starting after {@code cursor}
+     * (null for the first page). The returned cursor is opaque and null on the last page.
+     */
     @Transactional(readOnly = true)
-    public List<Transaction> getTransactionsByWalletId(Long walletId) {
-        log.debug("Fetching transactions for wallet {}", walletId);
+    public TransactionPageDTO getTransactionPage(Long walletId, TransactionDirection direction,
+                                                 String cursor, int limit) {
+        log.debug("Fetching {} transactions page for wallet {} with limit {}", direction, walletId, limit);
 
         if (walletId == null) {
             throw new IllegalArgumentException("Wallet ID cannot be null");
         }
 
-        return transactionRepository.findByWalletId(walletId);
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        LocalDateTime createdAt = FIRST_PAGE_CREATED_AT;
+        Long id = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            createdAt = LocalDateTime.parse(parts[0]);
+            id = Long.parseLong(parts[1]);
+        }
+
+        // Single-shard read on the wallet index; one extra row tells whether another page exists
+        TransactionDirection side = direction == TransactionDirection.ALL ? null : direction;
+        Long userId = walletService.getWalletMetadata(walletId).userId();
+        List<WalletTransactionIndex> entries = walletTransactionIndexRepository.findPage(
+                userId, walletId, side, createdAt, id, PageRequest.of(0, limit + 1));
+
+        boolean hasMore = entries.size() > limit;
+        List<WalletTransactionIndex> pageEntries = hasMore ? entries.subList(0, limit) : entries;
+
+        // Hydrate by primary key, which routes each id straight to its shard
+        Map<Long, Transaction> byId = transactionRepository.findAllById(pageEntries.stream()
+                        .map(WalletTransactionIndex::getTransactionId)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+
+        List<Transaction> page = pageEntries.stream()
+                .map(entry -> byId.get(entry.getTransactionId()))
+                .filter(Objects::nonNull)
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            WalletTransactionIndex last = pageEntries.get(pageEntries.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getTransactionId());
+        }
+
+        return TransactionPageDTO.builder()
+                .transactions(page)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
+    /**
+     * Oldest transactions still PENDING after {@code olderThan}, for sweeping stuck transfers.
+     */
     @Transactional(readOnly = true)
-    public List<Transaction> getTransactionsByFromWalletId(Long fromWalletId) {
-        log.debug("Fetching debit transactions from wallet {}", fromWalletId);
+    public List<Transaction> getStalePendingTransactions(Duration olderThan, int limit) {
+        log.debug("Fetching up to {} PENDING transactions older than {}", limit, olderThan);
 
-        if (fromWalletId == null) {
-            throw new IllegalArgumentException("Wallet ID cannot be null");
+        if (olderThan == null || olderThan.isNegative()) {
+            throw new IllegalArgumentException("Age must be zero or positive");
         }
+        validateSweepLimit(limit);
 
-        return transactionRepository.findByFromWalletId(fromWalletId);
+        return transactionRepository.findByStatusAndCreatedAtBeforeOrderByCreatedAtAscIdAsc(
+                TransactionStatus.PENDING, LocalDateTime.now().minus(olderThan), PageRequest.of(0, limit));
     }
 
+    /**
+     * Transactions in {@code status} created within [from, to), oldest first.
+     */
     @Transactional(readOnly = true)
-    public List<Transaction> getTransactionsByToWalletId(Long toWalletId) {
-        log.debug("Fetching credit transactions to wallet {}", toWalletId);
+    public List<Transaction> getTransactionsByStatusBetween(TransactionStatus status, LocalDateTime from,
+                                                            LocalDateTime to, int limit) {
+        log.debug("Fetching up to {} {} transactions created between {} and {}", limit, status, from, to);
 
-        if (toWalletId == null) {
-            throw new IllegalArgumentException("Wallet ID cannot be null");
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
         }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        validateSweepLimit(limit);
 
-        return transactionRepository.findByToWalletId(toWalletId);
+        return transactionRepository
+                .findByStatusAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscIdAsc(
+                        status, from, to, PageRequest.of(0, limit));
     }
 
     @Transactional(readOnly = true)
@@ -144,10 +265,13 @@ public class TransactionService {
             throw new IllegalArgumentException("Transaction ID and status cannot be null");
         }
 
-        try {
+        // Failure paths record their outcome here; see ShardGuard#prioritize
+        try (ShardGuard.Priority ignored = ShardGuard.prioritize()) {
             Transaction transaction = getTransactionById(transactionId);
+            TransactionStatus previousStatus = transaction.getStatus();
             transaction.setStatus(status);
             transactionRepository.save(transaction);
+            walletRollupService.onStatusChange(transaction, previousStatus);
 
             log.info("Transaction {} status updated successfully to {}", transactionId, status);
 
@@ -158,6 +282,176 @@ public class TransactionService {
         }
     }
 
+    /**
+     * Links netted transactions to the saga that settles them. Fails if any of them was
+     * settled or failed in the meantime, e.g. by {@link #failUnsettledTransactions}.
+     */
+    @Transactional
+    public void updateTransactionsWithSagaInstanceId(Collection<Long> transactionIds, Long sagaInstanceId) {
+        log.info("Linking {} transactions to saga instance {}", transactionIds.size(), sagaInstanceId);
+
+        if (sagaInstanceId == null) {
+            throw new IllegalArgumentException("Saga instance ID cannot be null");
+        }
+
+        try {
+            List<Transaction> transactions = lockUnsettled(transactionIds);
+            transactions.forEach(transaction -> transaction.setSagaInstanceId(sagaInstanceId));
+            transactionRepository.saveAll(transactions);
+
+        } catch (DataAccessException e) {
+            log.error("Database error while linking transactions to saga instance {}", sagaInstanceId, e);
+            throw new InvalidTransactionException(
+                    "Failed to update transactions with saga instance due to database error");
+        }
+    }
+
+    /**
+     * Settles netted transactions that cancel out completely, so no saga moves money for them.
+     */
+    @Transactional
+    public void settleOffsetTransactions(Collection<Long> transactionIds) {
+        log.info("Settling {} fully offset transactions", transactionIds.size());
+
+        try {
+            List<Transaction> transactions = lockUnsettled(transactionIds);
+            Map<Long, TransactionStatus> previousStatuses = transactions.stream()
+                    .collect(Collectors.toMap(Transaction::getId, Transaction::getStatus));
+            transactions.forEach(transaction -> transaction.setStatus(TransactionStatus.SUCCESS));
+            transactionRepository.saveAll(transactions);
+            walletRollupService.onStatusChange(transactions, previousStatuses);
+
+        } catch (DataAccessException e) {
+            log.error("Database error while settling {} offset transactions", transactionIds.size(), e);
+            throw new InvalidTransactionException(
+                    "Failed to update transaction status due to database error");
+        }
+    }
+
+    /**
+     * Fails netted transactions that were recorded more than {@code olderThan} ago but never
+     * handed to a saga, e.g. because the node holding their window stopped. The rows are
+     * locked and re-checked, so a settlement that is late rather than lost wins or loses as
+     * a whole.
+     *
+     * @return the number of transactions marked FAILED
+     */
+    @Transactional
+    public int failUnsettledTransactions(Duration olderThan, int limit) {
+        if (olderThan == null || olderThan.isNegative()) {
+            throw new IllegalArgumentException("Age must be zero or positive");
+        }
+        validateSweepLimit(limit);
+
+        List<Long> candidates = transactionRepository.findUnlinkedIds(
+                TransactionStatus.PENDING, LocalDateTime.now().minus(olderThan), PageRequest.of(0, limit));
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        List<Transaction> unsettled = transactionRepository.findAllByIdForUpdate(candidates).stream()
+                .filter(TransactionService::isUnsettled)
+                .toList();
+        unsettled.forEach(transaction -> transaction.setStatus(TransactionStatus.FAILED));
+        transactionRepository.saveAll(unsettled);
+
+        log.info("{} unsettled netted transactions marked as FAILED", unsettled.size());
+        return unsettled.size();
+    }
+
+    @Transactional
+    public void updateTransactionsStatus(Collection<Long> transactionIds, TransactionStatus status) {
+        log.info("Updating {} transactions to status {}", transactionIds.size(), status);
+
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
+
+        try (ShardGuard.Priority ignored = ShardGuard.prioritize()) {
+            List<Transaction> transactions = transactionRepository.findAllById(transactionIds);
+            Map<Long, TransactionStatus> previousStatuses = transactions.stream()
+                    .collect(Collectors.toMap(Transaction::getId, Transaction::getStatus));
+            transactions.forEach(transaction -> transaction.setStatus(status));
+            transactionRepository.saveAll(transactions);
+            walletRollupService.onStatusChange(transactions, previousStatuses);
+
+        } catch (DataAccessException e) {
+            log.error("Database error while updating status of {} transactions", transactionIds.size(), e);
+            throw new InvalidTransactionException(
+                    "Failed to update transaction status due to database error");
+        }
+    }
+
+    /**
+     * Marks every still-PENDING transaction of a saga as FAILED, for sagas that stopped
+     * before their status step ran.
+     */
+    @Transactional
+    public void failPendingTransactions(Long sagaInstanceId) {
+        log.info("Failing pending transactions of saga instance {}", sagaInstanceId);
+
+        if (sagaInstanceId == null) {
+            throw new IllegalArgumentException("Saga instance ID cannot be null");
+        }
+
+        try (ShardGuard.Priority ignored = ShardGuard.prioritize()) {
+            List<Transaction> pending = transactionRepository.findBySagaInstanceId(sagaInstanceId).stream()
+                    .filter(transaction -> transaction.getStatus() == TransactionStatus.PENDING)
+                    .toList();
+
+            pending.forEach(transaction -> transaction.setStatus(TransactionStatus.FAILED));
+            transactionRepository.saveAll(pending);
+
+            log.info("{} pending transactions of saga instance {} marked as FAILED",
+                    pending.size(), sagaInstanceId);
+
+        } catch (DataAccessException e) {
+            log.error("Database error while failing transactions of saga instance {}", sagaInstanceId, e);
+            throw new InvalidTransactionException(
+                    "Failed to update transaction status due to database error");
+        }
+    }
+
+    private List<Transaction> lockUnsettled(Collection<Long> transactionIds) {
+        List<Transaction> transactions = transactionRepository.findAllByIdForUpdate(transactionIds);
+        if (transactions.size() != transactionIds.size()
+                || !transactions.stream().allMatch(TransactionService::isUnsettled)) {
+            throw new InvalidTransactionException(
+                    "Netted transactions were settled or failed before their settlement ran");
+        }
+        return transactions;
+    }
+
+    private static boolean isUnsettled(Transaction transaction) {
+        return transaction.getStatus() == TransactionStatus.PENDING && transaction.getSagaInstanceId() == null;
+    }
+
+    private static void validateSweepLimit(int limit) {
+        if (limit <= 0 || limit > MAX_SWEEP_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SWEEP_LIMIT);
+        }
+    }
+
+    private static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("_", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
     private void validateTransactionRequest(Long fromWalletId, Long toWalletId, BigDecimal amount) {
         if (fromWalletId == null) {
             throw new InvalidTransactionException("Source wallet ID cannot be null");
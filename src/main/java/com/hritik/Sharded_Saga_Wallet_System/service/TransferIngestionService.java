@@ -0,0 +1,189 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hritik.Sharded_Saga_Wallet_System.dto.BatchTransferItemResultDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.TransferRequestDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.RateLimitExceededException;
+import com.hritik.Sharded_Saga_Wallet_System.ratelimit.TransferRateLimiter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Streams newline-delimited transfer records into the saga pipeline.
+ * At most {@code maxInFlight} sagas run at once; when that many are outstanding the
+ * reader blocks, so a slow shard throttles ingestion instead of queueing records on the heap.
+ * Results are written back one line per record as soon as each saga finishes.
+ * Each record is charged to the rate limiter on its own; records over the client or
+ * wallet limit are reported as rejected and the stream carries on.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TransferIngestionService {
+
+    private final TransferSagaService transferSagaService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransferRateLimiter transferRateLimiter;
+
+    @Qualifier("sagaExecutor")
+    private final ThreadPoolTaskExecutor sagaExecutor;
+
+    @Value("${wallet.ingestion.max-in-flight:64}")
+    private int maxInFlight;
+
+    public void ingest(String clientId, InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicBoolean clientGone = new AtomicBoolean(false);
+        int lineNumber = 0;
+        int submitted = 0;
+
+        try {
+            String line;
+            while (!clientGone.get() && (line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                int recordLine = lineNumber;
+                TransferRequestDTO request;
+                try {
+                    request = parse(line);
+                } catch (IllegalArgumentException e) {
+                    writeResult(writer, rejected(recordLine, e.getMessage()), clientGone);
+                    continue;
+                }
+
+                try {
+                    transferRateLimiter.acquire(clientId, request.getFromWalletId());
+                } catch (RateLimitExceededException e) {
+                    writeResult(writer, rejected(recordLine, e.getMessage()), clientGone);
+                    continue;
+                }
+
+                // Blocks the reader while the pipeline is saturated
+                inFlight.acquire();
+                submitted++;
+
+                CompletableFuture
+                        .supplyAsync(() -> transferSagaService.initiateTransfer(
+                                request.getFromWalletId(),
+                                request.getToWalletId(),
+                                request.getAmount(),
+                                request.getDescription()), sagaExecutor)
+                        .handle((sagaInstanceId, error) -> {
+                            try {
+                                writeResult(writer, toResult(recordLine, sagaInstanceId, error), clientGone);
+                            } finally {
+                                inFlight.release();
+                            }
+                            return null;
+                        });
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Transfer ingestion interrupted after {} lines", lineNumber);
+        } finally {
+            // Wait for every outstanding saga before the response is closed, also when reading
+            // the request fails, so no callback writes to a finished response
+            inFlight.acquireUninterruptibly(maxInFlight);
+            inFlight.release(maxInFlight);
+        }
+
+        synchronized (writer) {
+            if (!clientGone.get()) {
+                writer.flush();
+            }
+        }
+
+        log.info("Transfer ingestion finished: {} lines read, {} transfers submitted", lineNumber, submitted);
+    }
+
+    private TransferRequestDTO parse(String line) {
+        TransferRequestDTO request;
+        try {
+            request = objectMapper.readValue(line, TransferRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON format or data type mismatch");
+        }
+
+        Set<ConstraintViolation<TransferRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return request;
+    }
+
+    private BatchTransferItemResultDTO toResult(int line, Long sagaInstanceId, Throwable error) {
+        if (error == null) {
+            return BatchTransferItemResultDTO.builder()
+                    .index(line)
+                    .sagaInstanceId(sagaInstanceId)
+                    .status(BatchTransferService.STATUS_COMPLETED)
+                    .message("Transfer completed successfully")
+                    .build();
+        }
+
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        return BatchTransferItemResultDTO.builder()
+                .index(line)
+                .status(BatchTransferService.STATUS_FAILED)
+                .message(cause.getMessage())
+                .build();
+    }
+
+    private BatchTransferItemResultDTO rejected(int line, String message) {
+        return BatchTransferItemResultDTO.builder()
+                .index(line)
+                .status(BatchTransferService.STATUS_REJECTED)
+                .message(message)
+                .build();
+    }
+
+    private void writeResult(Writer writer, BatchTransferItemResultDTO result, AtomicBoolean clientGone) {
+        synchronized (writer) {
+            if (clientGone.get()) {
+                return;
+            }
+            try {
+                writer.write(objectMapper.writeValueAsString(result));
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                // Remaining sagas still run to completion; only the reporting stops
+                log.warn("Client disconnected during transfer ingestion: {}", e.getMessage());
+                clientGone.set(true);
+            }
+        }
+    }
+}
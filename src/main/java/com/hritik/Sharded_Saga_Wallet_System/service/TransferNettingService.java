@@ -0,0 +1,247 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.TransferResponseDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.InvalidTransactionException;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.SagaException;
+import com.hritik.Sharded_Saga_Wallet_System.model.SagaStatus;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Opt-in netting stage in front of {@link TransferSagaService}. Transfers are recorded
+ * individually as PENDING, held for one window, and then settled per wallet pair: opposing
+ * A→B and B→A transfers cancel out and only the net amount runs through a transfer saga.
+ * <p>
+ * All transfers of a pair share the outcome of that one saga. Balance checks apply to the
+ * net amount, not to each gross transfer.
+ * <p>
+ * Windows live in memory. Transfers of a window lost with its node stay PENDING without a
+ * saga and are failed by {@link #failOrphanedTransfers()} once they are older than
+ * {@code wallet.netting.orphan-after-ms}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TransferNettingService {
+
+    private final TransferSagaService transferSagaService;
+    private final TransactionService transactionService;
+
+    @Qualifier("sagaExecutor")
+    private final ThreadPoolTaskExecutor sagaExecutor;
+
+    @Value("${wallet.netting.enabled:false}")
+    private boolean enabled;
+
+    // Must exceed the window plus the time a settlement may wait for a saga thread
+    @Value("${wallet.netting.orphan-after-ms:60000}")
+    private long orphanAfterMillis;
+
+    private final Object pendingLock = new Object();
+    private Map<WalletPair, List<PendingTransfer>> pending = new HashMap<>();
+    private boolean closed;
+
+    public CompletableFuture<TransferResponseDTO> submit(Long fromWalletId, Long toWalletId,
+                                                         BigDecimal amount, String description) {
+        if (!enabled) {
+            throw new InvalidTransactionException("Transfer netting is not enabled");
+        }
+
+        log.info("Queueing transfer from wallet {} to wallet {} with amount {} for netting",
+                fromWalletId, toWalletId, amount);
+
+        transferSagaService.validateTransferRequest(fromWalletId, toWalletId, amount);
+        transferSagaService.validateWallets(fromWalletId, toWalletId);
+
+        Transaction transaction = transactionService.createTransaction(
+                fromWalletId, toWalletId, amount, description);
+
+        PendingTransfer transfer = new PendingTransfer(transaction, new CompletableFuture<>());
+        boolean queued;
+        synchronized (pendingLock) {
+            queued = !closed;
+            if (queued) {
+                pending.computeIfAbsent(WalletPair.of(fromWalletId, toWalletId), pair -> new ArrayList<>())
+                        .add(transfer);
+            }
+        }
+        if (!queued) {
+            transactionService.updateTransactionStatus(transaction.getId(), TransactionStatus.FAILED);
+            throw new SagaException("Transfer netting is shutting down");
+        }
+        return transfer.result();
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.netting.window-ms:1000}")
+    public void flush() {
+        Map<WalletPair, List<PendingTransfer>> window = takeWindow(false);
+        if (window == null) {
+            return;
+        }
+
+        log.info("Netting window closed with {} wallet pairs", window.size());
+        window.forEach((pair, transfers) -> {
+            try {
+                sagaExecutor.execute(() -> settle(pair, transfers));
+            } catch (TaskRejectedException e) {
+                log.error("Saga executor rejected settlement of {} transfers between wallets {} and {}",
+                        transfers.size(), pair.low(), pair.high());
+                reject(transfers, e);
+            }
+        });
+    }
+
+    /**
+     * Settles the last window on the calling thread, since the saga executor may already
+     * have stopped taking tasks, and refuses transfers from then on.
+     */
+    @PreDestroy
+    void drain() {
+        Map<WalletPair, List<PendingTransfer>> window = takeWindow(true);
+        if (window == null) {
+            return;
+        }
+
+        log.info("Settling final netting window with {} wallet pairs before shutdown", window.size());
+        window.forEach(this::settle);
+    }
+
+    /**
+     * Fails netted transfers whose window was lost, e.g. with a node that stopped before
+     * settling it. The first run happens at startup.
+     */
+    @Scheduled(fixedDelayString = "${wallet.netting.orphan-sweep-interval-ms:60000}")
+    public void failOrphanedTransfers() {
+        try {
+            int failed = transactionService.failUnsettledTransactions(
+                    Duration.ofMillis(orphanAfterMillis), TransactionService.MAX_SWEEP_LIMIT);
+            if (failed > 0) {
+                log.warn("Failed {} netted transfers whose window was never settled", failed);
+            }
+        } catch (Exception e) {
+            log.error("Sweep of orphaned netted transfers failed", e);
+        }
+    }
+
+    private Map<WalletPair, List<PendingTransfer>> takeWindow(boolean close) {
+        synchronized (pendingLock) {
+            closed |= close;
+            if (pending.isEmpty()) {
+                return null;
+            }
+            Map<WalletPair, List<PendingTransfer>> window = pending;
+            pending = new HashMap<>();
+            return window;
+        }
+    }
+
+    private void reject(List<PendingTransfer> transfers, Exception cause) {
+        List<Long> transactionIds = transfers.stream()
+                .map(transfer -> transfer.transaction().getId())
+                .toList();
+        recordFailure(null, transactionIds);
+
+        SagaException failure = new SagaException("Netted settlement could not be scheduled", cause);
+        for (PendingTransfer transfer : transfers) {
+            transfer.result().completeExceptionally(failure);
+        }
+    }
+
+    private void settle(WalletPair pair, List<PendingTransfer> transfers) {
+        // Positive: the lower wallet id owes the higher one
+        BigDecimal net = BigDecimal.ZERO;
+        List<Long> transactionIds = new ArrayList<>(transfers.size());
+        for (PendingTransfer transfer : transfers) {
+            Transaction transaction = transfer.transaction();
+            transactionIds.add(transaction.getId());
+            net = transaction.getFromWalletId().equals(pair.low())
+                    ? net.add(transaction.getAmount())
+                    : net.subtract(transaction.getAmount());
+        }
+
+        log.info("Settling {} transfers between wallets {} and {} with net amount {}",
+                transfers.size(), pair.low(), pair.high(), net);
+
+        if (net.signum() == 0) {
+            settleWithoutSaga(transfers, transactionIds);
+            return;
+        }
+
+        Long fromWalletId = net.signum() > 0 ? pair.low() : pair.high();
+        Long toWalletId = net.signum() > 0 ? pair.high() : pair.low();
+        Long sagaInstanceId = null;
+
+        try {
+            sagaInstanceId = transferSagaService.prepareNettedTransfer(
+                    fromWalletId, toWalletId, net.abs(), transactionIds);
+            transferSagaService.executeTransferSaga(sagaInstanceId);
+
+            complete(transfers, sagaInstanceId, SagaStatus.COMPLETED.name(), "Transfer settled by netting");
+
+        } catch (Exception e) {
+            log.error("Netted settlement between wallets {} and {} failed", pair.low(), pair.high(), e);
+            recordFailure(sagaInstanceId, transactionIds);
+            complete(transfers, sagaInstanceId, SagaStatus.FAILED.name(), e.getMessage());
+        }
+    }
+
+    private void settleWithoutSaga(List<PendingTransfer> transfers, List<Long> transactionIds) {
+        try {
+            // Fully offset: no balance changes, only the records are settled
+            transactionService.settleOffsetTransactions(transactionIds);
+            complete(transfers, null, SagaStatus.COMPLETED.name(), "Transfer fully offset by netting");
+        } catch (Exception e) {
+            log.error("Failed to settle {} fully offset transfers", transactionIds.size(), e);
+            complete(transfers, null, SagaStatus.FAILED.name(), e.getMessage());
+        }
+    }
+
+    private void recordFailure(Long sagaInstanceId, List<Long> transactionIds) {
+        try {
+            if (sagaInstanceId != null) {
+                transferSagaService.markNettedTransferFailed(sagaInstanceId);
+            } else {
+                transactionService.updateTransactionsStatus(transactionIds, TransactionStatus.FAILED);
+            }
+        } catch (Exception e) {
+            log.error("Failed to record failure of netted settlement {}", sagaInstanceId, e);
+        }
+    }
+
+    private void complete(List<PendingTransfer> transfers, Long sagaInstanceId, String status, String message) {
+        for (PendingTransfer transfer : transfers) {
+            transfer.result().complete(TransferResponseDTO.builder()
+                    .sagaInstanceId(sagaInstanceId)
+                    .transactionId(transfer.transaction().getId())
+                    .status(status)
+                    .message(message)
+                    .build());
+        }
+    }
+
+    private record PendingTransfer(Transaction transaction, CompletableFuture<TransferResponseDTO> result) {
+    }
+
+    private record WalletPair(Long low, Long high) {
+        static WalletPair of(Long first, Long second) {
+            return first < second ? new WalletPair(first, second) : new WalletPair(second, first);
+        }
+    }
+}
@@ -5,16 +5,21 @@ import com.hritik.Sharded_Saga_Wallet_System.exceptions.InsufficientBalanceExcep
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.InvalidTransactionException;
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.SagaException;
 import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaContext;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaOrchestrator;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.steps.SagaStepFactory;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.steps.SagaStepType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -44,15 +49,7 @@ public class TransferSagaService {
                     fromWalletId, toWalletId, amount, description);
 
             // Create saga context with all necessary data
-            SagaContext sagaContext = SagaContext.builder()
-                    .data(Map.of(
-                            "transactionId", transaction.getId(),
-                            "fromWalletId", fromWalletId,
-                            "toWalletId", toWalletId,
-                            "amount", amount,
-                            "description", description != null ? description : ""
-                    ))
-                    .build();
+            SagaContext sagaContext = buildTransferContext(transaction);
 
             log.debug("Saga context created for transaction {}", transaction.getId());
 
@@ -71,6 +68,35 @@ public class TransferSagaService {
 
     }
 
+    /**
+     * Creates the transaction and saga rows for a batch of transfers in one database
+     * transaction, without executing any saga step. Callers are expected to have
+     * validated the wallets in bulk beforehand.
+     */
+    @Transactional
+    public List<PreparedTransfer> prepareTransfers(List<Transaction> transfers) {
+        log.info("Preparing {} transfers", transfers.size());
+
+        List<Transaction> transactions = transactionService.createTransactions(transfers);
+
+        List<SagaContext> sagaContexts = transactions.stream()
+                .map(this::buildTransferContext)
+                .toList();
+
+        List<Long> sagaInstanceIds = sagaOrchestrator.startSagas(sagaContexts);
+
+        // Transactions are still managed here, so the links are flushed as one batch of updates on commit
+        List<PreparedTransfer> prepared = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            transaction.setSagaInstanceId(sagaInstanceIds.get(i));
+            prepared.add(new PreparedTransfer(transaction.getId(), sagaInstanceIds.get(i)));
+        }
+
+        log.info("{} transfers prepared", prepared.size());
+        return prepared;
+    }
+
     @Transactional
     public void executeTransferSaga(Long sagaInstanceId) {
         log.info("Executing transfer saga {}", sagaInstanceId);
@@ -134,7 +160,69 @@ public class TransferSagaService {
         }
     }
 
-    private void validateTransferRequest(Long fromWalletId, Long toWalletId, BigDecimal amount) {
+    /**
+     * Starts one saga that moves the net amount of several offsetting transfers. The
+     * saga's status step settles every original transaction at once.
+     */
+    @Transactional
+    public Long prepareNettedTransfer(Long fromWalletId, Long toWalletId, BigDecimal netAmount,
+                                      List<Long> transactionIds) {
+        log.info("Preparing netted transfer of {} from wallet {} to wallet {} settling {} transactions",
+                netAmount, fromWalletId, toWalletId, transactionIds.size());
+
+        SagaContext sagaContext = SagaContext.builder()
+                .data(Map.of(
+                        "transactionIds", transactionIds,
+                        "fromWalletId", fromWalletId,
+                        "toWalletId", toWalletId,
+                        "amount", netAmount,
+                        "description", "Net settlement of " + transactionIds.size() + " transfers"
+                ))
+                .build();
+
+        Long sagaInstanceId = sagaOrchestrator.startSaga(sagaContext);
+        transactionService.updateTransactionsWithSagaInstanceId(transactionIds, sagaInstanceId);
+
+        return sagaInstanceId;
+    }
+
+    /**
+     * Fails a netted saga whose execution was rolled back, together with every transaction it settles.
+     */
+    @Transactional
+    public void markNettedTransferFailed(Long sagaInstanceId) {
+        log.info("Marking netted transfer saga {} as failed", sagaInstanceId);
+
+        sagaOrchestrator.failSaga(sagaInstanceId);
+        transactionService.failPendingTransactions(sagaInstanceId);
+    }
+
+    /**
+     * Records the outcome of a prepared transfer whose saga execution was rolled back.
+     * The saga row and the transaction were committed by {@link #prepareTransfers}, so without
+     * this they would stay STARTED / PENDING forever.
+     */
+    @Transactional
+    public void markTransferFailed(Long sagaInstanceId, Long transactionId) {
+        log.info("Marking prepared transfer {} of saga {} as failed", transactionId, sagaInstanceId);
+
+        sagaOrchestrator.failSaga(sagaInstanceId);
+        transactionService.updateTransactionStatus(transactionId, TransactionStatus.FAILED);
+    }
+
+    private SagaContext buildTransferContext(Transaction transaction) {
+        return SagaContext.builder()
+                .data(Map.of(
+                        "transactionId", transaction.getId(),
+                        "fromWalletId", transaction.getFromWalletId(),
+                        "toWalletId", transaction.getToWalletId(),
+                        "amount", transaction.getAmount(),
+                        "description", transaction.getDescription() != null ? transaction.getDescription() : ""
+                ))
+                .build();
+    }
+
+    void validateTransferRequest(Long fromWalletId, Long toWalletId, BigDecimal amount) {
         if (fromWalletId == null) {
             throw new InvalidTransactionException("Source wallet ID cannot be null");
         }
@@ -164,19 +252,26 @@ public class TransferSagaService {
         }
     }
 
-    private void validateWallets(Long fromWalletId, Long toWalletId) {
+    void validateWallets(Long fromWalletId, Long toWalletId) {
         // Validate source wallet exists and is active
-        var sourceWallet = walletService.getWalletById(fromWalletId);
-        if (!sourceWallet.getIsActive()) {
+        var sourceWallet = walletService.getWalletMetadata(fromWalletId);
+        if (!sourceWallet.active()) {
             throw new InvalidTransactionException(
                     "Source wallet " + fromWalletId + " is not active");
         }
 
         // Validate destination wallet exists and is active
-        var destWallet = walletService.getWalletById(toWalletId);
-        if (!destWallet.getIsActive()) {
+        var destWallet = walletService.getWalletMetadata(toWalletId);
+        if (!destWallet.active()) {
             throw new InvalidTransactionException(
                     "Destination wallet " + toWalletId + " is not active");
         }
     }
-}
\ No newline at end of file
+
+    @Getter
+    @AllArgsConstructor
+    public static class PreparedTransfer {
+        private final Long transactionId;
+        private final Long sagaInstanceId;
+    }
+}
@@ -0,0 +1,212 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.DuplicateEmailException;
+import com.hritik.Sharded_Saga_Wallet_System.model.User;
+import com.hritik.Sharded_Saga_Wallet_System.model.UserEmailIndex;
+import com.hritik.Sharded_Saga_Wallet_System.repository.UserEmailIndexRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.UserRepository;
+import com.hritik.Sharded_Saga_Wallet_System.dto.UserEmailBackfillResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains the email-hash-sharded user email index. Entries are written in the caller's
+ * transaction, but the entry and the user usually live on different shards and each shard
+ * commits on its own, so a failure between the two commits can leave a claim whose user was
+ * never stored (the email then looks taken) or a user without a claim. Both are repaired
+ * later: a claim older than {@link #ORPHAN_GRACE} whose user is missing or has another email
+ * is released when someone registers that email or when the backfill meets it, and the
+ * backfill indexes users that have no claim.
+ */
+@Component
+@Slf4j
+public class UserEmailIndexer {
+
+    // Longer than any user transaction, so a claim whose user has not committed yet is never released
+    static final Duration ORPHAN_GRACE = Duration.ofMinutes(5);
+
+    private final UserEmailIndexRepository indexRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserEmailIndexer(UserEmailIndexRepository indexRepository,
+                            UserRepository userRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.indexRepository = indexRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Claims the user's email, releasing an orphaned claim on it first.
+     *
+     * @throws DuplicateEmailException when another user already holds the email
+     */
+    @Transactional
+    public void index(User user) {
+        String email = UserEmailIndex.normalize(user.getEmail());
+        long emailHash = UserEmailIndex.hash(email);
+
+        Optional<UserEmailIndex> existing = indexRepository.findByEmailHashAndEmail(emailHash, email);
+        if (existing.isPresent()) {
+            if (existing.get().getUserId().equals(user.getId())) {
+                return;
+            }
+            if (!isOrphan(existing.get())) {
+                throw new DuplicateEmailException("Email " + user.getEmail() + " is already registered");
+            }
+            release(existing.get());
+        }
+
+        try {
+            // Flushed so a concurrent claim fails here, on the unique key, rather than at commit
+            indexRepository.saveAndFlush(entry(user, email, emailHash));
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateEmailException("Email " + user.getEmail() + " is already registered");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Long> findUserId(String email) {
+        String normalized = UserEmailIndex.normalize(email);
+        return indexRepository.findByEmailHashAndEmail(UserEmailIndex.hash(normalized), normalized)
+                .map(UserEmailIndex::getUserId);
+    }
+
+    /**
+     * Indexes every user without a claim, one chunk per database transaction. Meant to run as an
+     * admin job, not on a request thread.
+     */
+    public UserEmailBackfillResponseDTO backfillAll(int chunkSize) {
+        int chunks = 0;
+        long indexed = 0;
+        long duplicates = 0;
+        long orphansReleased = 0;
+        Long lastUserId = null;
+        BackfillChunk next = transactionTemplate.execute(status -> backfill(null, chunkSize));
+        while (next != null) {
+            chunks++;
+            indexed += next.indexed();
+            duplicates += next.duplicates();
+            orphansReleased += next.orphansReleased();
+            lastUserId = next.lastUserId();
+            Long afterUserId = lastUserId;
+            next = transactionTemplate.execute(status -> backfill(afterUserId, chunkSize));
+        }
+
+        log.info("User email index backfill finished after {} chunks with {} duplicates and {} orphans released",
+                chunks, duplicates, orphansReleased);
+        return UserEmailBackfillResponseDTO.builder()
+                .chunks(chunks)
+                .lastUserId(lastUserId)
+                .indexed(indexed)
+                .duplicates(duplicates)
+                .orphansReleased(orphansReleased)
+                .build();
+    }
+
+    /**
+     * Indexes one id-ordered chunk of users that have no claim. A user whose email is claimed by
+     * an orphan takes the claim over; a user whose email is held by another live user is skipped
+     * and logged and needs manual cleanup.
+     *
+     * @return the highest user id examined, or null when there is nothing left
+     */
+    private BackfillChunk backfill(Long afterUserId, int chunkSize) {
+        List<User> chunk = userRepository.findByIdGreaterThan(
+                afterUserId != null ? afterUserId : 0L,
+                PageRequest.of(0, chunkSize, Sort.by("id")));
+
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        Map<Long, String> emails = new HashMap<>();
+        for (User user : chunk) {
+            if (user.getEmail() != null && !user.getEmail().isBlank()) {
+                emails.put(user.getId(), UserEmailIndex.normalize(user.getEmail()));
+            }
+        }
+
+        Map<String, UserEmailIndex> claims = new HashMap<>();
+        indexRepository.findByEmailHashIn(emails.values().stream().map(UserEmailIndex::hash).distinct().toList())
+                .forEach(entry -> claims.put(entry.getEmail(), entry));
+
+        List<UserEmailIndex> entries = new ArrayList<>();
+        int duplicates = 0;
+        int orphansReleased = 0;
+        for (User user : chunk) {
+            String email = emails.get(user.getId());
+            if (email == null) {
+                continue;
+            }
+            UserEmailIndex claim = claims.get(email);
+            if (claim != null && claim.getUserId().equals(user.getId())) {
+                continue;
+            }
+            // Entries of this chunk have no id yet and are never orphans
+            if (claim != null && claim.getId() != null && isOrphan(claim)) {
+                release(claim);
+                orphansReleased++;
+                claim = null;
+            }
+            if (claim == null) {
+                UserEmailIndex entry = entry(user, email, UserEmailIndex.hash(email));
+                claims.put(email, entry);
+                entries.add(entry);
+            } else {
+                duplicates++;
+                log.warn("User {} shares email {} with user {}, not indexed", user.getId(), email, claim.getUserId());
+            }
+        }
+
+        indexRepository.saveAll(entries);
+        log.info("Backfilled {} of {} users into the email index, {} duplicates, {} orphans released",
+                entries.size(), chunk.size(), duplicates, orphansReleased);
+        return new BackfillChunk(chunk.get(chunk.size() - 1).getId(), entries.size(), duplicates, orphansReleased);
+    }
+
+    /**
+     * A claim is orphaned when it is old enough that its user's transaction has finished and the
+     * user either was never stored or no longer has the email.
+     */
+    private boolean isOrphan(UserEmailIndex claim) {
+        if (claim.getCreatedAt() != null && claim.getCreatedAt().isAfter(LocalDateTime.now().minus(ORPHAN_GRACE))) {
+            return false;
+        }
+        return userRepository.findById(claim.getUserId())
+                .map(owner -> owner.getEmail() == null || !claim.getEmail().equals(UserEmailIndex.normalize(owner.getEmail())))
+                .orElse(true);
+    }
+
+    private void release(UserEmailIndex claim) {
+        log.warn("Releasing orphaned claim on email {} by user {}", claim.getEmail(), claim.getUserId());
+        indexRepository.deleteClaim(claim.getEmailHash(), claim.getId());
+    }
+
+    private static UserEmailIndex entry(User user, String email, long emailHash) {
+        return UserEmailIndex.builder()
+                .emailHash(emailHash)
+                .email(email)
+                .userId(user.getId())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    record BackfillChunk(Long lastUserId, int indexed, int duplicates, int orphansReleased) {
+    }
+}
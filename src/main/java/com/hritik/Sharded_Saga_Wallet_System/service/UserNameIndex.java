@@ -0,0 +1,337 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardDataSourceRegistry;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Node-local trigram index over user names, so substring search touches only the users that
+ * share the query's rarest trigram instead of scanning every shard.
+ * <p>
+ * The index is built after startup by streaming every shard in parallel and is kept current by
+ * {@link UserService#createUser} on this node and by a periodic catch-up on {@code updated_at}
+ * for changes made elsewhere. Postings only grow; candidates are always verified against the
+ * current name, so a renamed user's old trigrams never produce a false match.
+ */
+@Component
+@Slf4j
+public class UserNameIndex {
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final String USER_CHUNK =
+            "SELECT id, name FROM `user` WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String CHANGED_USER_CHUNK =
+            "SELECT id, name, updated_at FROM `user` WHERE updated_at > ? OR (updated_at = ? AND id > ?) " +
+                    "ORDER BY updated_at, id LIMIT ?";
+    private static final String DATABASE_NOW = "SELECT CURRENT_TIMESTAMP(6)";
+
+    private final ShardResolver shardResolver;
+    private final ThreadPoolTaskExecutor maintenanceExecutor;
+    private final int chunkSize;
+    private final long refreshOverlapMs;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private final Map<String, Timestamp> watermarks = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile boolean ready;
+
+    public UserNameIndex(ShardResolver shardResolver,
+                         @Qualifier("maintenanceExecutor") ThreadPoolTaskExecutor maintenanceExecutor,
+                         @Value("${wallet.user-search.chunk-size:1000}") int chunkSize,
+                         @Value("${wallet.user-search.refresh-overlap-ms:5000}") long refreshOverlapMs) {
+        this.shardResolver = shardResolver;
+        this.maintenanceExecutor = maintenanceExecutor;
+        this.chunkSize = chunkSize;
+        this.refreshOverlapMs = refreshOverlapMs;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Indexes a user once the surrounding transaction commits, or immediately without one.
+     */
+    public void onUserSaved(Long id, String name) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(id, name);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(id, name);
+            }
+        });
+    }
+
+    /**
+     * Ids of users whose name contains {@code query}, best match first: exact name, then name
+     * prefix, then word prefix, then any substring; shorter names and lower ids break ties.
+     *
+     * @param query at least {@link #MIN_QUERY_LENGTH} characters
+     * @param limit maximum number of ids to rank
+     */
+    public List<Long> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Query must have at least " + MIN_QUERY_LENGTH + " characters");
+        }
+
+        lock.readLock().lock();
+        try {
+            Postings rarest = null;
+            for (String trigram : trigrams(normalized)) {
+                Postings candidates = postings.get(trigram);
+                if (candidates == null) {
+                    return List.of();
+                }
+                if (rarest == null || candidates.size < rarest.size) {
+                    rarest = candidates;
+                }
+            }
+
+            Set<Long> seen = new HashSet<>();
+            List<Match> matches = new ArrayList<>();
+            for (int i = 0; i < rarest.size; i++) {
+                long id = rarest.ids[i];
+                String name = names.get(id);
+                if (!seen.add(id) || name == null) {
+                    continue;
+                }
+                int position = name.indexOf(normalized);
+                if (position >= 0) {
+                    matches.add(new Match(id, rank(name, normalized, position), name.length()));
+                }
+            }
+
+            return matches.stream()
+                    .sorted(Comparator.comparingInt(Match::rank)
+                            .thenComparingInt(Match::length)
+                            .thenComparingLong(Match::id))
+                    .limit(limit)
+                    .map(Match::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        maintenanceExecutor.execute(this::build);
+    }
+
+    /**
+     * Picks up users created or renamed through other nodes since the last pass.
+     */
+    @Scheduled(fixedDelayString = "${wallet.user-search.refresh-interval-ms:10000}")
+    public void refresh() {
+        if (!ready || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (String shard : ShardDataSourceRegistry.getAll().keySet()) {
+                refreshShard(shard);
+            }
+        } catch (Exception e) {
+            log.warn("User name index refresh failed: {}", e.getMessage());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        Set<String> shards = ShardDataSourceRegistry.getAll().keySet();
+        log.info("Building user name index from shards {}", shards);
+
+        List<CompletableFuture<Long>> loads = new ArrayList<>();
+        for (String shard : shards) {
+            loads.add(CompletableFuture.supplyAsync(() -> loadShard(shard), maintenanceExecutor));
+        }
+
+        try {
+            long users = loads.stream().mapToLong(CompletableFuture::join).sum();
+            ready = true;
+            log.info("User name index built with {} users and {} trigrams in {} ms",
+                    users, trigramCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build user name index, name search stays on the shard scan", e);
+        }
+    }
+
+    private long loadShard(String shard) {
+        JdbcTemplate shardJdbcTemplate = new JdbcTemplate(ShardDataSourceRegistry.get(shard));
+        // Taken before the scan so the first refresh covers anything changed during it
+        watermarks.put(shard, shardJdbcTemplate.queryForObject(DATABASE_NOW, Timestamp.class));
+
+        long loaded = 0;
+        long afterId = 0;
+        while (true) {
+            Map<Long, String> chunk = new HashMap<>();
+            long[] lastId = {afterId};
+            shardJdbcTemplate.query(USER_CHUNK, resultSet -> {
+                long id = resultSet.getLong(1);
+                lastId[0] = Math.max(lastId[0], id);
+                if (shard.equals(shardResolver.shardForKey(id))) {
+                    chunk.put(id, resultSet.getString(2));
+                }
+            }, afterId, chunkSize);
+
+            if (lastId[0] == afterId) {
+                return loaded;
+            }
+            putAll(chunk);
+            loaded += chunk.size();
+            afterId = lastId[0];
+        }
+    }
+
+    private void refreshShard(String shard) {
+        JdbcTemplate shardJdbcTemplate = new JdbcTemplate(ShardDataSourceRegistry.get(shard));
+        Timestamp now = shardJdbcTemplate.queryForObject(DATABASE_NOW, Timestamp.class);
+        Timestamp watermark = watermarks.get(shard);
+        if (watermark == null) {
+            // Shard appeared after the build; its users are picked up from the next pass on
+            watermarks.put(shard, now);
+            return;
+        }
+        Timestamp since = new Timestamp(watermark.getTime() - refreshOverlapMs);
+
+        Timestamp afterUpdatedAt = since;
+        long afterId = 0;
+        long changed = 0;
+        while (true) {
+            Map<Long, String> chunk = new HashMap<>();
+            Timestamp[] lastUpdatedAt = {null};
+            long[] lastId = {0};
+            shardJdbcTemplate.query(CHANGED_USER_CHUNK, resultSet -> {
+                long id = resultSet.getLong(1);
+                lastUpdatedAt[0] = resultSet.getTimestamp(3);
+                lastId[0] = id;
+                if (shard.equals(shardResolver.shardForKey(id))) {
+                    chunk.put(id, resultSet.getString(2));
+                }
+            }, afterUpdatedAt, afterUpdatedAt, afterId, chunkSize);
+
+            if (lastUpdatedAt[0] == null) {
+                break;
+            }
+            putAll(chunk);
+            changed += chunk.size();
+            afterUpdatedAt = lastUpdatedAt[0];
+            afterId = lastId[0];
+        }
+
+        watermarks.put(shard, now);
+        if (changed > 0) {
+            log.debug("Refreshed {} users of shard {} in the name index", changed, shard);
+        }
+    }
+
+    private void put(Long id, String name) {
+        putAll(Map.of(id, name));
+    }
+
+    private void putAll(Map<Long, String> users) {
+        lock.writeLock().lock();
+        try {
+            users.forEach((id, name) -> {
+                if (id == null || name == null) {
+                    return;
+                }
+                String normalized = normalize(name);
+                String previous = names.put(id, normalized);
+                if (normalized.equals(previous)) {
+                    return;
+                }
+                Set<String> existing = previous != null ? trigrams(previous) : Set.of();
+                for (String trigram : trigrams(normalized)) {
+                    if (!existing.contains(trigram)) {
+                        postings.computeIfAbsent(trigram, key -> new Postings()).add(id);
+                    }
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int trigramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int rank(String name, String query, int position) {
+        if (position == 0) {
+            return name.length() == query.length() ? 0 : 1;
+        }
+        if (Character.isWhitespace(name.charAt(position - 1)) || name.indexOf(" " + query) >= 0) {
+            return 2;
+        }
+        return 3;
+    }
+
+    static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + MIN_QUERY_LENGTH <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + MIN_QUERY_LENGTH));
+        }
+        return trigrams;
+    }
+
+    private record Match(long id, int rank, int length) {
+    }
+
+    private static final class Postings {
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
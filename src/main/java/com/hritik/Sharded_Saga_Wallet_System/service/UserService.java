@@ -1,22 +1,54 @@
 package com.hritik.Sharded_Saga_Wallet_System.service;
 
+import com.hritik.Sharded_Saga_Wallet_System.dto.UserPageDTO;
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.ResourceNotFoundException;
 import com.hritik.Sharded_Saga_Wallet_System.model.User;
 import com.hritik.Sharded_Saga_Wallet_System.repository.UserRepository;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ScatterGatherExecutor;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class UserService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_RANKED_RESULTS = 1000;
+
+    // Marks cursors of ranked index searches, which are offsets rather than user ids
+    private static final String RANKED_CURSOR_PREFIX = "r";
+
+    private static final String SELECT_USERS = "SELECT id, name, email, updated_at FROM `user`";
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (resultSet, rowNum) -> {
+        Timestamp updatedAt = resultSet.getTimestamp("updated_at");
+        return new User(resultSet.getLong("id"), resultSet.getString("name"), resultSet.getString("email"),
+                updatedAt != null ? updatedAt.toLocalDateTime() : null);
+    };
+
     private final UserRepository userRepository;
+    private final ShardResolver shardResolver;
+    private final ScatterGatherExecutor scatterGatherExecutor;
+    private final UserNameIndex userNameIndex;
+    private final UserEmailIndexer userEmailIndexer;
+    private final MetadataCache metadataCache;
 
     @Transactional
     public User createUser(User user) {
@@ -36,8 +68,10 @@ public class UserService {
 
         try {
             User newUser = userRepository.save(user);
+            userEmailIndexer.index(newUser);
+            userNameIndex.onUserSaved(newUser.getId(), newUser.getName());
             log.info("User created with id {} in database shard {}",
-                    newUser.getId(), (newUser.getId() % 2 + 1));
+                    newUser.getId(), shardResolver.shardForKey(newUser.getId()));
             return newUser;
 
         } catch (DataAccessException e) {
@@ -46,7 +80,6 @@ public class UserService {
         }
     }
 
-    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         log.debug("Fetching user with id {}", id);
 
@@ -54,24 +87,179 @@ public class UserService {
             throw new IllegalArgumentException("User ID cannot be null");
         }
 
-        return userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        return metadataCache.getUser(id, userId -> userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId)));
     }
 
+    /**
+     * Looks a user up through the email index: one shard for the index entry, one for the user.
+     */
     @Transactional(readOnly = true)
-    public List<User> getUsersByName(String name) {
-        log.debug("Fetching users with name containing '{}'", name);
+    public User getUserByEmail(String email) {
+        log.debug("Fetching user with email {}", email);
+
+        if (email == null || email.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be null or empty");
+        }
+
+        return userEmailIndexer.findUserId(email)
+                .flatMap(userRepository::findById)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    }
+
+    /**
+     * Returns one page of users whose name contains {@code name}, starting after {@code cursor}
+     * (null for the first page). Served from the {@link UserNameIndex} ranked by match quality
+     * once it is built, up to {@link #MAX_RANKED_RESULTS} matches; queries shorter than a trigram,
+     * and all queries while the index is still building, fall back to a scan of every shard
+     * ordered by id (see {@link #getUsersPage}). A search keeps the path it started on: a scan
+     * cursor is still served by the scan after the index becomes ready.
+     */
+    public UserPageDTO searchUsersByName(String name, String cursor, int limit) {
+        log.debug("Searching users with name containing '{}' (limit {})", name, limit);
 
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Name cannot be null or empty");
         }
 
-        return userRepository.findByNameContainingIgnoreCase(name);
+        boolean rankedCursor = cursor != null && cursor.startsWith(RANKED_CURSOR_PREFIX);
+        boolean firstPage = cursor == null || cursor.isBlank();
+        if (rankedCursor || (firstPage && userNameIndex.isReady()
+                && name.trim().length() >= UserNameIndex.MIN_QUERY_LENGTH)) {
+            return searchIndex(name, rankedCursor ? cursor.substring(RANKED_CURSOR_PREFIX.length()) : null, limit);
+        }
+
+        String pattern = "%" + escapeLike(name.trim().toLowerCase(Locale.ROOT)) + "%";
+        return queryPage(SELECT_USERS + " WHERE id > ? AND LOWER(name) LIKE ? ESCAPE '!' ORDER BY id LIMIT ?",
+                cursor, limit, pattern);
     }
 
-    @Transactional(readOnly = true)
-    public List<User> getAllUsers() {
-        log.debug("Fetching all users");
-        return userRepository.findAll();
+    /**
+     * Returns one page of all users ordered by id, starting after {@code cursor} (null for the
+     * first page). Shards are read concurrently; a shard that fails or misses the deadline is
+     * listed in the response and its rows are missing from this page. A partial page has no
+     * next cursor, because its rows may sort after rows of the missing shard; the client
+     * retries the request with the cursor it sent when it wants the complete page.
+     */
+    public UserPageDTO getUsersPage(String cursor, int limit) {
+        log.debug("Fetching users page after cursor {} (limit {})", cursor, limit);
+
+        return queryPage(SELECT_USERS + " WHERE id > ? ORDER BY id LIMIT ?", cursor, limit);
+    }
+
+    private UserPageDTO searchIndex(String name, String offsetCursor, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!userNameIndex.isReady()) {
+            throw new IllegalArgumentException("Cursor is no longer valid, restart the search");
+        }
+
+        long cursorOffset = decodeCursor(offsetCursor);
+        if (cursorOffset < 0 || cursorOffset >= MAX_RANKED_RESULTS) {
+            throw new IllegalArgumentException("Search results are limited to the first " + MAX_RANKED_RESULTS);
+        }
+
+        int offset = (int) cursorOffset;
+        int end = Math.min(offset + limit, MAX_RANKED_RESULTS);
+        // One extra id tells whether another page exists; nothing is served past the cap
+        List<Long> ranked = userNameIndex.search(name, end + 1);
+        boolean hasMore = ranked.size() > end && end < MAX_RANKED_RESULTS;
+        List<Long> pageIds = ranked.subList(Math.min(offset, ranked.size()), Math.min(end, ranked.size()));
+
+        // Hydrate by primary key, which routes each id straight to its shard
+        Map<Long, User> byId = userRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return UserPageDTO.builder()
+                .users(pageIds.stream().map(byId::get).filter(Objects::nonNull).toList())
+                .nextCursor(hasMore ? RANKED_CURSOR_PREFIX + end : null)
+                .hasMore(hasMore)
+                .partial(false)
+                .unavailableShards(List.of())
+                .build();
+    }
+
+    private UserPageDTO queryPage(String sql, String cursor, int limit, Object... filters) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Object[] args = new Object[filters.length + 2];
+        args[0] = decodeCursor(cursor);
+        System.arraycopy(filters, 0, args, 1, filters.length);
+        // One extra row tells whether another page exists
+        args[args.length - 1] = limit + 1;
+
+        ScatterGatherExecutor.ScatterGatherResult<User> result = scatterGatherExecutor.query(
+                (shard, jdbcTemplate) -> ownedUsers(shard, jdbcTemplate, sql, args, limit + 1),
+                Comparator.comparing(User::getId),
+                limit + 1);
+
+        List<User> users = result.stream().limit(limit + 1L).toList();
+        boolean hasMore = users.size() > limit;
+        List<User> page = hasMore ? users.subList(0, limit) : users;
+
+        if (result.isPartial()) {
+            // Rows of the missing shards may sort before the last row returned, so nothing past
+            // this page is offered; a cursor that repeated the request would be followed forever
+            return UserPageDTO.builder()
+                    .users(page)
+                    .nextCursor(null)
+                    .hasMore(false)
+                    .partial(true)
+                    .unavailableShards(result.getUnavailableShards())
+                    .build();
+        }
+
+        return UserPageDTO.builder()
+                .users(page)
+                .nextCursor(hasMore ? String.valueOf(page.get(page.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .partial(false)
+                .unavailableShards(List.of())
+                .build();
+    }
+
+    /**
+     * Reads the shard in id order until it has {@code wanted} users that it owns. Rows of a
+     * bucket that was migrated away stay behind until the migration deletes them and are
+     * skipped, so they cannot shorten the page. The last argument of {@code sql} is its limit,
+     * equal to {@code wanted}.
+     */
+    private List<User> ownedUsers(String shard, JdbcTemplate jdbcTemplate, String sql, Object[] args, int wanted) {
+        List<User> owned = new ArrayList<>(wanted);
+        Object[] chunkArgs = args.clone();
+
+        while (true) {
+            List<User> chunk = jdbcTemplate.query(sql, USER_ROW_MAPPER, chunkArgs);
+            for (User user : chunk) {
+                if (shard.equals(shardResolver.shardForKey(user.getId()))) {
+                    owned.add(user);
+                    if (owned.size() == wanted) {
+                        return owned;
+                    }
+                }
+            }
+            if (chunk.size() < wanted) {
+                return owned;
+            }
+            chunkArgs[0] = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.ResourceNotFoundException;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Owner of a wallet, which is the wallet table's sharding key. Wallet writes and locking
+ * reads pass it to {@link WalletRepository} so they reach only the wallet's shard and honour
+ * a bucket migration's fence. Owners never change, so they are served from {@link MetadataCache}.
+ */
+@Component
+@RequiredArgsConstructor
+public class WalletOwnerResolver {
+
+    private final WalletRepository walletRepository;
+    private final MetadataCache metadataCache;
+
+    public Long ownerOf(Long walletId) {
+        if (walletId == null) {
+            throw new IllegalArgumentException("Wallet ID cannot be null");
+        }
+
+        return metadataCache.getWallet(walletId, id -> walletRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + id))).userId();
+    }
+}
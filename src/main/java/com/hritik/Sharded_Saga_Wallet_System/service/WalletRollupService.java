@@ -0,0 +1,262 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.DailyRollupDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.RollupBackfillResponseDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.WalletStatementDTO;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import com.hritik.Sharded_Saga_Wallet_System.model.WalletDailyRollup;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletDailyRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Daily in/out totals per wallet. Rollups change only when a transaction enters or leaves
+ * SUCCESS, so statements and summaries read O(days) rows instead of scanning transactions.
+ * They are written in the caller's transaction, but rollups are sharded by wallet and the
+ * transaction row by its own id, and each shard commits on its own: a failure between the
+ * commits leaves a rollup out of step with the status. Reconciliation therefore checks
+ * against the transactions themselves before reporting a wallet, and {@link #backfill}
+ * rebuilds the affected days.
+ */
+@Service
+@Slf4j
+public class WalletRollupService {
+
+    public static final int MAX_STATEMENT_DAYS = 366;
+
+    private static final String OUTGOING_BY_WALLET =
+            "SELECT from_wallet_id, SUM(amount), COUNT(*) FROM transaction " +
+                    "WHERE status = 'SUCCESS' AND created_at >= ? AND created_at < ? GROUP BY from_wallet_id";
+
+    private static final String INCOMING_BY_WALLET =
+            "SELECT to_wallet_id, SUM(amount), COUNT(*) FROM transaction " +
+                    "WHERE status = 'SUCCESS' AND created_at >= ? AND created_at < ? GROUP BY to_wallet_id";
+
+    private final WalletDailyRollupRepository rollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor maintenanceExecutor;
+
+    public WalletRollupService(WalletDailyRollupRepository rollupRepository,
+                               DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               @Qualifier("maintenanceExecutor") ThreadPoolTaskExecutor maintenanceExecutor) {
+        this.rollupRepository = rollupRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maintenanceExecutor = maintenanceExecutor;
+    }
+
+    /**
+     * Applies the rollup effect of a status change. Only transitions into or out of SUCCESS
+     * move the totals; everything else is a no-op.
+     */
+    @Transactional
+    public void onStatusChange(Transaction transaction, TransactionStatus previousStatus) {
+        onStatusChange(List.of(transaction), Collections.singletonMap(transaction.getId(), previousStatus));
+    }
+
+    @Transactional
+    public void onStatusChange(Collection<Transaction> transactions, Map<Long, TransactionStatus> previousStatuses) {
+        Map<RollupKey, Delta> deltas = new LinkedHashMap<>();
+
+        for (Transaction transaction : transactions) {
+            boolean wasSuccess = previousStatuses.get(transaction.getId()) == TransactionStatus.SUCCESS;
+            boolean isSuccess = transaction.getStatus() == TransactionStatus.SUCCESS;
+            if (wasSuccess == isSuccess) {
+                continue;
+            }
+
+            int sign = isSuccess ? 1 : -1;
+            BigDecimal amount = sign > 0 ? transaction.getAmount() : transaction.getAmount().negate();
+            LocalDate day = transaction.getCreatedAt().toLocalDate();
+
+            deltas.computeIfAbsent(new RollupKey(transaction.getFromWalletId(), day), key -> new Delta())
+                    .addOut(amount, sign);
+            deltas.computeIfAbsent(new RollupKey(transaction.getToWalletId(), day), key -> new Delta())
+                    .addIn(amount, sign);
+        }
+        deltas.keySet().removeIf(key -> Transaction.EXTERNAL_WALLET_ID.equals(key.walletId()));
+
+        deltas.forEach((key, delta) -> rollupRepository.addToRollup(key.walletId(), key.day(),
+                delta.totalIn, delta.totalOut, delta.creditCount, delta.debitCount));
+
+        if (!deltas.isEmpty()) {
+            log.debug("Applied {} rollup deltas for {} transactions", deltas.size(), transactions.size());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public WalletStatementDTO getStatement(Long walletId, LocalDate from, LocalDate to) {
+        log.debug("Building statement for wallet {} from {} to {}", walletId, from, to);
+
+        if (walletId == null) {
+            throw new IllegalArgumentException("Wallet ID cannot be null");
+        }
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("'from' must be on or before 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_STATEMENT_DAYS) {
+            throw new IllegalArgumentException("Statement range cannot exceed " + MAX_STATEMENT_DAYS + " days");
+        }
+
+        List<WalletDailyRollup> rollups =
+                rollupRepository.findByWalletIdAndRollupDateBetweenOrderByRollupDate(walletId, from, to);
+
+        WalletStatementDTO statement = summarize(walletId, rollups);
+        statement.setFrom(from);
+        statement.setTo(to);
+        statement.setDays(rollups.stream()
+                .map(rollup -> DailyRollupDTO.builder()
+                        .date(rollup.getRollupDate())
+                        .totalIn(rollup.getTotalIn())
+                        .totalOut(rollup.getTotalOut())
+                        .creditCount(rollup.getCreditCount())
+                        .debitCount(rollup.getDebitCount())
+                        .build())
+                .toList());
+        return statement;
+    }
+
+    @Transactional(readOnly = true)
+    public WalletStatementDTO getSummary(Long walletId) {
+        log.debug("Building lifetime summary for wallet {}", walletId);
+
+        if (walletId == null) {
+            throw new IllegalArgumentException("Wallet ID cannot be null");
+        }
+
+        List<WalletDailyRollup> rollups = rollupRepository.findByWalletId(walletId);
+        WalletStatementDTO summary = summarize(walletId, rollups);
+        rollups.stream().map(WalletDailyRollup::getRollupDate).min(LocalDate::compareTo).ifPresent(summary::setFrom);
+        rollups.stream().map(WalletDailyRollup::getRollupDate).max(LocalDate::compareTo).ifPresent(summary::setTo);
+        return summary;
+    }
+
+    /**
+     * Rebuilds the rollups of every day in [from, to] from SUCCESS transactions. Days are
+     * rebuilt in parallel and each aggregate fans out to all shards at once.
+     * Transactions settling on a day while it is rebuilt may need a second pass.
+     */
+    public RollupBackfillResponseDTO backfill(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("'from' must be on or before 'to'");
+        }
+
+        log.info("Backfilling wallet rollups from {} to {}", from, to);
+
+        List<CompletableFuture<Long>> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate rebuildDay = day;
+            days.add(CompletableFuture.supplyAsync(() -> rebuildDay(rebuildDay), maintenanceExecutor));
+        }
+
+        long rows = days.stream().mapToLong(CompletableFuture::join).sum();
+        log.info("Wallet rollup backfill finished: {} days, {} rollup rows", days.size(), rows);
+
+        return RollupBackfillResponseDTO.builder()
+                .from(from)
+                .to(to)
+                .days(days.size())
+                .rollupRows(rows)
+                .build();
+    }
+
+    private long rebuildDay(LocalDate day) {
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+
+        Long rows = transactionTemplate.execute(status -> {
+            rollupRepository.deleteByRollupDate(day);
+
+            long written = 0;
+            for (Object[] row : aggregate(OUTGOING_BY_WALLET, start, end)) {
+                if (Transaction.EXTERNAL_WALLET_ID.equals(row[0])) {
+                    continue;
+                }
+                rollupRepository.addToRollup((Long) row[0], day, BigDecimal.ZERO, (BigDecimal) row[1], 0, (Long) row[2]);
+                written++;
+            }
+            for (Object[] row : aggregate(INCOMING_BY_WALLET, start, end)) {
+                if (Transaction.EXTERNAL_WALLET_ID.equals(row[0])) {
+                    continue;
+                }
+                rollupRepository.addToRollup((Long) row[0], day, (BigDecimal) row[1], BigDecimal.ZERO, (Long) row[2], 0);
+                written++;
+            }
+            return written;
+        });
+
+        log.debug("Rebuilt rollups of {} with {} upserts", day, rows);
+        return rows != null ? rows : 0;
+    }
+
+    private List<Object[]> aggregate(String sql, Timestamp start, Timestamp end) {
+        return jdbcTemplate.query(sql, (resultSet, rowNum) -> new Object[]{
+                resultSet.getLong(1), resultSet.getBigDecimal(2), resultSet.getLong(3)
+        }, start, end);
+    }
+
+    private static WalletStatementDTO summarize(Long walletId, List<WalletDailyRollup> rollups) {
+        BigDecimal totalIn = BigDecimal.ZERO;
+        BigDecimal totalOut = BigDecimal.ZERO;
+        long creditCount = 0;
+        long debitCount = 0;
+
+        for (WalletDailyRollup rollup : rollups) {
+            totalIn = totalIn.add(rollup.getTotalIn());
+            totalOut = totalOut.add(rollup.getTotalOut());
+            creditCount += rollup.getCreditCount();
+            debitCount += rollup.getDebitCount();
+        }
+
+        return WalletStatementDTO.builder()
+                .walletId(walletId)
+                .totalIn(totalIn)
+                .totalOut(totalOut)
+                .net(totalIn.subtract(totalOut))
+                .creditCount(creditCount)
+                .debitCount(debitCount)
+                .build();
+    }
+
+    private record RollupKey(Long walletId, LocalDate day) {
+    }
+
+    private static final class Delta {
+        BigDecimal totalIn = BigDecimal.ZERO;
+        BigDecimal totalOut = BigDecimal.ZERO;
+        long creditCount;
+        long debitCount;
+
+        void addIn(BigDecimal amount, int sign) {
+            totalIn = totalIn.add(amount);
+            creditCount += sign;
+        }
+
+        void addOut(BigDecimal amount, int sign) {
+            totalOut = totalOut.add(amount);
+            debitCount += sign;
+        }
+    }
+}
@@ -4,8 +4,15 @@ package com.hritik.Sharded_Saga_Wallet_System.service;
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.InsufficientBalanceException;
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.ResourceNotFoundException;
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.WalletException;
+import com.hritik.Sharded_Saga_Wallet_System.execution.WalletMailboxExecutor;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionType;
 import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.monitoring.MoneyConservationMonitor;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
 import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.MetadataCache.WalletMetadata;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
@@ -13,7 +20,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -23,6 +32,12 @@ public class WalletService {
 
     private final WalletRepository walletRepository;
     private final UserService userService;
+    private final WalletMailboxExecutor walletMailboxExecutor;
+    private final TransactionRepository transactionRepository;
+    private final WalletTransactionIndexer walletTransactionIndexer;
+    private final WalletRollupService walletRollupService;
+    private final MoneyConservationMonitor moneyConservationMonitor;
+    private final MetadataCache metadataCache;
 
     @Transactional
     public Wallet createWallet(Long userId) {
@@ -66,6 +81,31 @@ public class WalletService {
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + id));
     }
 
+    /**
+     * Owner and active flag of a wallet, served from {@link MetadataCache}. Use
+     * {@link #getWalletById} whenever the balance is needed.
+     */
+    public WalletMetadata getWalletMetadata(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Wallet ID cannot be null");
+        }
+
+        return metadataCache.getWallet(id, this::getWalletById);
+    }
+
+    /**
+     * Bulk form of {@link #getWalletMetadata(Long)}; unknown wallets are absent from the result.
+     */
+    public Map<Long, WalletMetadata> getWalletMetadata(Collection<Long> ids) {
+        log.debug("Fetching metadata of {} wallets", ids.size());
+
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        return metadataCache.getWallets(ids, walletRepository::findAllById);
+    }
+
     @Transactional(readOnly = true)
     public List<Wallet> getWalletsByUserId(Long userId) {
         log.debug("Fetching wallets for user {}", userId);
@@ -109,12 +149,17 @@ public class WalletService {
                                 wallet.getBalance(), amount));
             }
 
-            int rowsUpdated = walletRepository.atomicDebit(wallet.getId(), amount);
+            boolean debited = walletMailboxExecutor.isEnabled()
+                    ? walletMailboxExecutor.debit(wallet.getId(), amount)
+                    : walletRepository.atomicDebit(wallet.getId(), wallet.getUserId(), amount) == 1;
 
-            if (rowsUpdated == 0) {
+            if (!debited) {
                 throw new WalletException("Failed to debit wallet - wallet may have become inactive or insufficient balance");
             }
 
+            recordExternalTransaction(wallet.getId(), Transaction.EXTERNAL_WALLET_ID, amount, TransactionType.WITHDRAWAL);
+            moneyConservationMonitor.recordExternalBalanceChange(wallet.getId(), amount.negate());
+
             log.info("Successfully debited {} from user {}. New balance: {}",
                     amount, userId);
 
@@ -133,12 +178,16 @@ public class WalletService {
         try {
             Wallet wallet = getActiveWalletByUserId(userId);
 
-            int rowsUpdated = walletRepository.atomicCredit(wallet.getId(), amount);
+            boolean credited = walletMailboxExecutor.isEnabled()
+                    ? walletMailboxExecutor.credit(wallet.getId(), amount)
+                    : walletRepository.atomicCredit(wallet.getId(), wallet.getUserId(), amount) == 1;
 
-            if (rowsUpdated == 0) {
+            if (!credited) {
                 throw new WalletException("Failed to credit wallet - wallet may have become inactive");
             }
 
+            recordExternalTransaction(Transaction.EXTERNAL_WALLET_ID, wallet.getId(), amount, TransactionType.DEPOSIT);
+            moneyConservationMonitor.recordExternalBalanceChange(wallet.getId(), amount);
 
             log.info("Successfully credited {} to user {}. New balance: {}",
                     amount, userId);
@@ -167,8 +216,8 @@ public class WalletService {
 
         try {
             Wallet wallet = getWalletById(walletId);
-            wallet.setIsActive(false);
-            walletRepository.save(wallet);
+            walletRepository.updateActive(walletId, wallet.getUserId(), false);
+            metadataCache.evictWallet(walletId);
 
             log.info("Wallet {} deactivated successfully", walletId);
 
@@ -184,8 +233,8 @@ public class WalletService {
 
         try {
             Wallet wallet = getWalletById(walletId);
-            wallet.setIsActive(true);
-            walletRepository.save(wallet);
+            walletRepository.updateActive(walletId, wallet.getUserId(), true);
+            metadataCache.evictWallet(walletId);
 
             log.info("Wallet {} activated successfully", walletId);
 
@@ -195,6 +244,24 @@ public class WalletService {
         }
     }
 
+    /**
+     * Records money entering or leaving the system so that every balance change has a
+     * SUCCESS transaction behind it and balances can be reconciled against history.
+     */
+    private void recordExternalTransaction(Long fromWalletId, Long toWalletId, BigDecimal amount,
+                                           TransactionType type) {
+        Transaction transaction = transactionRepository.save(Transaction.builder()
+                .fromWalletId(fromWalletId)
+                .toWalletId(toWalletId)
+                .amount(amount)
+                .status(TransactionStatus.SUCCESS)
+                .type(type)
+                .description(type == TransactionType.DEPOSIT ? "Deposit" : "Withdrawal")
+                .build());
+
+        walletTransactionIndexer.index(List.of(transaction));
+        walletRollupService.onStatusChange(transaction, null);
+    }
 
     private void validateAmount(BigDecimal amount) {
         if (amount == null) {
@@ -0,0 +1,119 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.IndexBackfillResponseDTO;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionDirection;
+import com.hritik.Sharded_Saga_Wallet_System.model.WalletTransactionIndex;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletTransactionIndexRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maintains the transaction index, sharded by each wallet's owner so that entries live and
+ * move with their wallet. Entries are written in the caller's transaction, but the
+ * transaction row is sharded by its own id and each shard commits on its own, so a failure
+ * between the commits can leave a transaction without entries or entries without a
+ * transaction. Entries without a transaction are skipped when pages are hydrated; missing
+ * entries are added by {@link #backfillAll}, run as the {@code transaction-index-backfill}
+ * admin job.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class WalletTransactionIndexer {
+
+    private final WalletTransactionIndexRepository indexRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletOwnerResolver walletOwnerResolver;
+
+    @Transactional
+    public void index(List<Transaction> transactions) {
+        List<WalletTransactionIndex> entries = new ArrayList<>(transactions.size() * 2);
+        for (Transaction transaction : transactions) {
+            if (!Transaction.EXTERNAL_WALLET_ID.equals(transaction.getFromWalletId())) {
+                entries.add(entry(transaction, transaction.getFromWalletId(), TransactionDirection.DEBIT,
+                        transaction.getToWalletId()));
+            }
+            if (!Transaction.EXTERNAL_WALLET_ID.equals(transaction.getToWalletId())) {
+                entries.add(entry(transaction, transaction.getToWalletId(), TransactionDirection.CREDIT,
+                        transaction.getFromWalletId()));
+            }
+        }
+        indexRepository.saveAll(entries);
+        log.debug("Indexed {} transactions with {} entries", transactions.size(), entries.size());
+    }
+
+    /**
+     * Indexes every transaction created before the index existed, one chunk per database
+     * transaction. Meant to run as an admin job, not on a request thread.
+     */
+    public IndexBackfillResponseDTO backfillAll(int chunkSize) {
+        int chunks = 0;
+        Long lastTransactionId = null;
+        Long next = backfill(null, chunkSize);
+        while (next != null) {
+            chunks++;
+            lastTransactionId = next;
+            next = backfill(next, chunkSize);
+        }
+
+        log.info("Wallet transaction index backfill finished after {} chunks", chunks);
+        return IndexBackfillResponseDTO.builder()
+                .chunks(chunks)
+                .lastTransactionId(lastTransactionId)
+                .build();
+    }
+
+    /**
+     * Indexes transactions created before the index existed, one id-ordered chunk per call.
+     *
+     * @return the highest transaction id examined, or null when there is nothing left
+     */
+    @Transactional
+    public Long backfill(Long afterTransactionId, int chunkSize) {
+        List<Transaction> chunk = transactionRepository.findByIdGreaterThan(
+                afterTransactionId != null ? afterTransactionId : 0L,
+                PageRequest.of(0, chunkSize, Sort.by("id")));
+
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        Set<Long> indexed = new HashSet<>(indexRepository.findIndexedTransactionIds(
+                chunk.stream().map(Transaction::getId).toList()));
+
+        List<Transaction> missing = chunk.stream()
+                .filter(transaction -> !indexed.contains(transaction.getId()))
+                .toList();
+
+        if (!missing.isEmpty()) {
+            index(missing);
+        }
+
+        log.info("Backfilled {} of {} transactions into the wallet index", missing.size(), chunk.size());
+        return chunk.get(chunk.size() - 1).getId();
+    }
+
+    private WalletTransactionIndex entry(Transaction transaction, Long walletId,
+                                                TransactionDirection side, Long counterpartyWalletId) {
+        return WalletTransactionIndex.builder()
+                .userId(walletOwnerResolver.ownerOf(walletId))
+                .walletId(walletId)
+                .transactionId(transaction.getId())
+                .side(side)
+                .counterpartyWalletId(counterpartyWalletId)
+                .amount(transaction.getAmount())
+                .createdAt(transaction.getCreatedAt())
+                .build();
+    }
+}
@@ -1,13 +1,16 @@
 // src/main/java/com/hritik/Sharded_Saga_Wallet_System/service/saga/SagaContext.java
 package com.hritik.Sharded_Saga_Wallet_System.service.saga;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -19,6 +22,10 @@ public class SagaContext {
     @Builder.Default
     private Map<String, Object> data = new HashMap<>();
 
+    // Set by the orchestrator when it loads the context; not part of the persisted data
+    @JsonIgnore
+    private Long sagaInstanceId;
+
     public void put(String key, Object value) {
         if (data == null) {
             data = new HashMap<>();
@@ -72,6 +79,31 @@ public class SagaContext {
         return null;
     }
 
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> getList(String key) {
+        Object value = get(key);
+        if (value instanceof List) {
+            return (List<Map<String, Object>>) value;
+        }
+        return null;
+    }
+
+    public List<Long> getLongList(String key) {
+        Object value = get(key);
+        if (!(value instanceof List)) {
+            return null;
+        }
+        List<Long> result = new ArrayList<>();
+        for (Object element : (List<?>) value) {
+            if (element instanceof Number) {
+                result.add(((Number) element).longValue());
+            } else if (element != null) {
+                result.add(Long.parseLong(element.toString()));
+            }
+        }
+        return result;
+    }
+
     public String getString(String key) {
         Object value = get(key);
         if (value == null) {
@@ -2,10 +2,14 @@ package com.hritik.Sharded_Saga_Wallet_System.service.saga;
 
 import com.hritik.Sharded_Saga_Wallet_System.model.SagaInstance;
 
+import java.util.List;
+
 public interface SagaOrchestrator {
 
     Long startSaga(SagaContext context);
 
+    List<Long> startSagas(List<SagaContext> contexts);
+
     boolean executeStep(Long sagaInstanceId, String stepName);
 
     boolean compensateStep(Long sagaInstanceId, String stepName);
@@ -9,12 +9,14 @@ import com.hritik.Sharded_Saga_Wallet_System.model.SagaInstance;
 import com.hritik.Sharded_Saga_Wallet_System.model.SagaStatus;
 import com.hritik.Sharded_Saga_Wallet_System.model.SagaStep;
 import com.hritik.Sharded_Saga_Wallet_System.model.StepStatus;
+import com.hritik.Sharded_Saga_Wallet_System.monitoring.MoneyConservationMonitor;
 import com.hritik.Sharded_Saga_Wallet_System.repository.SagaInstanceRepository;
 import com.hritik.Sharded_Saga_Wallet_System.repository.SagaStepRepository;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaContext;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaOrchestrator;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaStepInterface;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.steps.SagaStepFactory;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardGuard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.type.TypeReference; // ✅ correct
@@ -24,6 +26,7 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +40,8 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
     private final SagaInstanceRepository sagaInstanceRepository;
     private final SagaStepRepository sagaStepRepository;
     private final SagaStepFactory sagaStepFactory;
+    private final SagaStatusNotifier sagaStatusNotifier;
+    private final MoneyConservationMonitor moneyConservationMonitor;
 
     @Override
     @Transactional
@@ -68,6 +73,40 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
         }
     }
 
+    @Override
+    @Transactional
+    public List<Long> startSagas(List<SagaContext> contexts) {
+        if (contexts == null || contexts.isEmpty()) {
+            throw new SagaException("Saga contexts cannot be null or empty");
+        }
+
+        try {
+            List<SagaInstance> sagaInstances = new ArrayList<>(contexts.size());
+            for (SagaContext context : contexts) {
+                if (context == null || context.getData() == null || context.getData().isEmpty()) {
+                    throw new SagaException("Saga context cannot be null or empty");
+                }
+                sagaInstances.add(SagaInstance.builder()
+                        .context(objectMapper.writeValueAsString(context.getData()))
+                        .status(SagaStatus.STARTED)
+                        .build());
+            }
+
+            List<SagaInstance> savedInstances = sagaInstanceRepository.saveAll(sagaInstances);
+
+            log.info("{} sagas started successfully", savedInstances.size());
+
+            return savedInstances.stream().map(SagaInstance::getId).toList();
+
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing saga context", e);
+            throw new SagaException("Failed to serialize saga context", e);
+        } catch (DataAccessException e) {
+            log.error("Database error while starting sagas", e);
+            throw new SagaException("Failed to start sagas due to database error", e);
+        }
+    }
+
     @Override
     @Transactional
     public boolean executeStep(Long sagaInstanceId, String stepName) {
@@ -89,7 +128,8 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
             // Check if saga is in valid state for execution
             if (sagaInstance.getStatus() == SagaStatus.FAILED ||
                     sagaInstance.getStatus() == SagaStatus.COMPENSATING ||
-                    sagaInstance.getStatus() == SagaStatus.COMPENSATED) {
+                    sagaInstance.getStatus() == SagaStatus.COMPENSATED ||
+                    sagaInstance.getStatus() == SagaStatus.COMPENSATION_FAILED) {
                 log.warn("Cannot execute step for saga in {} state", sagaInstance.getStatus());
                 return false;
             }
@@ -131,7 +171,7 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
             }
 
             // Parse saga context
-            SagaContext sagaContext = parseSagaContext(sagaInstance.getContext());
+            SagaContext sagaContext = parseSagaContext(sagaInstanceId, sagaInstance.getContext());
             sagaStepDB.markAsRunning();
             sagaStepRepository.save(sagaStepDB);
 
@@ -150,6 +190,7 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
                 String updatedContext = objectMapper.writeValueAsString(sagaContext.getData());
                 sagaInstance.setContext(updatedContext);
                 sagaInstanceRepository.save(sagaInstance);
+                sagaStatusNotifier.publish(sagaInstance);
 
                 log.info("Step '{}' executed successfully for saga {}", stepName, sagaInstanceId);
                 return true;
@@ -232,7 +273,7 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
             }
 
             // Parse saga context
-            SagaContext sagaContext = parseSagaContext(sagaInstance.getContext());
+            SagaContext sagaContext = parseSagaContext(sagaInstanceId, sagaInstance.getContext());
 
             // Mark step as compensating
             sagaStepDB.markAsCompensating();
@@ -285,12 +326,14 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
             throw new IllegalArgumentException("Saga instance ID cannot be null");
         }
 
-        try {
+        // Compensation must not be shed by a busy bulkhead, or the saga is stranded half undone
+        try (ShardGuard.Priority ignored = ShardGuard.prioritize()) {
             SagaInstance sagaInstance = getSagaInstance(sagaInstanceId);
 
             // Mark saga as compensating
             sagaInstance.markAsCompensating();
             sagaInstanceRepository.save(sagaInstance);
+            sagaStatusNotifier.publish(sagaInstance);
 
             // Get all completed steps in reverse order
             List<SagaStep> completedSteps = sagaStepRepository
@@ -311,10 +354,16 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
             if (allCompensated) {
                 sagaInstance.markAsCompensated();
                 sagaInstanceRepository.save(sagaInstance);
+                sagaStatusNotifier.publish(sagaInstance);
                 log.info("Saga {} compensated successfully", sagaInstanceId);
             } else {
+                // Leave a terminal status behind so the saga does not look in progress forever
+                sagaInstance.markAsCompensationFailed();
+                sagaInstanceRepository.save(sagaInstance);
+                sagaStatusNotifier.publish(sagaInstance);
                 log.error("Saga {} compensation partially failed", sagaInstanceId);
             }
+            moneyConservationMonitor.onSagaFinished(sagaInstanceId);
 
         } catch (DataAccessException e) {
             log.error("Database error during saga compensation", e);
@@ -331,7 +380,7 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
             throw new IllegalArgumentException("Saga instance ID cannot be null");
         }
 
-        try {
+        try (ShardGuard.Priority ignored = ShardGuard.prioritize()) {
             SagaInstance sagaInstance = getSagaInstance(sagaInstanceId);
 
             if (sagaInstance.getStatus() == SagaStatus.COMPLETED) {
@@ -341,6 +390,7 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
 
             sagaInstance.markAsFailed();
             sagaInstanceRepository.save(sagaInstance);
+            sagaStatusNotifier.publish(sagaInstance);
 
             // Trigger compensation
             compensateSaga(sagaInstanceId);
@@ -365,13 +415,16 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
         try {
             SagaInstance sagaInstance = getSagaInstance(sagaInstanceId);
 
-            if (sagaInstance.getStatus() == SagaStatus.FAILED) {
+            if (sagaInstance.getStatus() == SagaStatus.FAILED ||
+                    sagaInstance.getStatus() == SagaStatus.COMPENSATION_FAILED) {
                 log.warn("Cannot complete failed saga {}", sagaInstanceId);
                 return;
             }
 
             sagaInstance.markAsCompleted();
             sagaInstanceRepository.save(sagaInstance);
+            sagaStatusNotifier.publish(sagaInstance);
+            moneyConservationMonitor.onSagaFinished(sagaInstanceId);
 
             log.info("Saga {} completed successfully", sagaInstanceId);
 
@@ -384,7 +437,7 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
     /**
      * FIXED: Parse JSON context string back to SagaContext with proper deserialization
      */
-    private SagaContext parseSagaContext(String contextJson) {
+    private SagaContext parseSagaContext(Long sagaInstanceId, String contextJson) {
         try {
             // Deserialize JSON directly to Map<String, Object>
             Map<String, Object> data = objectMapper.readValue(
@@ -397,6 +450,7 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
 
             return SagaContext.builder()
                     .data(data)
+                    .sagaInstanceId(sagaInstanceId)
                     .build();
 
         } catch (JsonProcessingException e) {
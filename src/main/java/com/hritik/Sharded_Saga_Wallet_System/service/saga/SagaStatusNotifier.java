@@ -0,0 +1,215 @@
+package com.hritik.Sharded_Saga_Wallet_System.service.saga;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.SagaStatusDTO;
+import com.hritik.Sharded_Saga_Wallet_System.model.SagaInstance;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * In-process fan-out of saga status transitions to long-poll and SSE subscribers.
+ * The orchestrator publishes every transition; listeners are notified once the
+ * surrounding transaction commits, so subscribers never observe rolled-back states.
+ * Delivery runs on the notification executor, one subscriber's events at a time and in
+ * publication order, so a slow client delays only itself.
+ */
+@Component
+@Slf4j
+public class SagaStatusNotifier {
+
+    private final Map<Long, Set<Consumer<SagaStatusDTO>>> listeners = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskExecutor notificationExecutor;
+
+    public SagaStatusNotifier(@Qualifier("notificationExecutor") ThreadPoolTaskExecutor notificationExecutor) {
+        this.notificationExecutor = notificationExecutor;
+    }
+
+    public void publish(SagaInstance sagaInstance) {
+        SagaStatusDTO status = toStatus(sagaInstance);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(status);
+                }
+            });
+        } else {
+            dispatch(status);
+        }
+    }
+
+    /**
+     * Completes when the saga reaches a terminal status, or with the last seen status on timeout.
+     * {@code currentStatus} is read once, after subscribing, so no transition can be missed.
+     */
+    public DeferredResult<SagaStatusDTO> awaitTerminalStatus(Long sagaInstanceId, long timeoutMillis,
+                                                             Supplier<SagaStatusDTO> currentStatus) {
+        DeferredResult<SagaStatusDTO> result = new DeferredResult<>(timeoutMillis);
+        AtomicReference<SagaStatusDTO> lastSeen = new AtomicReference<>();
+
+        Consumer<SagaStatusDTO> listener = new OrderedListener(status -> {
+            lastSeen.set(status);
+            if (status.isTerminal()) {
+                result.setResult(status);
+            }
+        }, () -> result.setResult(lastSeen.get()));
+
+        subscribe(sagaInstanceId, listener, currentStatus);
+
+        result.onTimeout(() -> result.setResult(lastSeen.get()));
+        result.onCompletion(() -> unsubscribe(sagaInstanceId, listener));
+        return result;
+    }
+
+    /**
+     * Streams every status transition as a {@code status} event and completes after a terminal one.
+     */
+    public SseEmitter streamStatus(Long sagaInstanceId, long timeoutMillis, Supplier<SagaStatusDTO> currentStatus) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+
+        Consumer<SagaStatusDTO> listener = new OrderedListener(status -> {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("status")
+                        .data(status));
+                if (status.isTerminal()) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping SSE subscriber for saga {}: {}", sagaInstanceId, e.getMessage());
+                emitter.completeWithError(e);
+            }
+        }, emitter::complete);
+
+        subscribe(sagaInstanceId, listener, currentStatus);
+
+        emitter.onCompletion(() -> unsubscribe(sagaInstanceId, listener));
+        emitter.onTimeout(() -> unsubscribe(sagaInstanceId, listener));
+        emitter.onError(error -> unsubscribe(sagaInstanceId, listener));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return listeners.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void subscribe(Long sagaInstanceId, Consumer<SagaStatusDTO> listener,
+                           Supplier<SagaStatusDTO> currentStatus) {
+        listeners.computeIfAbsent(sagaInstanceId, id -> ConcurrentHashMap.newKeySet()).add(listener);
+
+        SagaStatusDTO current;
+        try {
+            current = currentStatus.get();
+        } catch (RuntimeException e) {
+            unsubscribe(sagaInstanceId, listener);
+            throw e;
+        }
+        listener.accept(current);
+    }
+
+    private void unsubscribe(Long sagaInstanceId, Consumer<SagaStatusDTO> listener) {
+        listeners.computeIfPresent(sagaInstanceId, (id, subscribers) -> {
+            subscribers.remove(listener);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private void dispatch(SagaStatusDTO status) {
+        Set<Consumer<SagaStatusDTO>> subscribers = listeners.get(status.getSagaInstanceId());
+        if (subscribers == null) {
+            return;
+        }
+
+        log.debug("Notifying {} subscribers of saga {} status {}",
+                subscribers.size(), status.getSagaInstanceId(), status.getStatus());
+
+        for (Consumer<SagaStatusDTO> subscriber : subscribers) {
+            try {
+                subscriber.accept(status);
+            } catch (Exception e) {
+                log.warn("Saga status subscriber failed for saga {}", status.getSagaInstanceId(), e);
+            }
+        }
+    }
+
+    /**
+     * Queues events for one subscriber and delivers them on the notification executor with at
+     * most one delivery task in flight. If the executor rejects the task the subscriber is
+     * released through {@code onRejected} rather than left waiting.
+     */
+    private final class OrderedListener implements Consumer<SagaStatusDTO> {
+
+        private final Consumer<SagaStatusDTO> delegate;
+        private final Runnable onRejected;
+        private final Queue<SagaStatusDTO> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        OrderedListener(Consumer<SagaStatusDTO> delegate, Runnable onRejected) {
+            this.delegate = delegate;
+            this.onRejected = onRejected;
+        }
+
+        @Override
+        public void accept(SagaStatusDTO status) {
+            pending.add(status);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                notificationExecutor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                log.warn("Notification executor saturated, releasing saga status subscriber");
+                pending.clear();
+                scheduled.set(false);
+                onRejected.run();
+            }
+        }
+
+        private void drain() {
+            SagaStatusDTO status;
+            while ((status = pending.poll()) != null) {
+                try {
+                    delegate.accept(status);
+                } catch (RuntimeException e) {
+                    log.warn("Saga status subscriber failed for saga {}", status.getSagaInstanceId(), e);
+                }
+            }
+            scheduled.set(false);
+            // An event queued between the last poll and the reset would otherwise wait for the next one
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    public static SagaStatusDTO toStatus(SagaInstance sagaInstance) {
+        return SagaStatusDTO.builder()
+                .sagaInstanceId(sagaInstance.getId())
+                .status(sagaInstance.getStatus().name())
+                .currentStep(sagaInstance.getCurrentStep())
+                .terminal(sagaInstance.getStatus().isTerminal())
+                .build();
+    }
+}
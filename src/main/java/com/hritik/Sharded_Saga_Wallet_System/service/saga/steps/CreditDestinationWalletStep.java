@@ -1,8 +1,11 @@
 package com.hritik.Sharded_Saga_Wallet_System.service.saga.steps;
 
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.ResourceNotFoundException;
+import com.hritik.Sharded_Saga_Wallet_System.execution.WalletMailboxExecutor;
 import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.monitoring.MoneyConservationMonitor;
 import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletOwnerResolver;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaContext;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaStepInterface;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +21,9 @@ import java.math.BigDecimal;
 public class CreditDestinationWalletStep implements SagaStepInterface {
 
     private final WalletRepository walletRepository;
+    private final WalletOwnerResolver walletOwnerResolver;
+    private final WalletMailboxExecutor walletMailboxExecutor;
+    private final MoneyConservationMonitor moneyConservationMonitor;
 
     @Override
     @Transactional
@@ -33,7 +39,17 @@ public class CreditDestinationWalletStep implements SagaStepInterface {
 
             log.info("Crediting {} to wallet {}", amount, toWalletId);
 
-            Wallet wallet = walletRepository.findByIdWithLock(toWalletId)
+            if (walletMailboxExecutor.isEnabled()) {
+                boolean credited = walletMailboxExecutor.credit(toWalletId, amount);
+                if (!credited) {
+                    log.error("Destination wallet {} is not active or does not exist", toWalletId);
+                    return false;
+                }
+                moneyConservationMonitor.recordBalanceChange(toWalletId, amount, context.getSagaInstanceId());
+                return true;
+            }
+
+            Wallet wallet = walletRepository.findByIdWithLock(toWalletId, walletOwnerResolver.ownerOf(toWalletId))
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Wallet not found with id: " + toWalletId));
 
@@ -49,7 +65,8 @@ public class CreditDestinationWalletStep implements SagaStepInterface {
             context.put("originalToWalletBalance", currentBalance);
 
             BigDecimal newBalance = currentBalance.add(amount);
-            walletRepository.updateBalanceByWalletId(toWalletId, newBalance);
+            walletRepository.updateBalanceByWalletId(toWalletId, wallet.getUserId(), newBalance);
+            moneyConservationMonitor.recordBalanceChange(toWalletId, amount, context.getSagaInstanceId());
 
             log.info("Wallet {} credited successfully. New balance: {}", toWalletId, newBalance);
             context.put("toWalletBalanceAfterCredit", newBalance);
@@ -76,7 +93,17 @@ public class CreditDestinationWalletStep implements SagaStepInterface {
 
             log.info("Compensating credit: debiting {} from wallet {}", amount, toWalletId);
 
-            Wallet wallet = walletRepository.findByIdWithLock(toWalletId)
+            if (walletMailboxExecutor.isEnabled()) {
+                boolean debited = walletMailboxExecutor.debit(toWalletId, amount);
+                if (!debited) {
+                    log.error("Cannot compensate: insufficient balance in destination wallet {}", toWalletId);
+                    return false;
+                }
+                moneyConservationMonitor.recordBalanceChange(toWalletId, amount.negate(), context.getSagaInstanceId());
+                return true;
+            }
+
+            Wallet wallet = walletRepository.findByIdWithLock(toWalletId, walletOwnerResolver.ownerOf(toWalletId))
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Wallet not found with id: " + toWalletId));
 
@@ -90,7 +117,8 @@ public class CreditDestinationWalletStep implements SagaStepInterface {
             }
 
             BigDecimal newBalance = currentBalance.subtract(amount);
-            walletRepository.updateBalanceByWalletId(toWalletId, newBalance);
+            walletRepository.updateBalanceByWalletId(toWalletId, wallet.getUserId(), newBalance);
+            moneyConservationMonitor.recordBalanceChange(toWalletId, amount.negate(), context.getSagaInstanceId());
 
             log.info("Credit compensated successfully. Wallet {} new balance: {}",
                     toWalletId, newBalance);
@@ -0,0 +1,354 @@
+package com.hritik.Sharded_Saga_Wallet_System.service.saga.steps;
+
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.ResourceNotFoundException;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.WalletException;
+import com.hritik.Sharded_Saga_Wallet_System.execution.WalletMailboxExecutor;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.monitoring.MoneyConservationMonitor;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletOwnerResolver;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletRollupService;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaContext;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaStepInterface;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Credits every payout recipient after the source has been debited once for the total.
+ * Recipients are grouped by the shard of their wallet and each group is credited in parallel;
+ * every credit commits on its own so one bad recipient does not undo the others.
+ * The share of recipients that could not be credited is returned to the source wallet.
+ * <p>
+ * Each credit marks the recipient's transaction SUCCESS, and each refund marks it FAILED, in
+ * the same transaction as the balance change. Those statuses, not the saga context, record
+ * what was applied: a step that fails halfway leaves them behind for the debit's
+ * compensation, and running the step again skips recipients that are already settled.
+ */
+@Service
+@Slf4j
+public class CreditPayoutRecipientsStep implements SagaStepInterface {
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletOwnerResolver walletOwnerResolver;
+    private final WalletMailboxExecutor walletMailboxExecutor;
+    private final WalletRollupService walletRollupService;
+    private final ShardResolver shardResolver;
+    private final ThreadPoolTaskExecutor payoutCreditExecutor;
+    private final TransactionTemplate requiresNewTransaction;
+    private final MoneyConservationMonitor moneyConservationMonitor;
+
+    public CreditPayoutRecipientsStep(WalletRepository walletRepository,
+                                      TransactionRepository transactionRepository,
+                                      WalletOwnerResolver walletOwnerResolver,
+                                      WalletMailboxExecutor walletMailboxExecutor,
+                                      WalletRollupService walletRollupService,
+                                      ShardResolver shardResolver,
+                                      PlatformTransactionManager transactionManager,
+                                      @Qualifier("payoutCreditExecutor") ThreadPoolTaskExecutor payoutCreditExecutor,
+                                      MoneyConservationMonitor moneyConservationMonitor) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.walletOwnerResolver = walletOwnerResolver;
+        this.walletRollupService = walletRollupService;
+        this.walletMailboxExecutor = walletMailboxExecutor;
+        this.shardResolver = shardResolver;
+        this.moneyConservationMonitor = moneyConservationMonitor;
+        this.payoutCreditExecutor = payoutCreditExecutor;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional
+    public boolean execute(SagaContext context) {
+        try {
+            Long fromWalletId = context.getLong("fromWalletId");
+            List<Map<String, Object>> recipients = context.getList("recipients");
+
+            if (fromWalletId == null || recipients == null || recipients.isEmpty()) {
+                log.error("Missing required context: fromWalletId or recipients");
+                return false;
+            }
+
+            log.info("Crediting {} payout recipients from wallet {}", recipients.size(), fromWalletId);
+
+            List<Long> credited = new ArrayList<>();
+            List<Long> failed = new ArrayList<>();
+            BigDecimal refundAmount = BigDecimal.ZERO;
+
+            Map<String, List<Map<String, Object>>> recipientsByShard = groupByShard(recipients, failed);
+
+            List<CompletableFuture<Map<Long, Boolean>>> shardCredits = recipientsByShard.values().stream()
+                    .map(group -> CompletableFuture.supplyAsync(
+                            () -> creditGroup(group, context.getSagaInstanceId()), payoutCreditExecutor))
+                    .toList();
+
+            for (CompletableFuture<Map<Long, Boolean>> shardCredit : shardCredits) {
+                shardCredit.join().forEach((transactionId, success) -> {
+                    if (success) {
+                        credited.add(transactionId);
+                    } else {
+                        failed.add(transactionId);
+                    }
+                });
+            }
+
+            if (credited.isEmpty()) {
+                // Nothing was credited, so compensating the debit returns every PENDING share
+                log.error("No payout recipient could be credited from wallet {}", fromWalletId);
+                return false;
+            }
+
+            if (!failed.isEmpty()) {
+                try {
+                    refundSource(fromWalletId, failed, context.getSagaInstanceId());
+                } catch (Exception e) {
+                    // The failed share is still PENDING, so compensating the debit returns it
+                    log.error("Failed to refund payout source wallet {} for failed recipients", fromWalletId, e);
+                    return false;
+                }
+
+                // Refunded now or by an earlier run of this step
+                Set<Long> failedIds = new HashSet<>(failed);
+                for (Map<String, Object> recipient : recipients) {
+                    if (failedIds.contains(toLong(recipient.get("transactionId")))) {
+                        refundAmount = refundAmount.add(toBigDecimal(recipient.get("amount")));
+                    }
+                }
+            }
+
+            log.info("Payout from wallet {} credited {} recipients, {} failed, refunded {}",
+                    fromWalletId, credited.size(), failed.size(), refundAmount);
+
+            context.put("creditedTransactionIds", credited);
+            context.put("failedTransactionIds", failed);
+            context.put("refundedAmount", refundAmount);
+
+            return true;
+
+        } catch (Exception e) {
+            log.error("Error crediting payout recipients", e);
+            return false;
+        }
+    }
+
+    @Override
+    @Transactional
+    public boolean compensate(SagaContext context) {
+        try {
+            List<Map<String, Object>> recipients = context.getList("recipients");
+
+            if (recipients == null) {
+                log.error("Missing required context for compensation: recipients");
+                return false;
+            }
+
+            List<Long> transactionIds = recipients.stream()
+                    .map(recipient -> toLong(recipient.get("transactionId")))
+                    .toList();
+
+            // Only credits that were recorded are taken back
+            List<Transaction> credited = transactionRepository.findAllByIdForUpdate(transactionIds).stream()
+                    .filter(transaction -> transaction.getStatus() == TransactionStatus.SUCCESS)
+                    .toList();
+            boolean allCompensated = true;
+
+            for (Transaction transaction : credited) {
+                Long toWalletId = transaction.getToWalletId();
+                BigDecimal amount = transaction.getAmount();
+
+                boolean debited = walletMailboxExecutor.isEnabled()
+                        ? walletMailboxExecutor.debit(toWalletId, amount)
+                        : walletRepository.atomicDebit(toWalletId, walletOwnerResolver.ownerOf(toWalletId), amount) == 1;
+                if (!debited) {
+                    log.error("Cannot compensate payout credit of {} to wallet {} for transaction {}",
+                            amount, toWalletId, transaction.getId());
+                    allCompensated = false;
+                    continue;
+                }
+
+                transaction.setStatus(TransactionStatus.CANCELLED);
+                transactionRepository.save(transaction);
+                walletRollupService.onStatusChange(transaction, TransactionStatus.SUCCESS);
+                moneyConservationMonitor.recordBalanceChange(toWalletId, amount.negate(), context.getSagaInstanceId());
+            }
+
+            log.info("Payout credits compensated for {} recipients", credited.size());
+            return allCompensated;
+
+        } catch (Exception e) {
+            log.error("Error compensating payout recipient credits", e);
+            return false;
+        }
+    }
+
+    @Override
+    public String getStepName() {
+        return SagaStepType.CREDIT_PAYOUT_RECIPIENTS_STEP.toString();
+    }
+
+    private Map<String, List<Map<String, Object>>> groupByShard(List<Map<String, Object>> recipients,
+                                                                List<Long> failed) {
+        Set<Long> walletIds = recipients.stream()
+                .map(recipient -> toLong(recipient.get("toWalletId")))
+                .collect(Collectors.toSet());
+
+        Map<Long, Wallet> wallets = walletRepository.findAllById(walletIds).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+
+        Map<String, List<Map<String, Object>>> recipientsByShard = new LinkedHashMap<>();
+        for (Map<String, Object> recipient : recipients) {
+            Wallet wallet = wallets.get(toLong(recipient.get("toWalletId")));
+            if (wallet == null) {
+                log.error("Payout recipient wallet {} not found", recipient.get("toWalletId"));
+                failed.add(toLong(recipient.get("transactionId")));
+                continue;
+            }
+            recipientsByShard.computeIfAbsent(shardResolver.shardForWallet(wallet), shard -> new ArrayList<>())
+                    .add(recipient);
+        }
+        return recipientsByShard;
+    }
+
+    private Map<Long, Boolean> creditGroup(List<Map<String, Object>> group, Long sagaInstanceId) {
+        Map<Long, Boolean> outcome = new LinkedHashMap<>();
+        for (Map<String, Object> recipient : group) {
+            Long transactionId = toLong(recipient.get("transactionId"));
+            Long toWalletId = toLong(recipient.get("toWalletId"));
+
+            try {
+                Credit credit = creditOnItsOwn(transactionId);
+                if (credit == Credit.APPLIED) {
+                    moneyConservationMonitor.recordCommittedBalanceChange(toWalletId,
+                            toBigDecimal(recipient.get("amount")), sagaInstanceId);
+                } else if (credit == Credit.REJECTED) {
+                    log.warn("Payout recipient wallet {} could not be credited for transaction {}",
+                            toWalletId, transactionId);
+                }
+                outcome.put(transactionId, credit != Credit.REJECTED);
+            } catch (Exception e) {
+                log.error("Error crediting payout recipient wallet {} for transaction {}",
+                        toWalletId, transactionId, e);
+                outcome.put(transactionId, false);
+            }
+        }
+        return outcome;
+    }
+
+    /**
+     * Credits the recipient of a PENDING payout transaction and marks it SUCCESS in one
+     * transaction that commits whatever happens to the step's own. A transaction that is
+     * already SUCCESS was credited by an earlier run and is not credited again.
+     */
+    private Credit creditOnItsOwn(Long transactionId) {
+        return requiresNewTransaction.execute(status -> {
+            Transaction transaction = transactionRepository.findAllByIdForUpdate(List.of(transactionId)).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Transaction not found with id: " + transactionId));
+            if (transaction.getStatus() == TransactionStatus.SUCCESS) {
+                return Credit.ALREADY_APPLIED;
+            }
+            if (transaction.getStatus() != TransactionStatus.PENDING) {
+                return Credit.REJECTED;
+            }
+
+            Long walletId = transaction.getToWalletId();
+            boolean credited = walletMailboxExecutor.isEnabled()
+                    ? walletMailboxExecutor.credit(walletId, transaction.getAmount())
+                    : walletRepository.atomicCredit(walletId, walletOwnerResolver.ownerOf(walletId),
+                            transaction.getAmount()) == 1;
+            if (!credited) {
+                return Credit.REJECTED;
+            }
+
+            transaction.setStatus(TransactionStatus.SUCCESS);
+            transactionRepository.save(transaction);
+            walletRollupService.onStatusChange(transaction, TransactionStatus.PENDING);
+            return Credit.APPLIED;
+        });
+    }
+
+    /**
+     * Marks the failed recipients' transactions FAILED and returns their share to the source in
+     * one transaction. Recipients that are no longer PENDING were settled by an earlier run and
+     * are not refunded again.
+     */
+    private void refundSource(Long fromWalletId, List<Long> failedTransactionIds, Long sagaInstanceId) {
+        BigDecimal refundAmount = requiresNewTransaction.execute(status -> {
+            BigDecimal amount = BigDecimal.ZERO;
+            for (Transaction transaction : transactionRepository.findAllByIdForUpdate(failedTransactionIds)) {
+                if (transaction.getStatus() == TransactionStatus.PENDING) {
+                    transaction.setStatus(TransactionStatus.FAILED);
+                    transactionRepository.save(transaction);
+                    amount = amount.add(transaction.getAmount());
+                }
+            }
+            if (amount.signum() == 0) {
+                return amount;
+            }
+
+            log.info("Refunding {} to payout source wallet {} for failed recipients", amount, fromWalletId);
+            if (walletMailboxExecutor.isEnabled()) {
+                if (!walletMailboxExecutor.credit(fromWalletId, amount)) {
+                    throw new WalletException("Mailbox could not refund " + amount
+                            + " to payout source wallet " + fromWalletId);
+                }
+            } else {
+                Wallet wallet = walletRepository.findByIdWithLock(fromWalletId, walletOwnerResolver.ownerOf(fromWalletId))
+                        .orElseThrow(() -> new ResourceNotFoundException(
+                                "Wallet not found with id: " + fromWalletId));
+
+                walletRepository.updateBalanceByWalletId(fromWalletId, wallet.getUserId(),
+                        wallet.getBalance().add(amount));
+            }
+            return amount;
+        });
+
+        if (refundAmount.signum() > 0) {
+            moneyConservationMonitor.recordCommittedBalanceChange(fromWalletId, refundAmount, sagaInstanceId);
+        }
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return value != null ? Long.parseLong(value.toString()) : null;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    private enum Credit {
+        APPLIED,
+        ALREADY_APPLIED,
+        REJECTED
+    }
+}
@@ -1,9 +1,15 @@
 package com.hritik.Sharded_Saga_Wallet_System.service.saga.steps;
 
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.InsufficientBalanceException;
+import com.hritik.Sharded_Saga_Wallet_System.execution.WalletMailboxExecutor;
 import com.hritik.Sharded_Saga_Wallet_System.exceptions.ResourceNotFoundException;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
 import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.monitoring.MoneyConservationMonitor;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
 import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletOwnerResolver;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaContext;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaStepInterface;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +18,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +27,10 @@ import java.math.BigDecimal;
 public class DebitSourceWalletStep implements SagaStepInterface {
 
     private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletOwnerResolver walletOwnerResolver;
+    private final WalletMailboxExecutor walletMailboxExecutor;
+    private final MoneyConservationMonitor moneyConservationMonitor;
 
     @Override
     @Transactional
@@ -35,7 +47,15 @@ public class DebitSourceWalletStep implements SagaStepInterface {
 
             log.info("Debiting {} from wallet {}", amount, fromWalletId);
 
-            Wallet wallet = walletRepository.findByIdWithLock(fromWalletId)
+            if (walletMailboxExecutor.isEnabled()) {
+                boolean debited = debitThroughMailbox(fromWalletId, amount);
+                if (debited) {
+                    moneyConservationMonitor.recordBalanceChange(fromWalletId, amount.negate(), context.getSagaInstanceId());
+                }
+                return debited;
+            }
+
+            Wallet wallet = walletRepository.findByIdWithLock(fromWalletId, walletOwnerResolver.ownerOf(fromWalletId))
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Wallet not found with id: " + fromWalletId));
 
@@ -59,7 +79,8 @@ public class DebitSourceWalletStep implements SagaStepInterface {
             }
 
             BigDecimal newBalance = currentBalance.subtract(amount);
-            walletRepository.updateBalanceByWalletId(fromWalletId, newBalance);
+            walletRepository.updateBalanceByWalletId(fromWalletId, wallet.getUserId(), newBalance);
+            moneyConservationMonitor.recordBalanceChange(fromWalletId, amount.negate(), context.getSagaInstanceId());
 
             log.info("Wallet {} debited successfully. New balance: {}", fromWalletId, newBalance);
             context.put("sourceWalletBalanceAfterDebit", newBalance);
@@ -87,9 +108,28 @@ public class DebitSourceWalletStep implements SagaStepInterface {
                 return false;
             }
 
+            List<Map<String, Object>> recipients = context.getList("recipients");
+            if (recipients != null) {
+                amount = unsettledPayoutShare(recipients);
+                if (amount.signum() == 0) {
+                    log.info("Nothing of the payout debit from wallet {} is still held", fromWalletId);
+                    return true;
+                }
+            }
+
             log.info("Compensating debit: crediting {} back to wallet {}", amount, fromWalletId);
 
-            Wallet wallet = walletRepository.findByIdWithLock(fromWalletId)
+            if (walletMailboxExecutor.isEnabled()) {
+                boolean credited = walletMailboxExecutor.credit(fromWalletId, amount);
+                if (!credited) {
+                    log.error("Mailbox could not credit {} back to wallet {}", amount, fromWalletId);
+                    return false;
+                }
+                moneyConservationMonitor.recordBalanceChange(fromWalletId, amount, context.getSagaInstanceId());
+                return true;
+            }
+
+            Wallet wallet = walletRepository.findByIdWithLock(fromWalletId, walletOwnerResolver.ownerOf(fromWalletId))
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Wallet not found with id: " + fromWalletId));
 
@@ -99,7 +139,8 @@ public class DebitSourceWalletStep implements SagaStepInterface {
             context.put("sourceWalletBalanceBeforeCreditCompensation", currentBalance);
 
             BigDecimal newBalance = currentBalance.add(amount);
-            walletRepository.updateBalanceByWalletId(fromWalletId, newBalance);
+            walletRepository.updateBalanceByWalletId(fromWalletId, wallet.getUserId(), newBalance);
+            moneyConservationMonitor.recordBalanceChange(fromWalletId, amount, context.getSagaInstanceId());
 
             log.info("Debit compensated successfully. Wallet {} new balance: {}",
                     fromWalletId, newBalance);
@@ -113,6 +154,53 @@ public class DebitSourceWalletStep implements SagaStepInterface {
         }
     }
 
+    /**
+     * The part of a payout debit that is still held: recipients that were credited keep their
+     * share, and failed recipients were already refunded by the credit step. Both are
+     * recorded on the recipient's transaction, so this holds even when that step failed halfway.
+     */
+    private BigDecimal unsettledPayoutShare(List<Map<String, Object>> recipients) {
+        List<Long> transactionIds = recipients.stream()
+                .map(recipient -> toLong(recipient.get("transactionId")))
+                .toList();
+
+        return transactionRepository.findAllByIdForUpdate(transactionIds).stream()
+                .filter(transaction -> transaction.getStatus() == TransactionStatus.PENDING
+                        || transaction.getStatus() == TransactionStatus.CANCELLED)
+                .map(Transaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return value != null ? Long.parseLong(value.toString()) : null;
+    }
+
+    private boolean debitThroughMailbox(Long fromWalletId, BigDecimal amount) {
+        if (walletMailboxExecutor.debit(fromWalletId, amount)) {
+            log.info("Wallet {} debited {} through mailbox", fromWalletId, amount);
+            return true;
+        }
+
+        // The conditional update matched no row: find out why to keep the existing error semantics
+        Wallet wallet = walletRepository.findById(fromWalletId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Wallet not found with id: " + fromWalletId));
+
+        if (!wallet.getIsActive()) {
+            log.error("Wallet {} is not active", fromWalletId);
+            return false;
+        }
+
+        log.error("Insufficient balance in wallet {}. Available: {}, Required: {}",
+                fromWalletId, wallet.getBalance(), amount);
+        throw new InsufficientBalanceException(
+                String.format("Insufficient balance. Available: %s, Required: %s",
+                        wallet.getBalance(), amount));
+    }
+
     @Override
     public String getStepName() {
         return SagaStepType.DEBIT_SOURCE_WALLET_STEP.toString();
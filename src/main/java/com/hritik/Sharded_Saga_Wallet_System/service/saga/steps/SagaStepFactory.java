@@ -18,6 +18,13 @@ public class SagaStepFactory {
             SagaStepType.UPDATE_TRANSACTION_STATUS_STEP
     );
 
+    // One debit of the payout total, then the per-recipient credits
+    public static final List<SagaStepType> PayoutSagaSteps = List.of(
+            SagaStepType.DEBIT_SOURCE_WALLET_STEP,
+            SagaStepType.CREDIT_PAYOUT_RECIPIENTS_STEP,
+            SagaStepType.UPDATE_PAYOUT_STATUS_STEP
+    );
+
 
     public SagaStepInterface getStepName(String stepName) {
         return sagaStepMap.get(stepName);
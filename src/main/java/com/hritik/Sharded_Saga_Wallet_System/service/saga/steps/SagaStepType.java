@@ -3,6 +3,8 @@ package com.hritik.Sharded_Saga_Wallet_System.service.saga.steps;
 public enum SagaStepType {
     DEBIT_SOURCE_WALLET_STEP,
     CREDIT_DESTINATION_WALLET_STEP,
-    UPDATE_TRANSACTION_STATUS_STEP
+    UPDATE_TRANSACTION_STATUS_STEP,
+    CREDIT_PAYOUT_RECIPIENTS_STEP,
+    UPDATE_PAYOUT_STATUS_STEP
 }
 
@@ -0,0 +1,82 @@
+package com.hritik.Sharded_Saga_Wallet_System.service.saga.steps;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaContext;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaStepInterface;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that every per-recipient transaction of a payout was settled. CreditPayoutRecipientsStep
+ * marks each one SUCCESS or FAILED together with its balance change, so a transaction still
+ * PENDING here means that step did not account for it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UpdatePayoutStatusStep implements SagaStepInterface {
+
+    private final TransactionRepository transactionRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean execute(SagaContext context) {
+        try {
+            List<Map<String, Object>> recipients = context.getList("recipients");
+
+            if (recipients == null) {
+                log.error("Missing required context: recipients");
+                return false;
+            }
+
+            List<Long> transactionIds = recipients.stream()
+                    .map(recipient -> toLong(recipient.get("transactionId")))
+                    .toList();
+
+            List<Transaction> transactions = transactionRepository.findAllById(transactionIds);
+            Map<TransactionStatus, Long> counts = transactions.stream()
+                    .collect(Collectors.groupingBy(Transaction::getStatus, Collectors.counting()));
+
+            if (transactions.size() != transactionIds.size() || counts.containsKey(TransactionStatus.PENDING)) {
+                log.error("Payout transactions not settled: {} of {} found, {} still PENDING",
+                        transactions.size(), transactionIds.size(), counts.getOrDefault(TransactionStatus.PENDING, 0L));
+                return false;
+            }
+
+            log.info("Payout transactions settled: {} SUCCESS, {} FAILED",
+                    counts.getOrDefault(TransactionStatus.SUCCESS, 0L),
+                    counts.getOrDefault(TransactionStatus.FAILED, 0L));
+            return true;
+
+        } catch (Exception e) {
+            log.error("Error checking payout transaction statuses", e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean compensate(SagaContext context) {
+        // Statuses belong to CreditPayoutRecipientsStep, whose compensation cancels the credits it takes back
+        return true;
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return value != null ? Long.parseLong(value.toString()) : null;
+    }
+
+    @Override
+    public String getStepName() {
+        return SagaStepType.UPDATE_PAYOUT_STATUS_STEP.toString();
+    }
+}
@@ -4,6 +4,7 @@ import com.hritik.Sharded_Saga_Wallet_System.exceptions.ResourceNotFoundExceptio
 import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
 import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
 import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletRollupService;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaContext;
 import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaStepInterface;
 import org.springframework.stereotype.Service;
@@ -13,6 +14,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,11 +24,18 @@ import org.springframework.transaction.annotation.Transactional;
 public class UpdateTransactionStatus implements SagaStepInterface {
 
     private final TransactionRepository transactionRepository;
+    private final WalletRollupService walletRollupService;
 
     @Override
     @Transactional
     public boolean execute(SagaContext context) {
         try {
+            // Netted settlements carry every transaction they settle
+            List<Long> transactionIds = context.getLongList("transactionIds");
+            if (transactionIds != null) {
+                return updateAll(transactionIds, TransactionStatus.SUCCESS);
+            }
+
             Long transactionId = context.getLong("transactionId");
 
             if (transactionId == null) {
@@ -39,10 +50,12 @@ public class UpdateTransactionStatus implements SagaStepInterface {
                             "Transaction not found with id: " + transactionId));
 
             // Store original status for compensation
-            context.put("originalTransactionStatus", transaction.getStatus().name());
+            TransactionStatus originalStatus = transaction.getStatus();
+            context.put("originalTransactionStatus", originalStatus.name());
 
             transaction.setStatus(TransactionStatus.SUCCESS);
             transactionRepository.save(transaction);
+            walletRollupService.onStatusChange(transaction, originalStatus);
 
             log.info("Transaction {} status updated to SUCCESS", transactionId);
             context.put("transactionStatusAfterUpdate", transaction.getStatus().name());
@@ -59,6 +72,11 @@ public class UpdateTransactionStatus implements SagaStepInterface {
     @Transactional
     public boolean compensate(SagaContext context) {
         try {
+            List<Long> transactionIds = context.getLongList("transactionIds");
+            if (transactionIds != null) {
+                return updateAll(transactionIds, TransactionStatus.CANCELLED);
+            }
+
             Long transactionId = context.getLong("transactionId");
             String originalStatusStr = context.getString("originalTransactionStatus");
 
@@ -85,8 +103,10 @@ public class UpdateTransactionStatus implements SagaStepInterface {
                 }
             }
 
+            TransactionStatus statusBeforeCompensation = transaction.getStatus();
             transaction.setStatus(compensationStatus);
             transactionRepository.save(transaction);
+            walletRollupService.onStatusChange(transaction, statusBeforeCompensation);
 
             log.info("Transaction {} status compensated to {}", transactionId, compensationStatus);
 
@@ -98,6 +118,26 @@ public class UpdateTransactionStatus implements SagaStepInterface {
         }
     }
 
+    private boolean updateAll(List<Long> transactionIds, TransactionStatus status) {
+        log.info("Updating status of {} transactions to {}", transactionIds.size(), status);
+
+        List<Transaction> transactions = transactionRepository.findAllById(transactionIds);
+        if (transactions.size() != transactionIds.size()) {
+            log.error("Expected {} transactions but found {}", transactionIds.size(), transactions.size());
+            return false;
+        }
+
+        Map<Long, TransactionStatus> previousStatuses = transactions.stream()
+                .collect(Collectors.toMap(Transaction::getId, Transaction::getStatus));
+
+        transactions.forEach(transaction -> transaction.setStatus(status));
+        transactionRepository.saveAll(transactions);
+        walletRollupService.onStatusChange(transactions, previousStatuses);
+
+        log.info("{} transactions updated to {}", transactions.size(), status);
+        return true;
+    }
+
     @Override
     public String getStepName() {
         return SagaStepType.UPDATE_TRANSACTION_STATUS_STEP.toString();
@@ -0,0 +1,189 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable assignment of virtual buckets to physical data sources.
+ * A sharding key always lands in bucket {@code floorMod(key, bucketCount)}; only the
+ * bucket-to-data-source table changes when shards are added, so rows move a whole bucket
+ * at a time.
+ * <p>
+ * The layout file is a properties file with {@code bucket-count} and one entry per data source
+ * listing its buckets as comma-separated single buckets or ranges, optionally with a step:
+ * {@code shardwallet1=0-1022/2} assigns every even bucket.
+ */
+public final class BucketLayout {
+
+    public static final String BUCKET_COUNT_KEY = "bucket-count";
+
+    private final int bucketCount;
+    private final String[] dataSourceByBucket;
+
+    private BucketLayout(String[] dataSourceByBucket) {
+        this.bucketCount = dataSourceByBucket.length;
+        this.dataSourceByBucket = dataSourceByBucket;
+    }
+
+    public static BucketLayout load(String location) {
+        try (InputStream in = open(location)) {
+            if (in == null) {
+                throw new IllegalStateException("Bucket layout not found: " + location);
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return parse(properties);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read bucket layout " + location, e);
+        }
+    }
+
+    private static InputStream open(String location) throws IOException {
+        if (location.startsWith("file:")) {
+            Path file = Path.of(location.substring("file:".length()));
+            return Files.exists(file) ? Files.newInputStream(file) : null;
+        }
+        return BucketLayout.class.getClassLoader().getResourceAsStream(location);
+    }
+
+    public static BucketLayout parse(Properties properties) {
+        String count = properties.getProperty(BUCKET_COUNT_KEY);
+        if (count == null) {
+            throw new IllegalStateException("Bucket layout is missing '" + BUCKET_COUNT_KEY + "'");
+        }
+
+        int bucketCount = Integer.parseInt(count.trim());
+        if (bucketCount <= 0) {
+            throw new IllegalStateException("Bucket count must be greater than zero");
+        }
+
+        String[] dataSourceByBucket = new String[bucketCount];
+        for (String dataSource : new TreeSet<>(properties.stringPropertyNames())) {
+            if (BUCKET_COUNT_KEY.equals(dataSource)) {
+                continue;
+            }
+            for (int bucket : parseBuckets(properties.getProperty(dataSource), bucketCount)) {
+                if (dataSourceByBucket[bucket] != null) {
+                    throw new IllegalStateException("Bucket " + bucket + " is assigned to both "
+                            + dataSourceByBucket[bucket] + " and " + dataSource);
+                }
+                dataSourceByBucket[bucket] = dataSource;
+            }
+        }
+
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            if (dataSourceByBucket[bucket] == null) {
+                throw new IllegalStateException("Bucket " + bucket + " is not assigned to any data source");
+            }
+        }
+        return new BucketLayout(dataSourceByBucket);
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public int bucketOf(long key) {
+        return (int) Math.floorMod(key, (long) bucketCount);
+    }
+
+    public String dataSourceOfBucket(int bucket) {
+        return dataSourceByBucket[bucket];
+    }
+
+    public String dataSourceOf(long key) {
+        return dataSourceByBucket[bucketOf(key)];
+    }
+
+    /**
+     * @return the buckets of every data source, ordered by data source name
+     */
+    public Map<String, List<Integer>> bucketsByDataSource() {
+        Map<String, List<Integer>> buckets = new TreeMap<>();
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            buckets.computeIfAbsent(dataSourceByBucket[bucket], dataSource -> new ArrayList<>()).add(bucket);
+        }
+        buckets.replaceAll((dataSource, list) -> Collections.unmodifiableList(list));
+        return Collections.unmodifiableMap(buckets);
+    }
+
+    /**
+     * @return a copy of this layout with one bucket reassigned
+     */
+    public BucketLayout withBucket(int bucket, String dataSource) {
+        String[] copy = Arrays.copyOf(dataSourceByBucket, bucketCount);
+        copy[bucket] = dataSource;
+        return new BucketLayout(copy);
+    }
+
+    /**
+     * @return this layout in the file format, with each data source's buckets as strided ranges
+     */
+    public String toProperties() {
+        StringBuilder out = new StringBuilder(BUCKET_COUNT_KEY).append('=').append(bucketCount).append('\n');
+        bucketsByDataSource().forEach((dataSource, buckets) -> {
+            out.append(dataSource).append('=');
+            int i = 0;
+            while (i < buckets.size()) {
+                int start = buckets.get(i);
+                int step = i + 1 < buckets.size() ? buckets.get(i + 1) - start : 1;
+                int j = i;
+                while (j + 1 < buckets.size() && buckets.get(j + 1) - buckets.get(j) == step) {
+                    j++;
+                }
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(start);
+                if (j > i) {
+                    out.append('-').append(buckets.get(j));
+                    if (step != 1) {
+                        out.append('/').append(step);
+                    }
+                }
+                i = j + 1;
+            }
+            out.append('\n');
+        });
+        return out.toString();
+    }
+
+    private static List<Integer> parseBuckets(String spec, int bucketCount) {
+        List<Integer> buckets = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String range = part.trim();
+            if (range.isEmpty()) {
+                continue;
+            }
+
+            int step = 1;
+            int slash = range.indexOf('/');
+            if (slash >= 0) {
+                step = Integer.parseInt(range.substring(slash + 1).trim());
+                range = range.substring(0, slash).trim();
+            }
+
+            int dash = range.indexOf('-');
+            int start = Integer.parseInt((dash >= 0 ? range.substring(0, dash) : range).trim());
+            int end = dash >= 0 ? Integer.parseInt(range.substring(dash + 1).trim()) : start;
+
+            if (start < 0 || end >= bucketCount || start > end || step <= 0) {
+                throw new IllegalStateException("Invalid bucket range '" + part.trim() + "'");
+            }
+            for (int bucket = start; bucket <= end; bucket += step) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+}
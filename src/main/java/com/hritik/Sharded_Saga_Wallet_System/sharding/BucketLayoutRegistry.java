@@ -0,0 +1,179 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The bucket layout in effect. It is shared by the sharding algorithm, which ShardingSphere
+ * creates outside the Spring context, and by application code that needs to know where a key lives.
+ * <p>
+ * Buckets being migrated can be fenced: routing a key of a fenced bucket blocks until the fence
+ * is lifted, and then follows the layout in effect at that point. Transactions are counted
+ * against every bucket they routed a key to until they complete, so a migration can wait for
+ * exactly the transactions of this node that touched the bucket it fenced.
+ */
+public final class BucketLayoutRegistry {
+
+    public static final String DEFAULT_LAYOUT_RESOURCE = "bucket-layout.properties";
+
+    private static final String FILE_PREFIX = "file:";
+
+    private static final AtomicReference<BucketLayout> CURRENT = new AtomicReference<>();
+    private static final Set<Integer> FENCED = ConcurrentHashMap.newKeySet();
+    private static final Object FENCE_MONITOR = new Object();
+    private static final Map<Integer, AtomicInteger> OPEN_TRANSACTIONS = new ConcurrentHashMap<>();
+    // Bound per transaction to the set of buckets it is counted against
+    private static final Object OPEN_BUCKETS_KEY = new Object();
+
+    private static volatile String location = DEFAULT_LAYOUT_RESOURCE;
+    private static volatile long fenceWaitMillis;
+
+    private BucketLayoutRegistry() {
+    }
+
+    /**
+     * Loads the layout unless one is already in effect. {@code file:} locations are read from the
+     * file system and can be updated by migrations; anything else is a classpath resource.
+     */
+    public static synchronized BucketLayout initialize(String layoutLocation) {
+        BucketLayout current = CURRENT.get();
+        if (current != null) {
+            return current;
+        }
+        location = layoutLocation;
+        CURRENT.set(BucketLayout.load(layoutLocation));
+        return CURRENT.get();
+    }
+
+    /**
+     * Replaces the layout in effect, whether or not one was loaded already. Only for tests.
+     */
+    static synchronized void reload(String layoutLocation) {
+        location = layoutLocation;
+        CURRENT.set(BucketLayout.load(layoutLocation));
+    }
+
+    public static BucketLayout current() {
+        BucketLayout current = CURRENT.get();
+        return current != null ? current : initialize(DEFAULT_LAYOUT_RESOURCE);
+    }
+
+    /**
+     * Data source for a sharding key, waiting out a fence on its bucket.
+     */
+    public static String route(long key) {
+        BucketLayout layout = current();
+        int bucket = layout.bucketOf(key);
+        if (!FENCED.isEmpty() && FENCED.contains(bucket)) {
+            awaitUnfenced(bucket);
+            layout = current();
+        }
+        trackTransaction(bucket);
+        return layout.dataSourceOfBucket(bucket);
+    }
+
+    /**
+     * @return the number of transactions on this node that routed a key to the bucket and have
+     * not completed yet
+     */
+    public static int openTransactions(int bucket) {
+        AtomicInteger open = OPEN_TRANSACTIONS.get(bucket);
+        return open != null ? open.get() : 0;
+    }
+
+    public static boolean isPersistent() {
+        return location.startsWith(FILE_PREFIX);
+    }
+
+    public static Set<Integer> fencedBuckets() {
+        return Set.copyOf(FENCED);
+    }
+
+    static void fence(int bucket, long waitMillis) {
+        fenceWaitMillis = waitMillis;
+        FENCED.add(bucket);
+    }
+
+    static void unfence(int bucket) {
+        FENCED.remove(bucket);
+        synchronized (FENCE_MONITOR) {
+            FENCE_MONITOR.notifyAll();
+        }
+    }
+
+    /**
+     * Moves a bucket to another data source, writing the layout file before the change takes effect.
+     */
+    static synchronized void reassign(int bucket, String dataSource) {
+        if (!isPersistent()) {
+            throw new IllegalStateException("Bucket layout " + location + " is not a writable file");
+        }
+
+        BucketLayout updated = current().withBucket(bucket, dataSource);
+        Path file = Path.of(location.substring(FILE_PREFIX.length()));
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.writeString(temp, updated.toProperties(), StandardCharsets.ISO_8859_1);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write bucket layout " + location, e);
+        }
+        CURRENT.set(updated);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void trackTransaction(int bucket) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        Set<Integer> buckets = (Set<Integer>) TransactionSynchronizationManager.getResource(OPEN_BUCKETS_KEY);
+        if (buckets == null) {
+            Set<Integer> tracked = new HashSet<>();
+            buckets = tracked;
+            TransactionSynchronizationManager.bindResource(OPEN_BUCKETS_KEY, tracked);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OPEN_BUCKETS_KEY);
+                    for (Integer trackedBucket : tracked) {
+                        OPEN_TRANSACTIONS.get(trackedBucket).decrementAndGet();
+                    }
+                }
+            });
+        }
+        if (buckets.add(bucket)) {
+            OPEN_TRANSACTIONS.computeIfAbsent(bucket, key -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    private static void awaitUnfenced(int bucket) {
+        long deadline = System.currentTimeMillis() + fenceWaitMillis;
+        synchronized (FENCE_MONITOR) {
+            while (FENCED.contains(bucket)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Bucket " + bucket + " is fenced for migration");
+                }
+                try {
+                    FENCE_MONITOR.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for bucket " + bucket, e);
+                }
+            }
+        }
+    }
+}
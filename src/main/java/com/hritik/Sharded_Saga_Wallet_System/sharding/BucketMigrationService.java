@@ -0,0 +1,419 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.BucketMigrationReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.WalletException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Moves one virtual bucket to another data source while the application keeps running.
+ * <ol>
+ *     <li>Every sharded table's rows of the bucket are copied in id-ordered chunks into staging
+ *     tables on the target, invisible to ShardingSphere.</li>
+ *     <li>Rows changed during the copy are tailed through their {@code updated_at}
+ *     ({@code created_at} for the insert-only index) and copied again, a few passes.</li>
+ *     <li>The bucket is fenced: new statements routed to it wait. Once no transaction that
+ *     touched the bucket is still open, the last changes are copied and the frozen source rows
+ *     are verified against staging by count and checksum. Only then are the staging rows
+ *     published into the real tables and the layout flipped and persisted; on a mismatch the
+ *     staging tables are dropped and the bucket stays where it was.</li>
+ *     <li>After the fence lifts, the source rows are deleted.</li>
+ * </ol>
+ * Until the source rows are deleted, statements without a sharding key that fan out to every
+ * shard can see the bucket twice. The layout must be a {@code file:} location so the flip
+ * survives a restart.
+ * <p>
+ * The fence, the open transaction counts and the layout only exist in this JVM: another
+ * instance would keep writing the bucket to the source during the copy and after the flip,
+ * and those writes would be deleted with the source rows. Migrations therefore refuse to run
+ * unless {@code wallet.migration.single-instance=true} confirms that this is the only instance
+ * serving traffic.
+ */
+@Service
+@Slf4j
+public class BucketMigrationService {
+
+    private static final String STAGING_SUFFIX = "__bucket_migration";
+
+    // Every sharded table, the column it is sharded by and a column that moves on every write.
+    // Tables whose rows are deleted in normal operation are copied again in full under the fence,
+    // since tailing cannot see a deletion.
+    private static final List<MigratedTable> TABLES = List.of(
+            new MigratedTable("user", "id", "updated_at", false),
+            new MigratedTable("wallet", "user_id", "updated_at", false),
+            new MigratedTable("transaction", "id", "updated_at", false),
+            new MigratedTable("saga_instance", "id", "updated_at", false),
+            new MigratedTable("saga_step", "id", "updated_at", false),
+            new MigratedTable("wallet_transaction_index", "user_id", "created_at", false),
+            new MigratedTable("wallet_daily_rollup", "wallet_id", "updated_at", false),
+            new MigratedTable("wallet_mailbox_receipt", "user_id", "created_at", true),
+            // Claims are released by UserEmailIndexer when their user is missing or changed email
+            new MigratedTable("user_email_index", "email_hash", "created_at", true));
+
+    private final int chunkSize;
+    private final long chunkDelayMs;
+    private final int catchUpPasses;
+    private final long tailOverlapMs;
+    private final long drainTimeoutMs;
+    private final long fenceWaitMs;
+    private final boolean singleInstance;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BucketMigrationService(@Value("${wallet.migration.chunk-size:500}") int chunkSize,
+                                  @Value("${wallet.migration.chunk-delay-ms:20}") long chunkDelayMs,
+                                  @Value("${wallet.migration.catch-up-passes:2}") int catchUpPasses,
+                                  @Value("${wallet.migration.tail-overlap-ms:5000}") long tailOverlapMs,
+                                  @Value("${wallet.migration.drain-timeout-ms:3000}") long drainTimeoutMs,
+                                  @Value("${wallet.migration.fence-wait-ms:15000}") long fenceWaitMs,
+                                  @Value("${wallet.migration.single-instance:false}") boolean singleInstance) {
+        this.chunkSize = chunkSize;
+        this.chunkDelayMs = chunkDelayMs;
+        this.catchUpPasses = catchUpPasses;
+        this.tailOverlapMs = tailOverlapMs;
+        this.drainTimeoutMs = drainTimeoutMs;
+        this.fenceWaitMs = fenceWaitMs;
+        this.singleInstance = singleInstance;
+    }
+
+    public BucketMigrationReportDTO migrate(int bucket, String targetDataSource) {
+        BucketLayout layout = BucketLayoutRegistry.current();
+
+        if (bucket < 0 || bucket >= layout.getBucketCount()) {
+            throw new IllegalArgumentException("Bucket must be between 0 and " + (layout.getBucketCount() - 1));
+        }
+        if (!ShardDataSourceRegistry.getAll().containsKey(targetDataSource)) {
+            throw new IllegalArgumentException("Unknown target data source: " + targetDataSource);
+        }
+        if (targetDataSource.equals(layout.dataSourceOfBucket(bucket))) {
+            throw new IllegalArgumentException("Bucket " + bucket + " already lives on " + targetDataSource);
+        }
+        if (!singleInstance) {
+            throw new WalletException("Bucket migration fences only this instance; stop the others and set "
+                    + "wallet.migration.single-instance=true");
+        }
+        if (!BucketLayoutRegistry.isPersistent()) {
+            throw new WalletException("Bucket migration requires a file: bucket layout so the new routing survives restarts");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new WalletException("A bucket migration is already running");
+        }
+
+        try {
+            return migrate(bucket, layout.dataSourceOfBucket(bucket), targetDataSource, layout.getBucketCount());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BucketMigrationReportDTO migrate(int bucket, String source, String target, int bucketCount) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        log.info("Migrating bucket {} from {} to {}", bucket, source, target);
+
+        Copier copier = copier(source, target, bucket, bucketCount);
+
+        Map<String, Long> rowsCopied = new LinkedHashMap<>();
+        long catchUpRows = 0;
+        long fencedMillis;
+
+        try {
+            copier.prepareStaging();
+
+            Map<String, Timestamp> marks = new LinkedHashMap<>();
+            for (MigratedTable table : TABLES) {
+                marks.put(table.name(), copier.sourceNow());
+                rowsCopied.put(table.name(), copier.copy(table, null));
+            }
+            log.info("Copied bucket {} into staging on {}: {}", bucket, target, rowsCopied);
+
+            for (int pass = 0; pass < catchUpPasses; pass++) {
+                for (MigratedTable table : TABLES) {
+                    Timestamp next = copier.sourceNow();
+                    catchUpRows += copier.copy(table, marks.get(table.name()));
+                    marks.put(table.name(), next);
+                }
+            }
+
+            long fencedAt = System.currentTimeMillis();
+            BucketLayoutRegistry.fence(bucket, fenceWaitMs);
+            try {
+                copier.drainSource();
+                for (MigratedTable table : TABLES) {
+                    catchUpRows += table.deletesRows()
+                            ? copier.recopy(table)
+                            : copier.copy(table, marks.get(table.name()));
+                }
+
+                // The source rows are frozen now; routing only moves to a copy known to match them
+                List<String> mismatched = copier.verify();
+                if (!mismatched.isEmpty()) {
+                    throw new WalletException("Staging differs from the source for " + mismatched
+                            + "; bucket stays on " + source);
+                }
+
+                copier.publish();
+                try {
+                    BucketLayoutRegistry.reassign(bucket, target);
+                } catch (RuntimeException e) {
+                    copier.unpublish();
+                    throw e;
+                }
+            } finally {
+                BucketLayoutRegistry.unfence(bucket);
+                fencedMillis = System.currentTimeMillis() - fencedAt;
+            }
+            log.info("Bucket {} now routes to {} after a {} ms fence", bucket, target, fencedMillis);
+
+        } catch (RuntimeException e) {
+            log.error("Migration of bucket {} from {} to {} failed before cutover", bucket, source, target, e);
+            copier.dropStaging();
+            throw new WalletException("Migration of bucket " + bucket + " failed: " + e.getMessage(), e);
+        }
+
+        long deleted = copier.deleteSourceRows();
+        copier.dropStaging();
+
+        log.info("Migration of bucket {} from {} to {} finished, {} source rows removed", bucket, source, target, deleted);
+        return BucketMigrationReportDTO.builder()
+                .bucket(bucket)
+                .sourceDataSource(source)
+                .targetDataSource(target)
+                .startedAt(startedAt)
+                .rowsCopied(rowsCopied)
+                .catchUpRows(catchUpRows)
+                .fencedMillis(fencedMillis)
+                .verified(true)
+                .sourceRowsDeleted(deleted)
+                .finishedAt(LocalDateTime.now())
+                .message("Bucket migrated")
+                .build();
+    }
+
+    Copier copier(String source, String target, int bucket, int bucketCount) {
+        return new Copier(ShardDataSourceRegistry.get(source), ShardDataSourceRegistry.get(target), bucket, bucketCount);
+    }
+
+    private void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletException("Bucket migration interrupted", e);
+        }
+    }
+
+    record MigratedTable(String name, String shardingColumn, String changeColumn, boolean deletesRows) {
+        String staging() {
+            return name + STAGING_SUFFIX;
+        }
+    }
+
+    /**
+     * Row movement between the two physical shards of one migration.
+     */
+    class Copier {
+
+        private final JdbcTemplate source;
+        private final JdbcTemplate target;
+        private final TransactionTemplate targetTransaction;
+        private final int bucket;
+        private final int bucketCount;
+        private final Map<String, List<String>> columns = new LinkedHashMap<>();
+
+        Copier(ShardDataSource source, ShardDataSource target, int bucket, int bucketCount) {
+            this.source = new JdbcTemplate(source);
+            this.target = new JdbcTemplate(target);
+            this.targetTransaction = new TransactionTemplate(new DataSourceTransactionManager(target));
+            this.bucket = bucket;
+            this.bucketCount = bucketCount;
+        }
+
+        void prepareStaging() {
+            for (MigratedTable table : TABLES) {
+                target.execute("CREATE TABLE IF NOT EXISTS " + quote(table.staging()) + " LIKE " + quote(table.name()));
+                target.execute("TRUNCATE TABLE " + quote(table.staging()));
+                columns.put(table.name(), source.query("SELECT * FROM " + quote(table.name()) + " LIMIT 0",
+                        resultSet -> {
+                            List<String> names = new ArrayList<>();
+                            for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
+                                names.add(resultSet.getMetaData().getColumnLabel(i));
+                            }
+                            return names;
+                        }));
+            }
+        }
+
+        Timestamp sourceNow() {
+            return source.queryForObject("SELECT NOW(6)", Timestamp.class);
+        }
+
+        /**
+         * Upserts the bucket's rows into staging, all of them or only those changed since a mark.
+         */
+        long copy(MigratedTable table, Timestamp changedSince) {
+            StringBuilder sql = new StringBuilder("SELECT * FROM ").append(quote(table.name()))
+                    .append(" WHERE MOD(").append(quote(table.shardingColumn())).append(", ?) = ?");
+            List<Object> filter = new ArrayList<>(List.of(bucketCount, bucket));
+            if (changedSince != null) {
+                sql.append(" AND ").append(quote(table.changeColumn())).append(" >= ?");
+                filter.add(new Timestamp(changedSince.getTime() - tailOverlapMs));
+            }
+            sql.append(" AND id > ? ORDER BY id LIMIT ?");
+
+            long copied = 0;
+            long afterId = 0;
+            while (true) {
+                List<Object> args = new ArrayList<>(filter);
+                args.add(afterId);
+                args.add(chunkSize);
+
+                List<Map<String, Object>> rows = source.queryForList(sql.toString(), args.toArray());
+                if (rows.isEmpty()) {
+                    return copied;
+                }
+
+                upsert(table, rows);
+                copied += rows.size();
+                afterId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+                pause(chunkDelayMs);
+            }
+        }
+
+        /**
+         * Replaces the staged rows of the table with the bucket's current rows.
+         */
+        long recopy(MigratedTable table) {
+            target.update("DELETE FROM " + quote(table.staging()));
+            return copy(table, null);
+        }
+
+        /**
+         * Waits until every transaction that routed a key of the bucket before the fence has
+         * ended. Transactions that only touched other buckets of the source shard are not waited for.
+         */
+        void drainSource() {
+            long deadline = System.currentTimeMillis() + drainTimeoutMs;
+
+            while (true) {
+                int open = BucketLayoutRegistry.openTransactions(bucket);
+                if (open == 0) {
+                    return;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new WalletException(open + " transactions on bucket " + bucket
+                            + " still open after " + drainTimeoutMs + " ms");
+                }
+                pause(20);
+            }
+        }
+
+        void publish() {
+            targetTransaction.executeWithoutResult(status -> {
+                for (MigratedTable table : TABLES) {
+                    target.update("INSERT INTO " + quote(table.name()) + " SELECT * FROM " + quote(table.staging()));
+                }
+            });
+        }
+
+        void unpublish() {
+            targetTransaction.executeWithoutResult(status -> {
+                for (MigratedTable table : TABLES) {
+                    target.update("DELETE FROM " + quote(table.name()) + " WHERE id IN (SELECT id FROM "
+                            + quote(table.staging()) + ")");
+                }
+            });
+        }
+
+        /**
+         * @return the tables whose source rows differ from staging
+         */
+        List<String> verify() {
+            List<String> mismatched = new ArrayList<>();
+            for (MigratedTable table : TABLES) {
+                String checksum = "SELECT COUNT(*), COALESCE(BIT_XOR(CRC32(CONCAT_WS('|', "
+                        + columns.get(table.name()).stream().map(BucketMigrationService::quote)
+                        .collect(Collectors.joining(", "))
+                        + "))), 0) FROM %s WHERE MOD(" + quote(table.shardingColumn()) + ", ?) = ?";
+
+                List<Long> expected = source.queryForObject(checksum.formatted(quote(table.name())),
+                        (resultSet, rowNum) -> List.of(resultSet.getLong(1), resultSet.getLong(2)), bucketCount, bucket);
+                List<Long> actual = target.queryForObject(checksum.formatted(quote(table.staging())),
+                        (resultSet, rowNum) -> List.of(resultSet.getLong(1), resultSet.getLong(2)), bucketCount, bucket);
+
+                if (!expected.equals(actual)) {
+                    log.error("Table {} of bucket {}: source has {} rows (checksum {}), staging {} rows (checksum {})",
+                            table.name(), bucket, expected.get(0), expected.get(1), actual.get(0), actual.get(1));
+                    mismatched.add(table.name());
+                }
+            }
+            return mismatched;
+        }
+
+        /**
+         * Deletes the migrated rows from the source by primary key, using the verified staging ids.
+         */
+        long deleteSourceRows() {
+            long deleted = 0;
+            for (MigratedTable table : TABLES) {
+                long afterId = 0;
+                while (true) {
+                    List<Long> ids = target.queryForList("SELECT id FROM " + quote(table.staging())
+                            + " WHERE id > ? ORDER BY id LIMIT ?", Long.class, afterId, chunkSize);
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+
+                    deleted += source.update("DELETE FROM " + quote(table.name()) + " WHERE id IN ("
+                            + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray());
+                    afterId = ids.get(ids.size() - 1);
+                    pause(chunkDelayMs);
+                }
+            }
+            return deleted;
+        }
+
+        void dropStaging() {
+            for (MigratedTable table : TABLES) {
+                try {
+                    target.execute("DROP TABLE IF EXISTS " + quote(table.staging()));
+                } catch (DataAccessException e) {
+                    log.warn("Failed to drop staging table {}: {}", table.staging(), e.getMessage());
+                }
+            }
+        }
+
+        private void upsert(MigratedTable table, List<Map<String, Object>> rows) {
+            List<String> names = columns.get(table.name());
+            String quoted = names.stream().map(BucketMigrationService::quote).collect(Collectors.joining(", "));
+            String sql = "INSERT INTO " + quote(table.staging()) + " (" + quoted + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(names.size(), "?")) + ") ON DUPLICATE KEY UPDATE "
+                    + names.stream().map(name -> quote(name) + " = VALUES(" + quote(name) + ")")
+                    .collect(Collectors.joining(", "));
+
+            List<Object[]> batch = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                batch.add(names.stream().map(row::get).toArray());
+            }
+            target.batchUpdate(sql, batch);
+        }
+    }
+
+    private static String quote(String identifier) {
+        return '`' + identifier + '`';
+    }
+}
@@ -0,0 +1,170 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs one query per physical shard concurrently and merges the ordered per-shard results.
+ * <p>
+ * Every shard query gets the same deadline and a row cap; shards that fail or miss the deadline
+ * are left out and named in the result instead of failing the whole request, so one slow shard
+ * costs at most the timeout. The per-shard queries must return rows in {@code order}; the
+ * merge is a lazy k-way merge, so callers only pay for the rows they consume.
+ */
+@Component
+@Slf4j
+public class ScatterGatherExecutor {
+
+    /**
+     * A query against one physical shard. The template reads the shard directly, bypassing
+     * ShardingSphere routing, and carries the row cap and statement timeout of the request.
+     */
+    @FunctionalInterface
+    public interface ShardQuery<T> {
+        List<T> query(String shard, JdbcTemplate jdbcTemplate);
+    }
+
+    private final ThreadPoolTaskExecutor scatterGatherExecutor;
+    private final Duration defaultTimeout;
+
+    public ScatterGatherExecutor(@Qualifier("scatterGatherExecutor") ThreadPoolTaskExecutor scatterGatherExecutor,
+                                 @Value("${wallet.scatter-gather.timeout-ms:2000}") long timeoutMs) {
+        this.scatterGatherExecutor = scatterGatherExecutor;
+        this.defaultTimeout = Duration.ofMillis(timeoutMs);
+    }
+
+    public <T> ScatterGatherResult<T> query(ShardQuery<T> query, Comparator<? super T> order, int maxRowsPerShard) {
+        return query(query, order, maxRowsPerShard, defaultTimeout);
+    }
+
+    public <T> ScatterGatherResult<T> query(ShardQuery<T> query, Comparator<? super T> order,
+                                            int maxRowsPerShard, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int timeoutSeconds = (int) Math.max(1, (timeout.toMillis() + 999) / 1000);
+
+        Map<String, CompletableFuture<List<T>>> futures = new LinkedHashMap<>();
+        for (String shard : ShardDataSourceRegistry.getAll().keySet()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(ShardDataSourceRegistry.get(shard));
+            jdbcTemplate.setMaxRows(maxRowsPerShard);
+            jdbcTemplate.setQueryTimeout(timeoutSeconds);
+            futures.put(shard, CompletableFuture.supplyAsync(() -> query.query(shard, jdbcTemplate),
+                    scatterGatherExecutor));
+        }
+
+        List<List<T>> results = new ArrayList<>(futures.size());
+        List<String> unavailableShards = new ArrayList<>();
+        futures.forEach((shard, future) -> {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.add(future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Shard {} did not answer within {} ms, returning partial results", shard, timeout.toMillis());
+                unavailableShards.add(shard);
+            } catch (ExecutionException e) {
+                log.warn("Query on shard {} failed, returning partial results: {}", shard, e.getCause().getMessage());
+                unavailableShards.add(shard);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                unavailableShards.add(shard);
+            }
+        });
+
+        return new ScatterGatherResult<>(results, order, unavailableShards);
+    }
+
+    /**
+     * Merged rows of the shards that answered in time, plus the shards that did not.
+     */
+    public static final class ScatterGatherResult<T> {
+        private final List<List<T>> shardResults;
+        private final Comparator<? super T> order;
+        private final List<String> unavailableShards;
+
+        ScatterGatherResult(List<List<T>> shardResults, Comparator<? super T> order, List<String> unavailableShards) {
+            this.shardResults = shardResults;
+            this.order = order;
+            this.unavailableShards = List.copyOf(unavailableShards);
+        }
+
+        public Stream<T> stream() {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new MergingIterator<>(shardResults, order),
+                    Spliterator.ORDERED | Spliterator.NONNULL), false);
+        }
+
+        public boolean isPartial() {
+            return !unavailableShards.isEmpty();
+        }
+
+        public List<String> getUnavailableShards() {
+            return unavailableShards;
+        }
+    }
+
+    private static final class MergingIterator<T> implements Iterator<T> {
+        private final PriorityQueue<Head<T>> heads;
+
+        MergingIterator(List<List<T>> sources, Comparator<? super T> order) {
+            this.heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                    (left, right) -> order.compare(left.value, right.value));
+            for (List<T> source : sources) {
+                Iterator<T> iterator = source.iterator();
+                if (iterator.hasNext()) {
+                    heads.add(new Head<>(iterator.next(), iterator));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Head<T> head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            T value = head.value;
+            if (head.rest.hasNext()) {
+                head.value = head.rest.next();
+                heads.add(head);
+            }
+            return value;
+        }
+    }
+
+    private static final class Head<T> {
+        T value;
+        final Iterator<T> rest;
+
+        Head(T value, Iterator<T> rest) {
+            this.value = value;
+            this.rest = rest;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hikari pool for one physical shard. Configured as the dataSourceClassName in sharding.yml
+ * so that application code can reach a single shard directly for per-shard maintenance work,
+ * bypassing ShardingSphere routing. Connections handed out pass through the shard's
+ * {@link ShardGuard} and are instrumented so that traffic is counted in {@link ShardMetrics}.
+ */
+public class ShardDataSource extends HikariDataSource {
+
+    @Override
+    public void setPoolName(String poolName) {
+        super.setPoolName(poolName);
+        ShardDataSourceRegistry.register(poolName, this);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guardedConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guardedConnection(username, password);
+    }
+
+    private Connection guardedConnection(String username, String password) throws SQLException {
+        ShardGuard guard = ShardGuard.forShard(getPoolName());
+        ShardGuard.Lease lease = guard.acquire();
+        Connection connection;
+        try {
+            connection = username == null ? super.getConnection() : super.getConnection(username, password);
+        } catch (SQLException | RuntimeException e) {
+            guard.recordConnectionFailure();
+            guard.release(lease);
+            throw e;
+        }
+        return StatementInstrumentation.wrap(connection, getPoolName(), guard, lease);
+    }
+
+    @Override
+    public void close() {
+        ShardDataSourceRegistry.unregister(getPoolName(), this);
+        super.close();
+    }
+}
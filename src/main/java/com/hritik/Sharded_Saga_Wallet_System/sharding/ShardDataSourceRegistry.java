@@ -0,0 +1,41 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Physical shard data sources by name. ShardingSphere instantiates them from sharding.yml
+ * outside the Spring context, so they register themselves here when their pool is named.
+ */
+public final class ShardDataSourceRegistry {
+
+    private static final Map<String, ShardDataSource> DATA_SOURCES = new ConcurrentSkipListMap<>();
+
+    private ShardDataSourceRegistry() {
+    }
+
+    static void register(String name, ShardDataSource dataSource) {
+        DATA_SOURCES.put(name, dataSource);
+    }
+
+    static void unregister(String name, ShardDataSource dataSource) {
+        DATA_SOURCES.remove(name, dataSource);
+    }
+
+    /**
+     * @return every registered shard, ordered by name
+     */
+    public static Map<String, ShardDataSource> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<>(DATA_SOURCES));
+    }
+
+    public static ShardDataSource get(String name) {
+        ShardDataSource dataSource = DATA_SOURCES.get(name);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + name);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,293 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.ShardUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead and circuit breaker of one physical shard, applied where its connections are handed
+ * out. A connection holds a bulkhead permit until it is closed, so a slow shard can tie up at
+ * most its own permits and callers beyond that are rejected after a short wait instead of
+ * queueing on the pool. Work that must not be shed, such as compensation and status updates,
+ * runs inside {@link #prioritize()} and skips the bulkhead, so keep max-concurrent below the
+ * pool size to leave it room. Consecutive statements failing with connection-level errors open
+ * the breaker; while open, connections to the shard are refused immediately. Slow statements
+ * are counted but do not trip it, since exports and backfills are slow by design. After the
+ * open period a single probe connection is let through and only its statements decide whether
+ * the breaker closes again.
+ * <p>
+ * Static for the same reason as {@link ShardMetrics}: the pools live outside the Spring context.
+ */
+@Slf4j
+public final class ShardGuard {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public record Settings(int maxConcurrent, long maxWaitMs, int failureThreshold, long openMs, long slowCallMs) {
+    }
+
+    /**
+     * What a connection took from the guard: whether it is the half-open probe and whether it
+     * holds a bulkhead permit.
+     */
+    record Lease(boolean probe, boolean permit) {
+    }
+
+    /**
+     * Ends a {@link #prioritize()} scope.
+     */
+    public static final class Priority implements AutoCloseable {
+        private final boolean previous;
+
+        private Priority(boolean previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous) {
+                PRIORITY.set(Boolean.TRUE);
+            } else {
+                PRIORITY.remove();
+            }
+        }
+    }
+
+    private static final Map<String, ShardGuard> GUARDS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Boolean> PRIORITY = new ThreadLocal<>();
+    private static volatile Settings settings = new Settings(8, 100, 5, 10_000, 5_000);
+
+    private final String shard;
+    private final Settings guardSettings;
+    private final Semaphore permits;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LongAdder breakerRejections = new LongAdder();
+    private final LongAdder priorityConnections = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder timesOpened = new LongAdder();
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAtMillis;
+    private volatile LocalDateTime stateSince = LocalDateTime.now();
+
+    private ShardGuard(String shard, Settings guardSettings) {
+        this.shard = shard;
+        this.guardSettings = guardSettings;
+        this.permits = new Semaphore(guardSettings.maxConcurrent(), true);
+    }
+
+    /**
+     * Applies new limits. Guards are rebuilt lazily, so connections already open keep the permits
+     * and breaker of the guard they were acquired from.
+     */
+    public static void configure(Settings newSettings) {
+        settings = newSettings;
+        GUARDS.clear();
+    }
+
+    public static ShardGuard forShard(String shard) {
+        return GUARDS.computeIfAbsent(shard, name -> new ShardGuard(name, settings));
+    }
+
+    public static Map<String, ShardGuard> getAll() {
+        return Map.copyOf(GUARDS);
+    }
+
+    /**
+     * Lets connections opened by the current thread skip the bulkhead until the returned scope
+     * is closed. They still count against the pool and are still refused by an open breaker.
+     */
+    public static Priority prioritize() {
+        Priority scope = new Priority(PRIORITY.get() != null);
+        PRIORITY.set(Boolean.TRUE);
+        return scope;
+    }
+
+    /**
+     * Takes a bulkhead permit for a new connection, unless the thread runs priority work.
+     *
+     * @throws ShardUnavailableException when the breaker is open or the bulkhead is full
+     */
+    Lease acquire() {
+        boolean probe = false;
+        if (state != State.CLOSED) {
+            long retryAfterMillis = openedAtMillis + guardSettings.openMs() - System.currentTimeMillis();
+            if (retryAfterMillis > 0 || !probeInFlight.compareAndSet(false, true)) {
+                breakerRejections.increment();
+                throw new ShardUnavailableException(shard, "circuit breaker is open",
+                        Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis) + 1));
+            }
+            transition(State.HALF_OPEN);
+            probe = true;
+        }
+
+        if (PRIORITY.get() != null) {
+            priorityConnections.increment();
+            return new Lease(probe, false);
+        }
+
+        try {
+            if (!permits.tryAcquire(guardSettings.maxWaitMs(), TimeUnit.MILLISECONDS)) {
+                bulkheadRejections.increment();
+                releaseProbe(probe);
+                throw new ShardUnavailableException(shard,
+                        "all " + guardSettings.maxConcurrent() + " connections are busy", 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseProbe(probe);
+            throw new ShardUnavailableException(shard, "interrupted while waiting for a connection", 1);
+        }
+        return new Lease(probe, true);
+    }
+
+    void release(Lease lease) {
+        if (lease.permit()) {
+            permits.release();
+        }
+        releaseProbe(lease.probe());
+    }
+
+    /**
+     * @param probe whether the statement ran on the half-open probe connection; statements on
+     *              connections opened before the breaker tripped do not close it
+     */
+    void recordSuccess(long elapsedNanos, boolean probe) {
+        if (TimeUnit.NANOSECONDS.toMillis(elapsedNanos) >= guardSettings.slowCallMs()) {
+            slowCalls.increment();
+        }
+        consecutiveFailures.set(0);
+        if (probe && state == State.HALF_OPEN) {
+            transition(State.CLOSED);
+        }
+    }
+
+    /**
+     * Counts errors that say the shard itself is unhealthy. Constraint violations, lock
+     * timeouts and other statement-level errors are the caller's problem and do not count.
+     */
+    void recordError(Throwable error, long elapsedNanos, boolean probe) {
+        if (isShardFailure(error)) {
+            recordFailure();
+        } else {
+            recordSuccess(elapsedNanos, probe);
+        }
+    }
+
+    void recordConnectionFailure() {
+        recordFailure();
+    }
+
+    private void recordFailure() {
+        failures.increment();
+        int consecutive = consecutiveFailures.incrementAndGet();
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutive >= guardSettings.failureThreshold())) {
+            openedAtMillis = System.currentTimeMillis();
+            timesOpened.increment();
+            transition(State.OPEN);
+        }
+    }
+
+    private void releaseProbe(boolean probe) {
+        if (probe) {
+            probeInFlight.set(false);
+        }
+    }
+
+    private synchronized void transition(State next) {
+        if (state == next) {
+            return;
+        }
+        log.warn("Circuit breaker of shard {} moved from {} to {} after {} consecutive failures",
+                shard, state, next, consecutiveFailures.get());
+        state = next;
+        stateSince = LocalDateTime.now();
+        if (next == State.CLOSED) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    private static boolean isShardFailure(Throwable error) {
+        if (error instanceof SQLTimeoutException || error instanceof SQLTransientConnectionException
+                || error instanceof SQLRecoverableException) {
+            return true;
+        }
+        if (error instanceof SQLException) {
+            String sqlState = ((SQLException) error).getSQLState();
+            // Class 08: connection exceptions
+            return sqlState != null && sqlState.startsWith("08");
+        }
+        return false;
+    }
+
+    public String getShard() {
+        return shard;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public LocalDateTime getStateSince() {
+        return stateSince;
+    }
+
+    public int getMaxConcurrent() {
+        return guardSettings.maxConcurrent();
+    }
+
+    public int getInUse() {
+        return guardSettings.maxConcurrent() - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getSlowCalls() {
+        return slowCalls.sum();
+    }
+
+    public long getBulkheadRejections() {
+        return bulkheadRejections.sum();
+    }
+
+    public long getBreakerRejections() {
+        return breakerRejections.sum();
+    }
+
+    public long getPriorityConnections() {
+        return priorityConnections.sum();
+    }
+
+    public long getTimesOpened() {
+        return timesOpened.sum();
+    }
+}
@@ -0,0 +1,154 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Traffic counters captured below ShardingSphere, on the physical connections of each shard.
+ * Statements are counted per shard, table and operation; writes that name a wallet or user
+ * by key are counted per key in fixed windows so the hottest keys can be ranked by write rate.
+ * Static because the shard pools are created by ShardingSphere, outside the Spring context.
+ */
+public final class ShardMetrics {
+
+    public enum KeyKind {
+        WALLET,
+        USER
+    }
+
+    private static final Map<StatementKey, StatementStats> STATEMENTS = new ConcurrentHashMap<>();
+    private static final Map<KeyKind, KeyWindows> WRITES = new ConcurrentHashMap<>();
+
+    private static volatile long windowMillis = 60_000;
+    private static volatile int maxTrackedKeys = 10_000;
+
+    private ShardMetrics() {
+    }
+
+    public static void configure(long windowMillis, int maxTrackedKeys) {
+        ShardMetrics.windowMillis = windowMillis;
+        ShardMetrics.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    public static long getWindowMillis() {
+        return windowMillis;
+    }
+
+    static void recordStatement(String shard, String table, String operation, long nanos, long rows,
+                                boolean failed, boolean lockFailure) {
+        StatementStats stats = STATEMENTS.computeIfAbsent(new StatementKey(shard, table, operation),
+                key -> new StatementStats());
+        stats.statements.increment();
+        stats.rows.add(rows);
+        stats.nanos.add(nanos);
+        stats.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (failed) {
+            stats.errors.increment();
+        }
+        if (lockFailure) {
+            stats.lockFailures.increment();
+        }
+    }
+
+    static void recordRows(String shard, String table, String operation, long rows) {
+        StatementStats stats = STATEMENTS.get(new StatementKey(shard, table, operation));
+        if (stats != null) {
+            stats.rows.add(rows);
+        }
+    }
+
+    static void recordWrite(KeyKind kind, long key) {
+        WRITES.computeIfAbsent(kind, k -> new KeyWindows()).record(key);
+    }
+
+    public static Map<StatementKey, StatementSnapshot> statementSnapshot() {
+        Map<StatementKey, StatementSnapshot> snapshot = new LinkedHashMap<>();
+        STATEMENTS.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(StatementKey::shard)
+                        .thenComparing(StatementKey::table).thenComparing(StatementKey::operation)))
+                .forEach(entry -> snapshot.put(entry.getKey(), entry.getValue().snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * @return the keys with the most writes in the last complete window, highest first
+     */
+    public static List<Map.Entry<Long, Long>> topWrites(KeyKind kind, int limit) {
+        KeyWindows windows = WRITES.get(kind);
+        return windows != null ? windows.top(limit) : List.of();
+    }
+
+    public record StatementKey(String shard, String table, String operation) {
+    }
+
+    public record StatementSnapshot(long statements, long rows, long errors, long lockFailures,
+                                    long totalNanos, long maxNanos) {
+    }
+
+    private static final class StatementStats {
+        final LongAdder statements = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder lockFailures = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        StatementSnapshot snapshot() {
+            return new StatementSnapshot(statements.sum(), rows.sum(), errors.sum(), lockFailures.sum(),
+                    nanos.sum(), maxNanos.get());
+        }
+    }
+
+    /**
+     * Write counts of the current and the last complete window. Keys beyond the tracking limit
+     * are dropped for the rest of the window; the hottest keys show up early in a window anyway.
+     */
+    private static final class KeyWindows {
+        private volatile long windowStart = System.currentTimeMillis();
+        private volatile Map<Long, LongAdder> current = new ConcurrentHashMap<>();
+        private volatile Map<Long, LongAdder> previous = Map.of();
+
+        void record(long key) {
+            rotateIfDue();
+            Map<Long, LongAdder> window = current;
+            LongAdder counter = window.get(key);
+            if (counter == null) {
+                if (window.size() >= maxTrackedKeys) {
+                    return;
+                }
+                counter = window.computeIfAbsent(key, k -> new LongAdder());
+            }
+            counter.increment();
+        }
+
+        List<Map.Entry<Long, Long>> top(int limit) {
+            rotateIfDue();
+            return previous.entrySet().stream()
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                    .limit(limit)
+                    .toList();
+        }
+
+        private void rotateIfDue() {
+            long now = System.currentTimeMillis();
+            if (now - windowStart < windowMillis) {
+                return;
+            }
+            synchronized (this) {
+                if (now - windowStart < windowMillis) {
+                    return;
+                }
+                // A window with no traffic at all leaves nothing to rank
+                previous = now - windowStart < 2 * windowMillis ? current : Map.of();
+                current = new ConcurrentHashMap<>();
+                windowStart = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Resolves the physical data source a sharding key lands on.
+ * Reads the same bucket layout as the sharding algorithm in sharding.yml so
+ * application code can group work by shard without going through ShardingSphere.
+ */
+@Component
+@Slf4j
+public class ShardResolver {
+
+    @PostConstruct
+    void logLayout() {
+        BucketLayout layout = BucketLayoutRegistry.current();
+        layout.bucketsByDataSource().forEach((dataSource, buckets) ->
+                log.info("Data source {} owns {} of {} buckets", dataSource, buckets.size(), layout.getBucketCount()));
+    }
+
+    public String shardForKey(Long key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Sharding key cannot be null");
+        }
+        return BucketLayoutRegistry.current().dataSourceOf(key);
+    }
+
+    // wallets are sharded by their owner, not by their own id
+    public String shardForWallet(Wallet wallet) {
+        return shardForKey(wallet.getUserId());
+    }
+
+    public int bucketForKey(Long key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Sharding key cannot be null");
+        }
+        return BucketLayoutRegistry.current().bucketOf(key);
+    }
+
+    public Set<String> shards() {
+        return BucketLayoutRegistry.current().bucketsByDataSource().keySet();
+    }
+}
@@ -0,0 +1,166 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import com.hritik.Sharded_Saga_Wallet_System.sharding.migration.V4__Backfill_transaction_timestamps;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Validates every physical shard against the versioned migrations in {@code db/migration}
+ * and then fails startup if the shards' schemas differ. Runs before the entity manager
+ * factory is created (see {@code SchemaMigrationConfiguration}), so Hibernate never sees a
+ * shard that is behind. With {@code wallet.schema.migrate-on-startup=true} pending migrations
+ * are applied instead; they only contain changes MySQL can make without blocking writes.
+ * Table-rebuilding changes are applied separately by {@link ShardSchemaRebuildService}.
+ * <p>
+ * Flyway connects with the shard's JDBC settings rather than through its pool, so slow DDL
+ * does not hold bulkhead permits or trip the shard's circuit breaker. Shards whose tables
+ * were created by Hibernate before migrations existed are baselined at version 1.
+ * Disabled with {@code wallet.schema.enabled=false} where the shards come with their schema
+ * already in place, as in the test profile.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.schema.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ShardSchemaMigrator {
+
+    static final String HISTORY_TABLE = "flyway_schema_history";
+
+    private static final String COLUMNS =
+            "SELECT TABLE_NAME, COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE, COLUMN_DEFAULT, EXTRA " +
+                    "FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME NOT IN (?, ?)";
+
+    private static final String INDEXES =
+            "SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, " +
+                    "GROUP_CONCAT(COLUMN_NAME ORDER BY SEQ_IN_INDEX SEPARATOR ', ') " +
+                    "FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME NOT IN (?, ?) " +
+                    "GROUP BY TABLE_NAME, INDEX_NAME, NON_UNIQUE";
+
+    private static final int MAX_REPORTED_DIFFERENCES = 20;
+
+    private final boolean migrateOnStartup;
+
+    /**
+     * Depends on the ShardingSphere data source so that the shards are registered by the time
+     * migrations run.
+     */
+    public ShardSchemaMigrator(DataSource dataSource,
+                               @Value("${wallet.schema.migrate-on-startup:false}") boolean migrateOnStartup) {
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    @PostConstruct
+    void migrateShards() {
+        Map<String, ShardDataSource> shards = ShardDataSourceRegistry.getAll();
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("No shard data sources registered; cannot migrate schemas");
+        }
+
+        shards.forEach(this::migrate);
+        checkDrift(shards);
+    }
+
+    private void migrate(String shard, ShardDataSource dataSource) {
+        Flyway flyway = configure(dataSource)
+                .locations("classpath:db/migration")
+                .javaMigrations(new V4__Backfill_transaction_timestamps())
+                .table(HISTORY_TABLE)
+                .baselineVersion("1")
+                .load();
+
+        try {
+            if (migrateOnStartup) {
+                int applied = flyway.migrate().migrationsExecuted;
+                log.info("Applied {} schema migrations to shard {}", applied, shard);
+            } else {
+                flyway.validate();
+                log.info("Schema of shard {} is up to date", shard);
+            }
+        } catch (FlywayException e) {
+            throw new IllegalStateException("Schema migration of shard " + shard + " failed: " + e.getMessage() +
+                    (migrateOnStartup ? "" : " (set wallet.schema.migrate-on-startup=true to apply pending migrations)"), e);
+        }
+    }
+
+    /**
+     * Flyway settings shared by the startup migrations and the operator-run rebuild.
+     */
+    static FluentConfiguration configure(ShardDataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource.getJdbcUrl(), dataSource.getUsername(), dataSource.getPassword())
+                .baselineOnMigrate(true);
+    }
+
+    /**
+     * Compares every shard's columns and indexes with the first shard. Matching migration
+     * history does not rule out manual DDL on one shard, which would break bucket migrations
+     * and make the same query plan differently depending on where a key lives.
+     */
+    private void checkDrift(Map<String, ShardDataSource> shards) {
+        String referenceShard = null;
+        SortedSet<String> reference = null;
+        List<String> drift = new ArrayList<>();
+
+        for (Map.Entry<String, ShardDataSource> entry : shards.entrySet()) {
+            SortedSet<String> schema = describe(entry.getValue());
+            if (reference == null) {
+                referenceShard = entry.getKey();
+                reference = schema;
+                continue;
+            }
+            for (String line : reference) {
+                if (!schema.contains(line)) {
+                    drift.add(entry.getKey() + " is missing " + line);
+                }
+            }
+            for (String line : schema) {
+                if (!reference.contains(line)) {
+                    drift.add(entry.getKey() + " has extra " + line);
+                }
+            }
+        }
+
+        if (!drift.isEmpty()) {
+            for (String line : drift) {
+                log.error("Schema drift against shard {}: {}", referenceShard, line);
+            }
+            throw new IllegalStateException(String.format("Shard schemas drifted from shard %s (%d differences): %s",
+                    referenceShard, drift.size(), drift.subList(0, Math.min(drift.size(), MAX_REPORTED_DIFFERENCES))));
+        }
+
+        log.info("Schemas of {} shards match", shards.size());
+    }
+
+    private static SortedSet<String> describe(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        SortedSet<String> schema = new TreeSet<>();
+
+        jdbcTemplate.query(COLUMNS, resultSet -> {
+            schema.add(String.format("column %s.%s %s %s default %s %s",
+                    resultSet.getString(1), resultSet.getString(2), resultSet.getString(3),
+                    "YES".equals(resultSet.getString(4)) ? "NULL" : "NOT NULL",
+                    resultSet.getString(5), resultSet.getString(6)).trim());
+        }, HISTORY_TABLE, ShardSchemaRebuildService.HISTORY_TABLE);
+
+        jdbcTemplate.query(INDEXES, resultSet -> {
+            schema.add(String.format("%s %s.%s (%s)",
+                    resultSet.getInt(3) == 0 ? "unique index" : "index",
+                    resultSet.getString(1), resultSet.getString(2), resultSet.getString(4)));
+        }, HISTORY_TABLE, ShardSchemaRebuildService.HISTORY_TABLE);
+
+        return schema;
+    }
+}
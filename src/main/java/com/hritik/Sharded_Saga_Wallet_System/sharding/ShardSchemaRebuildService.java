@@ -0,0 +1,120 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.SchemaRebuildReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.WalletException;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the migrations in {@code db/rebuild} to every physical shard. They narrow and
+ * tighten columns, which makes MySQL copy the table and block writes to it for the duration,
+ * so they are run by an operator in a maintenance window rather than at startup. Tracked in
+ * their own history table so that the startup migrations can keep moving independently.
+ * <p>
+ * Before any shard is touched, every shard is checked for values the narrowed columns cannot
+ * hold; a single violation fails the run with nothing applied, since MySQL would otherwise
+ * either reject the ALTER halfway through the shards or, outside strict mode, truncate the data.
+ */
+@Service
+@Slf4j
+public class ShardSchemaRebuildService {
+
+    static final String HISTORY_TABLE = "flyway_rebuild_history";
+
+    // Rows that would not fit a narrowed column, per shard
+    private static final Map<String, String> PRE_CHECKS = Map.of(
+            "transaction.amount beyond DECIMAL(19,2)",
+            "SELECT COUNT(*) FROM `transaction` WHERE ABS(amount) >= 100000000000000000",
+            "wallet.balance beyond DECIMAL(19,2)",
+            "SELECT COUNT(*) FROM wallet WHERE ABS(balance) >= 100000000000000000",
+            "saga_step.step_name longer than 64",
+            "SELECT COUNT(*) FROM saga_step WHERE CHAR_LENGTH(step_name) > 64",
+            "saga_instance.current_step longer than 64",
+            "SELECT COUNT(*) FROM saga_instance WHERE CHAR_LENGTH(current_step) > 64");
+
+    public SchemaRebuildReportDTO rebuild() {
+        Map<String, ShardDataSource> shards = ShardDataSourceRegistry.getAll();
+        if (shards.isEmpty()) {
+            throw new WalletException("No shard data sources registered; cannot rebuild schemas");
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        Map<String, Flyway> pending = new LinkedHashMap<>();
+        shards.forEach((shard, dataSource) -> {
+            Flyway flyway = flyway(dataSource);
+            if (flyway.info().pending().length > 0) {
+                pending.put(shard, flyway);
+            }
+        });
+
+        Map<String, Integer> applied = new LinkedHashMap<>();
+        shards.keySet().forEach(shard -> applied.put(shard, 0));
+        if (pending.isEmpty()) {
+            log.info("No schema rebuild migrations pending on any shard");
+            return report(startedAt, applied);
+        }
+
+        List<String> violations = new ArrayList<>();
+        pending.keySet().forEach(shard -> violations.addAll(checkValues(shard, shards.get(shard))));
+        if (!violations.isEmpty()) {
+            throw new WalletException("Schema rebuild refused, values would not fit the new columns: " + violations);
+        }
+
+        pending.forEach((shard, flyway) -> {
+            log.info("Rebuilding schema of shard {}", shard);
+            try {
+                applied.put(shard, flyway.migrate().migrationsExecuted);
+            } catch (FlywayException e) {
+                throw new WalletException("Schema rebuild of shard " + shard + " failed: " + e.getMessage(), e);
+            }
+        });
+
+        log.info("Schema rebuild applied {}", applied);
+        return report(startedAt, applied);
+    }
+
+    /**
+     * Lists the checks that the shard's current rows fail, with the number of offending rows.
+     */
+    List<String> checkValues(String shard, DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<String> violations = new ArrayList<>();
+
+        PRE_CHECKS.forEach((check, sql) -> {
+            Long rows = jdbcTemplate.queryForObject(sql, Long.class);
+            if (rows != null && rows > 0) {
+                log.error("Shard {} has {} rows with {}", shard, rows, check);
+                violations.add(shard + ": " + rows + " rows with " + check);
+            }
+        });
+
+        return violations;
+    }
+
+    private static Flyway flyway(ShardDataSource dataSource) {
+        // Baselined below V1 so that shards migrated before the rebuild existed still run it
+        return ShardSchemaMigrator.configure(dataSource)
+                .locations("classpath:db/rebuild")
+                .table(HISTORY_TABLE)
+                .baselineVersion("0")
+                .load();
+    }
+
+    private static SchemaRebuildReportDTO report(LocalDateTime startedAt, Map<String, Integer> applied) {
+        return SchemaRebuildReportDTO.builder()
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .migrationsApplied(applied)
+                .build();
+    }
+}
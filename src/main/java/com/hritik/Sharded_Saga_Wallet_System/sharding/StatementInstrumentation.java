@@ -0,0 +1,371 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Wraps the physical connections of a shard so every statement feeds {@link ShardMetrics} and
+ * the shard's {@link ShardGuard}.
+ * The SQL seen here has already been routed and rewritten by ShardingSphere; physical table
+ * names equal the logical ones in this deployment, so they are reported as is.
+ */
+final class StatementInstrumentation {
+
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MAX_CACHED_SHAPES = 5_000;
+
+    private static final Pattern TABLE_AFTER_FROM = Pattern.compile("\\bfrom\\s+`?(\\w+)`?");
+    private static final Pattern TABLE_AFTER_INTO = Pattern.compile("\\binto\\s+`?(\\w+)`?");
+    private static final Pattern TABLE_AFTER_UPDATE = Pattern.compile("^update\\s+`?(\\w+)`?");
+    private static final Pattern INSERT_COLUMNS = Pattern.compile("^\\s*\\(([^)]*)\\)\\s*values\\s*\\(");
+    private static final Pattern KEY_PREDICATE =
+            Pattern.compile("(?<![\\w`])(?:\\w+\\.)?`?(id|user_id|wallet_id)`?\\s*=\\s*\\?");
+
+    private static final Map<String, Shape> SHAPES = new ConcurrentHashMap<>();
+
+    private StatementInstrumentation() {
+    }
+
+    /**
+     * The guard's permit is released when the returned connection is closed.
+     */
+    static Connection wrap(Connection connection, String shard, ShardGuard guard, ShardGuard.Lease lease) {
+        return (Connection) Proxy.newProxyInstance(StatementInstrumentation.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection, shard, guard, lease));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Proxies compare by identity; delegating equals would make a proxy unequal to itself.
+     */
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        if ("equals".equals(method.getName()) && args != null && args.length == 1) {
+            return proxy == args[0];
+        }
+        if ("hashCode".equals(method.getName()) && (args == null || args.length == 0)) {
+            return System.identityHashCode(proxy);
+        }
+        return null;
+    }
+
+    private static Shape shapeOf(String sql) {
+        Shape shape = SHAPES.get(sql);
+        if (shape == null) {
+            if (SHAPES.size() >= MAX_CACHED_SHAPES) {
+                SHAPES.clear();
+            }
+            shape = SHAPES.computeIfAbsent(sql, Shape::parse);
+        }
+        return shape;
+    }
+
+    private static boolean isLockFailure(Throwable error) {
+        return error instanceof SQLException
+                && (((SQLException) error).getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT
+                || ((SQLException) error).getErrorCode() == MYSQL_DEADLOCK);
+    }
+
+    /**
+     * Table, operation and the positions of the wallet and user key parameters of one SQL string.
+     */
+    private record Shape(String table, String operation, List<KeyParameter> keys) {
+
+        static final Shape UNKNOWN = new Shape("unknown", "OTHER", List.of());
+
+        static Shape parse(String sql) {
+            if (sql == null) {
+                return UNKNOWN;
+            }
+            String normalized = sql.strip().toLowerCase(Locale.ROOT);
+            int space = normalized.indexOf(' ');
+            String keyword = space > 0 ? normalized.substring(0, space) : normalized;
+
+            Matcher table;
+            String operation;
+            switch (keyword) {
+                case "select" -> {
+                    operation = "SELECT";
+                    table = TABLE_AFTER_FROM.matcher(normalized);
+                }
+                case "insert", "replace" -> {
+                    operation = "INSERT";
+                    table = TABLE_AFTER_INTO.matcher(normalized);
+                }
+                case "update" -> {
+                    operation = "UPDATE";
+                    table = TABLE_AFTER_UPDATE.matcher(normalized);
+                }
+                case "delete" -> {
+                    operation = "DELETE";
+                    table = TABLE_AFTER_FROM.matcher(normalized);
+                }
+                default -> {
+                    return new Shape("unknown", keyword.toUpperCase(Locale.ROOT), List.of());
+                }
+            }
+            if (!table.find()) {
+                return new Shape("unknown", operation, List.of());
+            }
+            String tableName = table.group(1);
+            List<KeyParameter> keys = "SELECT".equals(operation)
+                    ? List.of()
+                    : keyParameters(tableName, operation, normalized, table.end());
+            return new Shape(tableName, operation, keys);
+        }
+
+        private static List<KeyParameter> keyParameters(String table, String operation, String sql, int tableEnd) {
+            List<KeyParameter> keys = new ArrayList<>(2);
+            if ("INSERT".equals(operation)) {
+                Matcher columns = INSERT_COLUMNS.matcher(sql.substring(tableEnd));
+                if (columns.find()) {
+                    String[] names = columns.group(1).split(",");
+                    for (int i = 0; i < names.length; i++) {
+                        addKey(keys, table, names[i].strip().replace("`", ""), i + 1);
+                    }
+                }
+                return keys;
+            }
+
+            int where = sql.indexOf(" where ", tableEnd);
+            if (where < 0) {
+                return keys;
+            }
+            Matcher predicate = KEY_PREDICATE.matcher(sql);
+            predicate.region(where, sql.length());
+            while (predicate.find()) {
+                addKey(keys, table, predicate.group(1), countParameters(sql, predicate.end()));
+            }
+            return keys;
+        }
+
+        private static void addKey(List<KeyParameter> keys, String table, String column, int parameterIndex) {
+            ShardMetrics.KeyKind kind = switch (table) {
+                case "wallet" -> "id".equals(column) ? ShardMetrics.KeyKind.WALLET
+                        : "user_id".equals(column) ? ShardMetrics.KeyKind.USER : null;
+                case "user" -> "id".equals(column) ? ShardMetrics.KeyKind.USER : null;
+                case "wallet_transaction_index", "wallet_daily_rollup" ->
+                        "wallet_id".equals(column) ? ShardMetrics.KeyKind.WALLET : null;
+                default -> null;
+            };
+            if (kind != null && keys.stream().noneMatch(key -> key.kind() == kind)) {
+                keys.add(new KeyParameter(kind, parameterIndex));
+            }
+        }
+
+        private static int countParameters(String sql, int end) {
+            int count = 0;
+            for (int i = 0; i < end; i++) {
+                if (sql.charAt(i) == '?') {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private record KeyParameter(ShardMetrics.KeyKind kind, int index) {
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private final String shard;
+        private final ShardGuard guard;
+        private final ShardGuard.Lease lease;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ConnectionHandler(Connection connection, String shard, ShardGuard guard, ShardGuard.Lease lease) {
+            this.connection = connection;
+            this.shard = shard;
+            this.guard = guard;
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            if ("close".equals(method.getName())) {
+                try {
+                    return StatementInstrumentation.invoke(connection, method, args);
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        guard.release(lease);
+                    }
+                }
+            }
+            Object result = StatementInstrumentation.invoke(connection, method, args);
+            switch (method.getName()) {
+                case "createStatement" -> {
+                    return statementProxy((Statement) result, Statement.class, null, proxy);
+                }
+                case "prepareStatement" -> {
+                    return statementProxy((Statement) result, PreparedStatement.class, (String) args[0], proxy);
+                }
+                case "prepareCall" -> {
+                    return statementProxy((Statement) result, CallableStatement.class, (String) args[0], proxy);
+                }
+                default -> {
+                    return result;
+                }
+            }
+        }
+
+        private Object statementProxy(Statement statement, Class<?> type, String sql, Object connectionProxy) {
+            return Proxy.newProxyInstance(StatementInstrumentation.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, shard, guard, lease.probe(), sql, connectionProxy));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String shard;
+        private final ShardGuard guard;
+        private final boolean probe;
+        private final String preparedSql;
+        private final Object connectionProxy;
+        private final Map<Integer, Object> parameters = new HashMap<>();
+        private final List<Map<Integer, Object>> batches = new ArrayList<>();
+        private Shape resultShape = Shape.UNKNOWN;
+
+        StatementHandler(Statement statement, String shard, ShardGuard guard, boolean probe, String preparedSql,
+                         Object connectionProxy) {
+            this.statement = statement;
+            this.shard = shard;
+            this.guard = guard;
+            this.probe = probe;
+            this.preparedSql = preparedSql;
+            this.connectionProxy = connectionProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], args[1]);
+                return StatementInstrumentation.invoke(statement, method, args);
+            }
+            switch (name) {
+                case "clearParameters" -> parameters.clear();
+                case "addBatch" -> {
+                    if (args == null || args.length == 0) {
+                        batches.add(new HashMap<>(parameters));
+                    }
+                }
+                case "clearBatch" -> batches.clear();
+                case "getConnection" -> {
+                    return connectionProxy;
+                }
+                case "getResultSet" -> {
+                    return countingResultSet((ResultSet) StatementInstrumentation.invoke(statement, method, args));
+                }
+                default -> {
+                    if (name.startsWith("execute")) {
+                        return execute(method, args);
+                    }
+                }
+            }
+            return StatementInstrumentation.invoke(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            Shape shape = shapeOf(sql);
+            resultShape = shape;
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = StatementInstrumentation.invoke(statement, method, args);
+            } catch (Throwable error) {
+                long elapsed = System.nanoTime() - start;
+                ShardMetrics.recordStatement(shard, shape.table(), shape.operation(),
+                        elapsed, 0, true, isLockFailure(error));
+                guard.recordError(error, elapsed, probe);
+                throw error;
+            }
+            long elapsed = System.nanoTime() - start;
+            guard.recordSuccess(elapsed, probe);
+
+            long rows = 0;
+            if (result instanceof Integer || result instanceof Long) {
+                rows = ((Number) result).longValue();
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            ShardMetrics.recordStatement(shard, shape.table(), shape.operation(), elapsed, Math.max(rows, 0),
+                    false, false);
+
+            if (!shape.keys().isEmpty()) {
+                recordKeys(shape, "executeBatch".equals(method.getName()) || "executeLargeBatch".equals(method.getName()));
+            }
+            return result instanceof ResultSet ? countingResultSet((ResultSet) result) : result;
+        }
+
+        private void recordKeys(Shape shape, boolean batch) {
+            List<Map<Integer, Object>> executions = batch ? batches : List.of(parameters);
+            for (Map<Integer, Object> values : executions) {
+                for (KeyParameter key : shape.keys()) {
+                    Object value = values.get(key.index());
+                    if (value instanceof Number) {
+                        ShardMetrics.recordWrite(key.kind(), ((Number) value).longValue());
+                    }
+                }
+            }
+            if (batch) {
+                batches.clear();
+            }
+        }
+
+        private ResultSet countingResultSet(ResultSet resultSet) {
+            if (resultSet == null) {
+                return null;
+            }
+            Shape shape = resultShape;
+            return (ResultSet) Proxy.newProxyInstance(StatementInstrumentation.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        Object result = StatementInstrumentation.invoke(resultSet, method, args);
+                        if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                            ShardMetrics.recordRows(shard, shape.table(), shape.operation(), 1);
+                        }
+                        return result;
+                    });
+        }
+    }
+}
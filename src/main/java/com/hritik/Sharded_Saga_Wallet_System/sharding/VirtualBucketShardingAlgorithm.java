@@ -0,0 +1,68 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import org.apache.shardingsphere.sharding.api.sharding.standard.PreciseShardingValue;
+import org.apache.shardingsphere.sharding.api.sharding.standard.RangeShardingValue;
+import org.apache.shardingsphere.sharding.api.sharding.standard.StandardShardingAlgorithm;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Routes a numeric sharding key to the data source that owns its virtual bucket.
+ * Configured in sharding.yml as a CLASS_BASED standard algorithm; the optional
+ * {@code layout-file} property names the bucket layout, on the classpath or as a {@code file:} path.
+ */
+public class VirtualBucketShardingAlgorithm implements StandardShardingAlgorithm<Comparable<?>> {
+
+    @Override
+    public void init(Properties props) {
+        BucketLayoutRegistry.initialize(
+                props.getProperty("layout-file", BucketLayoutRegistry.DEFAULT_LAYOUT_RESOURCE));
+    }
+
+    @Override
+    public String doSharding(Collection<String> availableTargetNames, PreciseShardingValue<Comparable<?>> shardingValue) {
+        String dataSource = BucketLayoutRegistry.route(toLong(shardingValue.getValue()));
+        if (!availableTargetNames.contains(dataSource)) {
+            throw new IllegalStateException("Bucket layout routes " + shardingValue.getColumnName() + " "
+                    + shardingValue.getValue() + " to unknown data source " + dataSource);
+        }
+        return dataSource;
+    }
+
+    @Override
+    public Collection<String> doSharding(Collection<String> availableTargetNames,
+                                         RangeShardingValue<Comparable<?>> shardingValue) {
+        BucketLayout layout = BucketLayoutRegistry.current();
+        var range = shardingValue.getValueRange();
+
+        // Ranges narrower than one lap of the buckets only touch the data sources of their keys
+        if (range.hasLowerBound() && range.hasUpperBound()) {
+            long lower = toLong(range.lowerEndpoint());
+            long upper = toLong(range.upperEndpoint());
+            if (upper >= lower && upper - lower < layout.getBucketCount()) {
+                Set<String> targets = new LinkedHashSet<>();
+                for (long key = lower; key <= upper; key++) {
+                    targets.add(layout.dataSourceOf(key));
+                }
+                targets.retainAll(availableTargetNames);
+                return targets;
+            }
+        }
+        return availableTargetNames;
+    }
+
+    @Override
+    public String getType() {
+        return "VIRTUAL_BUCKET";
+    }
+
+    private static long toLong(Comparable<?> value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return Long.parseLong(value.toString());
+    }
+}
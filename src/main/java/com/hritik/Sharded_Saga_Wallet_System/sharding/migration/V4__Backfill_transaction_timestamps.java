@@ -0,0 +1,51 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding.migration;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.id.SnowflakeIdGenerator;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Fills {@code transaction.created_at} and {@code updated_at}, added as nullable by V2, for
+ * rows written before the columns existed. The creation time is the one encoded in the
+ * Snowflake id; MySQL assigns left to right, so {@code updated_at} takes the {@code created_at}
+ * just set. Rows from before Snowflake ids carry small AUTO_INCREMENT ids and get the id
+ * epoch, which still orders them before everything written since.
+ * <p>
+ * Runs outside a transaction in chunks of {@value #CHUNK_SIZE} ids, so each chunk locks only
+ * its own rows and commits on its own; a run cut short resumes where it stopped because
+ * filled rows no longer match.
+ */
+public class V4__Backfill_transaction_timestamps extends BaseJavaMigration {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private static final String CHUNK_END =
+            "SELECT MAX(id) FROM (SELECT id FROM `transaction` WHERE id > ? ORDER BY id LIMIT " + CHUNK_SIZE + ") chunk";
+
+    private static final String BACKFILL =
+            "UPDATE `transaction` " +
+                    "SET created_at = FROM_UNIXTIME(((id >> " + SnowflakeIdGenerator.TIMESTAMP_SHIFT + ") + " +
+                    SnowflakeIdGenerator.EPOCH_MILLIS + ") / 1000), " +
+                    "updated_at = COALESCE(updated_at, created_at) " +
+                    "WHERE id > ? AND id <= ? AND created_at IS NULL";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) {
+        // Flyway owns the connection; leave it open
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        long after = Long.MIN_VALUE;
+        Long chunkEnd;
+        while ((chunkEnd = jdbcTemplate.queryForObject(CHUNK_END, Long.class, after)) != null) {
+            jdbcTemplate.update(BACKFILL, after, chunkEnd);
+            after = chunkEnd;
+        }
+    }
+}
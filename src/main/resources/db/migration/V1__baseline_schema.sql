@@ -0,0 +1,48 @@
+-- Schema generated by Hibernate (ddl-auto=update) from the entities as they were before
+-- migrations were introduced. Shards created by that version are baselined at this version
+-- instead of running it, so it must not change.
+
+CREATE TABLE `user` (
+    id    BIGINT       NOT NULL AUTO_INCREMENT,
+    name  VARCHAR(255),
+    email VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE wallet (
+    id        BIGINT         NOT NULL AUTO_INCREMENT,
+    user_id   BIGINT         NOT NULL,
+    is_active BIT            NOT NULL,
+    balance   DECIMAL(38, 2) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE `transaction` (
+    id               BIGINT                                             NOT NULL AUTO_INCREMENT,
+    from_wallet_id   BIGINT                                             NOT NULL,
+    to_wallet_id     BIGINT                                             NOT NULL,
+    amount           DECIMAL(38, 2)                                     NOT NULL,
+    status           ENUM ('PENDING', 'SUCCESS', 'FAILED', 'CANCELLED') NOT NULL,
+    transaction_type ENUM ('TRANSFER', 'DEPOSIT', 'WITHDRAWAL')         NOT NULL,
+    description      VARCHAR(255),
+    saga_instance_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE saga_instance (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    status       ENUM ('STARTED', 'RUNNING', 'COMPLETED', 'FAILED', 'COMPENSATING', 'COMPENSATED') NOT NULL,
+    context      JSON,
+    current_step VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE saga_step (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    saga_instance_id BIGINT       NOT NULL,
+    step_name        VARCHAR(255) NOT NULL,
+    status           TINYINT      NOT NULL CHECK (status BETWEEN 0 AND 6),
+    error_message    VARCHAR(255),
+    step_data        JSON,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,98 @@
+-- New tables, columns and indexes for the saga and transfer hot paths. Every change here can
+-- run while the application is serving: LOCK = NONE makes MySQL refuse an ALTER it cannot do
+-- online instead of blocking writes. Column changes that rebuild their table live in
+-- db/rebuild and are applied by an operator (see ShardSchemaRebuildService).
+
+-- Change tracking for the name index refresh and bucket migrations
+ALTER TABLE `user`
+    ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    MODIFY email VARCHAR(320),
+    ADD INDEX idx_user_updated (updated_at),
+    LOCK = NONE;
+
+-- WalletService.getActiveWalletByUserId on every credit and debit
+ALTER TABLE wallet
+    ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    ADD INDEX idx_wallet_user (user_id, is_active),
+    ADD INDEX idx_wallet_updated (updated_at),
+    LOCK = NONE;
+
+-- Appending members only changes table metadata
+ALTER TABLE `transaction`
+    MODIFY transaction_type ENUM ('TRANSFER', 'DEPOSIT', 'WITHDRAWAL', 'PAYOUT', 'OPENING_BALANCE') NOT NULL,
+    LOCK = NONE;
+
+-- Nullable until existing rows are filled in by V4; made NOT NULL by db/rebuild.
+-- Stale PENDING sweeps and status-by-time queries (idx_transaction_status_created), status
+-- updates by saga and the bucket migration tail (idx_transaction_updated). Wallet history
+-- is served by wallet_transaction_index.
+ALTER TABLE `transaction`
+    ADD COLUMN created_at DATETIME(6) NULL,
+    ADD COLUMN updated_at DATETIME(6) NULL,
+    ADD INDEX idx_transaction_status_created (status, created_at, id),
+    ADD INDEX idx_transaction_updated (updated_at),
+    ADD INDEX idx_transaction_saga_instance (saga_instance_id),
+    LOCK = NONE;
+
+-- Appending members only changes table metadata
+ALTER TABLE saga_instance
+    MODIFY status ENUM ('STARTED', 'RUNNING', 'COMPLETED', 'FAILED', 'COMPENSATING', 'COMPENSATED',
+        'COMPENSATION_FAILED') NOT NULL,
+    LOCK = NONE;
+
+ALTER TABLE saga_instance
+    ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    ADD INDEX idx_saga_instance_updated (updated_at),
+    LOCK = NONE;
+
+-- SagaStepRepository.findBySagaInstanceIdAndStepNameAndStatus on every step execution and
+-- findCompletedStepsBySagaInstanceId during compensation (leftmost prefix)
+ALTER TABLE saga_step
+    ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    ADD INDEX idx_saga_step_instance_name_status (saga_instance_id, step_name, status),
+    ADD INDEX idx_saga_step_updated (updated_at),
+    LOCK = NONE;
+
+-- UserEmailIndexRepository.findByEmailHashIn during backfill
+CREATE TABLE user_email_index (
+    id         BIGINT       NOT NULL,
+    email_hash BIGINT       NOT NULL,
+    email      VARCHAR(320) NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_email_index_email UNIQUE (email),
+    INDEX idx_user_email_index_hash (email_hash)
+) ENGINE = InnoDB;
+
+-- Sharded by the wallet's owner, like wallet
+CREATE TABLE wallet_transaction_index (
+    id                     BIGINT         NOT NULL,
+    user_id                BIGINT         NOT NULL,
+    wallet_id              BIGINT         NOT NULL,
+    transaction_id         BIGINT         NOT NULL,
+    side                   VARCHAR(32)    NOT NULL,
+    counterparty_wallet_id BIGINT         NOT NULL,
+    amount                 DECIMAL(19, 2) NOT NULL,
+    created_at             DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_transaction_index_entry UNIQUE (wallet_id, transaction_id),
+    INDEX idx_wallet_transaction_index_created (wallet_id, created_at, transaction_id),
+    INDEX idx_wallet_transaction_index_created_at (created_at)
+) ENGINE = InnoDB;
+
+-- WalletDailyRollupRepository.deleteByRollupDate when a day is rebuilt
+CREATE TABLE wallet_daily_rollup (
+    id           BIGINT         NOT NULL,
+    wallet_id    BIGINT         NOT NULL,
+    rollup_date  DATE           NOT NULL,
+    total_in     DECIMAL(19, 2) NOT NULL,
+    total_out    DECIMAL(19, 2) NOT NULL,
+    credit_count BIGINT         NOT NULL,
+    debit_count  BIGINT         NOT NULL,
+    updated_at   TIMESTAMP(6)   NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_daily_rollup_day UNIQUE (wallet_id, rollup_date),
+    INDEX idx_wallet_daily_rollup_updated (updated_at),
+    INDEX idx_wallet_daily_rollup_date (rollup_date)
+) ENGINE = InnoDB;
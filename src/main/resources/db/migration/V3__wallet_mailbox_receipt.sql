@@ -0,0 +1,11 @@
+-- Mailbox changes awaiting their caller's commit (WalletMailboxExecutor), sharded by the
+-- wallet's owner so that each commits on the wallet's shard
+CREATE TABLE wallet_mailbox_receipt (
+    id         BIGINT         NOT NULL,
+    user_id    BIGINT         NOT NULL,
+    wallet_id  BIGINT         NOT NULL,
+    delta      DECIMAL(19, 2) NOT NULL,
+    created_at DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_wallet_mailbox_receipt_created (created_at)
+) ENGINE = InnoDB;
@@ -0,0 +1,30 @@
+-- Column changes that copy their table and block writes to it while they run, so they are
+-- not applied at startup. Run them in a maintenance window with
+-- POST /api/v1/admin/schema/rebuild, which first checks every shard for values that would not
+-- fit, or apply the same statements with an online schema change tool.
+
+ALTER TABLE saga_step
+    MODIFY step_name VARCHAR(64) NOT NULL,
+    MODIFY error_message TEXT;
+
+ALTER TABLE saga_instance
+    MODIFY status VARCHAR(32) NOT NULL,
+    MODIFY current_step VARCHAR(64);
+
+-- Rows written by nodes that predate created_at, e.g. during the rollout that applied V4;
+-- same id-encoded time (ShardingSphere Snowflake epoch, 2016-11-01 UTC) as V4
+UPDATE `transaction`
+SET created_at = FROM_UNIXTIME(((id >> 22) + 1477958400000) / 1000),
+    updated_at = COALESCE(updated_at, FROM_UNIXTIME(((id >> 22) + 1477958400000) / 1000))
+WHERE created_at IS NULL;
+
+ALTER TABLE `transaction`
+    MODIFY created_at DATETIME(6) NOT NULL,
+    MODIFY updated_at DATETIME(6) NOT NULL,
+    MODIFY amount DECIMAL(19, 2) NOT NULL,
+    MODIFY status VARCHAR(32) NOT NULL,
+    MODIFY transaction_type VARCHAR(32) NOT NULL;
+
+ALTER TABLE wallet
+    MODIFY is_active BOOLEAN NOT NULL,
+    MODIFY balance DECIMAL(19, 2) NOT NULL;
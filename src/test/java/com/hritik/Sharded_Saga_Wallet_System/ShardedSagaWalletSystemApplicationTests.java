@@ -2,8 +2,10 @@ package com.hritik.Sharded_Saga_Wallet_System;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class ShardedSagaWalletSystemApplicationTests {
 
 	@Test
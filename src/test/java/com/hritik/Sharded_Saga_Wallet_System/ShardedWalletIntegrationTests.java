@@ -0,0 +1,135 @@
+package com.hritik.Sharded_Saga_Wallet_System;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.WalletStatementDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.SagaException;
+import com.hritik.Sharded_Saga_Wallet_System.model.User;
+import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.service.TransferSagaService;
+import com.hritik.Sharded_Saga_Wallet_System.service.UserService;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletRollupService;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletService;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the two embedded shards of the test profile, so transfers cross real
+ * ShardingSphere routing without a MySQL server.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ShardedWalletIntegrationTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private WalletService walletService;
+
+	@Autowired
+	private TransferSagaService transferSagaService;
+
+	@Autowired
+	private WalletRollupService walletRollupService;
+
+	@Autowired
+	private ShardResolver shardResolver;
+
+	@Test
+	void transferMovesMoneyAcrossShards() {
+		Wallet source = walletOnShard("shardwallet1");
+		Wallet destination = walletOnShard("shardwallet2");
+		walletService.credit(source.getUserId(), new BigDecimal("100.00"));
+
+		transferSagaService.initiateTransfer(source.getId(), destination.getId(), new BigDecimal("40.00"), "test");
+
+		assertThat(walletService.getWalletBalance(source.getId())).isEqualByComparingTo("60.00");
+		assertThat(walletService.getWalletBalance(destination.getId())).isEqualByComparingTo("40.00");
+	}
+
+	@Test
+	void transferUpdatesTheRollupsOfBothWallets() {
+		Wallet source = walletOnShard("shardwallet1");
+		Wallet destination = walletOnShard("shardwallet2");
+		walletService.credit(source.getUserId(), new BigDecimal("100.00"));
+
+		// The deposit created today's rollup row of the source, so the transfer takes the duplicate key path
+		transferSagaService.initiateTransfer(source.getId(), destination.getId(), new BigDecimal("40.00"), "test");
+
+		WalletStatementDTO sourceSummary = walletRollupService.getSummary(source.getId());
+		assertThat(sourceSummary.getTotalIn()).isEqualByComparingTo("100.00");
+		assertThat(sourceSummary.getTotalOut()).isEqualByComparingTo("40.00");
+		assertThat(sourceSummary.getCreditCount()).isEqualTo(1);
+		assertThat(sourceSummary.getDebitCount()).isEqualTo(1);
+
+		WalletStatementDTO destinationSummary = walletRollupService.getSummary(destination.getId());
+		assertThat(destinationSummary.getTotalIn()).isEqualByComparingTo("40.00");
+		assertThat(destinationSummary.getCreditCount()).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentOpposingTransfersConserveMoney() throws InterruptedException {
+		Wallet first = walletOnShard("shardwallet1");
+		Wallet second = walletOnShard("shardwallet2");
+		walletService.credit(first.getUserId(), new BigDecimal("1000.00"));
+		walletService.credit(second.getUserId(), new BigDecimal("1000.00"));
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Long>> transfers = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			Wallet from = i % 2 == 0 ? first : second;
+			Wallet to = i % 2 == 0 ? second : first;
+			transfers.add(executor.submit(() -> transferSagaService.initiateTransfer(
+					from.getId(), to.getId(), new BigDecimal("10.00"), "concurrent")));
+		}
+
+		int fromFirst = 0;
+		int fromSecond = 0;
+		for (int i = 0; i < transfers.size(); i++) {
+			try {
+				transfers.get(i).get();
+				if (i % 2 == 0) {
+					fromFirst++;
+				} else {
+					fromSecond++;
+				}
+			} catch (ExecutionException e) {
+				// Lock timeouts fail the saga, which compensates; anything else is a bug
+				assertThat(e.getCause()).isInstanceOf(SagaException.class);
+			}
+		}
+		executor.shutdown();
+
+		assertThat(fromFirst + fromSecond).isGreaterThanOrEqualTo(transfers.size() / 2);
+		BigDecimal net = new BigDecimal("10.00").multiply(BigDecimal.valueOf(fromFirst - fromSecond));
+		assertThat(walletService.getWalletBalance(first.getId())).isEqualByComparingTo(new BigDecimal("1000.00").subtract(net));
+		assertThat(walletService.getWalletBalance(second.getId())).isEqualByComparingTo(new BigDecimal("1000.00").add(net));
+	}
+
+	private Wallet walletOnShard(String shard) {
+		for (int attempt = 0; attempt < 100; attempt++) {
+			User user = new User();
+			user.setName("Test user");
+			user.setEmail(UUID.randomUUID() + "@example.com");
+			user = userService.createUser(user);
+			if (shard.equals(shardResolver.shardForKey(user.getId()))) {
+				return walletService.createWallet(user.getId());
+			}
+		}
+		throw new IllegalStateException("No user id routed to " + shard);
+	}
+
+}
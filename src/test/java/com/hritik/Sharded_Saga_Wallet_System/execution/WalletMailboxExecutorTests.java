@@ -0,0 +1,220 @@
+package com.hritik.Sharded_Saga_Wallet_System.execution;
+
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.WalletException;
+import com.hritik.Sharded_Saga_Wallet_System.model.WalletMailboxReceipt;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletMailboxReceiptRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletOwnerResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WalletMailboxExecutorTests {
+
+	private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+	private static final Long OWNER = 7L;
+
+	private WalletRepository walletRepository;
+	private WalletMailboxReceiptRepository receiptRepository;
+	private WalletMailboxExecutor mailbox;
+
+	@BeforeEach
+	void setUp() {
+		walletRepository = mock(WalletRepository.class);
+		receiptRepository = mock(WalletMailboxReceiptRepository.class);
+		WalletOwnerResolver walletOwnerResolver = mock(WalletOwnerResolver.class);
+		when(walletOwnerResolver.ownerOf(anyLong())).thenReturn(OWNER);
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		when(receiptRepository.save(any())).thenAnswer(invocation -> {
+			WalletMailboxReceipt receipt = invocation.getArgument(0);
+			receipt.setId(42L);
+			return receipt;
+		});
+
+		mailbox = new WalletMailboxExecutor(walletRepository, walletOwnerResolver, receiptRepository, transactionManager);
+		ReflectionTestUtils.setField(mailbox, "executionMode", WalletExecutionMode.MAILBOX);
+		ReflectionTestUtils.setField(mailbox, "laneCount", 1);
+		ReflectionTestUtils.setField(mailbox, "maxBatchSize", 16);
+		ReflectionTestUtils.setField(mailbox, "timeoutMillis", 2000L);
+		ReflectionTestUtils.setField(mailbox, "receiptTimeoutMillis", 60_000L);
+		mailbox.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clear();
+		}
+		mailbox.stop();
+	}
+
+	@Test
+	void appliesConcurrentOperationsOnOneWalletOneAtATime() {
+		AtomicInteger active = new AtomicInteger();
+		AtomicInteger maxActive = new AtomicInteger();
+		when(walletRepository.atomicCredit(eq(1L), eq(OWNER), any())).thenAnswer(invocation -> {
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			Thread.sleep(1);
+			active.decrementAndGet();
+			return 1;
+		});
+
+		List<CompletableFuture<Boolean>> credits = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			credits.add(CompletableFuture.supplyAsync(() -> mailbox.creditIndependently(1L, AMOUNT)));
+		}
+
+		assertThat(credits).allSatisfy(credit -> assertThat(credit.join()).isTrue());
+		assertThat(maxActive.get()).isEqualTo(1);
+		verify(receiptRepository, never()).save(any());
+	}
+
+	@Test
+	void revertsChangeWhenCallerRollsBack() {
+		when(walletRepository.atomicDebit(1L, OWNER, AMOUNT)).thenReturn(1);
+		when(walletRepository.atomicCredit(1L, OWNER, AMOUNT)).thenReturn(1);
+		when(receiptRepository.claim(42L, OWNER)).thenReturn(1);
+		beginCallerTransaction();
+
+		assertThat(mailbox.debit(1L, AMOUNT)).isTrue();
+		completeCallerTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		verify(walletRepository, timeout(2000)).atomicCredit(1L, OWNER, AMOUNT);
+	}
+
+	@Test
+	void receiptIsWrittenToTheWalletOwnersShard() {
+		when(walletRepository.atomicDebit(1L, OWNER, AMOUNT)).thenReturn(1);
+		when(receiptRepository.claim(42L, OWNER)).thenReturn(1);
+		beginCallerTransaction();
+
+		assertThat(mailbox.debit(1L, AMOUNT)).isTrue();
+
+		verify(receiptRepository).save(argThat(receipt -> OWNER.equals(receipt.getUserId())
+				&& Long.valueOf(1L).equals(receipt.getWalletId())));
+	}
+
+	@Test
+	void keepsChangeWhenCallerCommits() throws InterruptedException {
+		when(walletRepository.atomicDebit(1L, OWNER, AMOUNT)).thenReturn(1);
+		when(receiptRepository.claim(42L, OWNER)).thenReturn(1);
+		beginCallerTransaction();
+
+		assertThat(mailbox.debit(1L, AMOUNT)).isTrue();
+		completeCallerTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+		Thread.sleep(100);
+		verify(walletRepository, never()).atomicCredit(anyLong(), anyLong(), any());
+	}
+
+	@Test
+	void failsCallerWhenChangeWasAlreadyReverted() {
+		when(walletRepository.atomicDebit(1L, OWNER, AMOUNT)).thenReturn(1);
+		when(receiptRepository.claim(42L, OWNER)).thenReturn(0);
+		beginCallerTransaction();
+
+		assertThatThrownBy(() -> mailbox.debit(1L, AMOUNT)).isInstanceOf(WalletException.class);
+	}
+
+	@Test
+	void revertOfClaimedReceiptLeavesBalanceAlone() {
+		when(walletRepository.atomicDebit(1L, OWNER, AMOUNT)).thenReturn(1);
+		when(receiptRepository.claim(42L, OWNER)).thenReturn(1, 0);
+		beginCallerTransaction();
+
+		assertThat(mailbox.debit(1L, AMOUNT)).isTrue();
+		// Commit outcome unknown: the revert finds the receipt gone and does nothing
+		completeCallerTransaction(TransactionSynchronization.STATUS_UNKNOWN);
+
+		verify(receiptRepository, timeout(2000).times(2)).claim(42L, OWNER);
+		verify(walletRepository, never()).atomicCredit(anyLong(), anyLong(), any());
+	}
+
+	@Test
+	void sweepRevertsAbandonedReceipts() {
+		WalletMailboxReceipt abandoned = WalletMailboxReceipt.builder()
+				.id(7L).userId(OWNER).walletId(3L).delta(AMOUNT.negate()).createdAt(LocalDateTime.now().minusHours(1)).build();
+		when(receiptRepository.findByCreatedAtBeforeOrderByCreatedAt(any(), any())).thenReturn(List.of(abandoned));
+		when(receiptRepository.claim(7L, OWNER)).thenReturn(1);
+		when(walletRepository.atomicCredit(3L, OWNER, AMOUNT)).thenReturn(1);
+
+		mailbox.revertAbandonedChanges();
+
+		verify(walletRepository).atomicCredit(3L, OWNER, AMOUNT);
+	}
+
+	@Test
+	void stopFailsQueuedOperations() throws InterruptedException {
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(walletRepository.atomicCredit(eq(1L), eq(OWNER), any())).thenAnswer(invocation -> {
+			entered.countDown();
+			boolean interrupted = false;
+			while (release.getCount() > 0) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					// Keep the batch in flight until released, as a slow commit would
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			return 1;
+		});
+
+		CompletableFuture<Boolean> inFlight = CompletableFuture.supplyAsync(() -> mailbox.creditIndependently(1L, AMOUNT));
+		assertThat(entered.await(2, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> mailbox.creditIndependently(1L, AMOUNT));
+		Thread.sleep(100);
+
+		// Bounds how long stop() waits for the blocked lane
+		ReflectionTestUtils.setField(mailbox, "timeoutMillis", 100L);
+		mailbox.stop();
+		release.countDown();
+
+		assertThatThrownBy(queued::join).hasCauseInstanceOf(WalletException.class);
+		assertThat(inFlight.join()).isTrue();
+		assertThatThrownBy(() -> mailbox.creditIndependently(1L, AMOUNT)).isInstanceOf(WalletException.class);
+	}
+
+	private static void beginCallerTransaction() {
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+	}
+
+	private static void completeCallerTransaction(int status) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clear();
+		synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+	}
+
+}
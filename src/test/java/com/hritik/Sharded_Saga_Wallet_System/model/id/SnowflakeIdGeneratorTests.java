@@ -0,0 +1,145 @@
+package com.hritik.Sharded_Saga_Wallet_System.model.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTests {
+
+	private static final long NOW = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+
+	@Test
+	void idEncodesTimeSinceTheShardingSphereEpochAndTheWorker() {
+		long id = new SnowflakeIdGenerator(5, () -> NOW).nextId();
+
+		assertThat(SnowflakeIdGenerator.EPOCH_MILLIS).isEqualTo(1477958400000L);
+		assertThat((id >> SnowflakeIdGenerator.TIMESTAMP_SHIFT) + SnowflakeIdGenerator.EPOCH_MILLIS).isEqualTo(NOW);
+		assertThat((id >> 12) & 1023).isEqualTo(5);
+	}
+
+	@Test
+	void idsOfLaterMillisecondsSortAfterEarlierOnes() {
+		long[] clock = {NOW};
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> clock[0]);
+
+		long previous = generator.nextId();
+		for (int i = 0; i < 2_000; i++) {
+			clock[0]++;
+			long next = generator.nextId();
+			assertThat(next).isGreaterThan(previous);
+			previous = next;
+		}
+	}
+
+	@Test
+	void consecutiveMillisecondsStartTheirSequenceInDifferentBuckets() {
+		long[] clock = {NOW};
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, () -> clock[0]);
+
+		Set<Long> buckets = new HashSet<>();
+		for (int i = 0; i < 1024; i++) {
+			clock[0]++;
+			buckets.add(Math.floorMod(generator.nextId(), 1024L));
+		}
+
+		assertThat(buckets).hasSize(1024);
+	}
+
+	@Test
+	void exhaustedSequenceWaitsForTheNextMillisecond() {
+		AtomicInteger calls = new AtomicInteger();
+		// 4096 ids fit in one millisecond; the clock only moves once the generator waits for it
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0,
+				() -> calls.incrementAndGet() <= 4097 ? NOW : NOW + 1);
+
+		Set<Long> ids = new HashSet<>();
+		for (int i = 0; i < 4096; i++) {
+			ids.add(generator.nextId());
+		}
+		long rolledOver = generator.nextId();
+
+		assertThat(ids).hasSize(4096).allMatch(id -> timestampOf(id) == NOW);
+		assertThat(timestampOf(rolledOver)).isEqualTo(NOW + 1);
+		assertThat(ids).doesNotContain(rolledOver);
+	}
+
+	@Test
+	void smallClockRollbackWaitsUntilTheClockCatchesUp() {
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, clock(NOW, NOW - 5, NOW - 2, NOW));
+
+		long first = generator.nextId();
+		long second = generator.nextId();
+
+		assertThat(timestampOf(second)).isEqualTo(NOW);
+		assertThat(second).isNotEqualTo(first);
+	}
+
+	@Test
+	void largeClockRollbackFails() {
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, clock(NOW, NOW - 1_000));
+
+		generator.nextId();
+
+		assertThatThrownBy(generator::nextId)
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("Clock moved backwards");
+	}
+
+	@Test
+	void workerIdMustFitItsBits() {
+		assertThatThrownBy(() -> SnowflakeIdGenerator.forWorker(-1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> SnowflakeIdGenerator.forWorker(1024)).isInstanceOf(IllegalArgumentException.class);
+		assertThat(SnowflakeIdGenerator.forWorker(1023)).isSameAs(SnowflakeIdGenerator.forWorker(1023));
+	}
+
+	@Test
+	void concurrentCallersNeverGetTheSameId() throws Exception {
+		SnowflakeIdGenerator generator = SnowflakeIdGenerator.forWorker(7);
+		Set<Long> ids = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				tasks.add(executor.submit(() -> {
+					for (int i = 0; i < 10_000; i++) {
+						ids.add(generator.nextId());
+					}
+				}));
+			}
+			for (Future<?> task : tasks) {
+				task.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(ids).hasSize(80_000);
+	}
+
+	private static long timestampOf(long id) {
+		return (id >> SnowflakeIdGenerator.TIMESTAMP_SHIFT) + SnowflakeIdGenerator.EPOCH_MILLIS;
+	}
+
+	/**
+	 * Returns the given readings in order, then keeps returning the last one.
+	 */
+	private static LongSupplier clock(long... readings) {
+		AtomicInteger next = new AtomicInteger();
+		return () -> readings[Math.min(next.getAndIncrement(), readings.length - 1)];
+	}
+
+}
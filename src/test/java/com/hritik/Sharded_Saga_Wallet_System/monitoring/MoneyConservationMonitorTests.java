@@ -0,0 +1,97 @@
+package com.hritik.Sharded_Saga_Wallet_System.monitoring;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.ConservationReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.SagaImbalanceDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ShardBalanceDTO;
+import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MoneyConservationMonitorTests {
+
+	private MoneyConservationMonitor monitor;
+
+	@BeforeEach
+	void setUp() {
+		WalletRepository walletRepository = mock(WalletRepository.class);
+		when(walletRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+			List<Wallet> wallets = new ArrayList<>();
+			for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+				wallets.add(Wallet.builder().id(id).userId(id).build());
+			}
+			return wallets;
+		});
+		ShardResolver shardResolver = mock(ShardResolver.class);
+		when(shardResolver.shardForWallet(any())).thenAnswer(invocation ->
+				invocation.<Wallet>getArgument(0).getId() % 2 == 0 ? "shard0" : "shard1");
+
+		monitor = new MoneyConservationMonitor(walletRepository, shardResolver, 0, 300_000, 100);
+	}
+
+	@Test
+	void finishedTransferLeavesNoDrift() {
+		monitor.recordExternalBalanceChange(1L, new BigDecimal("100.00"));
+		monitor.recordBalanceChange(1L, new BigDecimal("-30.00"), 10L);
+		monitor.recordBalanceChange(2L, new BigDecimal("30.00"), 10L);
+		monitor.onSagaFinished(10L);
+
+		ConservationReportDTO report = monitor.check();
+
+		assertThat(report.getDrift()).isEqualByComparingTo("0");
+		assertThat(report.getExternalNet()).isEqualByComparingTo("100.00");
+		assertThat(report.getInFlightSagas()).isZero();
+		assertThat(report.getShards()).extracting(ShardBalanceDTO::getShard, shard -> shard.getNetChange().toPlainString())
+				.containsExactly(tuple("shard0", "30.00"), tuple("shard1", "70.00"));
+		assertThat(report.getLeakingSagas()).isEmpty();
+	}
+
+	@Test
+	void moneyHeldByARunningSagaIsInFlightNotDrift() {
+		monitor.recordBalanceChange(1L, new BigDecimal("-30.00"), 11L);
+
+		ConservationReportDTO report = monitor.check();
+
+		assertThat(report.getDrift()).isEqualByComparingTo("0");
+		assertThat(report.getInFlightAmount()).isEqualByComparingTo("30.00");
+		assertThat(report.getInFlightSagas()).isEqualTo(1);
+
+		// The credit lands in a later check; the totals carry over between checks
+		monitor.recordBalanceChange(2L, new BigDecimal("30.00"), 11L);
+		report = monitor.check();
+
+		assertThat(report.getDrift()).isEqualByComparingTo("0");
+		assertThat(report.getInFlightAmount()).isEqualByComparingTo("0");
+	}
+
+	@Test
+	void finishedSagaStillHoldingMoneyIsReportedAsDrift() throws InterruptedException {
+		monitor.recordBalanceChange(1L, new BigDecimal("-30.00"), 12L);
+		monitor.recordBalanceChange(2L, new BigDecimal("20.00"), 12L);
+		monitor.onSagaFinished(12L);
+		// Past the (zero) finish grace
+		Thread.sleep(5);
+
+		ConservationReportDTO report = monitor.check();
+
+		assertThat(report.getDrift()).isEqualByComparingTo("-10.00");
+		assertThat(report.getInFlightAmount()).isEqualByComparingTo("0");
+		assertThat(report.getLeakingSagas())
+				.extracting(SagaImbalanceDTO::getSagaInstanceId, saga -> saga.getResidual().toPlainString())
+				.containsExactly(tuple(12L, "10.00"));
+		assertThat(monitor.getLastReport()).isSameAs(report);
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.hritik.Sharded_Saga_Wallet_System.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void grantsBurstThenRejects() {
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(bucket.tryAcquire(0)).isZero();
+		}
+		assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10);
+	}
+
+	@Test
+	void refillsOneTokenPerEmissionInterval() {
+		TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+		assertThat(bucket.tryAcquire(0)).isZero();
+		assertThat(bucket.tryAcquire(SECOND / 20)).isPositive();
+		assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+	}
+
+	@Test
+	void refundReturnsTheToken() {
+		TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+		assertThat(bucket.tryAcquire(0)).isZero();
+		bucket.refund();
+		assertThat(bucket.tryAcquire(0)).isZero();
+		assertThat(bucket.tryAcquire(0)).isPositive();
+	}
+
+	@Test
+	void idleOnceFullyRefilled() {
+		TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+		bucket.tryAcquire(0);
+		bucket.tryAcquire(0);
+		assertThat(bucket.isIdle(SECOND / 10)).isFalse();
+		assertThat(bucket.isIdle(SECOND / 5)).isTrue();
+	}
+
+	@Test
+	void concurrentCallersNeverExceedTheBurst() throws Exception {
+		int burst = 100;
+		int threads = 8;
+		TokenBucket bucket = new TokenBucket(1, burst, 0);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+
+		try {
+			List<Future<Integer>> granted = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				granted.add(executor.submit(() -> {
+					start.await();
+					int count = 0;
+					for (int i = 0; i < 1000; i++) {
+						if (bucket.tryAcquire(0) == 0) {
+							count++;
+						}
+					}
+					return count;
+				}));
+			}
+			start.countDown();
+
+			int total = 0;
+			for (Future<Integer> future : granted) {
+				total += future.get(10, TimeUnit.SECONDS);
+			}
+			assertThat(total).isEqualTo(burst);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.hritik.Sharded_Saga_Wallet_System.ratelimit;
+
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.RateLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransferRateLimiterTests {
+
+	private TransferRateLimiter limiter;
+
+	@BeforeEach
+	void setUp() {
+		limiter = new TransferRateLimiter();
+		ReflectionTestUtils.setField(limiter, "enabled", true);
+		ReflectionTestUtils.setField(limiter, "clientPermitsPerSecond", 0.001);
+		ReflectionTestUtils.setField(limiter, "clientBurst", 3);
+		ReflectionTestUtils.setField(limiter, "walletPermitsPerSecond", 0.001);
+		ReflectionTestUtils.setField(limiter, "walletBurst", 1);
+	}
+
+	@Test
+	void walletRejectionDoesNotChargeTheClient() {
+		limiter.acquire("client", 1L);
+
+		for (int i = 0; i < 5; i++) {
+			assertThatThrownBy(() -> limiter.acquire("client", 1L))
+					.isInstanceOf(RateLimitExceededException.class)
+					.extracting("scope").isEqualTo(TransferRateLimiter.SCOPE_WALLET);
+		}
+
+		// The rejected calls above must have handed their client tokens back
+		limiter.acquire("client", 2L);
+		limiter.acquire("client", 3L);
+		assertThatThrownBy(() -> limiter.acquire("client", 4L))
+				.isInstanceOf(RateLimitExceededException.class)
+				.extracting("scope").isEqualTo(TransferRateLimiter.SCOPE_CLIENT);
+	}
+
+	@Test
+	void clientRejectionDoesNotChargeTheWallet() {
+		limiter.acquire("client", 1L);
+		limiter.acquire("client", 2L);
+		limiter.acquire("client", 3L);
+
+		assertThatThrownBy(() -> limiter.acquire("client", 4L))
+				.extracting("scope").isEqualTo(TransferRateLimiter.SCOPE_CLIENT);
+
+		limiter.acquire("other", 4L);
+		assertThat(limiter.getMetrics().getRejectedByClient()).isEqualTo(1);
+		assertThat(limiter.getMetrics().getAdmitted()).isEqualTo(4);
+	}
+
+}
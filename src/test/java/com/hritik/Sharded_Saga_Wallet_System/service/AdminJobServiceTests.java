@@ -0,0 +1,96 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.AdminJobDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminJobServiceTests {
+
+	private ThreadPoolTaskExecutor executor;
+	private AdminJobService adminJobService;
+
+	@BeforeEach
+	void setUp() {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(2);
+		executor.setMaxPoolSize(2);
+		executor.initialize();
+		adminJobService = new AdminJobService(executor);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void jobRunsOnceWhileInProgress() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger runs = new AtomicInteger();
+
+		AdminJobDTO first = adminJobService.start("job", () -> {
+			runs.incrementAndGet();
+			await(release);
+			return "done";
+		});
+		AdminJobDTO second = adminJobService.start("job", runs::incrementAndGet);
+
+		assertThat(second).isSameAs(first);
+		assertThat(second.getStatus()).isEqualTo(AdminJobService.STATUS_RUNNING);
+
+		release.countDown();
+		awaitFinished("job");
+		assertThat(runs).hasValue(1);
+		assertThat(adminJobService.get("job").getStatus()).isEqualTo(AdminJobService.STATUS_SUCCEEDED);
+		assertThat(adminJobService.get("job").getResult()).isEqualTo("done");
+	}
+
+	@Test
+	void finishedJobCanBeStartedAgain() throws InterruptedException {
+		adminJobService.start("job", () -> "first");
+		awaitFinished("job");
+
+		adminJobService.start("job", () -> "second");
+		awaitFinished("job");
+
+		assertThat(adminJobService.get("job").getResult()).isEqualTo("second");
+	}
+
+	@Test
+	void failureIsRecordedOnTheJob() throws InterruptedException {
+		adminJobService.start("job", () -> {
+			throw new IllegalStateException("boom");
+		});
+		awaitFinished("job");
+
+		AdminJobDTO job = adminJobService.get("job");
+		assertThat(job.getStatus()).isEqualTo(AdminJobService.STATUS_FAILED);
+		assertThat(job.getError()).isEqualTo("boom");
+		assertThat(job.getFinishedAt()).isNotNull();
+	}
+
+	private void awaitFinished(String name) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (AdminJobService.STATUS_RUNNING.equals(adminJobService.get(name).getStatus())) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.BatchTransferItemResultDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.BatchTransferResponseDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.TransferRequestDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.RateLimitExceededException;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.SagaException;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.ratelimit.TransferRateLimiter;
+import com.hritik.Sharded_Saga_Wallet_System.service.MetadataCache.WalletMetadata;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchTransferServiceTests {
+
+	private final AtomicLong ids = new AtomicLong(100);
+
+	private TransferSagaService transferSagaService;
+	private TransferRateLimiter transferRateLimiter;
+	private ThreadPoolTaskExecutor executor;
+	private BatchTransferService batch;
+
+	@BeforeEach
+	void setUp() {
+		transferSagaService = mock(TransferSagaService.class);
+		when(transferSagaService.prepareTransfers(anyList())).thenAnswer(invocation -> {
+			List<TransferSagaService.PreparedTransfer> prepared = new ArrayList<>();
+			for (Object ignored : invocation.<List<Transaction>>getArgument(0)) {
+				long id = ids.incrementAndGet();
+				prepared.add(new TransferSagaService.PreparedTransfer(id, id + 1000));
+			}
+			return prepared;
+		});
+
+		WalletService walletService = mock(WalletService.class);
+		when(walletService.getWalletMetadata(anyCollection())).thenReturn(Map.of(
+				1L, new WalletMetadata(1L, 11L, true),
+				2L, new WalletMetadata(2L, 12L, true),
+				3L, new WalletMetadata(3L, 13L, false)));
+
+		ShardResolver shardResolver = mock(ShardResolver.class);
+		when(shardResolver.shardForKey(anyLong())).thenAnswer(invocation ->
+				invocation.<Long>getArgument(0) % 2 == 0 ? "shard0" : "shard1");
+
+		transferRateLimiter = mock(TransferRateLimiter.class);
+
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(2);
+		executor.initialize();
+
+		batch = new BatchTransferService(transferSagaService, walletService, shardResolver,
+				transferRateLimiter, executor);
+		ReflectionTestUtils.setField(batch, "chunkSize", 1);
+		ReflectionTestUtils.setField(batch, "maxParallelSagas", 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void eachItemGetsItsOwnOutcome() {
+		doThrow(new RateLimitExceededException("wallet", "2", 1))
+				.when(transferRateLimiter).acquire("client", 2L);
+
+		BatchTransferResponseDTO response = batch.executeBatch("client", List.of(
+				transfer(1L, 2L, "10.00"),
+				transfer(1L, 3L, "5.00"),
+				transfer(2L, 1L, "7.00"),
+				transfer(1L, 4L, "1.00")));
+
+		assertThat(response.getTotal()).isEqualTo(4);
+		assertThat(response.getSucceeded()).isEqualTo(1);
+		assertThat(response.getFailed()).isEqualTo(3);
+		assertThat(response.getResults())
+				.extracting(BatchTransferItemResultDTO::getIndex, BatchTransferItemResultDTO::getStatus)
+				.containsExactly(
+						tuple(0, BatchTransferService.STATUS_COMPLETED),
+						tuple(1, BatchTransferService.STATUS_REJECTED),
+						tuple(2, BatchTransferService.STATUS_REJECTED),
+						tuple(3, BatchTransferService.STATUS_REJECTED));
+		assertThat(response.getResults().get(1).getMessage()).contains("not active");
+		assertThat(response.getResults().get(3).getMessage()).contains("not found");
+		// Only the accepted item is written
+		verify(transferSagaService, times(1)).prepareTransfers(anyList());
+	}
+
+	@Test
+	void failedSagaIsRecordedWithoutFailingTheRest() {
+		doThrow(new SagaException("step failed"))
+				.when(transferSagaService).executeTransferSaga(1102L);
+
+		BatchTransferResponseDTO response = batch.executeBatch("client", List.of(
+				transfer(1L, 2L, "10.00"),
+				transfer(2L, 1L, "3.00"),
+				transfer(1L, 2L, "4.00")));
+
+		assertThat(response.getSucceeded()).isEqualTo(2);
+		BatchTransferItemResultDTO failed = response.getResults().stream()
+				.filter(result -> BatchTransferService.STATUS_FAILED.equals(result.getStatus()))
+				.findFirst()
+				.orElseThrow();
+		assertThat(failed.getSagaInstanceId()).isEqualTo(1102L);
+		assertThat(failed.getMessage()).isEqualTo("step failed");
+		verify(transferSagaService).markTransferFailed(1102L, 102L);
+		verify(transferSagaService, never()).markTransferFailed(eq(1101L), any());
+		// One database transaction per chunk
+		verify(transferSagaService, times(3)).prepareTransfers(anyList());
+	}
+
+	@Test
+	void chunkThatCannotBePersistedFailsOnlyItsItems() {
+		when(transferSagaService.prepareTransfers(anyList()))
+				.thenThrow(new IllegalStateException("shard down"))
+				.thenReturn(List.of(new TransferSagaService.PreparedTransfer(500L, 600L)));
+
+		BatchTransferResponseDTO response = batch.executeBatch("client", List.of(
+				transfer(1L, 2L, "10.00"),
+				transfer(2L, 1L, "3.00")));
+
+		assertThat(response.getSucceeded()).isEqualTo(1);
+		assertThat(response.getResults())
+				.extracting(BatchTransferItemResultDTO::getStatus)
+				.containsExactlyInAnyOrder(BatchTransferService.STATUS_FAILED, BatchTransferService.STATUS_COMPLETED);
+		verify(transferSagaService).executeTransferSaga(600L);
+		verify(transferSagaService, times(1)).executeTransferSaga(anyLong());
+	}
+
+	private static TransferRequestDTO transfer(Long from, Long to, String amount) {
+		return TransferRequestDTO.builder()
+				.fromWalletId(from)
+				.toWalletId(to)
+				.amount(new BigDecimal(amount))
+				.build();
+	}
+
+}
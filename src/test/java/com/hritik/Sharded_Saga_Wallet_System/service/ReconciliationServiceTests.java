@@ -0,0 +1,132 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.BalanceMismatchDTO;
+import com.hritik.Sharded_Saga_Wallet_System.dto.ReconciliationReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionType;
+import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletTransactionIndexRepository;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Other shards registered in this JVM are scanned too, so assertions only look at this shard's wallets
+class ReconciliationServiceTests {
+
+	private static final String SHARD = "reconciliation-test";
+	private static final String URL = "jdbc:h2:mem:reconciliation;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+			+ "NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/h2/schema.sql'";
+
+	private final WalletRepository walletRepository = mock(WalletRepository.class);
+	private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+	private final WalletTransactionIndexRepository indexRepository = mock(WalletTransactionIndexRepository.class);
+	private final WalletOwnerResolver walletOwnerResolver = mock(WalletOwnerResolver.class);
+	private final WalletTransactionIndexer walletTransactionIndexer = mock(WalletTransactionIndexer.class);
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL));
+	private ShardDataSource shard;
+	private ThreadPoolTaskExecutor executor;
+	private ReconciliationService reconciliationService;
+
+	@BeforeEach
+	void setUp() {
+		shard = new ShardDataSource();
+		shard.setJdbcUrl(URL);
+		shard.setPoolName(SHARD);
+		executor = new ThreadPoolTaskExecutor();
+		executor.initialize();
+
+		reconciliationService = new ReconciliationService(new DriverManagerDataSource(URL),
+				mock(PlatformTransactionManager.class), executor, mock(AdminJobService.class), walletRepository,
+				transactionRepository, indexRepository, walletOwnerResolver, walletTransactionIndexer,
+				mock(WalletRollupService.class), 500, 0, 100);
+
+		jdbcTemplate.update("DELETE FROM wallet");
+		jdbcTemplate.update("DELETE FROM `transaction`");
+		jdbcTemplate.update("DELETE FROM wallet_daily_rollup");
+		wallet(1L, "50.00");
+		when(walletOwnerResolver.ownerOf(1L)).thenReturn(10L);
+		when(walletRepository.findByIdWithLock(1L, 10L)).thenReturn(Optional.of(
+				Wallet.builder().id(1L).userId(10L).isActive(true).balance(new BigDecimal("50.00")).build()));
+		when(transactionRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@AfterEach
+	void tearDown() {
+		shard.close();
+		executor.shutdown();
+	}
+
+	@Test
+	void openingBalanceGetsItsOwnTransactionId() {
+		// An AUTO_INCREMENT id from before Snowflake ids, equal to the wallet's id
+		transaction(1L, 900L, 901L, "5.00");
+
+		reconciliationService.recordOpeningBalances(LocalDateTime.now().minusDays(1));
+
+		ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+		verify(transactionRepository).save(saved.capture());
+		assertThat(saved.getValue().getId()).isNull();
+		assertThat(saved.getValue().getType()).isEqualTo(TransactionType.OPENING_BALANCE);
+		assertThat(saved.getValue().getFromWalletId()).isEqualTo(Transaction.EXTERNAL_WALLET_ID);
+		assertThat(saved.getValue().getToWalletId()).isEqualTo(1L);
+		assertThat(saved.getValue().getAmount()).isEqualByComparingTo("50.00");
+		verify(walletTransactionIndexer).index(List.of(saved.getValue()));
+	}
+
+	@Test
+	void walletWithAnOpeningBalanceIsLeftAlone() {
+		when(indexRepository.findTransactionIdsByCounterparty(10L, 1L, Transaction.EXTERNAL_WALLET_ID))
+				.thenReturn(List.of(7001L));
+		when(transactionRepository.countByIdInAndType(List.of(7001L), TransactionType.OPENING_BALANCE)).thenReturn(1L);
+
+		reconciliationService.recordOpeningBalances(LocalDateTime.now().minusDays(1));
+
+		verify(transactionRepository, never()).save(any());
+	}
+
+	@Test
+	void walletsAreReportedOnlyWhenTheLedgerDisagrees() {
+		// Neither wallet has rollups, so both are rechecked against their transactions
+		wallet(2L, "10.00");
+		transaction(3001L, Transaction.EXTERNAL_WALLET_ID, 1L, "50.00");
+
+		ReconciliationReportDTO report = reconciliationService.reconcile();
+
+		assertThat(report.getMismatches()).filteredOn(mismatch -> SHARD.equals(mismatch.getShard()))
+				.extracting(BalanceMismatchDTO::getWalletId)
+				.containsExactly(2L);
+	}
+
+	private void wallet(Long id, String balance) {
+		jdbcTemplate.update("INSERT INTO wallet (id, user_id, is_active, balance) VALUES (?, ?, TRUE, ?)",
+				id, id * 10, new BigDecimal(balance));
+	}
+
+	private void transaction(Long id, Long from, Long to, String amount) {
+		jdbcTemplate.update("INSERT INTO `transaction` (id, from_wallet_id, to_wallet_id, amount, status, "
+						+ "transaction_type, created_at, updated_at) VALUES (?, ?, ?, ?, 'SUCCESS', 'TRANSFER', "
+						+ "CURRENT_TIMESTAMP(6), CURRENT_TIMESTAMP(6))",
+				id, from, to, new BigDecimal(amount));
+	}
+
+}
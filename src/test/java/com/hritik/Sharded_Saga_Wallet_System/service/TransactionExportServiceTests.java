@@ -0,0 +1,85 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hritik.Sharded_Saga_Wallet_System.service.MetadataCache.WalletMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionExportServiceTests {
+
+	private static final Long WALLET = 10L;
+	private static final Long OWNER = 100L;
+	private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+	private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+			"jdbc:h2:mem:transaction-export;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;"
+					+ "DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/h2/schema.sql'");
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+	private TransactionExportService exportService;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM wallet_transaction_index");
+		jdbcTemplate.update("DELETE FROM `transaction`");
+
+		WalletService walletService = mock(WalletService.class);
+		when(walletService.getWalletMetadata(WALLET)).thenReturn(new WalletMetadata(WALLET, OWNER, true));
+		// A chunk size of two makes the export page through the index
+		exportService = new TransactionExportService(dataSource, walletService, new ObjectMapper(), 2);
+
+		transaction(1L, WALLET, 20L, 0);
+		transaction(2L, 20L, WALLET, 1);
+		transaction(3L, 30L, 40L, 2);
+		transaction(4L, WALLET, 30L, 3);
+		transaction(5L, 30L, WALLET, 3);
+		transaction(6L, WALLET, 20L, 4);
+	}
+
+	@Test
+	void walletExportWalksTheIndexInOrder() throws IOException {
+		assertThat(exportedIds(null)).containsExactly(1L, 2L, 4L, 5L, 6L);
+	}
+
+	@Test
+	void walletExportHonoursTheDateRange() throws IOException {
+		assertThat(exportedIds(START.plusMinutes(1))).containsExactly(2L, 4L, 5L, 6L);
+	}
+
+	private List<Long> exportedIds(LocalDateTime from) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.export(WALLET, from, null, TransactionExportService.Format.CSV, false, out);
+
+		return Arrays.stream(out.toString(StandardCharsets.UTF_8).split("\n"))
+				.skip(1)
+				.map(line -> Long.parseLong(line.substring(0, line.indexOf(','))))
+				.toList();
+	}
+
+	private void transaction(Long id, Long from, Long to, int minute) {
+		Timestamp createdAt = Timestamp.valueOf(START.plusMinutes(minute));
+		jdbcTemplate.update("INSERT INTO `transaction` (id, from_wallet_id, to_wallet_id, amount, status, "
+						+ "transaction_type, created_at, updated_at) VALUES (?, ?, ?, 10.00, 'SUCCESS', 'TRANSFER', ?, ?)",
+				id, from, to, createdAt, createdAt);
+		if (WALLET.equals(from) || WALLET.equals(to)) {
+			jdbcTemplate.update("INSERT INTO wallet_transaction_index (id, user_id, wallet_id, transaction_id, side, "
+							+ "counterparty_wallet_id, amount, created_at) VALUES (?, ?, ?, ?, ?, ?, 10.00, ?)",
+					id, OWNER, WALLET, id, WALLET.equals(from) ? "DEBIT" : "CREDIT",
+					WALLET.equals(from) ? to : from, createdAt);
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.TransactionPageDTO;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionDirection;
+import com.hritik.Sharded_Saga_Wallet_System.model.WalletTransactionIndex;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletTransactionIndexRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.MetadataCache.WalletMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+	private TransactionRepository transactionRepository;
+	private WalletTransactionIndexRepository indexRepository;
+	private TransactionService transactionService;
+
+	@BeforeEach
+	void setUp() {
+		transactionRepository = mock(TransactionRepository.class);
+		indexRepository = mock(WalletTransactionIndexRepository.class);
+		WalletService walletService = mock(WalletService.class);
+		when(walletService.getWalletMetadata(1L)).thenReturn(new WalletMetadata(1L, 11L, true));
+
+		// Shards answer in no particular order
+		when(transactionRepository.findAllById(anyList())).thenAnswer(invocation -> {
+			List<Transaction> transactions = new ArrayList<>();
+			for (Long id : invocation.<List<Long>>getArgument(0)) {
+				transactions.add(0, Transaction.builder().id(id).build());
+			}
+			return transactions;
+		});
+
+		transactionService = new TransactionService(transactionRepository, indexRepository,
+				mock(WalletTransactionIndexer.class), mock(WalletRollupService.class), walletService);
+	}
+
+	@Test
+	void fullPageHandsOutACursorToTheNextOne() {
+		when(indexRepository.findPage(eq(11L), eq(1L), isNull(), any(), eq(Long.MAX_VALUE),
+				eq(PageRequest.of(0, 3))))
+				.thenReturn(List.of(entry(30L, NOW), entry(20L, NOW), entry(10L, NOW.minusMinutes(1))));
+
+		TransactionPageDTO first = transactionService.getTransactionPage(1L, TransactionDirection.ALL, null, 2);
+
+		assertThat(first.getTransactions()).extracting(Transaction::getId).containsExactly(30L, 20L);
+		assertThat(first.isHasMore()).isTrue();
+		assertThat(first.getNextCursor()).isNotNull();
+
+		when(indexRepository.findPage(eq(11L), eq(1L), eq(TransactionDirection.DEBIT), eq(NOW), eq(20L), any()))
+				.thenReturn(List.of(entry(10L, NOW.minusMinutes(1))));
+
+		TransactionPageDTO second = transactionService.getTransactionPage(
+				1L, TransactionDirection.DEBIT, first.getNextCursor(), 2);
+
+		assertThat(second.getTransactions()).extracting(Transaction::getId).containsExactly(10L);
+		assertThat(second.isHasMore()).isFalse();
+		assertThat(second.getNextCursor()).isNull();
+		verify(indexRepository).findPage(11L, 1L, TransactionDirection.DEBIT, NOW, 20L, PageRequest.of(0, 3));
+	}
+
+	@Test
+	void transactionsMissingFromTheirShardAreSkipped() {
+		when(indexRepository.findPage(eq(11L), eq(1L), isNull(), any(), any(), any()))
+				.thenReturn(List.of(entry(30L, NOW), entry(20L, NOW)));
+		when(transactionRepository.findAllById(anyList())).thenReturn(List.of(Transaction.builder().id(20L).build()));
+
+		TransactionPageDTO page = transactionService.getTransactionPage(1L, TransactionDirection.ALL, null, 5);
+
+		assertThat(page.getTransactions()).extracting(Transaction::getId).containsExactly(20L);
+		assertThat(page.isHasMore()).isFalse();
+	}
+
+	@Test
+	void malformedCursorIsRejected() {
+		assertThatThrownBy(() -> transactionService.getTransactionPage(1L, TransactionDirection.ALL, "not-a-cursor", 5))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Invalid cursor");
+		assertThatThrownBy(() -> transactionService.getTransactionPage(1L, TransactionDirection.ALL, null,
+				TransactionService.MAX_PAGE_SIZE + 1))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static WalletTransactionIndex entry(Long transactionId, LocalDateTime createdAt) {
+		return WalletTransactionIndex.builder()
+				.userId(11L)
+				.walletId(1L)
+				.transactionId(transactionId)
+				.side(TransactionDirection.DEBIT)
+				.createdAt(createdAt)
+				.build();
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hritik.Sharded_Saga_Wallet_System.dto.BatchTransferItemResultDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.RateLimitExceededException;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.SagaException;
+import com.hritik.Sharded_Saga_Wallet_System.ratelimit.TransferRateLimiter;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransferIngestionServiceTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private TransferSagaService transferSagaService;
+	private TransferRateLimiter transferRateLimiter;
+	private ValidatorFactory validatorFactory;
+	private ThreadPoolTaskExecutor executor;
+	private TransferIngestionService ingestion;
+
+	@BeforeEach
+	void setUp() {
+		transferSagaService = mock(TransferSagaService.class);
+		transferRateLimiter = mock(TransferRateLimiter.class);
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(4);
+		executor.initialize();
+
+		ingestion = new TransferIngestionService(transferSagaService, objectMapper,
+				validatorFactory.getValidator(), transferRateLimiter, executor);
+		ReflectionTestUtils.setField(ingestion, "maxInFlight", 4);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+		validatorFactory.close();
+	}
+
+	@Test
+	void everyRecordGetsAResultLine() throws IOException {
+		when(transferSagaService.initiateTransfer(eq(1L), eq(2L), any(), any())).thenReturn(77L);
+		when(transferSagaService.initiateTransfer(eq(2L), eq(1L), any(), any()))
+				.thenThrow(new SagaException("Insufficient balance"));
+		doThrow(new RateLimitExceededException("wallet", "3", 1))
+				.when(transferRateLimiter).acquire("client", 3L);
+
+		List<BatchTransferItemResultDTO> results = ingest(
+				"{\"fromWalletId\":1,\"toWalletId\":2,\"amount\":10.00}",
+				"",
+				"not json",
+				"{\"fromWalletId\":1,\"toWalletId\":2}",
+				"{\"fromWalletId\":2,\"toWalletId\":1,\"amount\":5.00}",
+				"{\"fromWalletId\":3,\"toWalletId\":1,\"amount\":5.00}");
+
+		assertThat(results)
+				.extracting(BatchTransferItemResultDTO::getIndex, BatchTransferItemResultDTO::getStatus,
+						BatchTransferItemResultDTO::getMessage)
+				.containsExactly(
+						tuple(1, BatchTransferService.STATUS_COMPLETED, "Transfer completed successfully"),
+						tuple(3, BatchTransferService.STATUS_REJECTED, "Invalid JSON format or data type mismatch"),
+						tuple(4, BatchTransferService.STATUS_REJECTED, "Amount cannot be null"),
+						tuple(5, BatchTransferService.STATUS_FAILED, "Insufficient balance"),
+						tuple(6, BatchTransferService.STATUS_REJECTED,
+								new RateLimitExceededException("wallet", "3", 1).getMessage()));
+		assertThat(results.get(0).getSagaInstanceId()).isEqualTo(77L);
+	}
+
+	@Test
+	void readerNeverRunsMoreSagasThanAllowed() throws IOException {
+		ReflectionTestUtils.setField(ingestion, "maxInFlight", 2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		when(transferSagaService.initiateTransfer(anyLong(), anyLong(), any(), any())).thenAnswer(invocation -> {
+			peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep(20);
+			running.decrementAndGet();
+			return 1L;
+		});
+
+		String[] lines = new String[10];
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = objectMapper.writeValueAsString(Map.of(
+					"fromWalletId", 1, "toWalletId", 2, "amount", new BigDecimal("1.00")));
+		}
+		List<BatchTransferItemResultDTO> results = ingest(lines);
+
+		assertThat(results).hasSize(10)
+				.allMatch(result -> BatchTransferService.STATUS_COMPLETED.equals(result.getStatus()));
+		assertThat(peak.get()).isLessThanOrEqualTo(2);
+	}
+
+	private List<BatchTransferItemResultDTO> ingest(String... lines) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ingestion.ingest("client",
+				new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)), output);
+
+		List<BatchTransferItemResultDTO> results = new ArrayList<>();
+		for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+			if (!line.isBlank()) {
+				results.add(objectMapper.readValue(line, BatchTransferItemResultDTO.class));
+			}
+		}
+		// Sagas finish in any order
+		results.sort(Comparator.comparingInt(BatchTransferItemResultDTO::getIndex));
+		return results;
+	}
+
+}
@@ -0,0 +1,163 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.TransferResponseDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.SagaException;
+import com.hritik.Sharded_Saga_Wallet_System.model.SagaStatus;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransferNettingServiceTests {
+
+	private final AtomicLong ids = new AtomicLong(100);
+
+	private TransferSagaService transferSagaService;
+	private TransactionService transactionService;
+	private ThreadPoolTaskExecutor executor;
+	private TransferNettingService netting;
+
+	@BeforeEach
+	void setUp() {
+		transferSagaService = mock(TransferSagaService.class);
+		transactionService = mock(TransactionService.class);
+		when(transactionService.createTransaction(anyLong(), anyLong(), any(), any())).thenAnswer(invocation ->
+				Transaction.builder()
+						.id(ids.incrementAndGet())
+						.fromWalletId(invocation.getArgument(0))
+						.toWalletId(invocation.getArgument(1))
+						.amount(invocation.getArgument(2))
+						.build());
+		when(transferSagaService.prepareNettedTransfer(anyLong(), anyLong(), any(), anyList())).thenReturn(7L);
+
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(2);
+		executor.initialize();
+
+		netting = new TransferNettingService(transferSagaService, transactionService, executor);
+		ReflectionTestUtils.setField(netting, "enabled", true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void opposingTransfersSettleTheNetAmountOnce() {
+		CompletableFuture<TransferResponseDTO> forward = netting.submit(1L, 2L, new BigDecimal("100.00"), null);
+		CompletableFuture<TransferResponseDTO> backward = netting.submit(2L, 1L, new BigDecimal("30.00"), null);
+
+		netting.flush();
+
+		assertThat(forward.join().getStatus()).isEqualTo(SagaStatus.COMPLETED.name());
+		assertThat(backward.join().getSagaInstanceId()).isEqualTo(7L);
+		verify(transferSagaService).prepareNettedTransfer(eq(1L), eq(2L), eq(new BigDecimal("70.00")), anyList());
+		verify(transferSagaService).executeTransferSaga(7L);
+	}
+
+	@Test
+	void fullyOffsetTransfersSettleWithoutSaga() {
+		CompletableFuture<TransferResponseDTO> forward = netting.submit(1L, 2L, new BigDecimal("50.00"), null);
+		CompletableFuture<TransferResponseDTO> backward = netting.submit(2L, 1L, new BigDecimal("50.00"), null);
+
+		netting.flush();
+
+		assertThat(forward.join().getStatus()).isEqualTo(SagaStatus.COMPLETED.name());
+		assertThat(backward.join().getStatus()).isEqualTo(SagaStatus.COMPLETED.name());
+		verify(transactionService).settleOffsetTransactions(List.of(101L, 102L));
+		verify(transferSagaService, never()).executeTransferSaga(anyLong());
+	}
+
+	@Test
+	void rejectedSettlementFailsTheWindow() {
+		CompletableFuture<TransferResponseDTO> transfer = netting.submit(1L, 2L, BigDecimal.TEN, null);
+		executor.shutdown();
+
+		netting.flush();
+
+		assertThatThrownBy(transfer::join).hasCauseInstanceOf(SagaException.class);
+		verify(transactionService).updateTransactionsStatus(List.of(101L), TransactionStatus.FAILED);
+	}
+
+	@Test
+	void drainSettlesOnTheCallingThreadAndRefusesNewTransfers() {
+		CompletableFuture<TransferResponseDTO> transfer = netting.submit(1L, 2L, BigDecimal.TEN, null);
+		executor.shutdown();
+
+		netting.drain();
+
+		assertThat(transfer).isCompleted();
+		assertThat(transfer.join().getStatus()).isEqualTo(SagaStatus.COMPLETED.name());
+		assertThatThrownBy(() -> netting.submit(1L, 2L, BigDecimal.TEN, null)).isInstanceOf(SagaException.class);
+		verify(transactionService).updateTransactionStatus(102L, TransactionStatus.FAILED);
+	}
+
+	@Test
+	void noTransferIsLostWhileWindowsClose() throws Exception {
+		int submitters = 4;
+		int perSubmitter = 250;
+		ExecutorService pool = Executors.newFixedThreadPool(submitters + 1);
+		AtomicBoolean submitting = new AtomicBoolean(true);
+
+		try {
+			Future<?> flusher = pool.submit(() -> {
+				while (submitting.get()) {
+					netting.flush();
+				}
+			});
+
+			List<Future<List<CompletableFuture<TransferResponseDTO>>>> batches = new ArrayList<>();
+			for (int s = 0; s < submitters; s++) {
+				long from = s * 2L + 1;
+				batches.add(pool.submit(() -> {
+					List<CompletableFuture<TransferResponseDTO>> results = new ArrayList<>();
+					for (int i = 0; i < perSubmitter; i++) {
+						results.add(netting.submit(from, from + 1, BigDecimal.ONE, null));
+					}
+					return results;
+				}));
+			}
+
+			List<CompletableFuture<TransferResponseDTO>> results = new ArrayList<>();
+			for (Future<List<CompletableFuture<TransferResponseDTO>>> batch : batches) {
+				results.addAll(batch.get(10, TimeUnit.SECONDS));
+			}
+			submitting.set(false);
+			flusher.get(10, TimeUnit.SECONDS);
+			netting.flush();
+
+			CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+			assertThat(results).hasSize(submitters * perSubmitter)
+					.allSatisfy(result -> assertThat(result.join().getStatus()).isEqualTo(SagaStatus.COMPLETED.name()));
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.UserEmailBackfillResponseDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.DuplicateEmailException;
+import com.hritik.Sharded_Saga_Wallet_System.model.User;
+import com.hritik.Sharded_Saga_Wallet_System.model.UserEmailIndex;
+import com.hritik.Sharded_Saga_Wallet_System.repository.UserEmailIndexRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserEmailIndexerTests {
+
+	private static final String EMAIL = "john@example.com";
+
+	private final UserEmailIndexRepository indexRepository = mock(UserEmailIndexRepository.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private UserEmailIndexer indexer;
+
+	@BeforeEach
+	void setUp() {
+		indexer = new UserEmailIndexer(indexRepository, userRepository, mock(PlatformTransactionManager.class));
+	}
+
+	@Test
+	void orphanedClaimIsReleasedWhenTheEmailIsRegisteredAgain() {
+		UserEmailIndex orphan = claim(EMAIL, 9L, LocalDateTime.now().minusHours(1));
+		when(indexRepository.findByEmailHashAndEmail(orphan.getEmailHash(), EMAIL)).thenReturn(Optional.of(orphan));
+		when(userRepository.findById(9L)).thenReturn(Optional.empty());
+
+		indexer.index(user(1L, "John@Example.com"));
+
+		verify(indexRepository).deleteClaim(orphan.getEmailHash(), orphan.getId());
+		ArgumentCaptor<UserEmailIndex> saved = ArgumentCaptor.forClass(UserEmailIndex.class);
+		verify(indexRepository).saveAndFlush(saved.capture());
+		assertThat(saved.getValue().getUserId()).isEqualTo(1L);
+		assertThat(saved.getValue().getEmail()).isEqualTo(EMAIL);
+	}
+
+	@Test
+	void recentClaimIsNotReleasedWhileItsUserMayStillCommit() {
+		UserEmailIndex recent = claim(EMAIL, 9L, LocalDateTime.now());
+		when(indexRepository.findByEmailHashAndEmail(recent.getEmailHash(), EMAIL)).thenReturn(Optional.of(recent));
+
+		assertThatThrownBy(() -> indexer.index(user(1L, EMAIL))).isInstanceOf(DuplicateEmailException.class);
+		verify(userRepository, never()).findById(anyLong());
+		verify(indexRepository, never()).deleteClaim(anyLong(), anyLong());
+	}
+
+	@Test
+	void claimOfALiveUserIsKept() {
+		UserEmailIndex claim = claim(EMAIL, 9L, LocalDateTime.now().minusHours(1));
+		when(indexRepository.findByEmailHashAndEmail(claim.getEmailHash(), EMAIL)).thenReturn(Optional.of(claim));
+		when(userRepository.findById(9L)).thenReturn(Optional.of(user(9L, " JOHN@example.com")));
+
+		assertThatThrownBy(() -> indexer.index(user(1L, EMAIL))).isInstanceOf(DuplicateEmailException.class);
+		verify(indexRepository, never()).deleteClaim(anyLong(), anyLong());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void backfillIndexesUnclaimedUsersAndTakesOverOrphanedClaims() {
+		when(userRepository.findByIdGreaterThan(eq(0L), any(Pageable.class)))
+				.thenReturn(List.of(user(1L, "a@example.com"), user(2L, EMAIL), user(3L, "c@example.com"),
+						user(4L, "a@example.com")));
+		when(userRepository.findByIdGreaterThan(eq(4L), any(Pageable.class))).thenReturn(List.of());
+		UserEmailIndex orphan = claim(EMAIL, 9L, LocalDateTime.now().minusHours(1));
+		UserEmailIndex existing = claim("c@example.com", 3L, LocalDateTime.now().minusHours(1));
+		when(indexRepository.findByEmailHashIn(any())).thenReturn(List.of(orphan, existing));
+		when(userRepository.findById(9L)).thenReturn(Optional.empty());
+
+		UserEmailBackfillResponseDTO result = indexer.backfillAll(100);
+
+		verify(indexRepository).deleteClaim(orphan.getEmailHash(), orphan.getId());
+		ArgumentCaptor<List<UserEmailIndex>> saved = ArgumentCaptor.forClass(List.class);
+		verify(indexRepository).saveAll(saved.capture());
+		assertThat(saved.getValue()).extracting(UserEmailIndex::getUserId).containsExactly(1L, 2L);
+		assertThat(result.getChunks()).isEqualTo(1);
+		assertThat(result.getLastUserId()).isEqualTo(4L);
+		assertThat(result.getIndexed()).isEqualTo(2);
+		// User 4 shares an email with user 1 of the same chunk
+		assertThat(result.getDuplicates()).isEqualTo(1);
+		assertThat(result.getOrphansReleased()).isEqualTo(1);
+	}
+
+	private static UserEmailIndex claim(String email, Long userId, LocalDateTime createdAt) {
+		return UserEmailIndex.builder()
+				.id(userId * 100)
+				.emailHash(UserEmailIndex.hash(email))
+				.email(email)
+				.userId(userId)
+				.createdAt(createdAt)
+				.build();
+	}
+
+	private static User user(Long id, String email) {
+		return new User(id, "user" + id, email, null);
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class UserNameIndexTests {
+
+	private UserNameIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new UserNameIndex(mock(ShardResolver.class), mock(ThreadPoolTaskExecutor.class), 1000, 5000);
+	}
+
+	@Test
+	void matchesAreRankedExactThenPrefixThenWordPrefixThenSubstring() {
+		index.onUserSaved(1L, "Bjohnson");
+		index.onUserSaved(2L, "Mary John");
+		index.onUserSaved(3L, "Johnny");
+		index.onUserSaved(4L, "John");
+		index.onUserSaved(5L, "Jane");
+
+		assertThat(index.search("JOHN", 10)).containsExactly(4L, 3L, 2L, 1L);
+	}
+
+	@Test
+	void shorterNamesAndThenLowerIdsBreakTies() {
+		index.onUserSaved(9L, "johnathan");
+		index.onUserSaved(8L, "johnny");
+		index.onUserSaved(7L, "johnny");
+
+		assertThat(index.search("john", 10)).containsExactly(7L, 8L, 9L);
+		assertThat(index.search("john", 2)).containsExactly(7L, 8L);
+	}
+
+	@Test
+	void renamedUserNoLongerMatchesItsOldName() {
+		index.onUserSaved(1L, "Alice");
+		index.onUserSaved(1L, "Bob Smith");
+
+		assertThat(index.search("alice", 10)).isEmpty();
+		assertThat(index.search("smith", 10)).containsExactly(1L);
+	}
+
+	@Test
+	void trigramsMustAppearInOrder() {
+		index.onUserSaved(1L, "abcxbcd");
+
+		// Both trigrams are indexed for the user, but "abcd" is not a substring
+		assertThat(index.search("abcd", 10)).isEmpty();
+		assertThat(index.search("xyz", 10)).isEmpty();
+	}
+
+	@Test
+	void queriesShorterThanATrigramAreRejected() {
+		assertThatThrownBy(() -> index.search(" ab ", 10)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void searchesRunWhileUsersAreAdded() throws Exception {
+		int users = 2_000;
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int writer = 0; writer < 2; writer++) {
+				int first = writer;
+				tasks.add(executor.submit(() -> {
+					start.await();
+					for (long id = first; id < users; id += 2) {
+						index.onUserSaved(id, "user " + id);
+					}
+					return null;
+				}));
+			}
+			for (int reader = 0; reader < 2; reader++) {
+				tasks.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < 200; i++) {
+						assertThat(index.search("user", users)).doesNotHaveDuplicates();
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> task : tasks) {
+				task.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(index.search("user", users)).hasSize(users);
+	}
+
+}
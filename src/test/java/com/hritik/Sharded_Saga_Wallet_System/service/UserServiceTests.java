@@ -0,0 +1,154 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.UserPageDTO;
+import com.hritik.Sharded_Saga_Wallet_System.model.User;
+import com.hritik.Sharded_Saga_Wallet_System.repository.UserRepository;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ScatterGatherExecutor;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ScatterGatherResults;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTests {
+
+	private final ShardResolver shardResolver = mock(ShardResolver.class);
+	private final ScatterGatherExecutor scatterGatherExecutor = mock(ScatterGatherExecutor.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final UserNameIndex userNameIndex = mock(UserNameIndex.class);
+	private UserService userService;
+
+	@BeforeEach
+	void setUp() {
+		userService = new UserService(userRepository, shardResolver, scatterGatherExecutor,
+				userNameIndex, mock(UserEmailIndexer.class), mock(MetadataCache.class));
+		// User 2 sits in a bucket that has been migrated to shard-b but not yet deleted from shard-a
+		when(shardResolver.shardForKey(anyLong())).thenAnswer(invocation ->
+				invocation.<Long>getArgument(0) == 2L ? "shard-b" : "shard-a");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void rowsOwnedByAnotherShardDoNotShortenThePage() {
+		when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+				.thenReturn(List.of(user(1), user(2), user(3)), List.of(user(5)));
+		whenShardsAnswer(List.of());
+
+		UserPageDTO page = userService.getUsersPage(null, 2);
+
+		assertThat(page.getUsers()).extracting(User::getId).containsExactly(1L, 3L);
+		assertThat(page.isHasMore()).isTrue();
+		assertThat(page.getNextCursor()).isEqualTo("3");
+		// The shard is read again after the last row seen, not the last row kept
+		verify(jdbcTemplate).query(anyString(), any(RowMapper.class), eq(3L), eq(3));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void partialPageOffersNoCursor() {
+		when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+				.thenReturn(List.of(user(11), user(13)));
+		whenShardsAnswer(List.of("shard-b"));
+
+		UserPageDTO page = userService.getUsersPage("10", 2);
+
+		assertThat(page.isPartial()).isTrue();
+		assertThat(page.getUnavailableShards()).containsExactly("shard-b");
+		assertThat(page.getUsers()).extracting(User::getId).containsExactly(11L, 13L);
+		assertThat(page.isHasMore()).isFalse();
+		assertThat(page.getNextCursor()).isNull();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void lastPageHasNoCursor() {
+		when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+				.thenReturn(List.of(user(21)));
+		whenShardsAnswer(List.of());
+
+		UserPageDTO page = userService.getUsersPage("20", 2);
+
+		assertThat(page.getUsers()).extracting(User::getId).containsExactly(21L);
+		assertThat(page.isHasMore()).isFalse();
+		assertThat(page.getNextCursor()).isNull();
+	}
+
+	@Test
+	void rankedSearchEndsAtTheCap() {
+		int cap = UserService.MAX_RANKED_RESULTS;
+		when(userNameIndex.isReady()).thenReturn(true);
+		when(userNameIndex.search("john", cap + 1)).thenReturn(
+				LongStream.rangeClosed(1, cap + 1).boxed().toList());
+		when(userRepository.findAllById(any())).thenAnswer(invocation -> {
+			Iterable<Long> ids = invocation.getArgument(0);
+			return StreamSupport.stream(ids.spliterator(), false).map(UserServiceTests::user).toList();
+		});
+
+		UserPageDTO page = userService.searchUsersByName("john", "r" + (cap - 50), 100);
+
+		assertThat(page.getUsers()).hasSize(50);
+		assertThat(page.isHasMore()).isFalse();
+		assertThat(page.getNextCursor()).isNull();
+	}
+
+	@Test
+	void rankedSearchPagesByOffset() {
+		when(userNameIndex.isReady()).thenReturn(true);
+		when(userNameIndex.search("john", 3)).thenReturn(List.of(7L, 3L, 9L));
+		when(userRepository.findAllById(List.of(7L, 3L))).thenReturn(List.of(user(3), user(7)));
+
+		UserPageDTO page = userService.searchUsersByName("john", null, 2);
+
+		assertThat(page.getUsers()).extracting(User::getId).containsExactly(7L, 3L);
+		assertThat(page.isHasMore()).isTrue();
+		assertThat(page.getNextCursor()).isEqualTo("r2");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void scanCursorKeepsScanningOnceTheIndexIsReady() {
+		when(userNameIndex.isReady()).thenReturn(true);
+		when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+				.thenReturn(List.of(user(41)));
+		whenShardsAnswer(List.of());
+
+		UserPageDTO page = userService.searchUsersByName("user", "40", 2);
+
+		assertThat(page.getUsers()).extracting(User::getId).containsExactly(41L);
+		verify(userNameIndex, never()).search(anyString(), anyInt());
+		verify(jdbcTemplate).query(anyString(), any(RowMapper.class), eq(40L), eq("%user%"), eq(3));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void whenShardsAnswer(List<String> unavailableShards) {
+		when(scatterGatherExecutor.query(any(ScatterGatherExecutor.ShardQuery.class), any(Comparator.class), anyInt()))
+				.thenAnswer(invocation -> {
+					ScatterGatherExecutor.ShardQuery<User> query = invocation.getArgument(0);
+					return ScatterGatherResults.of(List.of(query.query("shard-a", jdbcTemplate)),
+							Comparator.comparing(User::getId), unavailableShards);
+				});
+	}
+
+	private static User user(long id) {
+		return new User(id, "user" + id, "user" + id + "@example.com", null);
+	}
+
+}
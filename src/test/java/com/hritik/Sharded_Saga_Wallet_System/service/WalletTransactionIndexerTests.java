@@ -0,0 +1,71 @@
+package com.hritik.Sharded_Saga_Wallet_System.service;
+
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionDirection;
+import com.hritik.Sharded_Saga_Wallet_System.model.WalletTransactionIndex;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletTransactionIndexRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WalletTransactionIndexerTests {
+
+	private final WalletTransactionIndexRepository indexRepository = mock(WalletTransactionIndexRepository.class);
+	private final WalletOwnerResolver walletOwnerResolver = mock(WalletOwnerResolver.class);
+	private WalletTransactionIndexer indexer;
+
+	@BeforeEach
+	void setUp() {
+		indexer = new WalletTransactionIndexer(indexRepository, mock(TransactionRepository.class), walletOwnerResolver);
+		when(walletOwnerResolver.ownerOf(10L)).thenReturn(100L);
+		when(walletOwnerResolver.ownerOf(20L)).thenReturn(200L);
+	}
+
+	@Test
+	void entriesAreShardedByTheirWalletsOwner() {
+		indexer.index(List.of(transaction(1L, 10L, 20L)));
+
+		List<WalletTransactionIndex> entries = savedEntries();
+		assertThat(entries).extracting(WalletTransactionIndex::getWalletId, WalletTransactionIndex::getUserId,
+						WalletTransactionIndex::getSide)
+				.containsExactly(
+						tuple(10L, 100L, TransactionDirection.DEBIT),
+						tuple(20L, 200L, TransactionDirection.CREDIT));
+	}
+
+	@Test
+	void externalSideIsNotIndexed() {
+		indexer.index(List.of(transaction(1L, Transaction.EXTERNAL_WALLET_ID, 20L)));
+
+		assertThat(savedEntries()).extracting(WalletTransactionIndex::getWalletId).containsExactly(20L);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<WalletTransactionIndex> savedEntries() {
+		ArgumentCaptor<List<WalletTransactionIndex>> captor = ArgumentCaptor.forClass(List.class);
+		verify(indexRepository).saveAll(captor.capture());
+		return captor.getValue();
+	}
+
+	private static Transaction transaction(Long id, Long from, Long to) {
+		Transaction transaction = new Transaction();
+		transaction.setId(id);
+		transaction.setFromWalletId(from);
+		transaction.setToWalletId(to);
+		transaction.setAmount(new BigDecimal("10.00"));
+		transaction.setCreatedAt(LocalDateTime.now());
+		return transaction;
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.hritik.Sharded_Saga_Wallet_System.service.saga;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.SagaStatusDTO;
+import com.hritik.Sharded_Saga_Wallet_System.model.SagaInstance;
+import com.hritik.Sharded_Saga_Wallet_System.model.SagaStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SagaStatusNotifierTests {
+
+	private ThreadPoolTaskExecutor executor;
+	private SagaStatusNotifier notifier;
+
+	@BeforeEach
+	void setUp() {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(1);
+		executor.setMaxPoolSize(1);
+		executor.initialize();
+		notifier = new SagaStatusNotifier(executor);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void longPollWaitsForCompensationAfterFailure() throws InterruptedException {
+		DeferredResult<SagaStatusDTO> result = notifier.awaitTerminalStatus(1L, 10_000,
+				() -> status(1L, SagaStatus.RUNNING));
+		AtomicReference<Object> delivered = new AtomicReference<>();
+		CountDownLatch completed = new CountDownLatch(1);
+		result.setResultHandler(value -> {
+			delivered.set(value);
+			completed.countDown();
+		});
+
+		notifier.publish(instance(1L, SagaStatus.FAILED));
+		notifier.publish(instance(1L, SagaStatus.COMPENSATING));
+		notifier.publish(instance(1L, SagaStatus.COMPENSATED));
+
+		assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(((SagaStatusDTO) delivered.get()).getStatus()).isEqualTo("COMPENSATED");
+		assertThat(((SagaStatusDTO) delivered.get()).isTerminal()).isTrue();
+	}
+
+	@Test
+	void longPollCompletesWhenCompensationFails() throws InterruptedException {
+		DeferredResult<SagaStatusDTO> result = notifier.awaitTerminalStatus(4L, 10_000,
+				() -> status(4L, SagaStatus.COMPENSATING));
+		AtomicReference<Object> delivered = new AtomicReference<>();
+		CountDownLatch completed = new CountDownLatch(1);
+		result.setResultHandler(value -> {
+			delivered.set(value);
+			completed.countDown();
+		});
+
+		notifier.publish(instance(4L, SagaStatus.COMPENSATION_FAILED));
+
+		assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(((SagaStatusDTO) delivered.get()).getStatus()).isEqualTo("COMPENSATION_FAILED");
+		assertThat(((SagaStatusDTO) delivered.get()).isTerminal()).isTrue();
+	}
+
+	@Test
+	void publishDoesNotWaitForBusySubscribers() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		executor.execute(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		DeferredResult<SagaStatusDTO> result = notifier.awaitTerminalStatus(2L, 10_000,
+				() -> status(2L, SagaStatus.RUNNING));
+		CountDownLatch completed = new CountDownLatch(1);
+		result.setResultHandler(value -> completed.countDown());
+
+		long start = System.nanoTime();
+		notifier.publish(instance(2L, SagaStatus.COMPLETED));
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+		assertThat(result.hasResult()).isFalse();
+
+		release.countDown();
+		assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void intermediateTransitionsDoNotCompleteTheLongPoll() throws InterruptedException {
+		DeferredResult<SagaStatusDTO> result = notifier.awaitTerminalStatus(3L, 10_000,
+				() -> status(3L, SagaStatus.STARTED));
+		AtomicReference<Object> delivered = new AtomicReference<>();
+		CountDownLatch completed = new CountDownLatch(1);
+		result.setResultHandler(value -> {
+			delivered.set(value);
+			completed.countDown();
+		});
+
+		notifier.publish(instance(3L, SagaStatus.RUNNING));
+		notifier.publish(instance(3L, SagaStatus.COMPLETED));
+
+		assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(((SagaStatusDTO) delivered.get()).getStatus()).isEqualTo("COMPLETED");
+	}
+
+	private static SagaInstance instance(Long id, SagaStatus status) {
+		return SagaInstance.builder().id(id).status(status).build();
+	}
+
+	private static SagaStatusDTO status(Long id, SagaStatus status) {
+		return SagaStatusNotifier.toStatus(instance(id, status));
+	}
+
+}
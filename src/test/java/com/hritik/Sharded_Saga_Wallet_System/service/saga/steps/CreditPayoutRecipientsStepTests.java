@@ -0,0 +1,149 @@
+package com.hritik.Sharded_Saga_Wallet_System.service.saga.steps;
+
+import com.hritik.Sharded_Saga_Wallet_System.execution.WalletMailboxExecutor;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.monitoring.MoneyConservationMonitor;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletOwnerResolver;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletRollupService;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaContext;
+import com.hritik.Sharded_Saga_Wallet_System.sharding.ShardResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CreditPayoutRecipientsStepTests {
+
+	private static final Long SOURCE = 1L;
+	private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+	private final WalletRepository walletRepository = mock(WalletRepository.class);
+	private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+	private final WalletOwnerResolver walletOwnerResolver = mock(WalletOwnerResolver.class);
+	private final ShardResolver shardResolver = mock(ShardResolver.class);
+	private final Map<Long, Transaction> transactions = new LinkedHashMap<>();
+	private ThreadPoolTaskExecutor executor;
+	private CreditPayoutRecipientsStep step;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(2);
+		executor.initialize();
+		step = new CreditPayoutRecipientsStep(walletRepository, transactionRepository, walletOwnerResolver,
+				mock(WalletMailboxExecutor.class), mock(WalletRollupService.class), shardResolver,
+				mock(PlatformTransactionManager.class), executor, mock(MoneyConservationMonitor.class));
+
+		when(walletOwnerResolver.ownerOf(anyLong())).thenAnswer(invocation -> (Long) invocation.getArgument(0) * 10);
+		when(shardResolver.shardForWallet(any())).thenReturn("ds0");
+		when(walletRepository.findAllById(any())).thenAnswer(invocation -> {
+			List<Wallet> wallets = new ArrayList<>();
+			for (Long walletId : (Collection<Long>) invocation.getArgument(0)) {
+				wallets.add(Wallet.builder().id(walletId).userId(walletId * 10).isActive(true).build());
+			}
+			return wallets;
+		});
+		when(walletRepository.findByIdWithLock(SOURCE, SOURCE * 10)).thenReturn(Optional.of(
+				Wallet.builder().id(SOURCE).userId(SOURCE * 10).isActive(true).balance(new BigDecimal("50.00")).build()));
+		when(transactionRepository.findAllByIdForUpdate(any())).thenAnswer(invocation -> {
+			List<Transaction> found = new ArrayList<>();
+			for (Long id : (Collection<Long>) invocation.getArgument(0)) {
+				if (transactions.containsKey(id)) {
+					found.add(transactions.get(id));
+				}
+			}
+			return found;
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void eachCreditIsRecordedOnTheRecipientsTransaction() {
+		transaction(101L, 20L, TransactionStatus.PENDING);
+		transaction(102L, 30L, TransactionStatus.PENDING);
+		when(walletRepository.atomicCredit(20L, 200L, AMOUNT)).thenReturn(1);
+		when(walletRepository.atomicCredit(30L, 300L, AMOUNT)).thenReturn(0);
+		SagaContext context = context();
+
+		assertThat(step.execute(context)).isTrue();
+
+		assertThat(transactions.get(101L).getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+		assertThat(transactions.get(102L).getStatus()).isEqualTo(TransactionStatus.FAILED);
+		verify(walletRepository).updateBalanceByWalletId(SOURCE, SOURCE * 10, new BigDecimal("60.00"));
+		assertThat(context.getLongList("creditedTransactionIds")).containsExactly(101L);
+		assertThat(context.getLongList("failedTransactionIds")).containsExactly(102L);
+		assertThat(context.getBigDecimal("refundedAmount")).isEqualByComparingTo(AMOUNT);
+	}
+
+	@Test
+	void settledRecipientsAreNotCreditedOrRefundedAgain() {
+		transaction(101L, 20L, TransactionStatus.SUCCESS);
+		transaction(102L, 30L, TransactionStatus.FAILED);
+
+		assertThat(step.execute(context())).isTrue();
+
+		verify(walletRepository, never()).atomicCredit(any(), any(), any());
+		verify(walletRepository, never()).updateBalanceByWalletId(any(), any(), any());
+	}
+
+	@Test
+	void compensationTakesBackOnlyRecordedCredits() {
+		transaction(101L, 20L, TransactionStatus.SUCCESS);
+		transaction(102L, 30L, TransactionStatus.PENDING);
+		when(walletRepository.atomicDebit(20L, 200L, AMOUNT)).thenReturn(1);
+
+		assertThat(step.compensate(context())).isTrue();
+
+		verify(walletRepository).atomicDebit(20L, 200L, AMOUNT);
+		verify(walletRepository, never()).atomicDebit(eq(30L), any(), any());
+		assertThat(transactions.get(101L).getStatus()).isEqualTo(TransactionStatus.CANCELLED);
+		assertThat(transactions.get(102L).getStatus()).isEqualTo(TransactionStatus.PENDING);
+	}
+
+	private void transaction(Long id, Long toWalletId, TransactionStatus status) {
+		transactions.put(id, Transaction.builder().id(id).fromWalletId(SOURCE).toWalletId(toWalletId)
+				.amount(AMOUNT).status(status).build());
+	}
+
+	private SagaContext context() {
+		List<Map<String, Object>> recipients = new ArrayList<>();
+		transactions.values().forEach(transaction -> recipients.add(Map.of(
+				"transactionId", transaction.getId(),
+				"toWalletId", transaction.getToWalletId(),
+				"amount", transaction.getAmount())));
+		Map<String, Object> data = new HashMap<>();
+		data.put("fromWalletId", SOURCE);
+		data.put("amount", AMOUNT.multiply(BigDecimal.valueOf(recipients.size())));
+		data.put("recipients", recipients);
+		return SagaContext.builder().data(data).sagaInstanceId(7L).build();
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.hritik.Sharded_Saga_Wallet_System.service.saga.steps;
+
+import com.hritik.Sharded_Saga_Wallet_System.execution.WalletMailboxExecutor;
+import com.hritik.Sharded_Saga_Wallet_System.model.Transaction;
+import com.hritik.Sharded_Saga_Wallet_System.model.TransactionStatus;
+import com.hritik.Sharded_Saga_Wallet_System.model.Wallet;
+import com.hritik.Sharded_Saga_Wallet_System.monitoring.MoneyConservationMonitor;
+import com.hritik.Sharded_Saga_Wallet_System.repository.TransactionRepository;
+import com.hritik.Sharded_Saga_Wallet_System.repository.WalletRepository;
+import com.hritik.Sharded_Saga_Wallet_System.service.WalletOwnerResolver;
+import com.hritik.Sharded_Saga_Wallet_System.service.saga.SagaContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DebitSourceWalletStepTests {
+
+	private static final Long SOURCE = 1L;
+	private static final Long OWNER = 10L;
+
+	private final WalletRepository walletRepository = mock(WalletRepository.class);
+	private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+	private DebitSourceWalletStep step;
+
+	@BeforeEach
+	void setUp() {
+		WalletOwnerResolver walletOwnerResolver = mock(WalletOwnerResolver.class);
+		step = new DebitSourceWalletStep(walletRepository, transactionRepository, walletOwnerResolver,
+				mock(WalletMailboxExecutor.class), mock(MoneyConservationMonitor.class));
+		when(walletOwnerResolver.ownerOf(SOURCE)).thenReturn(OWNER);
+		when(walletRepository.findByIdWithLock(SOURCE, OWNER)).thenReturn(Optional.of(
+				Wallet.builder().id(SOURCE).userId(OWNER).isActive(true).balance(new BigDecimal("100.00")).build()));
+	}
+
+	@Test
+	void payoutCompensationReturnsOnlyTheShareStillHeld() {
+		when(transactionRepository.findAllByIdForUpdate(any())).thenReturn(List.of(
+				transaction(101L, "10.00", TransactionStatus.SUCCESS),
+				transaction(102L, "20.00", TransactionStatus.FAILED),
+				transaction(103L, "30.00", TransactionStatus.PENDING),
+				transaction(104L, "40.00", TransactionStatus.CANCELLED)));
+
+		assertThat(step.compensate(payoutContext(101L, 102L, 103L, 104L))).isTrue();
+
+		verify(walletRepository).updateBalanceByWalletId(SOURCE, OWNER, new BigDecimal("170.00"));
+	}
+
+	@Test
+	void settledPayoutLeavesTheSourceAlone() {
+		when(transactionRepository.findAllByIdForUpdate(any())).thenReturn(List.of(
+				transaction(101L, "10.00", TransactionStatus.SUCCESS),
+				transaction(102L, "20.00", TransactionStatus.FAILED)));
+
+		assertThat(step.compensate(payoutContext(101L, 102L))).isTrue();
+
+		verify(walletRepository, never()).updateBalanceByWalletId(any(), any(), any());
+	}
+
+	private static Transaction transaction(Long id, String amount, TransactionStatus status) {
+		return Transaction.builder().id(id).fromWalletId(SOURCE).toWalletId(id)
+				.amount(new BigDecimal(amount)).status(status).build();
+	}
+
+	private static SagaContext payoutContext(Long... transactionIds) {
+		Map<String, Object> data = new HashMap<>();
+		data.put("fromWalletId", SOURCE);
+		data.put("amount", new BigDecimal("100.00"));
+		data.put("recipients", Arrays.stream(transactionIds)
+				.map(id -> Map.<String, Object>of("transactionId", id))
+				.toList());
+		return SagaContext.builder().data(data).build();
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Relies on the default even/odd layout in bucket-layout.properties; each test uses its own buckets
+class BucketLayoutRegistryTests {
+
+	@Test
+	void routingAFencedBucketWaitsForTheFenceToLift() throws Exception {
+		BucketLayoutRegistry.fence(100, 5000);
+		try {
+			CompletableFuture<String> routed = CompletableFuture.supplyAsync(() -> BucketLayoutRegistry.route(100));
+			Thread.sleep(100);
+			assertThat(routed).isNotDone();
+
+			BucketLayoutRegistry.unfence(100);
+			assertThat(routed.get(5, TimeUnit.SECONDS)).isEqualTo("shardwallet1");
+		} finally {
+			BucketLayoutRegistry.unfence(100);
+		}
+	}
+
+	@Test
+	void otherBucketsAreNotHeldUpByAFence() {
+		BucketLayoutRegistry.fence(102, 5000);
+		try {
+			assertThat(BucketLayoutRegistry.route(103)).isEqualTo("shardwallet2");
+		} finally {
+			BucketLayoutRegistry.unfence(102);
+		}
+	}
+
+	@Test
+	void routingFailsWhenTheFenceOutlastsTheWait() {
+		BucketLayoutRegistry.fence(104, 50);
+		try {
+			assertThatThrownBy(() -> BucketLayoutRegistry.route(104))
+					.isInstanceOf(IllegalStateException.class)
+					.hasMessageContaining("fenced");
+		} finally {
+			BucketLayoutRegistry.unfence(104);
+		}
+	}
+
+	@Test
+	void transactionsCountAgainstTheirBucketsUntilTheyComplete() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			BucketLayoutRegistry.route(106);
+			BucketLayoutRegistry.route(106 + 1024);
+			BucketLayoutRegistry.route(108);
+
+			assertThat(BucketLayoutRegistry.openTransactions(106)).isEqualTo(1);
+			assertThat(BucketLayoutRegistry.openTransactions(108)).isEqualTo(1);
+			assertThat(BucketLayoutRegistry.openTransactions(110)).isZero();
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertThat(BucketLayoutRegistry.openTransactions(106)).isZero();
+		assertThat(BucketLayoutRegistry.openTransactions(108)).isZero();
+	}
+
+	@Test
+	void statementsOutsideATransactionAreNotCounted() {
+		BucketLayoutRegistry.route(112);
+
+		assertThat(BucketLayoutRegistry.openTransactions(112)).isZero();
+	}
+
+}
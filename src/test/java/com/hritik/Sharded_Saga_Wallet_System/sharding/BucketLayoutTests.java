@@ -0,0 +1,76 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BucketLayoutTests {
+
+	@Test
+	void parsesRangesWithSteps() {
+		BucketLayout layout = BucketLayout.parse(properties("""
+				bucket-count=8
+				a=0-6/2
+				b=1,3-7/2
+				"""));
+
+		assertThat(layout.getBucketCount()).isEqualTo(8);
+		assertThat(layout.bucketsByDataSource().get("a")).containsExactly(0, 2, 4, 6);
+		assertThat(layout.bucketsByDataSource().get("b")).containsExactly(1, 3, 5, 7);
+		assertThat(layout.dataSourceOf(10)).isEqualTo("a");
+		assertThat(layout.dataSourceOf(-1)).isEqualTo("b");
+	}
+
+	@Test
+	void rejectsBucketsAssignedTwiceOrNotAtAll() {
+		assertThatThrownBy(() -> BucketLayout.parse(properties("bucket-count=4\na=0-3\nb=3\n")))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("Bucket 3 is assigned to both");
+		assertThatThrownBy(() -> BucketLayout.parse(properties("bucket-count=4\na=0-2\n")))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("Bucket 3 is not assigned");
+		assertThatThrownBy(() -> BucketLayout.parse(properties("bucket-count=4\na=0-4\n")))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("Invalid bucket range");
+	}
+
+	@Test
+	void reassignedLayoutSurvivesARoundTripThroughItsFileFormat() {
+		BucketLayout layout = BucketLayout.parse(properties("bucket-count=16\na=0-14/2\nb=1-15/2\n"))
+				.withBucket(4, "b")
+				.withBucket(7, "c");
+
+		BucketLayout reloaded = BucketLayout.parse(properties(layout.toProperties()));
+
+		assertThat(reloaded.bucketsByDataSource()).isEqualTo(layout.bucketsByDataSource());
+		assertThat(reloaded.dataSourceOfBucket(4)).isEqualTo("b");
+		assertThat(reloaded.dataSourceOfBucket(7)).isEqualTo("c");
+		assertThat(reloaded.bucketsByDataSource().get("c")).isEqualTo(List.of(7));
+	}
+
+	@Test
+	void withBucketLeavesTheOriginalUntouched() {
+		BucketLayout layout = BucketLayout.parse(properties("bucket-count=2\na=0\nb=1\n"));
+
+		layout.withBucket(0, "b");
+
+		assertThat(layout.dataSourceOfBucket(0)).isEqualTo("a");
+	}
+
+	private static Properties properties(String text) {
+		Properties properties = new Properties();
+		try {
+			properties.load(new StringReader(text));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return properties;
+	}
+
+}
@@ -0,0 +1,192 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import com.hritik.Sharded_Saga_Wallet_System.dto.BucketMigrationReportDTO;
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.WalletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Starts on the default classpath layout, which is not persistent; cutover tests switch to a copy in a file
+class BucketMigrationServiceTests {
+
+	private static final String TARGET = "bucket-migration-test";
+	// Even, so it starts on shardwallet1
+	private static final int BUCKET = 200;
+
+	@TempDir
+	Path tempDir;
+
+	private final ShardDataSource target = mock(ShardDataSource.class);
+	private final BucketMigrationService migrationService =
+			new BucketMigrationService(500, 0, 1, 0, 100, 100, true);
+
+	@BeforeEach
+	void setUp() {
+		ShardDataSourceRegistry.register(TARGET, target);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ShardDataSourceRegistry.unregister(TARGET, target);
+		BucketLayoutRegistry.reload(BucketLayoutRegistry.DEFAULT_LAYOUT_RESOURCE);
+	}
+
+	@Test
+	void rejectsBucketsOutsideTheLayout() {
+		assertThatThrownBy(() -> migrationService.migrate(1024, TARGET))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> migrationService.migrate(-1, TARGET))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rejectsUnknownTargets() {
+		assertThatThrownBy(() -> migrationService.migrate(10, "nowhere"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Unknown target");
+	}
+
+	@Test
+	void refusesToMigrateWithoutAWritableLayout() {
+		assertThatThrownBy(() -> migrationService.migrate(10, TARGET))
+				.isInstanceOf(WalletException.class)
+				.hasMessageContaining("file:");
+	}
+
+	@Test
+	void refusesToMigrateUnlessSingleInstance() throws IOException {
+		usePersistentLayout();
+		BucketMigrationService shared = new BucketMigrationService(500, 0, 1, 0, 100, 100, false);
+
+		assertThatThrownBy(() -> shared.migrate(BUCKET, TARGET))
+				.isInstanceOf(WalletException.class)
+				.hasMessageContaining("single-instance");
+	}
+
+	@Test
+	void verifiesUnderTheFenceBeforeFlippingRouting() throws IOException {
+		Path layoutFile = usePersistentLayout();
+		BucketMigrationService service = spy(migrationService);
+		BucketMigrationService.Copier copier = mock(BucketMigrationService.Copier.class);
+		doReturn(copier).when(service).copier(anyString(), anyString(), anyInt(), anyInt());
+
+		doAnswer(invocation -> {
+			assertThat(BucketLayoutRegistry.fencedBuckets()).contains(BUCKET);
+			return List.of();
+		}).when(copier).verify();
+		doAnswer(invocation -> {
+			assertThat(BucketLayoutRegistry.fencedBuckets()).contains(BUCKET);
+			assertThat(BucketLayoutRegistry.current().dataSourceOfBucket(BUCKET)).isEqualTo("shardwallet1");
+			return null;
+		}).when(copier).publish();
+		doAnswer(invocation -> {
+			assertThat(BucketLayoutRegistry.fencedBuckets()).doesNotContain(BUCKET);
+			return 7L;
+		}).when(copier).deleteSourceRows();
+
+		BucketMigrationReportDTO report = service.migrate(BUCKET, TARGET);
+
+		InOrder order = inOrder(copier);
+		order.verify(copier).prepareStaging();
+		order.verify(copier).drainSource();
+		order.verify(copier).verify();
+		order.verify(copier).publish();
+		order.verify(copier).deleteSourceRows();
+		order.verify(copier).dropStaging();
+		verify(copier, never()).unpublish();
+
+		assertThat(report.isVerified()).isTrue();
+		assertThat(report.getSourceRowsDeleted()).isEqualTo(7);
+		assertThat(BucketLayoutRegistry.current().dataSourceOfBucket(BUCKET)).isEqualTo(TARGET);
+		assertThat(BucketLayout.load("file:" + layoutFile).dataSourceOfBucket(BUCKET)).isEqualTo(TARGET);
+		assertThat(BucketLayoutRegistry.fencedBuckets()).isEmpty();
+	}
+
+	@Test
+	void mismatchKeepsTheBucketOnTheSource() throws IOException {
+		usePersistentLayout();
+		BucketMigrationService service = spy(migrationService);
+		BucketMigrationService.Copier copier = mock(BucketMigrationService.Copier.class);
+		doReturn(copier).when(service).copier(anyString(), anyString(), anyInt(), anyInt());
+		when(copier.verify()).thenReturn(List.of("wallet"));
+
+		assertThatThrownBy(() -> service.migrate(BUCKET, TARGET))
+				.isInstanceOf(WalletException.class)
+				.hasMessageContaining("wallet");
+
+		verify(copier, never()).publish();
+		verify(copier, never()).deleteSourceRows();
+		verify(copier).dropStaging();
+		assertThat(BucketLayoutRegistry.current().dataSourceOfBucket(BUCKET)).isEqualTo("shardwallet1");
+		assertThat(BucketLayoutRegistry.fencedBuckets()).isEmpty();
+	}
+
+	@Test
+	void tailsChangesAfterTheFullCopy() throws IOException {
+		usePersistentLayout();
+		BucketMigrationService service = spy(migrationService);
+		BucketMigrationService.Copier copier = mock(BucketMigrationService.Copier.class);
+		doReturn(copier).when(service).copier(anyString(), anyString(), anyInt(), anyInt());
+		when(copier.verify()).thenReturn(List.of());
+		when(copier.sourceNow()).thenReturn(new Timestamp(System.currentTimeMillis()));
+
+		service.migrate(BUCKET, TARGET);
+
+		InOrder order = inOrder(copier);
+		order.verify(copier, atLeastOnce()).copy(any(), isNull());
+		order.verify(copier, atLeastOnce()).copy(any(), notNull());
+		order.verify(copier).drainSource();
+	}
+
+	@Test
+	void tablesWithDeletesAreCopiedAgainInFullUnderTheFence() throws IOException {
+		usePersistentLayout();
+		BucketMigrationService service = spy(migrationService);
+		BucketMigrationService.Copier copier = mock(BucketMigrationService.Copier.class);
+		doReturn(copier).when(service).copier(anyString(), anyString(), anyInt(), anyInt());
+		when(copier.verify()).thenReturn(List.of());
+
+		service.migrate(BUCKET, TARGET);
+
+		InOrder order = inOrder(copier);
+		order.verify(copier).drainSource();
+		order.verify(copier).recopy(argThat(table -> table.name().equals("user_email_index")));
+		order.verify(copier).verify();
+		verify(copier).recopy(argThat(table -> table.name().equals("wallet_mailbox_receipt")));
+		verify(copier, never()).recopy(argThat(table -> table.name().equals("wallet")));
+	}
+
+	private Path usePersistentLayout() throws IOException {
+		Path file = tempDir.resolve("bucket-layout.properties");
+		Files.writeString(file, BucketLayout.load(BucketLayoutRegistry.DEFAULT_LAYOUT_RESOURCE).toProperties());
+		BucketLayoutRegistry.reload("file:" + file);
+		return file;
+	}
+
+}
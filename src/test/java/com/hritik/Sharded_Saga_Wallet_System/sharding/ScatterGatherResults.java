@@ -0,0 +1,20 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Builds {@link ScatterGatherExecutor.ScatterGatherResult}s for tests of code that runs
+ * shard queries through a mocked executor.
+ */
+public final class ScatterGatherResults {
+
+	private ScatterGatherResults() {
+	}
+
+	public static <T> ScatterGatherExecutor.ScatterGatherResult<T> of(List<List<T>> shardResults,
+			Comparator<? super T> order, List<String> unavailableShards) {
+		return new ScatterGatherExecutor.ScatterGatherResult<>(shardResults, order, unavailableShards);
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import com.hritik.Sharded_Saga_Wallet_System.exceptions.ShardUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardGuardTests {
+
+	private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+
+	@AfterEach
+	void tearDown() {
+		ShardGuard.configure(new ShardGuard.Settings(8, 100, 5, 10_000, 5_000));
+	}
+
+	@Test
+	void bulkheadRejectsBeyondMaxConcurrent() {
+		ShardGuard guard = guard(1, 2, 10_000);
+
+		ShardGuard.Lease lease = guard.acquire();
+
+		assertThatThrownBy(guard::acquire).isInstanceOf(ShardUnavailableException.class);
+		assertThat(guard.getBulkheadRejections()).isEqualTo(1);
+
+		guard.release(lease);
+		guard.release(guard.acquire());
+		assertThat(guard.getInUse()).isZero();
+	}
+
+	@Test
+	void priorityWorkSkipsAFullBulkhead() {
+		ShardGuard guard = guard(1, 2, 10_000);
+		guard.acquire();
+
+		ShardGuard.Lease lease;
+		try (ShardGuard.Priority ignored = ShardGuard.prioritize()) {
+			lease = guard.acquire();
+		}
+
+		assertThat(lease.permit()).isFalse();
+		assertThat(guard.getPriorityConnections()).isEqualTo(1);
+		guard.release(lease);
+		assertThat(guard.getInUse()).isEqualTo(1);
+		// The scope is closed, so ordinary work is rejected again
+		assertThatThrownBy(guard::acquire).isInstanceOf(ShardUnavailableException.class);
+	}
+
+	@Test
+	void priorityWorkIsStillRefusedByAnOpenBreaker() {
+		ShardGuard guard = guard(1, 1, 10_000);
+		guard.recordConnectionFailure();
+
+		try (ShardGuard.Priority ignored = ShardGuard.prioritize()) {
+			assertThatThrownBy(guard::acquire).isInstanceOf(ShardUnavailableException.class);
+		}
+		assertThat(guard.getBreakerRejections()).isEqualTo(1);
+	}
+
+	@Test
+	void slowSuccessesAreCountedButDoNotOpenTheBreaker() {
+		ShardGuard guard = guard(1, 1, 10_000);
+
+		guard.recordSuccess(SLOW, false);
+		guard.recordSuccess(SLOW, false);
+
+		assertThat(guard.getState()).isEqualTo(ShardGuard.State.CLOSED);
+		assertThat(guard.getSlowCalls()).isEqualTo(2);
+		assertThat(guard.getFailures()).isZero();
+	}
+
+	@Test
+	void statementErrorsDoNotOpenTheBreaker() {
+		ShardGuard guard = guard(1, 1, 10_000);
+
+		guard.recordError(new SQLIntegrityConstraintViolationException("duplicate"), 0, false);
+
+		assertThat(guard.getState()).isEqualTo(ShardGuard.State.CLOSED);
+	}
+
+	@Test
+	void consecutiveShardFailuresOpenTheBreaker() {
+		ShardGuard guard = guard(1, 2, 10_000);
+
+		guard.recordError(new SQLTransientConnectionException("gone"), 0, false);
+		guard.recordSuccess(0, false);
+		guard.recordError(new SQLTransientConnectionException("gone"), 0, false);
+		assertThat(guard.getState()).isEqualTo(ShardGuard.State.CLOSED);
+
+		guard.recordError(new SQLTransientConnectionException("gone"), 0, false);
+
+		assertThat(guard.getState()).isEqualTo(ShardGuard.State.OPEN);
+		assertThat(guard.getTimesOpened()).isEqualTo(1);
+		assertThatThrownBy(guard::acquire).isInstanceOf(ShardUnavailableException.class);
+	}
+
+	@Test
+	void halfOpenLetsOneProbeThrough() {
+		ShardGuard guard = guard(2, 1, 0);
+		guard.recordConnectionFailure();
+
+		ShardGuard.Lease probe = guard.acquire();
+
+		assertThat(probe.probe()).isTrue();
+		assertThat(guard.getState()).isEqualTo(ShardGuard.State.HALF_OPEN);
+		assertThatThrownBy(guard::acquire).isInstanceOf(ShardUnavailableException.class);
+
+		// A probe closed without running a statement lets the next connection probe instead
+		guard.release(probe);
+		assertThat(guard.acquire().probe()).isTrue();
+	}
+
+	@Test
+	void halfOpenClosesOnlyOnTheProbesSuccess() {
+		ShardGuard guard = guard(2, 1, 0);
+		guard.recordConnectionFailure();
+		guard.acquire();
+
+		// A connection opened before the breaker tripped
+		guard.recordSuccess(0, false);
+		assertThat(guard.getState()).isEqualTo(ShardGuard.State.HALF_OPEN);
+
+		guard.recordSuccess(0, true);
+		assertThat(guard.getState()).isEqualTo(ShardGuard.State.CLOSED);
+	}
+
+	@Test
+	void failedProbeReopensTheBreaker() {
+		ShardGuard guard = guard(2, 1, 0);
+		guard.recordConnectionFailure();
+		guard.acquire();
+
+		guard.recordError(new SQLTransientConnectionException("still gone"), 0, true);
+
+		assertThat(guard.getState()).isEqualTo(ShardGuard.State.OPEN);
+		assertThat(guard.getTimesOpened()).isEqualTo(2);
+	}
+
+	private static ShardGuard guard(int maxConcurrent, int failureThreshold, long openMs) {
+		ShardGuard.configure(new ShardGuard.Settings(maxConcurrent, 10, failureThreshold, openMs, 5_000));
+		return ShardGuard.forShard("shard-guard-test");
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pre-rebuild column types, as left by db/migration
+class ShardSchemaRebuildServiceTests {
+
+	private final DriverManagerDataSource dataSource =
+			new DriverManagerDataSource("jdbc:h2:mem:schema-rebuild;MODE=MySQL;DB_CLOSE_DELAY=-1");
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+	private final ShardSchemaRebuildService rebuildService = new ShardSchemaRebuildService();
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("CREATE TABLE `transaction` (id BIGINT PRIMARY KEY, amount DECIMAL(38, 2) NOT NULL)");
+		jdbcTemplate.execute("CREATE TABLE wallet (id BIGINT PRIMARY KEY, balance DECIMAL(38, 2) NOT NULL)");
+		jdbcTemplate.execute("CREATE TABLE saga_step (id BIGINT PRIMARY KEY, step_name VARCHAR(255) NOT NULL)");
+		jdbcTemplate.execute("CREATE TABLE saga_instance (id BIGINT PRIMARY KEY, current_step VARCHAR(255))");
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void valuesThatFitPass() {
+		jdbcTemplate.update("INSERT INTO `transaction` VALUES (1, 99999999999999999.99), (2, -99999999999999999.99)");
+		jdbcTemplate.update("INSERT INTO wallet VALUES (1, 0.00)");
+		jdbcTemplate.update("INSERT INTO saga_step VALUES (1, ?)", "x".repeat(64));
+		jdbcTemplate.update("INSERT INTO saga_instance VALUES (1, NULL)");
+
+		assertThat(rebuildService.checkValues("shard", dataSource)).isEmpty();
+	}
+
+	@Test
+	void valuesBeyondTheNarrowedColumnsAreReported() {
+		jdbcTemplate.update("INSERT INTO `transaction` VALUES (1, 100000000000000000.00), (2, -100000000000000000.00)");
+		jdbcTemplate.update("INSERT INTO wallet VALUES (1, 123456789012345678.00)");
+		jdbcTemplate.update("INSERT INTO saga_step VALUES (1, ?)", "x".repeat(65));
+		jdbcTemplate.update("INSERT INTO saga_instance VALUES (1, ?)", "x".repeat(65));
+
+		assertThat(rebuildService.checkValues("shard", dataSource)).containsExactlyInAnyOrder(
+				"shard: 2 rows with transaction.amount beyond DECIMAL(19,2)",
+				"shard: 1 rows with wallet.balance beyond DECIMAL(19,2)",
+				"shard: 1 rows with saga_step.step_name longer than 64",
+				"shard: 1 rows with saga_instance.current_step longer than 64");
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementInstrumentationTests {
+
+	private static final String SHARD = "instrumentation-test";
+
+	private Connection connection;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		connection = DriverManager.getConnection(
+				"jdbc:h2:mem:instrumentation;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS wallet");
+			statement.execute("CREATE TABLE wallet (id BIGINT PRIMARY KEY, user_id BIGINT, balance DECIMAL(19, 2))");
+			statement.execute("INSERT INTO wallet VALUES (9100001, 9200001, 10.00), (9100002, 9200002, 20.00), "
+					+ "(9100003, 9200003, 30.00), (9100004, 9200004, 40.00)");
+		}
+	}
+
+	@AfterEach
+	void tearDown() throws SQLException {
+		connection.close();
+		ShardMetrics.configure(60_000, 10_000);
+	}
+
+	@Test
+	void statementsAreCountedPerShardTableAndOperation() throws SQLException {
+		Map<ShardMetrics.StatementKey, ShardMetrics.StatementSnapshot> before = ShardMetrics.statementSnapshot();
+
+		try (Connection wrapped = wrap();
+			 PreparedStatement update = wrapped.prepareStatement("UPDATE wallet SET balance = balance + ? WHERE id = ?");
+			 PreparedStatement select = wrapped.prepareStatement("SELECT id FROM wallet WHERE balance > ?")) {
+			update.setBigDecimal(1, BigDecimal.ONE);
+			update.setLong(2, 9100001L);
+			assertThat(update.executeUpdate()).isEqualTo(1);
+
+			select.setInt(1, 0);
+			try (ResultSet rows = select.executeQuery()) {
+				while (rows.next()) {
+					// Rows are counted as they are read
+				}
+			}
+		}
+
+		ShardMetrics.StatementSnapshot updates = delta(before, "wallet", "UPDATE");
+		assertThat(updates.statements()).isEqualTo(1);
+		assertThat(updates.rows()).isEqualTo(1);
+		assertThat(updates.errors()).isZero();
+		ShardMetrics.StatementSnapshot selects = delta(before, "wallet", "SELECT");
+		assertThat(selects.statements()).isEqualTo(1);
+		assertThat(selects.rows()).isEqualTo(4);
+	}
+
+	@Test
+	void failedStatementsAreCountedAsErrors() throws SQLException {
+		Map<ShardMetrics.StatementKey, ShardMetrics.StatementSnapshot> before = ShardMetrics.statementSnapshot();
+
+		try (Connection wrapped = wrap();
+			 Statement statement = wrapped.createStatement()) {
+			assertThatThrownBy(() -> statement.executeUpdate("DELETE FROM wallet WHERE missing_column = 1"))
+					.isInstanceOf(SQLException.class);
+		}
+
+		ShardMetrics.StatementSnapshot deletes = delta(before, "wallet", "DELETE");
+		assertThat(deletes.statements()).isEqualTo(1);
+		assertThat(deletes.errors()).isEqualTo(1);
+		assertThat(deletes.lockFailures()).isZero();
+	}
+
+	@Test
+	void writtenKeysAreRankedOnceTheirWindowCloses() throws Exception {
+		ShardMetrics.configure(500, 100);
+		// Let any window opened by earlier tests run out, so the writes below start a fresh one
+		Thread.sleep(600);
+
+		try (Connection wrapped = wrap();
+			 PreparedStatement update = wrapped.prepareStatement(
+					 "UPDATE wallet SET balance = balance + ? WHERE id = ? AND user_id = ?")) {
+			write(update, 9100003L, 9200003L);
+			write(update, 9100003L, 9200003L);
+			write(update, 9100004L, 9200004L);
+		}
+
+		assertThat(ShardMetrics.topWrites(ShardMetrics.KeyKind.WALLET, 100))
+				.as("the window with the writes is still open")
+				.noneMatch(entry -> entry.getKey() == 9100003L);
+
+		Thread.sleep(600);
+
+		assertThat(ShardMetrics.topWrites(ShardMetrics.KeyKind.WALLET, 100))
+				.contains(Map.entry(9100003L, 2L), Map.entry(9100004L, 1L));
+		assertThat(ShardMetrics.topWrites(ShardMetrics.KeyKind.USER, 100))
+				.contains(Map.entry(9200003L, 2L), Map.entry(9200004L, 1L));
+	}
+
+	private Connection wrap() {
+		ShardGuard guard = ShardGuard.forShard(SHARD);
+		return StatementInstrumentation.wrap(connection, SHARD, guard, guard.acquire());
+	}
+
+	private static void write(PreparedStatement update, long walletId, long userId) throws SQLException {
+		update.setBigDecimal(1, BigDecimal.ONE);
+		update.setLong(2, walletId);
+		update.setLong(3, userId);
+		update.executeUpdate();
+	}
+
+	private static ShardMetrics.StatementSnapshot delta(Map<ShardMetrics.StatementKey, ShardMetrics.StatementSnapshot> before,
+														String table, String operation) {
+		ShardMetrics.StatementKey key = new ShardMetrics.StatementKey(SHARD, table, operation);
+		ShardMetrics.StatementSnapshot after = ShardMetrics.statementSnapshot().get(key);
+		ShardMetrics.StatementSnapshot start = before.getOrDefault(key,
+				new ShardMetrics.StatementSnapshot(0, 0, 0, 0, 0, 0));
+		assertThat(after).as("counters for %s %s", table, operation).isNotNull();
+		return new ShardMetrics.StatementSnapshot(after.statements() - start.statements(),
+				after.rows() - start.rows(), after.errors() - start.errors(),
+				after.lockFailures() - start.lockFailures(), after.totalNanos() - start.totalNanos(),
+				after.maxNanos());
+	}
+
+}
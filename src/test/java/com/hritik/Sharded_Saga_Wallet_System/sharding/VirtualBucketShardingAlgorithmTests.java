@@ -0,0 +1,79 @@
+package com.hritik.Sharded_Saga_Wallet_System.sharding;
+
+import com.google.common.collect.Range;
+import org.apache.shardingsphere.sharding.api.sharding.standard.PreciseShardingValue;
+import org.apache.shardingsphere.sharding.api.sharding.standard.RangeShardingValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Relies on the default even/odd layout in bucket-layout.properties
+class VirtualBucketShardingAlgorithmTests {
+
+	private static final List<String> DATA_SOURCES = List.of("shardwallet1", "shardwallet2");
+
+	private final VirtualBucketShardingAlgorithm algorithm = new VirtualBucketShardingAlgorithm();
+
+	VirtualBucketShardingAlgorithmTests() {
+		algorithm.init(new Properties());
+	}
+
+	@Test
+	void routesKeysByTheirBucket() {
+		assertThat(algorithm.doSharding(DATA_SOURCES, precise(10L))).isEqualTo("shardwallet1");
+		assertThat(algorithm.doSharding(DATA_SOURCES, precise(11L))).isEqualTo("shardwallet2");
+		assertThat(algorithm.doSharding(DATA_SOURCES, precise(1024L + 11))).isEqualTo("shardwallet2");
+		assertThat(algorithm.doSharding(DATA_SOURCES, precise("12"))).isEqualTo("shardwallet1");
+	}
+
+	@Test
+	void negativeKeysUseTheFloorModBucket() {
+		// floorMod(-3, 1024) = 1021
+		assertThat(algorithm.doSharding(DATA_SOURCES, precise(-3L))).isEqualTo("shardwallet2");
+	}
+
+	@Test
+	void rejectsDataSourcesShardingSphereDoesNotKnow() {
+		assertThatThrownBy(() -> algorithm.doSharding(List.of("shardwallet1"), precise(11L)))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("shardwallet2");
+	}
+
+	@Test
+	void narrowRangeOnlyTouchesTheDataSourcesOfItsKeys() {
+		assertThat(algorithm.doSharding(DATA_SOURCES, range(Range.closed(10L, 10L))))
+				.containsExactly("shardwallet1");
+		assertThat(algorithm.doSharding(DATA_SOURCES, range(Range.closed(10L, 11L))))
+				.containsExactlyInAnyOrder("shardwallet1", "shardwallet2");
+	}
+
+	@Test
+	void wideOrOpenRangeTouchesEveryDataSource() {
+		assertThat(algorithm.doSharding(DATA_SOURCES, range(Range.closed(0L, 5000L))))
+				.containsExactlyInAnyOrderElementsOf(DATA_SOURCES);
+		assertThat(algorithm.doSharding(DATA_SOURCES, range(Range.atLeast(10L))))
+				.containsExactlyInAnyOrderElementsOf(DATA_SOURCES);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static PreciseShardingValue<Comparable<?>> precise(Comparable<?> value) {
+		PreciseShardingValue<Comparable<?>> shardingValue = mock(PreciseShardingValue.class);
+		when(shardingValue.getValue()).thenReturn(value);
+		when(shardingValue.getColumnName()).thenReturn("id");
+		return shardingValue;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static RangeShardingValue<Comparable<?>> range(Range<Long> valueRange) {
+		RangeShardingValue<Comparable<?>> shardingValue = mock(RangeShardingValue.class);
+		when(shardingValue.getValueRange()).thenReturn((Range) valueRange);
+		return shardingValue;
+	}
+
+}
@@ -0,0 +1,114 @@
+-- H2 (MySQL mode) version of the schema produced by src/main/resources/db/migration followed
+-- by src/main/resources/db/rebuild. Keep in step with new migrations. JSON columns are CLOB because H2 would store a bound
+-- string as a JSON string literal rather than parse it.
+
+CREATE TABLE IF NOT EXISTS `user` (
+    id         BIGINT       NOT NULL,
+    name       VARCHAR(255),
+    email      VARCHAR(320),
+    updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    INDEX idx_user_updated (updated_at)
+);
+
+CREATE TABLE IF NOT EXISTS user_email_index (
+    id         BIGINT       NOT NULL,
+    email_hash BIGINT       NOT NULL,
+    email      VARCHAR(320) NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_email_index_email UNIQUE (email),
+    INDEX idx_user_email_index_hash (email_hash)
+);
+
+CREATE TABLE IF NOT EXISTS wallet (
+    id         BIGINT         NOT NULL,
+    user_id    BIGINT         NOT NULL,
+    is_active  BOOLEAN        NOT NULL,
+    balance    DECIMAL(19, 2) NOT NULL,
+    updated_at TIMESTAMP(6)   NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    INDEX idx_wallet_user (user_id, is_active),
+    INDEX idx_wallet_updated (updated_at)
+);
+
+CREATE TABLE IF NOT EXISTS `transaction` (
+    id               BIGINT         NOT NULL,
+    from_wallet_id   BIGINT         NOT NULL,
+    to_wallet_id     BIGINT         NOT NULL,
+    amount           DECIMAL(19, 2) NOT NULL,
+    status           VARCHAR(32)    NOT NULL,
+    transaction_type VARCHAR(32)    NOT NULL,
+    description      VARCHAR(255),
+    saga_instance_id BIGINT,
+    created_at       DATETIME(6)    NOT NULL,
+    updated_at       DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_transaction_status_created (status, created_at, id),
+    INDEX idx_transaction_updated (updated_at),
+    INDEX idx_transaction_saga_instance (saga_instance_id)
+);
+
+CREATE TABLE IF NOT EXISTS saga_instance (
+    id           BIGINT       NOT NULL,
+    status       VARCHAR(32)  NOT NULL,
+    context      CLOB,
+    current_step VARCHAR(64),
+    updated_at   TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    INDEX idx_saga_instance_updated (updated_at)
+);
+
+CREATE TABLE IF NOT EXISTS saga_step (
+    id               BIGINT       NOT NULL,
+    saga_instance_id BIGINT       NOT NULL,
+    step_name        VARCHAR(64)  NOT NULL,
+    status           TINYINT      NOT NULL,
+    error_message    CLOB,
+    step_data        CLOB,
+    updated_at       TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    INDEX idx_saga_step_instance_name_status (saga_instance_id, step_name, status),
+    INDEX idx_saga_step_updated (updated_at)
+);
+
+CREATE TABLE IF NOT EXISTS wallet_transaction_index (
+    id                     BIGINT         NOT NULL,
+    user_id                BIGINT         NOT NULL,
+    wallet_id              BIGINT         NOT NULL,
+    transaction_id         BIGINT         NOT NULL,
+    side                   VARCHAR(32)    NOT NULL,
+    counterparty_wallet_id BIGINT         NOT NULL,
+    amount                 DECIMAL(19, 2) NOT NULL,
+    created_at             DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_transaction_index_entry UNIQUE (wallet_id, transaction_id),
+    INDEX idx_wallet_transaction_index_created (wallet_id, created_at, transaction_id),
+    INDEX idx_wallet_transaction_index_created_at (created_at)
+);
+
+CREATE TABLE IF NOT EXISTS wallet_daily_rollup (
+    id           BIGINT         NOT NULL,
+    wallet_id    BIGINT         NOT NULL,
+    rollup_date  DATE           NOT NULL,
+    total_in     DECIMAL(19, 2) NOT NULL,
+    total_out    DECIMAL(19, 2) NOT NULL,
+    credit_count BIGINT         NOT NULL,
+    debit_count  BIGINT         NOT NULL,
+    updated_at   TIMESTAMP(6)   NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_daily_rollup_day UNIQUE (wallet_id, rollup_date),
+    INDEX idx_wallet_daily_rollup_updated (updated_at),
+    INDEX idx_wallet_daily_rollup_date (rollup_date)
+);
+
+CREATE TABLE IF NOT EXISTS wallet_mailbox_receipt (
+    id         BIGINT         NOT NULL,
+    user_id    BIGINT         NOT NULL,
+    wallet_id  BIGINT         NOT NULL,
+    delta      DECIMAL(19, 2) NOT NULL,
+    created_at DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_wallet_mailbox_receipt_created (created_at)
+);